@@ -3,9 +3,11 @@ package org.example;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
 @EnableJpaAuditing  // Enable auditing for @CreatedDate and @LastModifiedDate
+@EnableScheduling   // Background jobs (task cleanup, stats rollups)
 public class RoseApplication {
     public static void main(String[] args) {
         SpringApplication.run(RoseApplication.class, args);
@@ -0,0 +1,96 @@
+package org.example.config;
+
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Resolved policy of every cache, shared by the Redis and the in-process tiers.
+ * Policies are validated once at startup so a bad property fails the boot instead of a request.
+ */
+@Component
+public class CachePolicyRegistry {
+
+    public record CachePolicy(String name, Duration ttl, int localMaxEntries, Duration localTtl,
+                              CacheProperties.Serializer serializer, int compressThreshold, boolean migration,
+                              boolean cacheNulls, double refreshAhead) {
+
+        public boolean isNear() {
+            return localMaxEntries > 0;
+        }
+    }
+
+    private final CachePolicy defaults;
+    private final Map<String, CachePolicy> policies;
+
+    public CachePolicyRegistry(CacheProperties properties) {
+        // Partially overridden defaults still fall back to the built-in ones
+        CacheProperties.Policy configuredDefaults = merge(properties.getDefaults(), CacheProperties.Policy.defaults());
+        this.defaults = resolve("default", configuredDefaults, configuredDefaults);
+
+        Map<String, CachePolicy> resolved = new LinkedHashMap<>();
+        properties.getPolicies().forEach((name, policy) ->
+                resolved.put(name, resolve(name, policy, configuredDefaults)));
+        this.policies = Collections.unmodifiableMap(resolved);
+    }
+
+    /**
+     * Policy of a cache, the defaults when it has none of its own
+     */
+    public CachePolicy get(String name) {
+        CachePolicy policy = policies.get(name);
+        if (policy != null) {
+            return policy;
+        }
+        return new CachePolicy(name, defaults.ttl(), defaults.localMaxEntries(), defaults.localTtl(),
+                defaults.serializer(), defaults.compressThreshold(), defaults.migration(),
+                defaults.cacheNulls(), defaults.refreshAhead());
+    }
+
+    public CachePolicy getDefaults() {
+        return defaults;
+    }
+
+    /**
+     * Caches with explicitly configured policies
+     */
+    public Map<String, CachePolicy> getConfigured() {
+        return policies;
+    }
+
+    private static CacheProperties.Policy merge(CacheProperties.Policy policy, CacheProperties.Policy fallback) {
+        CacheProperties.Policy merged = new CacheProperties.Policy();
+        merged.setTtl(Objects.requireNonNullElse(policy.getTtl(), fallback.getTtl()));
+        merged.setLocalMaxEntries(Objects.requireNonNullElse(policy.getLocalMaxEntries(), fallback.getLocalMaxEntries()));
+        merged.setLocalTtl(Objects.requireNonNullElse(policy.getLocalTtl(), fallback.getLocalTtl()));
+        merged.setSerializer(Objects.requireNonNullElse(policy.getSerializer(), fallback.getSerializer()));
+        merged.setCompressThreshold(Objects.requireNonNullElse(policy.getCompressThreshold(), fallback.getCompressThreshold()));
+        merged.setMigration(Objects.requireNonNullElse(policy.getMigration(), fallback.getMigration()));
+        merged.setCacheNulls(Objects.requireNonNullElse(policy.getCacheNulls(), fallback.getCacheNulls()));
+        merged.setRefreshAhead(Objects.requireNonNullElse(policy.getRefreshAhead(), fallback.getRefreshAhead()));
+        return merged;
+    }
+
+    private static CachePolicy resolve(String name, CacheProperties.Policy policy, CacheProperties.Policy fallback) {
+        CacheProperties.Policy merged = merge(policy, fallback);
+        if (merged.getTtl().isNegative() || merged.getTtl().isZero()) {
+            throw new IllegalStateException("Cache " + name + ": ttl must be positive");
+        }
+        if (merged.getLocalMaxEntries() < 0) {
+            throw new IllegalStateException("Cache " + name + ": local-max-entries must not be negative");
+        }
+        if (merged.getLocalTtl().isNegative() || merged.getLocalTtl().isZero()) {
+            throw new IllegalStateException("Cache " + name + ": local-ttl must be positive");
+        }
+        if (merged.getRefreshAhead() < 0 || merged.getRefreshAhead() >= 1) {
+            throw new IllegalStateException("Cache " + name + ": refresh-ahead must be in [0, 1)");
+        }
+        return new CachePolicy(name, merged.getTtl(), merged.getLocalMaxEntries(), merged.getLocalTtl(),
+                merged.getSerializer(), merged.getCompressThreshold(), merged.getMigration(),
+                merged.getCacheNulls(), merged.getRefreshAhead());
+    }
+}
@@ -0,0 +1,99 @@
+package org.example.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Cache policies from {@code cache.defaults.*} and {@code cache.policies.<name>.*}.
+ * Unset per-cache values fall back to the defaults, see {@link CachePolicyRegistry}.
+ * Hibernate second-level cache regions are configured the same way under
+ * {@code cache.entity-region-defaults.*} and {@code cache.entity-regions.<region>.*}.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "cache")
+public class CacheProperties {
+
+    private Policy defaults = Policy.defaults();
+    private Map<String, Policy> policies = new LinkedHashMap<>();
+    private Stampede stampede = new Stampede();
+    private EntityRegion entityRegionDefaults = EntityRegion.defaults();
+    private Map<String, EntityRegion> entityRegions = new LinkedHashMap<>();
+
+    public enum Serializer {
+        JSON,
+        /** {@link CompactBinaryRedisSerializer} */
+        BINARY
+    }
+
+    /**
+     * Loading of missing and refresh-ahead entries, see {@link StampedeProtectedCache}
+     */
+    @Data
+    public static class Stampede {
+        /** Expiry of the cross-node loading lock, so a crashed loader never blocks a key for long */
+        private Duration lockTtl = Duration.ofSeconds(30);
+        /**
+         * How long a request thread waits for another node's load before loading itself; kept short,
+         * a slow load elsewhere should cost a duplicate load rather than a blocked request
+         */
+        private Duration lockWait = Duration.ofMillis(300);
+        private Duration pollInterval = Duration.ofMillis(50);
+        private int refreshThreads = 2;
+        private int refreshQueueCapacity = 100;
+    }
+
+    @Data
+    public static class Policy {
+        /** Redis (L2) entry TTL */
+        private Duration ttl;
+        /** L1 size; 0 keeps the cache in Redis only */
+        private Integer localMaxEntries;
+        /** L1 entry TTL, also the bound on staleness when an invalidation message is lost */
+        private Duration localTtl;
+        private Serializer serializer;
+        /** Binary values above this many bytes are deflated; -1 disables compression */
+        private Integer compressThreshold;
+        /** Also read entries written with the other serializer, for switching without a flush */
+        private Boolean migration;
+        private Boolean cacheNulls;
+        /** Share of the TTL after which a hit triggers a background refresh; 0 disables it */
+        private Double refreshAhead;
+
+        static Policy defaults() {
+            Policy policy = new Policy();
+            policy.setTtl(Duration.ofMinutes(30));
+            policy.setLocalMaxEntries(0);
+            policy.setLocalTtl(Duration.ofSeconds(30));
+            policy.setSerializer(Serializer.JSON);
+            policy.setCompressThreshold(1024);
+            policy.setMigration(true);
+            policy.setCacheNulls(false);
+            policy.setRefreshAhead(0.0);
+            return policy;
+        }
+    }
+
+    /**
+     * A Hibernate second-level cache region, see {@link SecondLevelCacheConfig}
+     */
+    @Data
+    public static class EntityRegion {
+        /** Heap entries; beyond them the least recently used entries are evicted */
+        private Integer maxEntries;
+        /** Time to live of an entry; 0 keeps entries until they are evicted or invalidated */
+        private Duration ttl;
+
+        static EntityRegion defaults() {
+            EntityRegion region = new EntityRegion();
+            region.setMaxEntries(10_000);
+            region.setTtl(Duration.ofHours(1));
+            return region;
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package org.example.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code /actuator/cachestats}: effectiveness of every Spring cache used so far, for sizing TTLs
+ * and capacities. The same numbers are published as meters, see {@link InstrumentedCache},
+ * {@link NearCacheManager} and {@link MeteredRedisSerializer}.
+ */
+@Component
+@Endpoint(id = "cachestats")
+public class CacheStatsEndpoint {
+
+    private final InstrumentedCacheManager cacheManager;
+    private final CachePolicyRegistry cachePolicies;
+    private final MeterRegistry meterRegistry;
+
+    public CacheStatsEndpoint(InstrumentedCacheManager cacheManager, CachePolicyRegistry cachePolicies,
+                              MeterRegistry meterRegistry) {
+        this.cacheManager = cacheManager;
+        this.cachePolicies = cachePolicies;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @ReadOperation
+    public Map<String, Object> caches() {
+        Map<String, Object> result = new TreeMap<>();
+        cacheManager.getInstrumentedCaches().forEach((name, cache) -> result.put(name, stats(name, cache)));
+        return result;
+    }
+
+    @ReadOperation
+    public Map<String, Object> cache(@Selector String name) {
+        InstrumentedCache cache = cacheManager.getInstrumentedCaches().get(name);
+        return cache != null ? stats(name, cache) : null;
+    }
+
+    private Map<String, Object> stats(String name, InstrumentedCache cache) {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        long hits = cache.getHits();
+        long misses = cache.getMisses();
+        stats.put("hits", hits);
+        stats.put("misses", misses);
+        stats.put("hitRatio", hits + misses > 0 ? (double) hits / (hits + misses) : 0.0);
+        stats.put("writes", cache.getWrites());
+        stats.put("evictions", cache.getEvictions());
+        stats.put("clears", cache.getClears());
+        stats.put("lookupMs", timing(cache.getLookupTimer()));
+        stats.put("loadMs", timing(cache.getLoadTimer()));
+        stats.put("failedLoads", cache.getFailedLoads());
+
+        StampedeProtectedCache stampedeProtected = InstrumentedCacheManager.unwrap(cache, StampedeProtectedCache.class);
+        if (stampedeProtected != null) {
+            Map<String, Object> loading = new LinkedHashMap<>();
+            loading.put("loads", stampedeProtected.getLoads());
+            loading.put("sharedLoads", stampedeProtected.getSharedLoads());
+            loading.put("refreshes", stampedeProtected.getRefreshes());
+            stats.put("loading", loading);
+            stats.put("redis", redis(name));
+            stats.put("policy", policy(name));
+        }
+
+        NearCache near = InstrumentedCacheManager.unwrap(cache, NearCache.class);
+        if (near != null) {
+            Map<String, Object> local = new LinkedHashMap<>();
+            local.put("l1Hits", near.getL1Hits());
+            local.put("l2Hits", near.getL2Hits());
+            local.put("misses", near.getMisses());
+            local.put("l1Entries", near.getL1Size());
+            local.put("l1HitRatio", near.getL1HitRatio());
+            stats.put("near", local);
+        }
+        return stats;
+    }
+
+    private Map<String, Object> redis(String name) {
+        // Caches without a policy of their own share the serializer of the defaults
+        String serializerName = cachePolicies.getConfigured().containsKey(name) ? name : cachePolicies.getDefaults().name();
+        Map<String, Object> redis = new LinkedHashMap<>();
+        redis.put("entries", cacheManager.getRedisEntries(name));
+        redis.put("bytesWritten", bytes(serializerName, "write"));
+        redis.put("bytesRead", bytes(serializerName, "read"));
+        return redis;
+    }
+
+    private Map<String, Object> policy(String name) {
+        CachePolicyRegistry.CachePolicy policy = cachePolicies.get(name);
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("ttl", policy.ttl().toString());
+        result.put("localMaxEntries", policy.localMaxEntries());
+        result.put("localTtl", policy.localTtl().toString());
+        result.put("serializer", policy.serializer());
+        result.put("refreshAhead", policy.refreshAhead());
+        return result;
+    }
+
+    private Map<String, Object> bytes(String cacheName, String direction) {
+        DistributionSummary summary = meterRegistry.find("cache.value.bytes")
+                .tag("cache", cacheName).tag("direction", direction).summary();
+        if (summary == null) {
+            return Map.of();
+        }
+        HistogramSnapshot snapshot = summary.takeSnapshot();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("count", snapshot.count());
+        result.put("total", (long) snapshot.total());
+        result.put("mean", Math.round(snapshot.mean()));
+        result.put("max", Math.round(snapshot.max()));
+        for (ValueAtPercentile percentile : snapshot.percentileValues()) {
+            result.put(percentileName(percentile), Math.round(percentile.value()));
+        }
+        return result;
+    }
+
+    private static Map<String, Object> timing(Timer timer) {
+        HistogramSnapshot snapshot = timer.takeSnapshot();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("count", snapshot.count());
+        result.put("mean", round(snapshot.mean(TimeUnit.MILLISECONDS)));
+        result.put("max", round(snapshot.max(TimeUnit.MILLISECONDS)));
+        for (ValueAtPercentile percentile : snapshot.percentileValues()) {
+            result.put(percentileName(percentile), round(percentile.value(TimeUnit.MILLISECONDS)));
+        }
+        return result;
+    }
+
+    private static String percentileName(ValueAtPercentile percentile) {
+        return "p" + Math.round(percentile.percentile() * 100);
+    }
+
+    private static double round(double millis) {
+        return Math.round(millis * 1000) / 1000.0;
+    }
+}
@@ -0,0 +1,428 @@
+package org.example.config;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.springframework.cache.support.NullValue;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Compact binary form of cache values.
+ * <p>
+ * The value is turned into a Jackson tree and written with one-byte type tags, varint lengths and
+ * numbers, and a per-value table of field names, so repeated objects in a list pay for each name
+ * once. Class names are written once for the root value (plus the element class of a homogeneous
+ * collection) instead of on every object; nested types come from the declared types of the root
+ * class. Bodies above the compression threshold are deflated.
+ * <p>
+ * Layout: {@code MAGIC VERSION flags type elementType body}, where flags bit 0 marks a compressed body.
+ * The magic bytes can never start a JSON document, see {@link #isBinary(byte[])}.
+ */
+public class CompactBinaryRedisSerializer implements RedisSerializer<Object> {
+
+    private static final byte MAGIC = (byte) 0xCB;
+    private static final byte VERSION = 1;
+    private static final int FLAG_COMPRESSED = 1;
+    private static final int BUFFER_SIZE = 4096;
+
+    /** Only classes of the application and the JDK are instantiated from cached type names */
+    private static final List<String> ALLOWED_PACKAGES = List.of("org.example.", "java.");
+
+    private static final int TAG_NULL = 0;
+    private static final int TAG_TRUE = 1;
+    private static final int TAG_FALSE = 2;
+    private static final int TAG_INT = 3;
+    private static final int TAG_LONG = 4;
+    private static final int TAG_DOUBLE = 5;
+    private static final int TAG_STRING = 6;
+    private static final int TAG_ARRAY = 7;
+    private static final int TAG_OBJECT = 8;
+    private static final int TAG_BINARY = 9;
+    private static final int TAG_BIG_INTEGER = 10;
+    private static final int TAG_BIG_DECIMAL = 11;
+
+    private final ObjectMapper objectMapper;
+    private final int compressThreshold;
+
+    /**
+     * @param compressThreshold body size in bytes above which it is deflated; negative disables compression
+     */
+    public CompactBinaryRedisSerializer(ObjectMapper objectMapper, int compressThreshold) {
+        this.objectMapper = objectMapper;
+        this.compressThreshold = compressThreshold;
+    }
+
+    public static boolean isBinary(byte[] bytes) {
+        return bytes != null && bytes.length >= 2 && bytes[0] == MAGIC && bytes[1] == VERSION;
+    }
+
+    // ==================== SERIALIZE ====================
+
+    @Override
+    public byte[] serialize(Object value) throws SerializationException {
+        if (value == null) {
+            return null;
+        }
+        try {
+            // Cached nulls are written as a null body without a type
+            boolean cachedNull = value instanceof NullValue;
+            Output body = new Output();
+            body.writeNode(cachedNull ? JsonNodeFactory.instance.nullNode() : objectMapper.valueToTree(value));
+            byte[] bodyBytes = body.toByteArray();
+
+            boolean compress = compressThreshold >= 0 && bodyBytes.length > compressThreshold;
+            if (compress) {
+                bodyBytes = deflate(bodyBytes);
+            }
+
+            Output out = new Output();
+            out.write(MAGIC);
+            out.write(VERSION);
+            out.write(compress ? FLAG_COMPRESSED : 0);
+            out.writeString(cachedNull ? "" : value.getClass().getName());
+            out.writeString(elementType(value));
+            out.write(bodyBytes, 0, bodyBytes.length);
+            return out.toByteArray();
+        } catch (IllegalArgumentException e) {
+            throw new SerializationException("Could not write binary cache value: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Class of the elements of a collection whose non-null elements all share one class, otherwise ""
+     */
+    private static String elementType(Object value) {
+        if (!(value instanceof Collection<?> collection)) {
+            return "";
+        }
+        Class<?> elementClass = null;
+        for (Object element : collection) {
+            if (element == null) {
+                continue;
+            }
+            if (elementClass == null) {
+                elementClass = element.getClass();
+            } else if (elementClass != element.getClass()) {
+                return "";
+            }
+        }
+        return elementClass != null ? elementClass.getName() : "";
+    }
+
+    // ==================== DESERIALIZE ====================
+
+    @Override
+    public Object deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+        if (!isBinary(bytes)) {
+            throw new SerializationException("Not a binary cache value");
+        }
+        try {
+            Input header = new Input(bytes, 2);
+            int flags = header.read();
+            String typeName = header.readString();
+            String elementTypeName = header.readString();
+            if (typeName.isEmpty()) {
+                return NullValue.INSTANCE;
+            }
+            Class<?> type = loadClass(typeName);
+
+            byte[] body = Arrays.copyOfRange(bytes, header.position, bytes.length);
+            if ((flags & FLAG_COMPRESSED) != 0) {
+                body = inflate(body);
+            }
+            JsonNode tree = new Input(body, 0).readNode();
+
+            JavaType javaType;
+            if (!elementTypeName.isEmpty() && Collection.class.isAssignableFrom(type)) {
+                @SuppressWarnings("unchecked")
+                Class<? extends Collection<?>> collectionType = (Class<? extends Collection<?>>) type;
+                javaType = objectMapper.getTypeFactory()
+                        .constructCollectionType(collectionType, loadClass(elementTypeName));
+            } else {
+                javaType = objectMapper.getTypeFactory().constructType(type);
+            }
+            return objectMapper.treeToValue(tree, javaType);
+        } catch (SerializationException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new SerializationException("Could not read binary cache value: " + e.getMessage(), e);
+        }
+    }
+
+    private static Class<?> loadClass(String name) throws ClassNotFoundException {
+        if (ALLOWED_PACKAGES.stream().noneMatch(name::startsWith)) {
+            throw new SerializationException("Type not allowed in cache: " + name);
+        }
+        return Class.forName(name, false, CompactBinaryRedisSerializer.class.getClassLoader());
+    }
+
+    // ==================== COMPRESSION ====================
+
+    private static byte[] deflate(byte[] bytes) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(bytes);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length / 2);
+            byte[] buffer = new byte[BUFFER_SIZE];
+            while (!deflater.finished()) {
+                out.write(buffer, 0, deflater.deflate(buffer));
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static byte[] inflate(byte[] bytes) throws DataFormatException {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(bytes);
+            ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length * 3);
+            byte[] buffer = new byte[BUFFER_SIZE];
+            while (!inflater.finished()) {
+                int length = inflater.inflate(buffer);
+                if (length == 0 && !inflater.finished() && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new DataFormatException("Truncated cache value");
+                }
+                out.write(buffer, 0, length);
+            }
+            return out.toByteArray();
+        } finally {
+            inflater.end();
+        }
+    }
+
+    // ==================== ENCODING ====================
+
+    private static final class Output extends ByteArrayOutputStream {
+        private final Map<String, Integer> names = new HashMap<>();
+
+        private void writeNode(JsonNode node) {
+            switch (node.getNodeType()) {
+                case NULL, MISSING -> write(TAG_NULL);
+                case BOOLEAN -> write(node.booleanValue() ? TAG_TRUE : TAG_FALSE);
+                case NUMBER -> writeNumber(node);
+                case STRING -> {
+                    write(TAG_STRING);
+                    writeString(node.textValue());
+                }
+                case BINARY -> {
+                    byte[] bytes = binaryValue(node);
+                    write(TAG_BINARY);
+                    writeVarLong(bytes.length);
+                    write(bytes, 0, bytes.length);
+                }
+                case ARRAY -> {
+                    write(TAG_ARRAY);
+                    writeVarLong(node.size());
+                    for (JsonNode element : node) {
+                        writeNode(element);
+                    }
+                }
+                case OBJECT -> {
+                    write(TAG_OBJECT);
+                    writeVarLong(node.size());
+                    Iterator<Map.Entry<String, JsonNode>> fields = node.fields();
+                    while (fields.hasNext()) {
+                        Map.Entry<String, JsonNode> field = fields.next();
+                        writeName(field.getKey());
+                        writeNode(field.getValue());
+                    }
+                }
+                default -> {
+                    // POJO nodes only appear for values Jackson could not convert into a tree
+                    write(TAG_STRING);
+                    writeString(node.asText());
+                }
+            }
+        }
+
+        private void writeNumber(JsonNode node) {
+            if (node.isInt() || node.isShort()) {
+                write(TAG_INT);
+                writeVarLong(zigZag(node.intValue()));
+            } else if (node.isLong()) {
+                write(TAG_LONG);
+                writeVarLong(zigZag(node.longValue()));
+            } else if (node.isBigInteger()) {
+                write(TAG_BIG_INTEGER);
+                writeString(node.bigIntegerValue().toString());
+            } else if (node.isBigDecimal()) {
+                write(TAG_BIG_DECIMAL);
+                writeString(node.decimalValue().toString());
+            } else {
+                write(TAG_DOUBLE);
+                long bits = Double.doubleToLongBits(node.doubleValue());
+                for (int shift = 56; shift >= 0; shift -= 8) {
+                    write((int) (bits >>> shift));
+                }
+            }
+        }
+
+        /**
+         * A name seen before in this value is written as its index, a new one as 0 followed by the text
+         */
+        private void writeName(String name) {
+            Integer index = names.get(name);
+            if (index != null) {
+                writeVarLong(index + 1L);
+                return;
+            }
+            names.put(name, names.size());
+            writeVarLong(0);
+            writeString(name);
+        }
+
+        private void writeString(String value) {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            writeVarLong(bytes.length);
+            write(bytes, 0, bytes.length);
+        }
+
+        private void writeVarLong(long value) {
+            while ((value & ~0x7FL) != 0) {
+                write((int) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            write((int) value);
+        }
+
+        private static long zigZag(long value) {
+            return (value << 1) ^ (value >> 63);
+        }
+
+        private static byte[] binaryValue(JsonNode node) {
+            try {
+                return node.binaryValue();
+            } catch (java.io.IOException e) {
+                throw new IllegalArgumentException(e.getMessage(), e);
+            }
+        }
+    }
+
+    private static final class Input {
+        private final byte[] bytes;
+        private final List<String> names = new ArrayList<>();
+        private int position;
+
+        private Input(byte[] bytes, int position) {
+            this.bytes = bytes;
+            this.position = position;
+        }
+
+        private JsonNode readNode() {
+            JsonNodeFactory nodes = JsonNodeFactory.instance;
+            int tag = read();
+            return switch (tag) {
+                case TAG_NULL -> nodes.nullNode();
+                case TAG_TRUE -> nodes.booleanNode(true);
+                case TAG_FALSE -> nodes.booleanNode(false);
+                case TAG_INT -> nodes.numberNode((int) unZigZag(readVarLong()));
+                case TAG_LONG -> nodes.numberNode(unZigZag(readVarLong()));
+                case TAG_DOUBLE -> {
+                    long bits = 0;
+                    for (int i = 0; i < 8; i++) {
+                        bits = (bits << 8) | read();
+                    }
+                    yield nodes.numberNode(Double.longBitsToDouble(bits));
+                }
+                case TAG_STRING -> nodes.textNode(readString());
+                case TAG_BINARY -> nodes.binaryNode(readBytes(readLength()));
+                case TAG_BIG_INTEGER -> nodes.numberNode(new BigInteger(readString()));
+                case TAG_BIG_DECIMAL -> nodes.numberNode(new BigDecimal(readString()));
+                case TAG_ARRAY -> {
+                    int size = readLength();
+                    ArrayNode array = nodes.arrayNode(size);
+                    for (int i = 0; i < size; i++) {
+                        array.add(readNode());
+                    }
+                    yield array;
+                }
+                case TAG_OBJECT -> {
+                    int size = readLength();
+                    ObjectNode object = nodes.objectNode();
+                    for (int i = 0; i < size; i++) {
+                        String name = readName();
+                        object.set(name, readNode());
+                    }
+                    yield object;
+                }
+                default -> throw new IllegalArgumentException("Unknown tag " + tag + " at " + (position - 1));
+            };
+        }
+
+        private String readName() {
+            int index = readLength();
+            if (index == 0) {
+                String name = readString();
+                names.add(name);
+                return name;
+            }
+            if (index > names.size()) {
+                throw new IllegalArgumentException("Unknown field name reference " + index);
+            }
+            return names.get(index - 1);
+        }
+
+        private String readString() {
+            return new String(readBytes(readLength()), StandardCharsets.UTF_8);
+        }
+
+        private byte[] readBytes(int length) {
+            if (length > bytes.length - position) {
+                throw new IllegalArgumentException("Truncated cache value");
+            }
+            byte[] result = Arrays.copyOfRange(bytes, position, position + length);
+            position += length;
+            return result;
+        }
+
+        private int readLength() {
+            long length = readVarLong();
+            if (length < 0 || length > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("Invalid length " + length);
+            }
+            return (int) length;
+        }
+
+        private long readVarLong() {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                int b = read();
+                value |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new IllegalArgumentException("Malformed varint");
+        }
+
+        private int read() {
+            if (position >= bytes.length) {
+                throw new IllegalArgumentException("Truncated cache value");
+            }
+            return bytes[position++] & 0xFF;
+        }
+
+        private static long unZigZag(long value) {
+            return (value >>> 1) ^ -(value & 1);
+        }
+    }
+}
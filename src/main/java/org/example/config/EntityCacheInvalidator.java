@@ -0,0 +1,115 @@
+package org.example.config;
+
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.example.entity.Location;
+import org.hibernate.Cache;
+import org.hibernate.Hibernate;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.persister.collection.CollectionPersister;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Keeps the in-process second-level caches of the nodes in step.
+ * <p>
+ * Hibernate updates the local regions itself; committed changes of cached entities are published
+ * on {@link #CHANNEL} as {@code nodeId|entityName|id}, and the other nodes evict the entity, its
+ * cached collections and the query region built from that entity.
+ */
+@Component
+@Slf4j
+public class EntityCacheInvalidator implements MessageListener {
+
+    public static final String CHANNEL = "entity-cache:evict";
+    private static final String SEPARATOR = "|";
+
+    /** Query regions whose results depend on the entity */
+    private static final Map<String, String> QUERY_REGIONS = Map.of(
+            Location.class.getName(), EntityCacheRegions.LOCATION_QUERIES);
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final StringRedisTemplate redisTemplate;
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private volatile Map<String, List<String>> cachedCollectionRoles;
+
+    public EntityCacheInvalidator(EntityManagerFactory entityManagerFactory,
+                                  StringRedisTemplate redisTemplate,
+                                  RedisMessageListenerContainer listenerContainer) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.redisTemplate = redisTemplate;
+        listenerContainer.addMessageListener(this, new ChannelTopic(CHANNEL));
+    }
+
+    /**
+     * Called after a change to a cached entity was committed on this node
+     */
+    public void entityChanged(Object entity) {
+        Object id = entityManagerFactory.getPersistenceUnitUtil().getIdentifier(entity);
+        if (id == null) {
+            return;
+        }
+        String message = nodeId + SEPARATOR + Hibernate.getClass(entity).getName() + SEPARATOR + id;
+        try {
+            redisTemplate.convertAndSend(CHANNEL, message);
+        } catch (Exception e) {
+            log.warn("Error publishing second-level cache eviction, other nodes keep the entry until its TTL: {}",
+                    e.getMessage());
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String[] parts = new String(message.getBody(), StandardCharsets.UTF_8).split("\\|", 3);
+        if (parts.length < 3 || nodeId.equals(parts[0])) {
+            return;
+        }
+        try {
+            evict(parts[1], Long.valueOf(parts[2]));
+        } catch (Exception e) {
+            log.warn("Error evicting {}#{} from the second-level cache: {}", parts[1], parts[2], e.getMessage());
+        }
+    }
+
+    private void evict(String entityName, Object id) {
+        SessionFactoryImplementor sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+        Cache cache = sessionFactory.getCache();
+        cache.evictEntityData(entityName, id);
+        for (String role : collectionRoles(sessionFactory).getOrDefault(entityName, List.of())) {
+            cache.evictCollectionData(role, id);
+        }
+        String queryRegion = QUERY_REGIONS.get(entityName);
+        if (queryRegion != null) {
+            cache.evictQueryRegion(queryRegion);
+        }
+        log.debug("Evicted {}#{} from the second-level cache after a change on another node", entityName, id);
+    }
+
+    private Map<String, List<String>> collectionRoles(SessionFactoryImplementor sessionFactory) {
+        Map<String, List<String>> roles = cachedCollectionRoles;
+        if (roles == null) {
+            Map<String, List<String>> byOwner = new HashMap<>();
+            sessionFactory.getMappingMetamodel().forEachCollectionDescriptor((CollectionPersister collection) -> {
+                if (collection.hasCache()) {
+                    byOwner.computeIfAbsent(collection.getOwnerEntityPersister().getEntityName(), owner -> new ArrayList<>())
+                            .add(collection.getRole());
+                }
+            });
+            roles = Map.copyOf(byOwner);
+            cachedCollectionRoles = roles;
+        }
+        return roles;
+    }
+}
@@ -0,0 +1,30 @@
+package org.example.config;
+
+import java.util.List;
+
+/**
+ * Hibernate second-level cache regions. Every region used in a {@code @Cache}, {@code @NaturalIdCache}
+ * or query cache hint must be listed in {@link #ALL}, since missing regions fail the startup.
+ */
+public final class EntityCacheRegions {
+
+    public static final String USER = "entity-user";
+    public static final String USER_ROLES = "entity-user-roles";
+    public static final String USER_BY_USERNAME = "entity-user-by-username";
+    public static final String LOCATION = "entity-location";
+    public static final String ACHIEVEMENT_TEMPLATE = "entity-achievement-template";
+    public static final String TAG = "entity-tag";
+
+    /** Results of the frequent {@code LocationRepository} finders */
+    public static final String LOCATION_QUERIES = "query-location";
+
+    /** Hibernate's own regions for the query cache */
+    static final String DEFAULT_QUERY_RESULTS = "default-query-results-region";
+    static final String UPDATE_TIMESTAMPS = "default-update-timestamps-region";
+
+    public static final List<String> ALL = List.of(
+            USER, USER_ROLES, USER_BY_USERNAME, LOCATION, ACHIEVEMENT_TEMPLATE, TAG, LOCATION_QUERIES);
+
+    private EntityCacheRegions() {
+    }
+}
@@ -0,0 +1,180 @@
+package org.example.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.cache.Cache;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Outermost layer of every Spring cache, recording how callers are served:
+ * {@code cache.lookups{cache, result=hit|miss}}, {@code cache.lookup.duration{cache}} (the time a
+ * caller waits, loading included), {@code cache.load.duration{cache, result=success|failure}},
+ * {@code cache.writes{cache}} and {@code cache.removals{cache, kind=evict|clear}}.
+ * <p>
+ * A {@code sync = true} caller served by another caller's load counts as a hit here; such shared
+ * loads are counted by {@link StampedeProtectedCache}.
+ */
+public class InstrumentedCache implements Cache {
+
+    static final double[] PERCENTILES = {0.5, 0.95, 0.99};
+
+    private final Cache target;
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter writes;
+    private final Counter evictions;
+    private final Counter clears;
+    private final Timer lookups;
+    private final Timer loads;
+    private final Timer failedLoads;
+
+    public InstrumentedCache(Cache target, MeterRegistry meterRegistry) {
+        this.target = target;
+        String name = target.getName();
+        this.hits = Counter.builder("cache.lookups").tag("cache", name).tag("result", "hit").register(meterRegistry);
+        this.misses = Counter.builder("cache.lookups").tag("cache", name).tag("result", "miss").register(meterRegistry);
+        this.writes = Counter.builder("cache.writes").tag("cache", name).register(meterRegistry);
+        this.evictions = Counter.builder("cache.removals").tag("cache", name).tag("kind", "evict").register(meterRegistry);
+        this.clears = Counter.builder("cache.removals").tag("cache", name).tag("kind", "clear").register(meterRegistry);
+        this.lookups = Timer.builder("cache.lookup.duration").tag("cache", name)
+                .publishPercentiles(PERCENTILES).register(meterRegistry);
+        this.loads = Timer.builder("cache.load.duration").tag("cache", name).tag("result", "success")
+                .publishPercentiles(PERCENTILES).register(meterRegistry);
+        this.failedLoads = Timer.builder("cache.load.duration").tag("cache", name).tag("result", "failure")
+                .register(meterRegistry);
+    }
+
+    public Cache getTarget() {
+        return target;
+    }
+
+    @Override
+    public String getName() {
+        return target.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return target.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        long start = System.nanoTime();
+        ValueWrapper value = target.get(key);
+        lookups.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        (value != null ? hits : misses).increment();
+        return value;
+    }
+
+    @Override
+    public <T> T get(Object key, Class<T> type) {
+        long start = System.nanoTime();
+        T value = target.get(key, type);
+        lookups.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        // A cached null cannot be told from a miss here
+        (value != null ? hits : misses).increment();
+        return value;
+    }
+
+    @Override
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        AtomicBoolean loaded = new AtomicBoolean();
+        Callable<T> timedLoader = () -> {
+            loaded.set(true);
+            long start = System.nanoTime();
+            try {
+                T value = valueLoader.call();
+                loads.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                return value;
+            } catch (Exception e) {
+                failedLoads.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                throw e;
+            }
+        };
+        long start = System.nanoTime();
+        try {
+            return target.get(key, timedLoader);
+        } finally {
+            lookups.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            (loaded.get() ? misses : hits).increment();
+        }
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        target.put(key, value);
+        writes.increment();
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        ValueWrapper existing = target.putIfAbsent(key, value);
+        if (existing == null) {
+            writes.increment();
+        }
+        return existing;
+    }
+
+    @Override
+    public void evict(Object key) {
+        target.evict(key);
+        evictions.increment();
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        evictions.increment();
+        return target.evictIfPresent(key);
+    }
+
+    @Override
+    public void clear() {
+        target.clear();
+        clears.increment();
+    }
+
+    @Override
+    public boolean invalidate() {
+        clears.increment();
+        return target.invalidate();
+    }
+
+    // ==================== STATS ====================
+
+    public long getHits() {
+        return (long) hits.count();
+    }
+
+    public long getMisses() {
+        return (long) misses.count();
+    }
+
+    public long getWrites() {
+        return (long) writes.count();
+    }
+
+    public long getEvictions() {
+        return (long) evictions.count();
+    }
+
+    public long getClears() {
+        return (long) clears.count();
+    }
+
+    public Timer getLookupTimer() {
+        return lookups;
+    }
+
+    public Timer getLoadTimer() {
+        return loads;
+    }
+
+    public long getFailedLoads() {
+        return failedLoads.count();
+    }
+}
@@ -0,0 +1,124 @@
+package org.example.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheDecorator;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Wraps every cache of the application cache manager in an {@link InstrumentedCache}.
+ * <p>
+ * The number of Redis entries of a cache is sampled with SCAN in the background and published as
+ * {@code cache.entries{cache, tier=redis}}, so scrapes never walk the key space themselves.
+ */
+@Slf4j
+public class InstrumentedCacheManager implements CacheManager {
+
+    private static final int SCAN_BATCH = 1000;
+
+    private final CacheManager delegate;
+    private final MeterRegistry meterRegistry;
+    private final StringRedisTemplate redisTemplate;
+
+    private final Map<String, InstrumentedCache> caches = new ConcurrentHashMap<>();
+    private final Map<String, String> redisKeyPrefixes = new ConcurrentHashMap<>();
+    private final Map<String, Long> redisEntries = new ConcurrentHashMap<>();
+
+    public InstrumentedCacheManager(CacheManager delegate, MeterRegistry meterRegistry,
+                                    StringRedisTemplate redisTemplate) {
+        this.delegate = delegate;
+        this.meterRegistry = meterRegistry;
+        this.redisTemplate = redisTemplate;
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        InstrumentedCache cache = caches.get(name);
+        if (cache != null) {
+            return cache;
+        }
+        Cache target = delegate.getCache(name);
+        if (target == null) {
+            return null;
+        }
+        return caches.computeIfAbsent(name, key -> instrument(target));
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return delegate.getCacheNames();
+    }
+
+    public Map<String, InstrumentedCache> getInstrumentedCaches() {
+        return Collections.unmodifiableMap(caches);
+    }
+
+    /**
+     * Entries of the cache in Redis at the last sample, -1 for caches not kept in Redis or not sampled yet
+     */
+    public long getRedisEntries(String name) {
+        return redisEntries.getOrDefault(name, -1L);
+    }
+
+    private InstrumentedCache instrument(Cache target) {
+        InstrumentedCache cache = new InstrumentedCache(target, meterRegistry);
+        StampedeProtectedCache redisBacked = unwrap(target, StampedeProtectedCache.class);
+        if (redisBacked != null) {
+            String name = target.getName();
+            redisKeyPrefixes.put(name, redisBacked.getRedisKeyPrefix());
+            Gauge.builder("cache.entries", this, manager -> manager.getRedisEntries(name))
+                    .tag("cache", name).tag("tier", "redis").register(meterRegistry);
+        }
+        return cache;
+    }
+
+    @Scheduled(fixedDelayString = "${cache.metrics.redis-entries-interval-ms:60000}")
+    public void sampleRedisEntries() {
+        redisKeyPrefixes.forEach((name, prefix) -> {
+            ScanOptions options = ScanOptions.scanOptions().match(prefix + "*").count(SCAN_BATCH).build();
+            long count = 0;
+            try (Cursor<String> keys = redisTemplate.scan(options)) {
+                while (keys.hasNext()) {
+                    keys.next();
+                    count++;
+                }
+                redisEntries.put(name, count);
+            } catch (Exception e) {
+                log.debug("Could not count Redis entries of cache {}: {}", name, e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * The first layer of the given type below {@code cache}, following the decorators of this package
+     */
+    static <T extends Cache> T unwrap(Cache cache, Class<T> type) {
+        Cache current = cache;
+        while (current != null) {
+            if (type.isInstance(current)) {
+                return type.cast(current);
+            }
+            if (current instanceof InstrumentedCache instrumented) {
+                current = instrumented.getTarget();
+            } else if (current instanceof TransactionAwareCacheDecorator transactional) {
+                current = transactional.getTargetCache();
+            } else if (current instanceof StampedeProtectedCache stampedeProtected) {
+                current = stampedeProtected.getTarget();
+            } else {
+                current = null;
+            }
+        }
+        return null;
+    }
+}
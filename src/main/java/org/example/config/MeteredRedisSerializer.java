@@ -0,0 +1,50 @@
+package org.example.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+/**
+ * Records the size of the values a Redis cache writes and reads as
+ * {@code cache.value.bytes{cache, direction=write|read}}. Caches without a policy of their own
+ * share the serializer of the defaults and are reported as cache "default".
+ */
+public class MeteredRedisSerializer implements RedisSerializer<Object> {
+
+    private final RedisSerializer<Object> delegate;
+    private final DistributionSummary written;
+    private final DistributionSummary read;
+
+    public MeteredRedisSerializer(RedisSerializer<Object> delegate, String cacheName, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.written = summary(cacheName, "write", meterRegistry);
+        this.read = summary(cacheName, "read", meterRegistry);
+    }
+
+    private static DistributionSummary summary(String cacheName, String direction, MeterRegistry meterRegistry) {
+        return DistributionSummary.builder("cache.value.bytes")
+                .baseUnit("bytes")
+                .tag("cache", cacheName)
+                .tag("direction", direction)
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public byte[] serialize(Object value) throws SerializationException {
+        byte[] bytes = delegate.serialize(value);
+        if (bytes != null) {
+            written.record(bytes.length);
+        }
+        return bytes;
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) throws SerializationException {
+        if (bytes != null) {
+            read.record(bytes.length);
+        }
+        return delegate.deserialize(bytes);
+    }
+}
@@ -0,0 +1,46 @@
+package org.example.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+/**
+ * Writes with the configured serializer but reads both JSON and compact binary entries, so the
+ * serializer of a cache can be switched either way without flushing Redis. Entries written in the
+ * old format are replaced as they expire.
+ * <p>
+ * JSON entries written before JSON values carried their type cannot be read back as the cached
+ * class; they are reported as a miss, so the value is loaded again and rewritten.
+ */
+@Slf4j
+public class MigratingRedisSerializer implements RedisSerializer<Object> {
+
+    private final RedisSerializer<Object> writer;
+    private final RedisSerializer<Object> json;
+    private final CompactBinaryRedisSerializer binary;
+
+    public MigratingRedisSerializer(RedisSerializer<Object> writer, RedisSerializer<Object> json,
+                                    CompactBinaryRedisSerializer binary) {
+        this.writer = writer;
+        this.json = json;
+        this.binary = binary;
+    }
+
+    @Override
+    public byte[] serialize(Object value) throws SerializationException {
+        return writer.serialize(value);
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) throws SerializationException {
+        if (CompactBinaryRedisSerializer.isBinary(bytes)) {
+            return binary.deserialize(bytes);
+        }
+        try {
+            return json.deserialize(bytes);
+        } catch (SerializationException e) {
+            log.debug("Treating unreadable JSON cache entry as a miss: {}", e.getMessage());
+            return null;
+        }
+    }
+}
@@ -0,0 +1,326 @@
+package org.example.config;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleValueWrapper;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Two-tier cache: a size-bounded in-heap L1 with a short TTL in front of a shared L2 (Redis).
+ * <p>
+ * Reads are served from L1 when possible and fill it from L2 otherwise. Writes go to both tiers
+ * and are announced through the {@link InvalidationPublisher}, so other nodes drop their L1 copy.
+ * L1 entries also expire on their own, which bounds staleness if an announcement is lost.
+ * The L2 cache must not defer its writes; wrap this cache for transaction awareness instead.
+ * <p>
+ * L1 holds the value objects themselves, so an L1 hit costs neither I/O nor deserialization; the
+ * cached values (mapped DTOs) must not be modified by callers. L1 is a concurrent map; when it
+ * grows past its bound one thread drops the expired and least recently read entries. Every local
+ * write and invalidation bumps the generation of the key's stripe; a fill from L2 that started
+ * before such a bump is dropped, so a value read from L2 just before an invalidation cannot refill
+ * L1.
+ */
+public class NearCache implements Cache {
+
+    private static final int GENERATION_STRIPES = 64;
+
+    @FunctionalInterface
+    public interface InvalidationPublisher {
+        /**
+         * @param key the evicted key, or null when the whole cache was cleared
+         */
+        void publish(String cacheName, String key);
+    }
+
+    private static final class LocalEntry {
+        /** Null for a cached null */
+        final Object value;
+        final long expiresAt;
+        volatile long lastRead;
+
+        LocalEntry(Object value, long expiresAt, long now) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+            this.lastRead = now;
+        }
+    }
+
+    private final Cache l2;
+    private final InvalidationPublisher publisher;
+    private final int maxEntries;
+    private final long ttlMillis;
+    private final Map<String, LocalEntry> l1 = new ConcurrentHashMap<>();
+    private final AtomicLongArray generations = new AtomicLongArray(GENERATION_STRIPES);
+    private final AtomicBoolean evicting = new AtomicBoolean();
+
+    private final LongAdder l1Hits = new LongAdder();
+    private final LongAdder l2Hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public NearCache(Cache l2, int maxEntries, long ttlMillis, InvalidationPublisher publisher) {
+        this.l2 = l2;
+        this.maxEntries = maxEntries;
+        this.ttlMillis = ttlMillis;
+        this.publisher = publisher;
+    }
+
+    @Override
+    public String getName() {
+        return l2.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return l2.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        String localKey = localKey(key);
+        ValueWrapper local = localGet(localKey);
+        if (local != null) {
+            l1Hits.increment();
+            return local;
+        }
+        long generation = generation(localKey);
+        ValueWrapper remote = l2.get(key);
+        if (remote != null) {
+            l2Hits.increment();
+            localFill(localKey, remote.get(), generation);
+        } else {
+            misses.increment();
+        }
+        return remote;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        ValueWrapper wrapper = get(key);
+        Object value = wrapper != null ? wrapper.get() : null;
+        if (value != null && type != null && !type.isInstance(value)) {
+            throw new IllegalStateException("Cached value is not of required type [" + type.getName() + "]: " + value);
+        }
+        return (T) value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        String localKey = localKey(key);
+        ValueWrapper local = localGet(localKey);
+        if (local != null) {
+            l1Hits.increment();
+            return (T) local.get();
+        }
+        long generation = generation(localKey);
+        boolean[] loaded = {false};
+        T value = l2.get(key, () -> {
+            loaded[0] = true;
+            return valueLoader.call();
+        });
+        if (loaded[0]) {
+            misses.increment();
+        } else {
+            l2Hits.increment();
+        }
+        if (value != null) {
+            localFill(localKey, value, generation);
+        }
+        return value;
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        l2.put(key, value);
+        String localKey = localKey(key);
+        localPut(localKey, value);
+        publisher.publish(getName(), localKey);
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        ValueWrapper existing = l2.putIfAbsent(key, value);
+        String localKey = localKey(key);
+        localPut(localKey, existing != null ? existing.get() : value);
+        if (existing == null) {
+            publisher.publish(getName(), localKey);
+        }
+        return existing;
+    }
+
+    @Override
+    public void evict(Object key) {
+        l2.evict(key);
+        String localKey = localKey(key);
+        invalidateLocal(localKey);
+        publisher.publish(getName(), localKey);
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        boolean evicted = l2.evictIfPresent(key);
+        String localKey = localKey(key);
+        invalidateLocal(localKey);
+        publisher.publish(getName(), localKey);
+        return evicted;
+    }
+
+    @Override
+    public void clear() {
+        l2.clear();
+        invalidateLocal(null);
+        publisher.publish(getName(), null);
+    }
+
+    @Override
+    public boolean invalidate() {
+        boolean invalidated = l2.invalidate();
+        invalidateLocal(null);
+        publisher.publish(getName(), null);
+        return invalidated;
+    }
+
+    // ==================== L1 ====================
+
+    /**
+     * Drops one L1 entry, or all of them for a null key, without touching L2 or other nodes
+     */
+    public void invalidateLocal(String localKey) {
+        // Generation first: a fill that checks it after our removal then drops its own entry
+        if (localKey == null) {
+            for (int i = 0; i < GENERATION_STRIPES; i++) {
+                generations.incrementAndGet(i);
+            }
+            l1.clear();
+        } else {
+            generations.incrementAndGet(stripe(localKey));
+            l1.remove(localKey);
+        }
+    }
+
+    private ValueWrapper localGet(String localKey) {
+        LocalEntry entry = l1.get(localKey);
+        if (entry == null) {
+            return null;
+        }
+        long now = System.currentTimeMillis();
+        if (entry.expiresAt <= now) {
+            l1.remove(localKey, entry);
+            return null;
+        }
+        entry.lastRead = now;
+        return new SimpleValueWrapper(entry.value);
+    }
+
+    /**
+     * Stores a value written on this node; reads from L2 that started before it will not replace it
+     */
+    private void localPut(String localKey, Object value) {
+        generations.incrementAndGet(stripe(localKey));
+        store(localKey, value);
+    }
+
+    /**
+     * Stores a value read from L2 unless the key's stripe changed since {@code generation} was taken
+     */
+    private void localFill(String localKey, Object value, long generation) {
+        int stripe = stripe(localKey);
+        if (generations.get(stripe) != generation) {
+            return;
+        }
+        LocalEntry entry = store(localKey, value);
+        // An invalidation between the check and the store bumped the generation before removing
+        if (generations.get(stripe) != generation) {
+            l1.remove(localKey, entry);
+        }
+    }
+
+    private LocalEntry store(String localKey, Object value) {
+        long now = System.currentTimeMillis();
+        LocalEntry entry = new LocalEntry(value, now + ttlMillis, now);
+        l1.put(localKey, entry);
+        if (l1.size() > maxEntries) {
+            evict(now);
+        }
+        return entry;
+    }
+
+    /**
+     * Drops expired entries, then the least recently read ones down to 90% of the bound.
+     * One thread at a time; the others keep going while the map briefly exceeds its bound
+     */
+    private void evict(long now) {
+        if (!evicting.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            l1.entrySet().removeIf(e -> e.getValue().expiresAt <= now);
+            int excess = l1.size() - maxEntries * 9 / 10;
+            if (excess <= 0) {
+                return;
+            }
+            List<Map.Entry<String, LocalEntry>> entries = new ArrayList<>(l1.entrySet());
+            entries.sort(Comparator.comparingLong(e -> e.getValue().lastRead));
+            for (Map.Entry<String, LocalEntry> e : entries.subList(0, Math.min(excess, entries.size()))) {
+                l1.remove(e.getKey(), e.getValue());
+            }
+        } finally {
+            evicting.set(false);
+        }
+    }
+
+    private long generation(String localKey) {
+        return generations.get(stripe(localKey));
+    }
+
+    private static int stripe(String localKey) {
+        return Math.floorMod(localKey.hashCode(), GENERATION_STRIPES);
+    }
+
+    /**
+     * Redis cache keys are the string form of the key, L1 and invalidation messages use the same
+     */
+    static String localKey(Object key) {
+        return String.valueOf(key);
+    }
+
+    // ==================== STATS ====================
+
+    public long getL1Hits() {
+        return l1Hits.sum();
+    }
+
+    public long getL2Hits() {
+        return l2Hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public int getL1Size() {
+        return l1.size();
+    }
+
+    public double getL1HitRatio() {
+        long total = getL1Hits() + getL2Hits() + getMisses();
+        return total > 0 ? (double) getL1Hits() / total : 0.0;
+    }
+
+    /**
+     * Share of all lookups answered by either tier
+     */
+    public double getHitRatio() {
+        long total = getL1Hits() + getL2Hits() + getMisses();
+        return total > 0 ? (double) (getL1Hits() + getL2Hits()) / total : 0.0;
+    }
+}
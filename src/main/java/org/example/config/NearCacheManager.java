@@ -0,0 +1,162 @@
+package org.example.config;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheDecorator;
+import org.springframework.data.redis.cache.RedisCache;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serves the caches whose policy has an L1 as {@link NearCache}s over the Redis caches, everything
+ * else straight from Redis. Either way loading goes through a {@link StampedeProtectedCache}.
+ * <p>
+ * Every write or eviction is published on {@link #CHANNEL} as {@code nodeId|cache|key}
+ * (an empty key clears the cache), and every node drops the matching L1 entries when it receives
+ * a message from another node.
+ */
+@Slf4j
+public class NearCacheManager implements CacheManager, MessageListener, DisposableBean {
+
+    public static final String CHANNEL = "cache:invalidate";
+
+    private static final String SEPARATOR = "|";
+
+    private final CacheManager redisCacheManager;
+    private final StringRedisTemplate redisTemplate;
+    private final MeterRegistry meterRegistry;
+    private final CachePolicyRegistry policies;
+    private final CacheProperties.Stampede stampede;
+    private final ThreadPoolExecutor refresher;
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private final Map<String, NearCache> nearCaches = new ConcurrentHashMap<>();
+    private final Map<String, Cache> decorated = new ConcurrentHashMap<>();
+
+    public NearCacheManager(CacheManager redisCacheManager, StringRedisTemplate redisTemplate,
+                            MeterRegistry meterRegistry, CachePolicyRegistry policies,
+                            CacheProperties.Stampede stampede) {
+        this.redisCacheManager = redisCacheManager;
+        this.redisTemplate = redisTemplate;
+        this.meterRegistry = meterRegistry;
+        this.policies = policies;
+        this.stampede = stampede;
+        // Refresh-ahead is best effort: when the queue is full the entry simply expires
+        this.refresher = new ThreadPoolExecutor(stampede.getRefreshThreads(), stampede.getRefreshThreads(),
+                60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(stampede.getRefreshQueueCapacity()),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "Cache-refresh");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    @Override
+    public void destroy() {
+        refresher.shutdownNow();
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        Cache cache = decorated.get(name);
+        if (cache != null) {
+            return cache;
+        }
+        return decorated.computeIfAbsent(name, this::createCache);
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        Set<String> names = new LinkedHashSet<>(redisCacheManager.getCacheNames());
+        policies.getConfigured().values().stream()
+                .filter(CachePolicyRegistry.CachePolicy::isNear)
+                .forEach(policy -> names.add(policy.name()));
+        return Collections.unmodifiableSet(names);
+    }
+
+    public Map<String, NearCache> getNearCaches() {
+        return Collections.unmodifiableMap(nearCaches);
+    }
+
+    private Cache createCache(String name) {
+        Cache remote = redisCacheManager.getCache(name);
+        if (remote == null) {
+            return null;
+        }
+        // The Redis manager is transaction aware; the decorator moves to the outermost cache so both
+        // tiers and the invalidation message are written together after commit
+        if (remote instanceof TransactionAwareCacheDecorator transactional) {
+            remote = transactional.getTargetCache();
+        }
+        String redisKeyPrefix = remote instanceof RedisCache redisCache
+                ? redisCache.getCacheConfiguration().getKeyPrefixFor(name)
+                : name + "::";
+
+        CachePolicyRegistry.CachePolicy policy = policies.get(name);
+        Cache cache = remote;
+        if (policy.isNear()) {
+            NearCache nearCache = new NearCache(remote, policy.localMaxEntries(), policy.localTtl().toMillis(),
+                    this::publish);
+            nearCaches.put(name, nearCache);
+            registerMetrics(name, nearCache);
+            log.info("Near cache {} enabled: L1 up to {} entries for {}", name, policy.localMaxEntries(), policy.localTtl());
+            cache = nearCache;
+        }
+        return new TransactionAwareCacheDecorator(
+                new StampedeProtectedCache(cache, policy, redisKeyPrefix, redisTemplate, refresher, stampede));
+    }
+
+    private void registerMetrics(String name, NearCache cache) {
+        FunctionCounter.builder("cache.near.requests", cache, NearCache::getL1Hits)
+                .tag("cache", name).tag("result", "l1_hit").register(meterRegistry);
+        FunctionCounter.builder("cache.near.requests", cache, NearCache::getL2Hits)
+                .tag("cache", name).tag("result", "l2_hit").register(meterRegistry);
+        FunctionCounter.builder("cache.near.requests", cache, NearCache::getMisses)
+                .tag("cache", name).tag("result", "miss").register(meterRegistry);
+        Gauge.builder("cache.near.l1.size", cache, NearCache::getL1Size)
+                .tag("cache", name).register(meterRegistry);
+        Gauge.builder("cache.near.hit.ratio", cache, NearCache::getL1HitRatio)
+                .tag("cache", name).tag("tier", "l1").register(meterRegistry);
+        Gauge.builder("cache.near.hit.ratio", cache, NearCache::getHitRatio)
+                .tag("cache", name).tag("tier", "total").register(meterRegistry);
+    }
+
+    // ==================== PUB/SUB ====================
+
+    private void publish(String cacheName, String key) {
+        String message = nodeId + SEPARATOR + cacheName + SEPARATOR + (key != null ? key : "");
+        try {
+            redisTemplate.convertAndSend(CHANNEL, message);
+        } catch (Exception e) {
+            // Other nodes still drop the entry once their L1 TTL runs out
+            log.warn("Error publishing cache invalidation for {}: {}", cacheName, e.getMessage());
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        // Keys may contain the separator, so it is only split twice
+        String[] parts = body.split("\\|", 3);
+        if (parts.length < 3 || nodeId.equals(parts[0])) {
+            return;
+        }
+        NearCache cache = nearCaches.get(parts[1]);
+        if (cache != null) {
+            cache.invalidateLocal(parts[2].isEmpty() ? null : parts[2]);
+        }
+    }
+}
@@ -1,20 +1,32 @@
 package org.example.config;
 
 import com.fasterxml.jackson.annotation.JsonTypeInfo;
+import com.fasterxml.jackson.databind.JavaType;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.fasterxml.jackson.databind.cfg.MapperConfig;
+import com.fasterxml.jackson.databind.jsontype.BasicPolymorphicTypeValidator;
+import com.fasterxml.jackson.databind.jsontype.PolymorphicTypeValidator;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.support.NullValue;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
 import org.springframework.data.redis.cache.RedisCacheConfiguration;
 import org.springframework.data.redis.cache.RedisCacheManager;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.RedisSerializationContext;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
-import java.time.Duration;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 @Configuration
 @EnableCaching
@@ -41,31 +53,123 @@ public class RedisConfig {
         return template;
     }
 
+    /**
+     * Redis caches configured from the {@link CachePolicyRegistry}; caches without a policy of
+     * their own use the default one
+     */
     @Bean
-    public RedisCacheManager cacheManager(RedisConnectionFactory connectionFactory,
-                                          ObjectMapper objectMapper) { // Inject ObjectMapper
-        RedisCacheConfiguration defaultConfig = RedisCacheConfiguration.defaultCacheConfig()
-                .entryTtl(Duration.ofMinutes(30))
-                .disableCachingNullValues()
+    public RedisCacheManager redisCacheManager(RedisConnectionFactory connectionFactory,
+                                               ObjectMapper objectMapper,
+                                               CachePolicyRegistry cachePolicies,
+                                               MeterRegistry meterRegistry) {
+        Map<String, RedisCacheConfiguration> configurations = new LinkedHashMap<>();
+        cachePolicies.getConfigured().forEach((name, policy) ->
+                configurations.put(name, redisCacheConfiguration(policy, objectMapper, meterRegistry)));
+
+        return RedisCacheManager.builder(connectionFactory)
+                .cacheDefaults(redisCacheConfiguration(cachePolicies.getDefaults(), objectMapper, meterRegistry))
+                .withInitialCacheConfigurations(configurations)
+                .transactionAware()
+                .build();
+    }
+
+    private static RedisCacheConfiguration redisCacheConfiguration(CachePolicyRegistry.CachePolicy policy,
+                                                                   ObjectMapper objectMapper,
+                                                                   MeterRegistry meterRegistry) {
+        RedisCacheConfiguration config = RedisCacheConfiguration.defaultCacheConfig()
+                .entryTtl(policy.ttl())
                 .serializeKeysWith(
                         RedisSerializationContext.SerializationPair.fromSerializer(new StringRedisSerializer())
                 )
                 .serializeValuesWith(
                         RedisSerializationContext.SerializationPair.fromSerializer(
-                                new GenericJackson2JsonRedisSerializer(objectMapper) // Use injected ObjectMapper
-                        )
+                                new MeteredRedisSerializer(valueSerializer(policy, objectMapper), policy.name(), meterRegistry))
                 );
+        return policy.cacheNulls() ? config : config.disableCachingNullValues();
+    }
 
-        return RedisCacheManager.builder(connectionFactory)
-                .cacheDefaults(defaultConfig)
-                .withCacheConfiguration("users",
-                        defaultConfig.entryTtl(Duration.ofMinutes(10)))
-                .withCacheConfiguration("games",
-                        defaultConfig.entryTtl(Duration.ofHours(1)))
-                .withCacheConfiguration("leaderboard",
-                        defaultConfig.entryTtl(Duration.ofMinutes(5)))
-                .transactionAware()
+    private static RedisSerializer<Object> valueSerializer(CachePolicyRegistry.CachePolicy policy,
+                                                           ObjectMapper objectMapper) {
+        RedisSerializer<Object> json = jsonSerializer(objectMapper);
+        CompactBinaryRedisSerializer binary = new CompactBinaryRedisSerializer(objectMapper, policy.compressThreshold());
+        RedisSerializer<Object> writer = switch (policy.serializer()) {
+            case JSON -> json;
+            case BINARY -> binary;
+        };
+        return policy.migration() ? new MigratingRedisSerializer(writer, json, binary) : writer;
+    }
+
+    /**
+     * JSON cache values carry their type ({@code @class}), so a cached DTO is read back as that DTO
+     * rather than as a map. Non-final values are typed, plus JDK collections so that final lists such
+     * as those returned by {@code Stream.toList()} keep theirs; when reading, only application classes,
+     * {@code java.util} collections, {@code java.time} values and cached nulls are accepted.
+     */
+    static RedisSerializer<Object> jsonSerializer(ObjectMapper objectMapper) {
+        PolymorphicTypeValidator validator = BasicPolymorphicTypeValidator.builder()
+                .allowIfSubType("org.example.")
+                .allowIfSubType("java.time.")
+                .allowIfSubType(NullValue.class)
+                .allowIfSubType(new BasicPolymorphicTypeValidator.TypeMatcher() {
+                    @Override
+                    public boolean match(MapperConfig<?> config, Class<?> type) {
+                        return isJdkCollection(type);
+                    }
+                })
+                .build();
+        ObjectMapper typed = objectMapper.copy();
+        typed.setDefaultTyping(new ObjectMapper.DefaultTypeResolverBuilder(ObjectMapper.DefaultTyping.NON_FINAL, validator) {
+                    @Override
+                    public boolean useForType(JavaType type) {
+                        return super.useForType(type) || isJdkCollection(type.getRawClass());
+                    }
+                }
+                .init(JsonTypeInfo.Id.CLASS, null)
+                .inclusion(JsonTypeInfo.As.PROPERTY));
+        return GenericJackson2JsonRedisSerializer.builder()
+                .objectMapper(typed)
                 .build();
     }
 
+    private static boolean isJdkCollection(Class<?> type) {
+        return "java.util".equals(type.getPackageName())
+                && (Collection.class.isAssignableFrom(type) || Map.class.isAssignableFrom(type));
+    }
+
+    /**
+     * Redis caches with an in-process L1 for the caches whose policy sets {@code local-max-entries}
+     */
+    @Bean
+    public NearCacheManager nearCacheManager(RedisCacheManager redisCacheManager,
+                                             StringRedisTemplate stringRedisTemplate,
+                                             MeterRegistry meterRegistry,
+                                             CachePolicyRegistry cachePolicies,
+                                             CacheProperties cacheProperties) {
+        return new NearCacheManager(redisCacheManager, stringRedisTemplate, meterRegistry, cachePolicies,
+                cacheProperties.getStampede());
+    }
+
+    /**
+     * Delivers L1 invalidations published by the other nodes
+     */
+    @Bean
+    public RedisMessageListenerContainer cacheInvalidationListenerContainer(RedisConnectionFactory connectionFactory,
+                                                                            NearCacheManager nearCacheManager) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(nearCacheManager, new ChannelTopic(NearCacheManager.CHANNEL));
+        return container;
+    }
+
+    /**
+     * Near and Redis caches, instrumented, see {@link CacheStatsEndpoint}
+     */
+    @Bean
+    @Primary
+    public InstrumentedCacheManager cacheManager(NearCacheManager nearCacheManager,
+                                                 MeterRegistry meterRegistry,
+                                                 StringRedisTemplate stringRedisTemplate) {
+        return new InstrumentedCacheManager(nearCacheManager, meterRegistry, stringRedisTemplate);
+    }
+
 }
\ No newline at end of file
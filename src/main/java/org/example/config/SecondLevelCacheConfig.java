@@ -0,0 +1,91 @@
+package org.example.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.ehcache.config.CacheConfiguration;
+import org.ehcache.config.builders.CacheConfigurationBuilder;
+import org.ehcache.config.builders.ConfigurationBuilder;
+import org.ehcache.config.builders.ExpiryPolicyBuilder;
+import org.ehcache.config.builders.ResourcePoolsBuilder;
+import org.ehcache.jsr107.EhcacheCachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.net.URI;
+import java.time.Duration;
+import java.util.UUID;
+
+/**
+ * In-process Hibernate second-level cache (Ehcache behind JCache).
+ * <p>
+ * The regions are created here from {@link CacheProperties#getEntityRegions()} rather than an XML
+ * file, each bounded by its heap entries and TTL; a region Hibernate asks for that is not in
+ * {@link EntityCacheRegions#ALL} fails the startup instead of silently growing unbounded.
+ */
+@Configuration
+@Slf4j
+public class SecondLevelCacheConfig {
+
+    private static final int TIMESTAMPS_MAX_ENTRIES = 1_000;
+
+    @Bean(destroyMethod = "close")
+    public CacheManager entityCacheManager(CacheProperties cacheProperties) {
+        cacheProperties.getEntityRegions().keySet().stream()
+                .filter(name -> !EntityCacheRegions.ALL.contains(name))
+                .findFirst()
+                .ifPresent(name -> {
+                    throw new IllegalStateException("Unknown second-level cache region in cache.entity-regions: " + name);
+                });
+
+        ConfigurationBuilder configuration = ConfigurationBuilder.newConfigurationBuilder();
+        for (String name : EntityCacheRegions.ALL) {
+            CacheProperties.EntityRegion region = resolve(name, cacheProperties);
+            configuration = configuration.withCache(name, cacheConfiguration(region.getMaxEntries(), region.getTtl()));
+            log.info("Second-level cache region {}: {} entries, ttl {}", name, region.getMaxEntries(), region.getTtl());
+        }
+        configuration = configuration.withCache(EntityCacheRegions.DEFAULT_QUERY_RESULTS,
+                cacheConfiguration(cacheProperties.getEntityRegionDefaults().getMaxEntries(),
+                        cacheProperties.getEntityRegionDefaults().getTtl()));
+        // Timestamps must outlive every cached query result, otherwise stale results look valid
+        configuration = configuration.withCache(EntityCacheRegions.UPDATE_TIMESTAMPS,
+                cacheConfiguration(TIMESTAMPS_MAX_ENTRIES, Duration.ZERO));
+
+        EhcacheCachingProvider provider =
+                (EhcacheCachingProvider) Caching.getCachingProvider(EhcacheCachingProvider.class.getName());
+        // A URI of its own per context, so a restarted context never finds the regions of the previous one
+        return provider.getCacheManager(URI.create("urn:rose:entity-cache:" + UUID.randomUUID()), configuration.build());
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer entityCacheManagerCustomizer(CacheManager entityCacheManager) {
+        return properties -> properties.put(ConfigSettings.CACHE_MANAGER, entityCacheManager);
+    }
+
+    private static CacheProperties.EntityRegion resolve(String name, CacheProperties cacheProperties) {
+        CacheProperties.EntityRegion defaults = cacheProperties.getEntityRegionDefaults();
+        CacheProperties.EntityRegion configured = cacheProperties.getEntityRegions().get(name);
+        CacheProperties.EntityRegion region = new CacheProperties.EntityRegion();
+        region.setMaxEntries(configured != null && configured.getMaxEntries() != null
+                ? configured.getMaxEntries() : defaults.getMaxEntries());
+        region.setTtl(configured != null && configured.getTtl() != null ? configured.getTtl() : defaults.getTtl());
+        if (region.getMaxEntries() == null || region.getMaxEntries() <= 0) {
+            throw new IllegalStateException("cache.entity-regions." + name + ".max-entries must be positive");
+        }
+        if (region.getTtl() == null || region.getTtl().isNegative()) {
+            throw new IllegalStateException("cache.entity-regions." + name + ".ttl must not be negative");
+        }
+        return region;
+    }
+
+    private static CacheConfiguration<Object, Object> cacheConfiguration(int maxEntries, Duration ttl) {
+        return CacheConfigurationBuilder
+                .newCacheConfigurationBuilder(Object.class, Object.class, ResourcePoolsBuilder.heap(maxEntries))
+                .withExpiry(ttl.isZero()
+                        ? ExpiryPolicyBuilder.noExpiration()
+                        : ExpiryPolicyBuilder.timeToLiveExpiration(ttl))
+                .build();
+    }
+}
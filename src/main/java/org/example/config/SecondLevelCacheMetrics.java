@@ -0,0 +1,71 @@
+package org.example.config;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.stereotype.Component;
+
+import java.util.function.ToLongFunction;
+
+/**
+ * Hit, miss and put counts of the second-level cache regions from Hibernate's statistics
+ * ({@code hibernate.generate_statistics}):
+ * {@code cache.entity.requests{region, result=hit|miss}}, {@code cache.entity.puts{region}} and
+ * {@code cache.entity.hit.ratio{region}}.
+ */
+@Component
+public class SecondLevelCacheMetrics {
+
+    private final Statistics statistics;
+
+    public SecondLevelCacheMetrics(EntityManagerFactory entityManagerFactory, MeterRegistry meterRegistry) {
+        this.statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        for (String region : EntityCacheRegions.ALL) {
+            FunctionCounter.builder("cache.entity.requests", this,
+                            metrics -> metrics.count(region, CacheRegionStatistics::getHitCount))
+                    .tag("region", region)
+                    .tag("result", "hit")
+                    .register(meterRegistry);
+            FunctionCounter.builder("cache.entity.requests", this,
+                            metrics -> metrics.count(region, CacheRegionStatistics::getMissCount))
+                    .tag("region", region)
+                    .tag("result", "miss")
+                    .register(meterRegistry);
+            FunctionCounter.builder("cache.entity.puts", this,
+                            metrics -> metrics.count(region, CacheRegionStatistics::getPutCount))
+                    .tag("region", region)
+                    .register(meterRegistry);
+            Gauge.builder("cache.entity.hit.ratio", this, metrics -> metrics.hitRatio(region))
+                    .tag("region", region)
+                    .register(meterRegistry);
+        }
+    }
+
+    public long getHits(String region) {
+        return count(region, CacheRegionStatistics::getHitCount);
+    }
+
+    public long getMisses(String region) {
+        return count(region, CacheRegionStatistics::getMissCount);
+    }
+
+    public long getPuts(String region) {
+        return count(region, CacheRegionStatistics::getPutCount);
+    }
+
+    public double hitRatio(String region) {
+        long hits = getHits(region);
+        long total = hits + getMisses(region);
+        return total == 0 ? 0.0 : (double) hits / total;
+    }
+
+    private long count(String region, ToLongFunction<CacheRegionStatistics> counter) {
+        // Null until Hibernate created the region, e.g. before the first query of a query region
+        CacheRegionStatistics regionStatistics = statistics.getCacheRegionStatistics(region);
+        return regionStatistics != null ? counter.applyAsLong(regionStatistics) : 0;
+    }
+}
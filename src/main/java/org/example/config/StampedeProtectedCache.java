@@ -0,0 +1,362 @@
+package org.example.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.security.concurrent.DelegatingSecurityContextRunnable;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Guards the loading of cache entries for {@code @Cacheable(sync = true)} callers.
+ * <p>
+ * A missing key is loaded once per node: concurrent callers wait for the same future. Across nodes
+ * the loader takes a short Redis lock; the other nodes poll the cache for a few hundred milliseconds
+ * at most instead of computing it again, and load themselves once the lock holder is gone or the
+ * wait runs out. The wait blocks a request thread, so it is bounded well below the lock TTL: a slow
+ * load on another node costs a duplicate load here rather than a stalled request.
+ * <p>
+ * With a refresh-ahead threshold in the policy, a hit on an entry past that share of its TTL
+ * triggers a background reload with a probability that grows linearly to 1 at expiry, so hot
+ * entries are replaced before they expire while callers keep getting the current value.
+ */
+@Slf4j
+public class StampedeProtectedCache implements Cache {
+
+    private static final String LOCK_PREFIX = "cache-lock:";
+    private static final int MAX_TRACKED_EXPIRIES = 10_000;
+
+    private static final RedisScript<Long> UNLOCK_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('del', KEYS[1]) else return 0 end",
+            Long.class);
+
+    private final Cache target;
+    private final CachePolicyRegistry.CachePolicy policy;
+    private final String redisKeyPrefix;
+    private final StringRedisTemplate redisTemplate;
+    private final Executor refresher;
+    private final CacheProperties.Stampede settings;
+
+    private final Map<String, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    /** Estimated expiry per key, so the Redis TTL is only asked for when a refresh may be due */
+    private final Map<String, Long> expiresAt = new ConcurrentHashMap<>();
+
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder sharedLoads = new LongAdder();
+    private final LongAdder refreshes = new LongAdder();
+
+    public StampedeProtectedCache(Cache target, CachePolicyRegistry.CachePolicy policy, String redisKeyPrefix,
+                                  StringRedisTemplate redisTemplate, Executor refresher,
+                                  CacheProperties.Stampede settings) {
+        this.target = target;
+        this.policy = policy;
+        this.redisKeyPrefix = redisKeyPrefix;
+        this.redisTemplate = redisTemplate;
+        this.refresher = refresher;
+        this.settings = settings;
+    }
+
+    public Cache getTarget() {
+        return target;
+    }
+
+    public String getRedisKeyPrefix() {
+        return redisKeyPrefix;
+    }
+
+    @Override
+    public String getName() {
+        return target.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return target.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        return target.get(key);
+    }
+
+    @Override
+    public <T> T get(Object key, Class<T> type) {
+        return target.get(key, type);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        String localKey = NearCache.localKey(key);
+        ValueWrapper hit = target.get(key);
+        if (hit != null) {
+            refreshAheadIfDue(key, localKey, valueLoader);
+            return (T) hit.get();
+        }
+
+        CompletableFuture<Object> mine = new CompletableFuture<>();
+        CompletableFuture<Object> running = inFlight.putIfAbsent(localKey, mine);
+        if (running != null) {
+            sharedLoads.increment();
+            Object value = await(key, valueLoader, running);
+            if (value != null) {
+                return (T) value;
+            }
+            // A skipped refresh-ahead completes with null, the entry itself may be there by now
+            ValueWrapper current = target.get(key);
+            return (T) (current != null ? current.get() : load(key, localKey, valueLoader, true));
+        }
+        try {
+            Object value = load(key, localKey, valueLoader, true);
+            mine.complete(value);
+            return (T) value;
+        } catch (RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(localKey, mine);
+        }
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        target.put(key, value);
+        trackExpiry(NearCache.localKey(key));
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        return target.putIfAbsent(key, value);
+    }
+
+    @Override
+    public void evict(Object key) {
+        target.evict(key);
+        expiresAt.remove(NearCache.localKey(key));
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        expiresAt.remove(NearCache.localKey(key));
+        return target.evictIfPresent(key);
+    }
+
+    @Override
+    public void clear() {
+        target.clear();
+        expiresAt.clear();
+    }
+
+    @Override
+    public boolean invalidate() {
+        expiresAt.clear();
+        return target.invalidate();
+    }
+
+    // ==================== LOADING ====================
+
+    /**
+     * Loads under the cross-node lock. Without the lock, waits for the holder's value unless
+     * {@code wait} is false, in which case nothing is loaded and null is returned.
+     */
+    private Object load(Object key, String localKey, Callable<?> valueLoader, boolean wait) {
+        String lockKey = LOCK_PREFIX + redisKeyPrefix + localKey;
+        String token = UUID.randomUUID().toString();
+        boolean locked = tryLock(lockKey, token);
+        if (!locked) {
+            if (!wait) {
+                return null;
+            }
+            ValueWrapper loadedElsewhere = awaitOtherNode(key, lockKey);
+            if (loadedElsewhere != null) {
+                return loadedElsewhere.get();
+            }
+            log.debug("Cache {}: no value for {} after waiting for the lock, loading locally", getName(), localKey);
+        }
+        try {
+            loads.increment();
+            Object value = valueLoader.call();
+            if (value != null || policy.cacheNulls()) {
+                put(key, value);
+            }
+            return value;
+        } catch (Exception e) {
+            throw new ValueRetrievalException(key, valueLoader, e);
+        } finally {
+            if (locked) {
+                unlock(lockKey, token);
+            }
+        }
+    }
+
+    private ValueWrapper awaitOtherNode(Object key, String lockKey) {
+        long deadline = System.currentTimeMillis() + settings.getLockWait().toMillis();
+        try {
+            long remaining;
+            while ((remaining = deadline - System.currentTimeMillis()) > 0) {
+                Thread.sleep(Math.min(settings.getPollInterval().toMillis(), remaining));
+                ValueWrapper value = target.get(key);
+                if (value != null) {
+                    return value;
+                }
+                if (!Boolean.TRUE.equals(redisTemplate.hasKey(lockKey))) {
+                    // The holder finished without caching anything, e.g. it failed
+                    return target.get(key);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            log.warn("Cache {}: error waiting for lock {}: {}", getName(), lockKey, e.getMessage());
+        }
+        return null;
+    }
+
+    private Object await(Object key, Callable<?> valueLoader, CompletableFuture<Object> running) {
+        try {
+            return running.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ValueRetrievalException(key, valueLoader, e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new ValueRetrievalException(key, valueLoader, e.getCause());
+        }
+    }
+
+    private boolean tryLock(String lockKey, String token) {
+        try {
+            return Boolean.TRUE.equals(redisTemplate.opsForValue().setIfAbsent(lockKey, token, settings.getLockTtl()));
+        } catch (Exception e) {
+            // Without Redis the node still loads each key only once
+            log.warn("Cache {}: could not take lock {}: {}", getName(), lockKey, e.getMessage());
+            return true;
+        }
+    }
+
+    private void unlock(String lockKey, String token) {
+        try {
+            redisTemplate.execute(UNLOCK_SCRIPT, List.of(lockKey), token);
+        } catch (Exception e) {
+            log.warn("Cache {}: could not release lock {}, it expires in {}: {}",
+                    getName(), lockKey, settings.getLockTtl(), e.getMessage());
+        }
+    }
+
+    // ==================== REFRESH-AHEAD ====================
+
+    private void refreshAheadIfDue(Object key, String localKey, Callable<?> valueLoader) {
+        if (policy.refreshAhead() <= 0 || inFlight.containsKey(localKey)) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        Long expiry = expiresAt.get(localKey);
+        boolean confirmed = expiry == null;
+        if (confirmed) {
+            expiry = fetchExpiry(localKey);
+            if (expiry == null) {
+                return;
+            }
+        }
+        if (!refreshDue(expiry, now)) {
+            return;
+        }
+        if (!confirmed) {
+            // The estimate may predate a reload by another node, confirm before recomputing
+            Long actual = fetchExpiry(localKey);
+            if (actual == null || elapsedShare(actual, now) < policy.refreshAhead()) {
+                return;
+            }
+        }
+
+        CompletableFuture<Object> mine = new CompletableFuture<>();
+        if (inFlight.putIfAbsent(localKey, mine) != null) {
+            return;
+        }
+        Runnable refresh = () -> {
+            try {
+                refreshes.increment();
+                mine.complete(load(key, localKey, valueLoader, false));
+            } catch (RuntimeException e) {
+                log.warn("Cache {}: refresh-ahead of {} failed: {}", getName(), localKey, e.getMessage());
+                mine.completeExceptionally(e);
+            } finally {
+                inFlight.remove(localKey, mine);
+            }
+        };
+        try {
+            // The loader may check the caller's authentication
+            refresher.execute(new DelegatingSecurityContextRunnable(refresh));
+        } catch (RejectedExecutionException e) {
+            inFlight.remove(localKey, mine);
+            mine.complete(null);
+        }
+    }
+
+    /**
+     * Past the threshold share of the TTL the chance to refresh grows linearly, reaching 1 at expiry
+     */
+    private boolean refreshDue(long expiry, long now) {
+        double elapsed = elapsedShare(expiry, now);
+        if (elapsed < policy.refreshAhead()) {
+            return false;
+        }
+        double probability = (elapsed - policy.refreshAhead()) / (1.0 - policy.refreshAhead());
+        return ThreadLocalRandom.current().nextDouble() < probability;
+    }
+
+    private double elapsedShare(long expiry, long now) {
+        return 1.0 - (double) (expiry - now) / policy.ttl().toMillis();
+    }
+
+    private Long fetchExpiry(String localKey) {
+        try {
+            Long remaining = redisTemplate.getExpire(redisKeyPrefix + localKey, TimeUnit.MILLISECONDS);
+            if (remaining == null || remaining < 0) {
+                return null;
+            }
+            long expiry = System.currentTimeMillis() + remaining;
+            rememberExpiry(localKey, expiry);
+            return expiry;
+        } catch (Exception e) {
+            log.debug("Cache {}: could not read TTL of {}: {}", getName(), localKey, e.getMessage());
+            return null;
+        }
+    }
+
+    private void trackExpiry(String localKey) {
+        if (policy.refreshAhead() > 0) {
+            rememberExpiry(localKey, System.currentTimeMillis() + policy.ttl().toMillis());
+        }
+    }
+
+    private void rememberExpiry(String localKey, long expiry) {
+        if (expiresAt.size() >= MAX_TRACKED_EXPIRIES) {
+            // Estimates are only an optimization, dropping them costs one TTL lookup per key
+            expiresAt.clear();
+        }
+        expiresAt.put(localKey, expiry);
+    }
+
+    // ==================== STATS ====================
+
+    public long getLoads() {
+        return loads.sum();
+    }
+
+    public long getSharedLoads() {
+        return sharedLoads.sum();
+    }
+
+    public long getRefreshes() {
+        return refreshes.sum();
+    }
+}
@@ -2,17 +2,23 @@ package org.example.controller;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.example.service.CsvExportService;
+import org.example.service.RealtimeStatsService;
 import org.example.service.StatsService;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -23,6 +29,8 @@ import java.util.Map;
 public class StatsController {
 
     private final StatsService statsService;
+    private final CsvExportService csvExportService;
+    private final RealtimeStatsService realtimeStatsService;
 
     /**
      * Get overall statistics
@@ -180,25 +188,14 @@ public class StatsController {
     }
 
     /**
-     * Get retention statistics (stub)
+     * Get cohort retention statistics (D1/D7/D30)
      */
     @GetMapping("/retention")
     @PreAuthorize("hasAnyRole('ADMIN', 'MODERATOR')")
     public ResponseEntity<Map<String, Object>> getRetentionStats(
             @RequestParam(required = false, defaultValue = "30") Integer cohortDays) {
         log.info("Request for retention statistics for cohort days: {}", cohortDays);
-        try {
-            Map<String, Object> stats = Map.of(
-                    "message", "Retention statistics functionality under development",
-                    "cohortDays", cohortDays,
-                    "timestamp", LocalDateTime.now()
-            );
-            return ResponseEntity.ok(stats);
-        } catch (Exception e) {
-            log.error("Error getting retention statistics: {}", e.getMessage());
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body(Map.of("error", "Failed to get retention statistics"));
-        }
+        return ResponseEntity.ok(statsService.getRetentionStats(cohortDays));
     }
 
     /**
@@ -222,34 +219,33 @@ public class StatsController {
     }
 
     /**
-     * Export statistics to CSV (stub)
+     * Export raw statistics data to CSV.
+     * The response is streamed from a database cursor, optionally gzip-compressed.
      */
     @GetMapping("/export/csv")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<byte[]> exportStatsToCsv(@RequestParam String statType) {
-        log.info("Export statistics {} to CSV", statType);
-
-        try {
-            String csvContent = "Statistics;Value\n" +
-                    "Service;StatsService\n" +
-                    "Statistic type;" + statType + "\n" +
-                    "Export time;" + LocalDateTime.now() + "\n" +
-                    "Status;Under development";
-
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.parseMediaType("text/csv"));
-            headers.setContentDispositionFormData("attachment",
-                    String.format("%s_stats_%s.csv", statType, LocalDateTime.now().toString()));
-            headers.setCacheControl("must-revalidate, post-check=0, pre-check=0");
-
-            return new ResponseEntity<>(csvContent.getBytes(), headers, HttpStatus.OK);
-
-        } catch (Exception e) {
-            log.error("Error exporting statistics to CSV: {}", e.getMessage(), e);
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .header("Content-Type", "application/json")
-                    .body(("{\"error\": \"Failed to export statistics: " + e.getMessage() + "\"}").getBytes());
-        }
+    public ResponseEntity<StreamingResponseBody> exportStatsToCsv(
+            @RequestParam String statType,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate,
+            @RequestParam(defaultValue = "false") boolean gzip) {
+        log.info("Export statistics {} to CSV (gzip: {})", statType, gzip);
+
+        CsvExportService.ExportType type = CsvExportService.ExportType.fromString(statType);
+        String fileName = String.format("%s_%s.csv%s", type.getTable(),
+                LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss")), gzip ? ".gz" : "");
+
+        StreamingResponseBody body = outputStream ->
+                csvExportService.export(type, startDate, endDate, gzip, outputStream);
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(gzip
+                ? MediaType.parseMediaType("application/gzip")
+                : MediaType.parseMediaType("text/csv; charset=UTF-8"));
+        headers.setContentDisposition(ContentDisposition.attachment().filename(fileName).build());
+        headers.setCacheControl("no-store");
+
+        return new ResponseEntity<>(body, headers, HttpStatus.OK);
     }
 
     /**
@@ -346,6 +342,42 @@ public class StatsController {
         }
     }
 
+    /**
+     * Get user's leaderboard position and the players around them
+     */
+    @GetMapping("/leaderboard/users/{userId}")
+    @PreAuthorize("hasAnyRole('ADMIN', 'MODERATOR', 'USER')")
+    public ResponseEntity<Map<String, Object>> getLeaderboardPosition(
+            @PathVariable Long userId,
+            @RequestParam(defaultValue = "level") String criteria,
+            @RequestParam(defaultValue = "5") Integer radius) {
+
+        log.info("Request for leaderboard position of user ID: {}, criteria: {}", userId, criteria);
+
+        try {
+            Map<String, Object> stats = statsService.getLeaderboardPosition(criteria, userId, radius);
+            return ResponseEntity.ok(stats);
+        } catch (Exception e) {
+            log.error("Error getting leaderboard position: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("error", "Failed to get leaderboard position"));
+        }
+    }
+
+    /**
+     * Page through the full ranking by achievements, tasks or actions using a seek cursor
+     */
+    @GetMapping("/rankings/{category}")
+    @PreAuthorize("hasAnyRole('ADMIN', 'MODERATOR', 'USER')")
+    public ResponseEntity<Map<String, Object>> getRankingPage(
+            @PathVariable String category,
+            @RequestParam(required = false) Long afterCount,
+            @RequestParam(required = false) Long afterUserId,
+            @RequestParam(defaultValue = "20") Integer size) {
+        log.info("Request for ranking page: {}, after ({}, {}), size: {}", category, afterCount, afterUserId, size);
+        return ResponseEntity.ok(statsService.getRankingPage(category, afterCount, afterUserId, size));
+    }
+
     /**
      * Get user game statistics
      */
@@ -448,6 +480,18 @@ public class StatsController {
         }
     }
 
+    /**
+     * Stream realtime statistics: a "snapshot" event, then "delta" events with changed values only
+     */
+    @GetMapping(value = "/realtime/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @PreAuthorize("hasAnyRole('ADMIN', 'MODERATOR')")
+    public ResponseEntity<SseEmitter> streamRealtimeStats() {
+        log.info("Subscription to realtime stats stream");
+        return realtimeStatsService.subscribe()
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build());
+    }
+
     /**
      * Service health check
      */
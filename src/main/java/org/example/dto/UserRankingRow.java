@@ -0,0 +1,20 @@
+package org.example.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * One user of a grouped ranking query: the counted value and the time of the latest counted row
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserRankingRow {
+    private Long userId;
+    private String username;
+    private Long value;
+    private LocalDateTime lastActivity;
+}
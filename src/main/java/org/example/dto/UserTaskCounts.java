@@ -0,0 +1,18 @@
+package org.example.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Tasks of one user: all of them and the completed ones
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserTaskCounts {
+    private Long userId;
+    private String username;
+    private Long taskCount;
+    private Long completedTasks;
+}
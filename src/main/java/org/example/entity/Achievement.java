@@ -2,12 +2,18 @@ package org.example.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.example.entity.json.ItemRewards;
+import org.example.entity.json.JsonColumnConverters;
+import org.example.entity.json.NamedValues;
+import org.example.entity.json.Objectives;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.DynamicUpdate;
 import org.hibernate.annotations.UpdateTimestamp;
 
 import java.time.LocalDateTime;
 
 @Entity
+@DynamicUpdate
 @Getter
 @Setter
 @NoArgsConstructor
@@ -54,7 +60,9 @@ public class Achievement {
 
     // Requirements
     @Column(name = "requirements", columnDefinition = "JSON")
-    private String requirements;
+    @Convert(converter = JsonColumnConverters.ObjectivesConverter.class)
+    @Builder.Default
+    private Objectives requirements = Objectives.EMPTY;
 
     @Column(name = "points_required")
     @Builder.Default
@@ -83,13 +91,19 @@ public class Achievement {
     private String rewardBadge;
 
     @Column(name = "reward_items", columnDefinition = "JSON")
-    private String rewardItems;
+    @Convert(converter = JsonColumnConverters.ItemRewardsConverter.class)
+    @Builder.Default
+    private ItemRewards rewardItems = ItemRewards.EMPTY;
 
     @Column(name = "reward_currency", columnDefinition = "JSON")
-    private String rewardCurrency;
+    @Convert(converter = JsonColumnConverters.NamedValuesConverter.class)
+    @Builder.Default
+    private NamedValues rewardCurrency = NamedValues.EMPTY;
 
     @Column(name = "reward_stats", columnDefinition = "JSON")
-    private String rewardStats;
+    @Convert(converter = JsonColumnConverters.NamedValuesConverter.class)
+    @Builder.Default
+    private NamedValues rewardStats = NamedValues.EMPTY;
 
     @Column(name = "reward_experience")
     private Integer rewardExperience;
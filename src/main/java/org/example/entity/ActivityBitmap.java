@@ -0,0 +1,51 @@
+package org.example.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Set of user ids for one day, stored as a deflated bitmap with the user id as bit index.
+ * A {@link Kind#COHORT} row holds the users who registered that day,
+ * an {@link Kind#ACTIVE} row the users who started or ended a game session that day.
+ */
+@Entity
+@Table(name = "activity_bitmaps",
+        uniqueConstraints = {
+                @UniqueConstraint(name = "uk_activity_bitmap_day", columnNames = {"kind", "day"})
+        })
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@ToString(exclude = "bitmap")
+public class ActivityBitmap {
+
+    public enum Kind {
+        COHORT, ACTIVE
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "kind", nullable = false, length = 10)
+    private Kind kind;
+
+    @Column(name = "day", nullable = false)
+    private LocalDate day;
+
+    @Lob
+    @Column(name = "bitmap", nullable = false, columnDefinition = "LONGBLOB")
+    private byte[] bitmap;
+
+    @Column(name = "cardinality", nullable = false)
+    private long cardinality;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
@@ -2,6 +2,9 @@ package org.example.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.example.listener.DashboardSnapshotListener;
+import org.example.listener.LeaderboardListener;
+import org.example.listener.StatsRollupListener;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
@@ -9,6 +12,7 @@ import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "game_actions")
+@EntityListeners({StatsRollupListener.class, LeaderboardListener.class, DashboardSnapshotListener.class})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -2,11 +2,13 @@ package org.example.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.example.listener.StatsRollupListener;
 
 import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "game_sessions")
+@EntityListeners(StatsRollupListener.class)
 @Getter
 @Setter
 @NoArgsConstructor
@@ -56,6 +58,11 @@ public class GameSession {
     @Builder.Default
     private LocalDateTime updatedAt = LocalDateTime.now();
 
+    // End time already reported to the stats rollups
+    @Transient
+    @ToString.Exclude
+    private LocalDateTime loadedEndTime;
+
     @PrePersist
     protected void onCreate() {
         if (createdAt == null) {
@@ -77,6 +84,19 @@ public class GameSession {
         updatedAt = LocalDateTime.now();
     }
 
+    @PostLoad
+    protected void onLoad() {
+        loadedEndTime = endTime;
+    }
+
+    public boolean isEndedSinceLoad() {
+        return endTime != null && loadedEndTime == null;
+    }
+
+    public void markEndTimeRecorded() {
+        loadedEndTime = endTime;
+    }
+
     public void completeSession() {
         this.endTime = LocalDateTime.now();
         this.status = Status.COMPLETED;
@@ -2,12 +2,21 @@ package org.example.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.example.config.EntityCacheRegions;
+import org.example.listener.CatalogListener;
+import org.example.listener.DashboardSnapshotListener;
+import org.example.listener.EntityCacheListener;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
 import java.time.LocalDateTime;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = EntityCacheRegions.LOCATION)
+@EntityListeners({DashboardSnapshotListener.class, CatalogListener.class, EntityCacheListener.class})
 @Table(name = "locations")
 @Getter
 @Setter
@@ -2,12 +2,20 @@ package org.example.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.example.entity.json.BehaviorPattern;
+import org.example.entity.json.JsonColumnConverters;
+import org.example.entity.json.MonsterSkills;
+import org.example.entity.json.NamedValues;
+import org.example.listener.CatalogListener;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.DynamicUpdate;
 import org.hibernate.annotations.UpdateTimestamp;
 
 import java.time.LocalDateTime;
 
 @Entity
+@DynamicUpdate
+@EntityListeners(CatalogListener.class)
 @Table(name = "monsters")
 @Getter
 @Setter
@@ -95,7 +103,9 @@ public class Monster {
 
     // Resistances
     @Column(name = "resistances", columnDefinition = "JSON")
-    private String resistances; // {fire: 0.5, frost: 0.25}
+    @Convert(converter = JsonColumnConverters.NamedValuesConverter.class)
+    @Builder.Default
+    private NamedValues resistances = NamedValues.EMPTY; // {fire: 0.5, frost: 0.25}
 
     @Column(name = "immunities", columnDefinition = "JSON")
     private String immunities;
@@ -105,7 +115,9 @@ public class Monster {
 
     // Behavior
     @Column(name = "behavior_pattern", columnDefinition = "JSON")
-    private String behaviorPattern;
+    @Convert(converter = JsonColumnConverters.BehaviorPatternConverter.class)
+    @Builder.Default
+    private BehaviorPattern behaviorPattern = BehaviorPattern.EMPTY;
 
     @Column(name = "patrol_route", columnDefinition = "JSON")
     private String patrolRoute;
@@ -154,7 +166,9 @@ public class Monster {
 
     // Skills and abilities
     @Column(name = "skills", columnDefinition = "JSON")
-    private String skills;
+    @Convert(converter = JsonColumnConverters.MonsterSkillsConverter.class)
+    @Builder.Default
+    private MonsterSkills skills = MonsterSkills.EMPTY;
 
     @Column(name = "abilities", columnDefinition = "JSON")
     private String abilities;
@@ -196,4 +210,11 @@ public class Monster {
     @UpdateTimestamp
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
-}
\ No newline at end of file
+
+    /**
+     * Share of damage of the given school the monster ignores, 0 when it has no resistance
+     */
+    public double resistanceTo(String school) {
+        return resistances != null ? resistances.get(school) : 0.0;
+    }
+}
@@ -2,12 +2,19 @@ package org.example.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.example.entity.json.DialogueTree;
+import org.example.entity.json.JsonColumnConverters;
+import org.example.entity.json.VendorItems;
+import org.example.listener.CatalogListener;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.DynamicUpdate;
 import org.hibernate.annotations.UpdateTimestamp;
 
 import java.time.LocalDateTime;
 
 @Entity
+@DynamicUpdate
+@EntityListeners(CatalogListener.class)
 @Table(name = "npcs")
 @Getter
 @Setter
@@ -58,7 +65,9 @@ public class NPC {
     private String services; // {vendor: true, repair: true, bank: true}
 
     @Column(name = "vendor_items", columnDefinition = "JSON")
-    private String vendorItems;
+    @Convert(converter = JsonColumnConverters.VendorItemsConverter.class)
+    @Builder.Default
+    private VendorItems vendorItems = VendorItems.EMPTY;
 
     @Column(name = "repair_items", columnDefinition = "JSON")
     private String repairItems;
@@ -71,7 +80,9 @@ public class NPC {
 
     // Dialogue
     @Column(name = "dialogue_tree", columnDefinition = "JSON")
-    private String dialogueTree;
+    @Convert(converter = JsonColumnConverters.DialogueTreeConverter.class)
+    @Builder.Default
+    private DialogueTree dialogueTree = DialogueTree.EMPTY;
 
     @Column(name = "dialogue_options", columnDefinition = "JSON")
     private String dialogueOptions;
@@ -2,12 +2,19 @@ package org.example.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.example.entity.json.JsonColumnConverters;
+import org.example.entity.json.Objectives;
+import org.example.entity.json.Rewards;
+import org.example.listener.CatalogListener;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.DynamicUpdate;
 import org.hibernate.annotations.UpdateTimestamp;
 
 import java.time.LocalDateTime;
 
 @Entity
+@DynamicUpdate
+@EntityListeners(CatalogListener.class)
 @Table(name = "quests")
 @Getter
 @Setter
@@ -81,7 +88,9 @@ public class Quest {
 
     // Objectives
     @Column(name = "objectives", columnDefinition = "JSON")
-    private String objectives;
+    @Convert(converter = JsonColumnConverters.ObjectivesConverter.class)
+    @Builder.Default
+    private Objectives objectives = Objectives.EMPTY;
 
     @Column(name = "objective_types", columnDefinition = "JSON")
     private String objectiveTypes;
@@ -91,7 +100,9 @@ public class Quest {
 
     // Rewards
     @Column(name = "rewards", columnDefinition = "JSON")
-    private String rewards;
+    @Convert(converter = JsonColumnConverters.RewardsConverter.class)
+    @Builder.Default
+    private Rewards rewards = Rewards.EMPTY;
 
     @Column(name = "choice_rewards", columnDefinition = "JSON")
     private String choiceRewards;
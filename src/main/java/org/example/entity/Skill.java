@@ -2,12 +2,20 @@ package org.example.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.example.entity.json.JsonColumnConverters;
+import org.example.entity.json.NamedValues;
+import org.example.entity.json.SkillEffects;
+import org.example.listener.CatalogListener;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.DynamicUpdate;
 import org.hibernate.annotations.UpdateTimestamp;
 
 import java.time.LocalDateTime;
+import java.util.Map;
 
 @Entity
+@DynamicUpdate
+@EntityListeners(CatalogListener.class)
 @Table(name = "skills")
 @Getter
 @Setter
@@ -128,13 +136,19 @@ public class Skill {
 
     // Effects
     @Column(name = "effects", columnDefinition = "JSON")
-    private String effects;
+    @Convert(converter = JsonColumnConverters.SkillEffectsConverter.class)
+    @Builder.Default
+    private SkillEffects effects = SkillEffects.EMPTY;
 
     @Column(name = "scaling", columnDefinition = "JSON")
-    private String scaling; // {strength: 0.5, intelligence: 1.0}
+    @Convert(converter = JsonColumnConverters.NamedValuesConverter.class)
+    @Builder.Default
+    private NamedValues scaling = NamedValues.EMPTY; // {strength: 0.5, intelligence: 1.0}
 
     @Column(name = "modifiers", columnDefinition = "JSON")
-    private String modifiers;
+    @Convert(converter = JsonColumnConverters.NamedValuesConverter.class)
+    @Builder.Default
+    private NamedValues modifiers = NamedValues.EMPTY;
 
     @Column(name = "proc_chance", precision = 5)
     private Double procChance;
@@ -226,4 +240,20 @@ public class Skill {
     @UpdateTimestamp
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
-}
\ No newline at end of file
+
+    /**
+     * Base damage plus the configured scaling of the caster's attributes (by lower-case name), times the damage multiplier
+     */
+    public double scaledDamage(Map<String, ? extends Number> attributes) {
+        double damage = baseDamage != null ? baseDamage : 0;
+        if (scaling != null) {
+            for (Map.Entry<String, Double> factor : scaling.values().entrySet()) {
+                Number attribute = attributes.get(factor.getKey());
+                if (attribute != null) {
+                    damage += attribute.doubleValue() * factor.getValue();
+                }
+            }
+        }
+        return damage * (damageMultiplier != null ? damageMultiplier : 1.0);
+    }
+}
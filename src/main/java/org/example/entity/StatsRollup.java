@@ -0,0 +1,119 @@
+package org.example.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Pre-aggregated counters for one time bucket.
+ * Rows are keyed by (granularity, bucket start, dimension), where dimension is
+ * either an action type or {@link #ALL} for the bucket totals.
+ */
+@Entity
+@Table(name = "stats_rollups",
+        uniqueConstraints = {
+                @UniqueConstraint(name = "uk_stats_rollup_bucket",
+                        columnNames = {"granularity", "bucket_start", "dimension"})
+        },
+        indexes = {
+                @Index(name = "idx_stats_rollup_range", columnList = "granularity, dimension, bucket_start")
+        })
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@ToString
+public class StatsRollup {
+
+    public static final String ALL = "ALL";
+
+    public enum Granularity {
+        MINUTE(ChronoUnit.MINUTES),
+        HOUR(ChronoUnit.HOURS),
+        DAY(ChronoUnit.DAYS);
+
+        private final ChronoUnit unit;
+
+        Granularity(ChronoUnit unit) {
+            this.unit = unit;
+        }
+
+        public ChronoUnit unit() {
+            return unit;
+        }
+
+        public LocalDateTime truncate(LocalDateTime time) {
+            return time.truncatedTo(unit);
+        }
+
+        public LocalDateTime ceil(LocalDateTime time) {
+            LocalDateTime floor = truncate(time);
+            return floor.equals(time) ? floor : floor.plus(1, unit);
+        }
+
+        public LocalDateTime next(LocalDateTime bucketStart) {
+            return bucketStart.plus(1, unit);
+        }
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "granularity", nullable = false, length = 10)
+    private Granularity granularity;
+
+    @Column(name = "bucket_start", nullable = false)
+    private LocalDateTime bucketStart;
+
+    @Column(name = "dimension", nullable = false, length = 50)
+    private String dimension;
+
+    // Actions
+    @Column(name = "action_count", nullable = false)
+    @Builder.Default
+    private long actionCount = 0;
+
+    @Column(name = "experience_gained", nullable = false)
+    @Builder.Default
+    private long experienceGained = 0;
+
+    @Column(name = "gold_gained", nullable = false)
+    @Builder.Default
+    private long goldGained = 0;
+
+    // Sessions (only on ALL rows)
+    @Column(name = "session_count", nullable = false)
+    @Builder.Default
+    private long sessionCount = 0;
+
+    @Column(name = "completed_sessions", nullable = false)
+    @Builder.Default
+    private long completedSessions = 0;
+
+    @Column(name = "session_minutes_total", nullable = false)
+    @Builder.Default
+    private long sessionMinutesTotal = 0;
+
+    @Column(name = "session_minutes_min")
+    private Long sessionMinutesMin;
+
+    @Column(name = "session_minutes_max")
+    private Long sessionMinutesMax;
+
+    // Registrations and achievements (only on ALL rows)
+    @Column(name = "registrations", nullable = false)
+    @Builder.Default
+    private long registrations = 0;
+
+    @Column(name = "achievements_unlocked", nullable = false)
+    @Builder.Default
+    private long achievementsUnlocked = 0;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+}
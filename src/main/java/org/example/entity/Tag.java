@@ -2,11 +2,19 @@ package org.example.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.example.config.EntityCacheRegions;
+import org.example.listener.DashboardSnapshotListener;
+import org.example.listener.EntityCacheListener;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.util.HashSet;
 import java.util.Set;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = EntityCacheRegions.TAG)
+@EntityListeners({DashboardSnapshotListener.class, EntityCacheListener.class})
 @Table(name = "tags")
 @Getter
 @Setter
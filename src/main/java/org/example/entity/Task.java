@@ -2,6 +2,9 @@ package org.example.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.example.listener.DashboardSnapshotListener;
+import org.example.listener.LeaderboardListener;
+import org.example.listener.StatsRollupListener;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
@@ -11,6 +14,7 @@ import java.util.Set;
 
 @Entity
 @Table(name = "tasks")
+@EntityListeners({StatsRollupListener.class, LeaderboardListener.class, DashboardSnapshotListener.class})
 @Getter
 @Setter
 @NoArgsConstructor
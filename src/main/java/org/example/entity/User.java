@@ -2,22 +2,37 @@ package org.example.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.example.config.EntityCacheRegions;
+import org.example.listener.CacheInvalidationListener;
+import org.example.listener.DashboardSnapshotListener;
+import org.example.listener.EntityCacheListener;
+import org.example.listener.LeaderboardListener;
+import org.example.listener.StatsRollupListener;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.LastModifiedDate;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 
 import java.time.LocalDateTime;
 import java.util.HashSet;
+import java.util.Objects;
 import java.util.Set;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = EntityCacheRegions.USER)
+@NaturalIdCache(region = EntityCacheRegions.USER_BY_USERNAME)
 @Table(name = "users")
 @Getter
 @Setter
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
-@EntityListeners(AuditingEntityListener.class)
+@EntityListeners({AuditingEntityListener.class, StatsRollupListener.class, LeaderboardListener.class,
+        DashboardSnapshotListener.class, EntityCacheListener.class, CacheInvalidationListener.class})
 @ToString(exclude = {"password"}) // LEAVE ONLY EXISTING FIELDS
 public class User {
 
@@ -34,6 +49,7 @@ public class User {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
+    @NaturalId
     @Column(unique = true, nullable = false, length = 50)
     private String username;
 
@@ -83,6 +99,7 @@ public class User {
     @ElementCollection(fetch = FetchType.EAGER)
     @CollectionTable(name = "user_roles", joinColumns = @JoinColumn(name = "user_id"))
     @Column(name = "role")
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = EntityCacheRegions.USER_ROLES)
     @Builder.Default
     private Set<String> roles = new HashSet<>();
 
@@ -142,6 +159,15 @@ public class User {
         this.status = UserStatus.BANNED;
     }
 
+    /**
+     * Changes whenever the state checked on authentication changes: status, account flags, roles,
+     * password or deletion. Access tokens carry the stamp they were issued with, see SecurityStamps.
+     */
+    public int securityStamp() {
+        return Objects.hash(status != null ? status.name() : null, enabled, accountNonExpired, accountNonLocked,
+                credentialsNonExpired, password, deletedAt, roles != null ? roles.hashCode() : 0);
+    }
+
     public boolean canLogin() {
         return enabled && accountNonExpired && accountNonLocked && credentialsNonExpired &&
                 (status == UserStatus.ACTIVE || status == UserStatus.PENDING);
@@ -2,12 +2,16 @@ package org.example.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.example.listener.DashboardSnapshotListener;
+import org.example.listener.LeaderboardListener;
+import org.example.listener.StatsRollupListener;
 import org.hibernate.annotations.CreationTimestamp;
 
 import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "user_achievements")
+@EntityListeners({StatsRollupListener.class, LeaderboardListener.class, DashboardSnapshotListener.class})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -0,0 +1,53 @@
+package org.example.entity.json;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonValue;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Ordered combat rules of a monster; the first rule whose condition holds decides the next action,
+ * e.g. {@code [{healthBelow: 0.3, action: "FLEE"}, {action: "ATTACK"}]}
+ */
+public record BehaviorPattern(List<Rule> rules) {
+
+    public static final BehaviorPattern EMPTY = new BehaviorPattern(List.of());
+
+    public BehaviorPattern {
+        rules = rules == null ? List.of() : rules.stream().filter(Objects::nonNull).toList();
+    }
+
+    @JsonCreator(mode = JsonCreator.Mode.DELEGATING)
+    public static BehaviorPattern of(List<Rule> rules) {
+        return rules == null || rules.isEmpty() ? EMPTY : new BehaviorPattern(rules);
+    }
+
+    @Override
+    @JsonValue
+    public List<Rule> rules() {
+        return rules;
+    }
+
+    /**
+     * The first rule that applies at the given share of health (0..1)
+     */
+    public Optional<Rule> select(double healthShare) {
+        return rules.stream().filter(rule -> rule.appliesAt(healthShare)).findFirst();
+    }
+
+    /**
+     * @param healthBelow share of health under which the rule applies, null means always
+     * @param action      ATTACK, CAST, FLEE, CALL_FOR_HELP, ...
+     * @param skillCode   skill used by a CAST action
+     */
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public record Rule(Double healthBelow, String action, String skillCode, Double chance, Integer cooldownMs) {
+
+        public boolean appliesAt(double healthShare) {
+            return healthBelow == null || healthShare < healthBelow;
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package org.example.entity.json;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Dialogue of an NPC as nodes by id, e.g.
+ * {@code {start: "greet", nodes: {greet: {text: "...", options: [{text: "Bye", next: null}]}}}}
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record DialogueTree(String start, Map<String, Node> nodes) {
+
+    public static final DialogueTree EMPTY = new DialogueTree(null, Map.of());
+
+    public DialogueTree {
+        nodes = nodes == null ? Map.of() : Map.copyOf(nodes);
+    }
+
+    public Optional<Node> startNode() {
+        return node(start);
+    }
+
+    public Optional<Node> node(String id) {
+        return Optional.ofNullable(id != null ? nodes.get(id) : null);
+    }
+
+    /**
+     * The node an option of the given node leads to; empty when the option ends the dialogue
+     */
+    public Optional<Node> next(String nodeId, int optionIndex) {
+        return node(nodeId)
+                .filter(node -> optionIndex >= 0 && optionIndex < node.options().size())
+                .flatMap(node -> node(node.options().get(optionIndex).next()));
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public record Node(String text, List<Option> options) {
+
+        public Node {
+            options = options == null ? List.of() : options.stream().filter(Objects::nonNull).toList();
+        }
+    }
+
+    /**
+     * @param action OPEN_SHOP, GIVE_QUEST, ... executed when the option is picked
+     */
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public record Option(String text, String next, String action, Long questId, Integer requiredLevel) {
+    }
+}
@@ -0,0 +1,39 @@
+package org.example.entity.json;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonValue;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Items granted as a reward, e.g. {@code [{itemId: 12, quantity: 2}]}
+ */
+public record ItemRewards(List<Item> items) {
+
+    public static final ItemRewards EMPTY = new ItemRewards(List.of());
+
+    public ItemRewards {
+        items = items == null ? List.of() : items.stream().filter(Objects::nonNull).toList();
+    }
+
+    @JsonCreator(mode = JsonCreator.Mode.DELEGATING)
+    public static ItemRewards of(List<Item> items) {
+        return items == null || items.isEmpty() ? EMPTY : new ItemRewards(items);
+    }
+
+    @Override
+    @JsonValue
+    public List<Item> items() {
+        return items;
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public record Item(Long itemId, String itemCode, Integer quantity, Double chance) {
+
+        public int quantityOrOne() {
+            return quantity != null && quantity > 0 ? quantity : 1;
+        }
+    }
+}
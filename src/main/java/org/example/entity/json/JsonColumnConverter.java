@@ -0,0 +1,66 @@
+package org.example.entity.json;
+
+import com.fasterxml.jackson.annotation.JsonAutoDetect;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.PropertyAccessor;
+import com.fasterxml.jackson.core.json.JsonReadFeature;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import jakarta.persistence.AttributeConverter;
+
+/**
+ * Parses a JSON column into its value object once, when the entity is loaded.
+ * <p>
+ * A missing column reads as the empty value. A malformed one fails the load instead: reading it as
+ * empty would let the next write of the entity replace the stored content. Properties the value
+ * object does not model are skipped on read and are not written back, so entities with such columns
+ * use {@link org.hibernate.annotations.DynamicUpdate}: an unchanged column is left out of the update
+ * and keeps its original text. Subclasses are marked {@link org.hibernate.annotations.Immutable}:
+ * the values cannot change, so Hibernate compares them by value instead of keeping a deep copy.
+ */
+public abstract class JsonColumnConverter<T> implements AttributeConverter<T, String> {
+
+    // Independent of the web ObjectMapper: entities are hydrated before the context is fully up
+    private static final JsonMapper MAPPER = JsonMapper.builder()
+            .enable(JsonReadFeature.ALLOW_UNQUOTED_FIELD_NAMES)
+            .enable(JsonReadFeature.ALLOW_SINGLE_QUOTES)
+            .enable(JsonReadFeature.ALLOW_TRAILING_COMMA)
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+            // Helpers such as isEmpty() are not part of the stored value
+            .visibility(PropertyAccessor.IS_GETTER, JsonAutoDetect.Visibility.NONE)
+            .serializationInclusion(JsonInclude.Include.NON_NULL)
+            .build();
+
+    private final Class<T> type;
+    private final T empty;
+
+    protected JsonColumnConverter(Class<T> type, T empty) {
+        this.type = type;
+        this.empty = empty;
+    }
+
+    @Override
+    public String convertToDatabaseColumn(T value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return MAPPER.writeValueAsString(value);
+        } catch (Exception e) {
+            throw new IllegalArgumentException("Cannot write " + type.getSimpleName() + " as JSON", e);
+        }
+    }
+
+    @Override
+    public T convertToEntityAttribute(String json) {
+        if (json == null || json.isBlank()) {
+            return empty;
+        }
+        try {
+            T value = MAPPER.readValue(json, type);
+            return value != null ? value : empty;
+        } catch (Exception e) {
+            throw new IllegalArgumentException("Cannot read " + type.getSimpleName() + " from JSON: " + e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package org.example.entity.json;
+
+import org.hibernate.annotations.Immutable;
+
+/**
+ * Converters for the typed JSON columns of the game content entities
+ */
+public final class JsonColumnConverters {
+
+    private JsonColumnConverters() {
+    }
+
+    @Immutable
+    public static class NamedValuesConverter extends JsonColumnConverter<NamedValues> {
+        public NamedValuesConverter() {
+            super(NamedValues.class, NamedValues.EMPTY);
+        }
+    }
+
+    @Immutable
+    public static class SkillEffectsConverter extends JsonColumnConverter<SkillEffects> {
+        public SkillEffectsConverter() {
+            super(SkillEffects.class, SkillEffects.EMPTY);
+        }
+    }
+
+    @Immutable
+    public static class BehaviorPatternConverter extends JsonColumnConverter<BehaviorPattern> {
+        public BehaviorPatternConverter() {
+            super(BehaviorPattern.class, BehaviorPattern.EMPTY);
+        }
+    }
+
+    @Immutable
+    public static class MonsterSkillsConverter extends JsonColumnConverter<MonsterSkills> {
+        public MonsterSkillsConverter() {
+            super(MonsterSkills.class, MonsterSkills.EMPTY);
+        }
+    }
+
+    @Immutable
+    public static class ObjectivesConverter extends JsonColumnConverter<Objectives> {
+        public ObjectivesConverter() {
+            super(Objectives.class, Objectives.EMPTY);
+        }
+    }
+
+    @Immutable
+    public static class RewardsConverter extends JsonColumnConverter<Rewards> {
+        public RewardsConverter() {
+            super(Rewards.class, Rewards.EMPTY);
+        }
+    }
+
+    @Immutable
+    public static class ItemRewardsConverter extends JsonColumnConverter<ItemRewards> {
+        public ItemRewardsConverter() {
+            super(ItemRewards.class, ItemRewards.EMPTY);
+        }
+    }
+
+    @Immutable
+    public static class DialogueTreeConverter extends JsonColumnConverter<DialogueTree> {
+        public DialogueTreeConverter() {
+            super(DialogueTree.class, DialogueTree.EMPTY);
+        }
+    }
+
+    @Immutable
+    public static class VendorItemsConverter extends JsonColumnConverter<VendorItems> {
+        public VendorItemsConverter() {
+            super(VendorItems.class, VendorItems.EMPTY);
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package org.example.entity.json;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonValue;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Skills a monster can use, by skill id or code, e.g. {@code [{skillCode: "fireball", chance: 0.2}]}
+ */
+public record MonsterSkills(List<Entry> skills) {
+
+    public static final MonsterSkills EMPTY = new MonsterSkills(List.of());
+
+    public MonsterSkills {
+        skills = skills == null ? List.of() : skills.stream().filter(Objects::nonNull).toList();
+    }
+
+    @JsonCreator(mode = JsonCreator.Mode.DELEGATING)
+    public static MonsterSkills of(List<Entry> skills) {
+        return skills == null || skills.isEmpty() ? EMPTY : new MonsterSkills(skills);
+    }
+
+    @Override
+    @JsonValue
+    public List<Entry> skills() {
+        return skills;
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public record Entry(Long skillId, String skillCode, Integer level, Double chance, Integer cooldownMs) {
+    }
+}
@@ -0,0 +1,64 @@
+package org.example.entity.json;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Numbers by name, e.g. resistances {@code {fire: 0.5, frost: 0.25}} or stat scaling
+ * {@code {strength: 0.5, intelligence: 1.0}}. Names keep their stored spelling and order and are
+ * matched case-insensitively.
+ */
+public record NamedValues(Map<String, Double> values) {
+
+    public static final NamedValues EMPTY = new NamedValues(Map.of());
+
+    public NamedValues {
+        Map<String, Double> present = new LinkedHashMap<>();
+        if (values != null) {
+            values.forEach((name, value) -> {
+                if (name != null && value != null) {
+                    present.put(name, value);
+                }
+            });
+        }
+        values = Collections.unmodifiableMap(present);
+    }
+
+    @JsonCreator(mode = JsonCreator.Mode.DELEGATING)
+    public static NamedValues of(Map<String, Double> values) {
+        return values == null || values.isEmpty() ? EMPTY : new NamedValues(values);
+    }
+
+    @Override
+    @JsonValue
+    public Map<String, Double> values() {
+        return values;
+    }
+
+    public double get(String name) {
+        return get(name, 0.0);
+    }
+
+    public double get(String name, double defaultValue) {
+        if (name == null) {
+            return defaultValue;
+        }
+        Double value = values.get(name);
+        if (value == null) {
+            value = values.entrySet().stream()
+                    .filter(entry -> entry.getKey().equalsIgnoreCase(name))
+                    .map(Map.Entry::getValue)
+                    .findFirst()
+                    .orElse(null);
+        }
+        return value != null ? value : defaultValue;
+    }
+
+    public boolean isEmpty() {
+        return values.isEmpty();
+    }
+}
@@ -0,0 +1,55 @@
+package org.example.entity.json;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonValue;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.function.ToIntFunction;
+
+/**
+ * Goals of a quest or requirements of an achievement,
+ * e.g. {@code [{type: "KILL", target: "wolf", count: 10}, {type: "VISIT", targetId: 3}]}
+ */
+public record Objectives(List<Objective> objectives) {
+
+    public static final Objectives EMPTY = new Objectives(List.of());
+
+    public Objectives {
+        objectives = objectives == null ? List.of() : objectives.stream().filter(Objects::nonNull).toList();
+    }
+
+    @JsonCreator(mode = JsonCreator.Mode.DELEGATING)
+    public static Objectives of(List<Objective> objectives) {
+        return objectives == null || objectives.isEmpty() ? EMPTY : new Objectives(objectives);
+    }
+
+    @Override
+    @JsonValue
+    public List<Objective> objectives() {
+        return objectives;
+    }
+
+    /**
+     * Whether every objective reached its count, given the progress made on each
+     */
+    public boolean isComplete(ToIntFunction<Objective> progress) {
+        return objectives.stream().allMatch(objective -> progress.applyAsInt(objective) >= objective.requiredCount());
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public record Objective(String type, String target, Long targetId, Integer count, String description) {
+
+        public int requiredCount() {
+            return count != null && count > 0 ? count : 1;
+        }
+
+        /**
+         * Identifies the objective in progress tracking, e.g. "KILL:wolf" or "VISIT:3"
+         */
+        public String key() {
+            return type + ":" + (target != null ? target : targetId);
+        }
+    }
+}
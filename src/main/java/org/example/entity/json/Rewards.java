@@ -0,0 +1,21 @@
+package org.example.entity.json;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+/**
+ * Rewards of a quest, e.g. {@code {experience: 500, gold: 20, items: [{itemId: 7}], reputation: {guards: 50}}}
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record Rewards(long experience, long gold, ItemRewards items, NamedValues reputation) {
+
+    public static final Rewards EMPTY = new Rewards(0, 0, ItemRewards.EMPTY, NamedValues.EMPTY);
+
+    public Rewards {
+        items = items != null ? items : ItemRewards.EMPTY;
+        reputation = reputation != null ? reputation : NamedValues.EMPTY;
+    }
+
+    public boolean isEmpty() {
+        return experience == 0 && gold == 0 && items.items().isEmpty() && reputation.isEmpty();
+    }
+}
@@ -0,0 +1,53 @@
+package org.example.entity.json;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonValue;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Effects a skill applies when it lands, e.g. {@code [{type: "DAMAGE", school: "FIRE", amount: 40}]}
+ */
+public record SkillEffects(List<Effect> effects) {
+
+    public static final SkillEffects EMPTY = new SkillEffects(List.of());
+
+    public SkillEffects {
+        effects = effects == null ? List.of() : effects.stream().filter(Objects::nonNull).toList();
+    }
+
+    @JsonCreator(mode = JsonCreator.Mode.DELEGATING)
+    public static SkillEffects of(List<Effect> effects) {
+        return effects == null || effects.isEmpty() ? EMPTY : new SkillEffects(effects);
+    }
+
+    @Override
+    @JsonValue
+    public List<Effect> effects() {
+        return effects;
+    }
+
+    public List<Effect> ofType(String type) {
+        return effects.stream().filter(effect -> effect.type() != null && effect.type().equalsIgnoreCase(type)).toList();
+    }
+
+    /**
+     * @param type     DAMAGE, HEAL, BUFF, DEBUFF, STUN, ...
+     * @param target   SELF, TARGET or AREA
+     * @param chance   0..1, null means always
+     */
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public record Effect(String type, String school, String target, Integer amount,
+                         Integer durationMs, Double chance, String stat) {
+
+        public int amountOrZero() {
+            return amount != null ? amount : 0;
+        }
+
+        public boolean isGuaranteed() {
+            return chance == null || chance >= 1.0;
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package org.example.entity.json;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonValue;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Goods an NPC sells, e.g. {@code [{itemId: 5, price: 30, stock: 10}]}; a null stock is unlimited
+ */
+public record VendorItems(List<Item> items) {
+
+    public static final VendorItems EMPTY = new VendorItems(List.of());
+
+    public VendorItems {
+        items = items == null ? List.of() : items.stream().filter(Objects::nonNull).toList();
+    }
+
+    @JsonCreator(mode = JsonCreator.Mode.DELEGATING)
+    public static VendorItems of(List<Item> items) {
+        return items == null || items.isEmpty() ? EMPTY : new VendorItems(items);
+    }
+
+    @Override
+    @JsonValue
+    public List<Item> items() {
+        return items;
+    }
+
+    public Optional<Item> find(Long itemId) {
+        return items.stream().filter(item -> Objects.equals(item.itemId(), itemId)).findFirst();
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public record Item(Long itemId, String itemCode, Integer price, Integer stock) {
+    }
+}
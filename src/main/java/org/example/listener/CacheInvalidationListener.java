@@ -0,0 +1,38 @@
+package org.example.listener;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.example.entity.User;
+import org.example.service.CacheInvalidationService;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+/**
+ * Hands committed entity changes to the {@link CacheInvalidationService}
+ */
+@Component
+public class CacheInvalidationListener {
+
+    // Resolved lazily: entity listeners are created while the EntityManagerFactory is still being built
+    private final ObjectProvider<CacheInvalidationService> invalidationService;
+
+    public CacheInvalidationListener(ObjectProvider<CacheInvalidationService> invalidationService) {
+        this.invalidationService = invalidationService;
+    }
+
+    @PostPersist
+    @PostUpdate
+    public void afterChange(Object entity) {
+        if (entity instanceof User user) {
+            TransactionCallbacks.afterCommit(() -> invalidationService.ifAvailable(service -> service.userChanged(user)));
+        }
+    }
+
+    @PostRemove
+    public void afterRemove(Object entity) {
+        if (entity instanceof User user) {
+            TransactionCallbacks.afterCommit(() -> invalidationService.ifAvailable(service -> service.userRemoved(user)));
+        }
+    }
+}
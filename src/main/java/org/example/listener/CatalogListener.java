@@ -0,0 +1,29 @@
+package org.example.listener;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.example.service.GameCatalog;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+/**
+ * Marks the game catalog outdated once a change to static content is committed
+ */
+@Component
+public class CatalogListener {
+
+    // Resolved lazily: entity listeners are created while the EntityManagerFactory is still being built
+    private final ObjectProvider<GameCatalog> gameCatalog;
+
+    public CatalogListener(ObjectProvider<GameCatalog> gameCatalog) {
+        this.gameCatalog = gameCatalog;
+    }
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void afterChange(Object entity) {
+        TransactionCallbacks.afterCommit(() -> gameCatalog.ifAvailable(GameCatalog::contentChanged));
+    }
+}
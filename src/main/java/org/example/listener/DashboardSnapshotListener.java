@@ -0,0 +1,29 @@
+package org.example.listener;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.example.service.DashboardSnapshots;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+/**
+ * Counts committed writes of the entities behind the dashboard snapshots, so busy periods refresh them sooner
+ */
+@Component
+public class DashboardSnapshotListener {
+
+    // Resolved lazily: entity listeners are created while the EntityManagerFactory is still being built
+    private final ObjectProvider<DashboardSnapshots> dashboardSnapshots;
+
+    public DashboardSnapshotListener(ObjectProvider<DashboardSnapshots> dashboardSnapshots) {
+        this.dashboardSnapshots = dashboardSnapshots;
+    }
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void afterChange(Object entity) {
+        TransactionCallbacks.afterCommit(() -> dashboardSnapshots.ifAvailable(DashboardSnapshots::recordWrite));
+    }
+}
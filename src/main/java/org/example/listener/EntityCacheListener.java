@@ -0,0 +1,30 @@
+package org.example.listener;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.example.config.EntityCacheInvalidator;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+/**
+ * Announces committed changes of second-level cached entities to the other nodes.
+ * Bulk JPQL updates bypass entity listeners; other nodes see those after the region TTL.
+ */
+@Component
+public class EntityCacheListener {
+
+    // Resolved lazily: entity listeners are created while the EntityManagerFactory is still being built
+    private final ObjectProvider<EntityCacheInvalidator> invalidator;
+
+    public EntityCacheListener(ObjectProvider<EntityCacheInvalidator> invalidator) {
+        this.invalidator = invalidator;
+    }
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void afterChange(Object entity) {
+        TransactionCallbacks.afterCommit(() -> invalidator.ifAvailable(i -> i.entityChanged(entity)));
+    }
+}
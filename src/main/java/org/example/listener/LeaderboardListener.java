@@ -0,0 +1,88 @@
+package org.example.listener;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.example.entity.GameAction;
+import org.example.entity.Task;
+import org.example.entity.User;
+import org.example.entity.UserAchievement;
+import org.example.service.LeaderboardService;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+import java.util.function.Consumer;
+
+/**
+ * Keeps the in-memory leaderboards in sync with committed entity changes
+ */
+@Component
+public class LeaderboardListener {
+
+    // Resolved lazily: entity listeners are created while the EntityManagerFactory is still being built
+    private final ObjectProvider<LeaderboardService> leaderboardService;
+
+    public LeaderboardListener(ObjectProvider<LeaderboardService> leaderboardService) {
+        this.leaderboardService = leaderboardService;
+    }
+
+    @PostPersist
+    public void afterPersist(Object entity) {
+        if (entity instanceof GameAction action) {
+            Long userId = userId(action.getUser());
+            long experience = action.getExperienceGained() != null ? action.getExperienceGained() : 0;
+            afterCommit(service -> service.recordAction(userId, experience));
+        } else {
+            afterChange(entity);
+        }
+    }
+
+    @PostUpdate
+    public void afterUpdate(Object entity) {
+        afterChange(entity);
+    }
+
+    @PostRemove
+    public void afterRemove(Object entity) {
+        if (entity instanceof User user) {
+            Long userId = user.getId();
+            afterCommit(service -> service.removeUser(userId));
+        } else {
+            afterChange(entity);
+        }
+    }
+
+    private void afterChange(Object entity) {
+        if (entity instanceof User user) {
+            Long userId = user.getId();
+            String username = user.getUsername();
+            boolean deleted = user.getDeletedAt() != null || user.getStatus() == User.UserStatus.DELETED;
+            afterCommit(service -> {
+                if (deleted) {
+                    service.removeUser(userId);
+                } else {
+                    service.registerUser(userId, username);
+                }
+            });
+        } else if (entity instanceof UserAchievement userAchievement) {
+            Long userId = userId(userAchievement.getUser());
+            afterCommit(service -> service.refreshAchievements(userId));
+        } else if (entity instanceof Task task) {
+            Long userId = userId(task.getUser());
+            afterCommit(service -> service.refreshTasks(userId));
+        }
+    }
+
+    private static Long userId(User user) {
+        return user != null ? user.getId() : null;
+    }
+
+    private void afterCommit(Consumer<LeaderboardService> update) {
+        TransactionCallbacks.afterCommit(() -> {
+            LeaderboardService service = leaderboardService.getIfAvailable();
+            if (service != null) {
+                update.accept(service);
+            }
+        });
+    }
+}
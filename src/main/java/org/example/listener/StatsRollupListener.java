@@ -0,0 +1,113 @@
+package org.example.listener;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostUpdate;
+import org.example.entity.GameAction;
+import org.example.entity.GameSession;
+import org.example.entity.Task;
+import org.example.entity.User;
+import org.example.entity.UserAchievement;
+import org.example.service.DistinctUserService;
+import org.example.service.RealtimeStatsService;
+import org.example.service.RetentionService;
+import org.example.service.StatsRollupService;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.function.Consumer;
+
+/**
+ * Feeds the stats rollups, distinct-user sketches, realtime window and retention bitmaps
+ * from the entity write path.
+ * Updates are applied after the surrounding transaction commits, so rolled back writes are never counted.
+ */
+@Component
+public class StatsRollupListener {
+
+    // Resolved lazily: entity listeners are created while the EntityManagerFactory is still being built
+    private final ObjectProvider<StatsRollupService> statsRollupService;
+    private final ObjectProvider<DistinctUserService> distinctUserService;
+    private final ObjectProvider<RealtimeStatsService> realtimeStatsService;
+    private final ObjectProvider<RetentionService> retentionService;
+
+    public StatsRollupListener(ObjectProvider<StatsRollupService> statsRollupService,
+                               ObjectProvider<DistinctUserService> distinctUserService,
+                               ObjectProvider<RealtimeStatsService> realtimeStatsService,
+                               ObjectProvider<RetentionService> retentionService) {
+        this.statsRollupService = statsRollupService;
+        this.distinctUserService = distinctUserService;
+        this.realtimeStatsService = realtimeStatsService;
+        this.retentionService = retentionService;
+    }
+
+    @PostPersist
+    public void afterPersist(Object entity) {
+        if (entity instanceof GameAction action) {
+            Long userId = action.getUser() != null ? action.getUser().getId() : null;
+            Long locationId = action.getLocation() != null ? action.getLocation().getId() : null;
+            String actionType = action.getActionType();
+            LocalDateTime actionTime = action.getActionTime();
+            Integer experience = action.getExperienceGained();
+            Integer gold = action.getGoldGained();
+            afterCommit(service -> service.recordAction(actionType, actionTime, experience, gold));
+            TransactionCallbacks.afterCommit(() -> distinctUserService.ifAvailable(
+                    service -> service.recordAction(actionType, userId, actionTime)));
+            afterCommitRealtime(service -> service.recordAction(actionType, userId, locationId, actionTime));
+        } else if (entity instanceof GameSession session) {
+            Long userId = session.getUser() != null ? session.getUser().getId() : null;
+            LocalDateTime startTime = session.getStartTime();
+            LocalDateTime endTime = session.getEndTime();
+            session.markEndTimeRecorded();
+            afterCommit(service -> {
+                service.recordSessionStarted(startTime);
+                service.recordSessionEnded(startTime, endTime);
+            });
+            afterCommitRetention(service -> {
+                service.recordActivity(userId, startTime);
+                service.recordActivity(userId, endTime);
+            });
+        } else if (entity instanceof User user) {
+            Long userId = user.getId();
+            LocalDateTime createdAt = user.getCreatedAt();
+            afterCommit(service -> service.recordRegistration(createdAt));
+            afterCommitRetention(service -> service.recordRegistration(userId, createdAt));
+        } else if (entity instanceof UserAchievement userAchievement) {
+            LocalDateTime unlockedAt = userAchievement.getUnlockedAt();
+            afterCommit(service -> service.recordAchievement(unlockedAt));
+            afterCommitRealtime(service -> service.recordAchievement(unlockedAt));
+        } else if (entity instanceof Task task) {
+            LocalDateTime createdAt = task.getCreatedAt();
+            afterCommitRealtime(service -> service.recordTaskCreated(createdAt));
+        }
+    }
+
+    @PostUpdate
+    public void afterUpdate(Object entity) {
+        if (entity instanceof GameSession session && session.isEndedSinceLoad()) {
+            Long userId = session.getUser() != null ? session.getUser().getId() : null;
+            LocalDateTime startTime = session.getStartTime();
+            LocalDateTime endTime = session.getEndTime();
+            session.markEndTimeRecorded();
+            afterCommit(service -> service.recordSessionEnded(startTime, endTime));
+            afterCommitRetention(service -> service.recordActivity(userId, endTime));
+        }
+    }
+
+    private void afterCommit(Consumer<StatsRollupService> update) {
+        TransactionCallbacks.afterCommit(() -> {
+            StatsRollupService service = statsRollupService.getIfAvailable();
+            if (service != null) {
+                update.accept(service);
+            }
+        });
+    }
+
+    private void afterCommitRealtime(Consumer<RealtimeStatsService> update) {
+        TransactionCallbacks.afterCommit(() -> realtimeStatsService.ifAvailable(update));
+    }
+
+    private void afterCommitRetention(Consumer<RetentionService> update) {
+        TransactionCallbacks.afterCommit(() -> retentionService.ifAvailable(update));
+    }
+}
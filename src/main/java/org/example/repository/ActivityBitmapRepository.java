@@ -0,0 +1,31 @@
+package org.example.repository;
+
+import jakarta.persistence.LockModeType;
+import org.example.entity.ActivityBitmap;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ActivityBitmapRepository extends JpaRepository<ActivityBitmap, Long> {
+
+    Optional<ActivityBitmap> findByKindAndDay(ActivityBitmap.Kind kind, LocalDate day);
+
+    /**
+     * Row lock for merging in-memory bits, so concurrent instances never overwrite each other
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT b FROM ActivityBitmap b WHERE b.kind = :kind AND b.day = :day")
+    Optional<ActivityBitmap> findForUpdate(@Param("kind") ActivityBitmap.Kind kind,
+                                           @Param("day") LocalDate day);
+
+    List<ActivityBitmap> findByKindAndDayBetween(ActivityBitmap.Kind kind, LocalDate start, LocalDate end);
+
+    boolean existsByKind(ActivityBitmap.Kind kind);
+}
@@ -1,7 +1,10 @@
 package org.example.repository;
 
+import org.example.dto.UserRankingRow;
 import org.example.entity.GameAction;
 import org.example.entity.User;
+import org.example.util.ActivityHistograms;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
@@ -10,7 +13,10 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -59,13 +65,53 @@ public interface GameActionRepository extends JpaRepository<GameAction, Long> {
     Long countUniqueUsersBetween(@Param("start") LocalDateTime start,
                                  @Param("end") LocalDateTime end);
 
+    @Query("SELECT COUNT(DISTINCT a.user.id) FROM GameAction a " +
+            "WHERE a.actionType = :actionType AND a.actionTime BETWEEN :start AND :end")
+    Long countUniqueUsersByActionTypeBetween(@Param("actionType") String actionType,
+                                             @Param("start") LocalDateTime start,
+                                             @Param("end") LocalDateTime end);
+
     // === Grouped queries ===
     @Query("SELECT DISTINCT a.user.id FROM GameAction a WHERE a.actionTime >= :after")
     List<Long> findDistinctUserIdsAfter(@Param("after") LocalDateTime after);
 
+    @Query("SELECT DISTINCT a.actionType, a.user.id, HOUR(a.actionTime) FROM GameAction a " +
+            "WHERE a.actionTime >= :start AND a.actionTime < :end")
+    List<Object[]> findDistinctUserHoursBetween(@Param("start") LocalDateTime start,
+                                                @Param("end") LocalDateTime end);
+
+    @Query("SELECT a.actionType, a.user.id, l.id, a.actionTime FROM GameAction a LEFT JOIN a.location l " +
+            "WHERE a.actionTime >= :after")
+    List<Object[]> findActivitySince(@Param("after") LocalDateTime after);
+
     @Query("SELECT a.actionType, COUNT(a) FROM GameAction a WHERE a.user.id = :userId GROUP BY a.actionType")
     List<Object[]> countByActionTypeForUser(@Param("userId") Long userId);
 
+    @Query("SELECT a.user.id, COALESCE(SUM(a.experienceGained), 0) FROM GameAction a GROUP BY a.user.id")
+    List<Object[]> sumExperienceByUser();
+
+    @Query("SELECT COALESCE(SUM(a.experienceGained), 0) FROM GameAction a WHERE a.user.id = :userId")
+    long sumExperienceByUserId(@Param("userId") Long userId);
+
+    @Query("SELECT a.user.id, COUNT(a) FROM GameAction a GROUP BY a.user.id")
+    List<Object[]> countGroupByUser();
+
+    @Query("SELECT a.user.id, MAX(a.actionTime) FROM GameAction a WHERE a.user.id IN :userIds GROUP BY a.user.id")
+    List<Object[]> findLastActionTimes(@Param("userIds") Collection<Long> userIds);
+
+    /**
+     * Users by number of actions, seeking past the (count, userId) cursor; null cursor for the first page
+     */
+    @Query("SELECT new org.example.dto.UserRankingRow(u.id, u.username, COUNT(a), MAX(a.actionTime)) " +
+            "FROM GameAction a JOIN a.user u " +
+            "GROUP BY u.id, u.username " +
+            "HAVING :afterCount IS NULL OR COUNT(a) < :afterCount " +
+            "OR (COUNT(a) = :afterCount AND u.id > :afterUserId) " +
+            "ORDER BY COUNT(a) DESC, u.id ASC")
+    List<UserRankingRow> findActionRanking(@Param("afterCount") Long afterCount,
+                                           @Param("afterUserId") Long afterUserId,
+                                           Limit limit);
+
     @Query("SELECT DATE(a.actionTime), COUNT(a) FROM GameAction a " +
             "WHERE a.actionTime BETWEEN :start AND :end " +
             "GROUP BY DATE(a.actionTime) " +
@@ -87,6 +133,60 @@ public interface GameActionRepository extends JpaRepository<GameAction, Long> {
             "ORDER BY actionCount DESC")
     List<Object[]> getTopActiveUsers(@Param("after") LocalDateTime after);
 
+    // === Histograms (MySQL grouping, null bounds and user mean unrestricted) ===
+    @Query(value = "SELECT HOUR(action_time), COUNT(*) FROM game_actions " +
+            "WHERE (:start IS NULL OR action_time >= :start) AND (:end IS NULL OR action_time < :end) " +
+            "AND (:userId IS NULL OR user_id = :userId) " +
+            "GROUP BY HOUR(action_time)",
+            nativeQuery = true)
+    List<Object[]> countByHourOfDay(@Param("start") LocalDateTime start,
+                                    @Param("end") LocalDateTime end,
+                                    @Param("userId") Long userId);
+
+    @Query(value = "SELECT WEEKDAY(action_time), COUNT(*) FROM game_actions " +
+            "WHERE (:start IS NULL OR action_time >= :start) AND (:end IS NULL OR action_time < :end) " +
+            "AND (:userId IS NULL OR user_id = :userId) " +
+            "GROUP BY WEEKDAY(action_time)",
+            nativeQuery = true)
+    List<Object[]> countByDayOfWeek(@Param("start") LocalDateTime start,
+                                    @Param("end") LocalDateTime end,
+                                    @Param("userId") Long userId);
+
+    @Query(value = "SELECT DATE(action_time), HOUR(action_time), COUNT(*) FROM game_actions " +
+            "WHERE action_time >= :start AND action_time < :end " +
+            "AND (:userId IS NULL OR user_id = :userId) " +
+            "GROUP BY DATE(action_time), HOUR(action_time)",
+            nativeQuery = true)
+    List<Object[]> countByDateAndHour(@Param("start") LocalDateTime start,
+                                      @Param("end") LocalDateTime end,
+                                      @Param("userId") Long userId);
+
+    /**
+     * Actions per hour of day in [start, end), index 0-23
+     */
+    default long[] hourHistogram(LocalDateTime start, LocalDateTime end, Long userId) {
+        return ActivityHistograms.fold(countByHourOfDay(start, end, userId), ActivityHistograms.HOURS);
+    }
+
+    /**
+     * Actions per day of week in [start, end), index 0 is Monday
+     */
+    default long[] weekdayHistogram(LocalDateTime start, LocalDateTime end, Long userId) {
+        return ActivityHistograms.fold(countByDayOfWeek(start, end, userId), ActivityHistograms.WEEKDAYS);
+    }
+
+    /**
+     * Actions per day and hour for the days from..to inclusive, indexed [day - from][hour]
+     */
+    default long[][] dayHourHeatmap(LocalDate from, LocalDate to, Long userId) {
+        int days = (int) ChronoUnit.DAYS.between(from, to) + 1;
+        if (days <= 0) {
+            return new long[0][ActivityHistograms.HOURS];
+        }
+        List<Object[]> rows = countByDateAndHour(from.atStartOfDay(), to.plusDays(1).atStartOfDay(), userId);
+        return ActivityHistograms.foldHeatmap(rows, from, days);
+    }
+
     // === Special methods ===
     @Query("SELECT a FROM GameAction a WHERE a.user.id = :userId AND DATE(a.actionTime) = CURRENT_DATE")
     List<GameAction> findTodayByUserId(@Param("userId") Long userId);
@@ -45,6 +45,19 @@ public interface GameSessionRepository extends JpaRepository<GameSession, Long>
     @Query("SELECT DISTINCT gs.user.id FROM GameSession gs WHERE gs.startTime > :since")
     List<Long> findActiveUserIdsSince(@Param("since") LocalDateTime since);
 
+    /**
+     * Users with sessions started since the given time, most recently started first
+     */
+    @Query("SELECT gs.user.id FROM GameSession gs WHERE gs.startTime > :since " +
+            "GROUP BY gs.user.id ORDER BY MAX(gs.startTime) DESC")
+    List<Long> findMostRecentlyActiveUserIdsSince(@Param("since") LocalDateTime since, Pageable pageable);
+
+    @Query(value = "SELECT user_id, DATE(start_time) FROM game_sessions WHERE start_time >= :after " +
+            "UNION " +
+            "SELECT user_id, DATE(end_time) FROM game_sessions WHERE end_time >= :after",
+            nativeQuery = true)
+    List<Object[]> findDistinctUserActivityDaysSince(@Param("after") LocalDateTime after);
+
     @Query("SELECT COUNT(gs) FROM GameSession gs WHERE gs.user.id = :userId")
     long countSessionsByUserId(@Param("userId") Long userId);
 
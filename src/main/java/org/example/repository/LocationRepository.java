@@ -1,9 +1,13 @@
 package org.example.repository;
 
+import jakarta.persistence.QueryHint;
+import org.example.config.EntityCacheRegions;
 import org.example.entity.Location;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
@@ -14,15 +18,26 @@ import java.util.Optional;
 @Repository
 public interface LocationRepository extends JpaRepository<Location, Long> {
 
+    // Finders marked with the query cache hints keep their results in EntityCacheRegions.LOCATION_QUERIES
+    // until a change to the locations table; the rows themselves come from the entity region
+
     // ========== BASIC SEARCHES ==========
 
     // Fixed: findByActiveTrue() instead of findByIsActiveTrue()
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = EntityCacheRegions.LOCATION_QUERIES)})
     List<Location> findByActiveTrue();
 
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = EntityCacheRegions.LOCATION_QUERIES)})
     List<Location> findByLocationType(Location.LocationType locationType);
 
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = EntityCacheRegions.LOCATION_QUERIES)})
     List<Location> findByZoneType(Location.ZoneType zoneType);
 
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = EntityCacheRegions.LOCATION_QUERIES)})
     List<Location> findByRequiredLevelLessThanEqual(Integer level);
 
     List<Location> findByVisitCountGreaterThan(Long minVisits);
@@ -31,6 +46,8 @@ public interface LocationRepository extends JpaRepository<Location, Long> {
     boolean existsByTitle(String title);
 
     // Search by difficulty
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = EntityCacheRegions.LOCATION_QUERIES)})
     List<Location> findByDifficulty(Location.Difficulty difficulty);
 
     List<Location> findByRequiredLevelBetween(Integer min, Integer max);
@@ -47,6 +64,8 @@ public interface LocationRepository extends JpaRepository<Location, Long> {
     List<Location> findByIsUnlocked(Boolean isUnlocked);
 
     // Search by title
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = EntityCacheRegions.LOCATION_QUERIES)})
     Optional<Location> findByTitle(String title);
 
     // Search by title (case-insensitive)
@@ -56,16 +75,22 @@ public interface LocationRepository extends JpaRepository<Location, Long> {
 
     // ========== CUSTOM QUERIES ==========
 
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = EntityCacheRegions.LOCATION_QUERIES)})
     @Query("SELECT l FROM Location l WHERE l.status = org.example.entity.Location.LocationStatus.ACTIVE AND l.isUnlocked = true")
     List<Location> findActiveAndUnlockedLocations();
 
     @Query("SELECT l FROM Location l WHERE LOWER(l.title) LIKE LOWER(CONCAT('%', :query, '%')) OR LOWER(l.description) LIKE LOWER(CONCAT('%', :query, '%'))")
     List<Location> searchByTitleOrDescription(@Param("query") String query);
 
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = EntityCacheRegions.LOCATION_QUERIES)})
     @Query("SELECT l FROM Location l WHERE l.requiredLevel <= :level AND l.status = org.example.entity.Location.LocationStatus.ACTIVE ORDER BY l.requiredLevel ASC, l.title ASC")
     List<Location> findAccessibleLocations(@Param("level") Integer level);
 
     // Enhanced method with faction and class checks
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = EntityCacheRegions.LOCATION_QUERIES)})
     @Query("SELECT l FROM Location l WHERE " +
             "l.status = org.example.entity.Location.LocationStatus.ACTIVE AND " +
             "l.isUnlocked = true AND " +
@@ -83,6 +108,8 @@ public interface LocationRepository extends JpaRepository<Location, Long> {
     @Query("SELECT l FROM Location l ORDER BY l.visitCount DESC")
     List<Location> findMostVisitedLocations();
 
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = EntityCacheRegions.LOCATION_QUERIES)})
     @Query("SELECT l FROM Location l WHERE l.status = org.example.entity.Location.LocationStatus.ACTIVE ORDER BY l.requiredLevel ASC")
     List<Location> findAllActiveSortedByLevel();
 
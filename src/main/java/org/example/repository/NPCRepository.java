@@ -0,0 +1,12 @@
+package org.example.repository;
+
+import org.example.entity.NPC;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Static content, read through {@link org.example.service.GameCatalog}
+ */
+@Repository
+public interface NPCRepository extends JpaRepository<NPC, Long> {
+}
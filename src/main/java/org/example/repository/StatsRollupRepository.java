@@ -0,0 +1,112 @@
+package org.example.repository;
+
+import org.example.entity.StatsRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface StatsRollupRepository extends JpaRepository<StatsRollup, Long> {
+
+    // ========== RANGE QUERIES ==========
+
+    /**
+     * Sum of all counters per dimension inside [start, end) for one granularity.
+     * Columns: dimension, actionCount, experienceGained, goldGained, sessionCount,
+     * completedSessions, sessionMinutesTotal, sessionMinutesMin, sessionMinutesMax,
+     * registrations, achievementsUnlocked
+     */
+    @Query("SELECT r.dimension, SUM(r.actionCount), SUM(r.experienceGained), SUM(r.goldGained), " +
+            "SUM(r.sessionCount), SUM(r.completedSessions), SUM(r.sessionMinutesTotal), " +
+            "MIN(r.sessionMinutesMin), MAX(r.sessionMinutesMax), " +
+            "SUM(r.registrations), SUM(r.achievementsUnlocked) " +
+            "FROM StatsRollup r " +
+            "WHERE r.granularity = :granularity " +
+            "AND r.bucketStart >= :start AND r.bucketStart < :end " +
+            "GROUP BY r.dimension")
+    List<Object[]> sumByDimension(@Param("granularity") StatsRollup.Granularity granularity,
+                                  @Param("start") LocalDateTime start,
+                                  @Param("end") LocalDateTime end);
+
+    @Query("SELECT r FROM StatsRollup r " +
+            "WHERE r.granularity = :granularity AND r.dimension = :dimension " +
+            "AND r.bucketStart >= :start AND r.bucketStart < :end " +
+            "ORDER BY r.bucketStart")
+    List<StatsRollup> findSeries(@Param("granularity") StatsRollup.Granularity granularity,
+                                 @Param("dimension") String dimension,
+                                 @Param("start") LocalDateTime start,
+                                 @Param("end") LocalDateTime end);
+
+    boolean existsByGranularityAndDimension(StatsRollup.Granularity granularity, String dimension);
+
+    // ========== INCREMENTAL UPDATES ==========
+
+    /**
+     * Adds the given deltas to a bucket row, creating it if needed.
+     * Pass -1 for min/max session minutes when the delta has no completed sessions.
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO stats_rollups (granularity, bucket_start, dimension, action_count, " +
+            "experience_gained, gold_gained, session_count, completed_sessions, session_minutes_total, " +
+            "session_minutes_min, session_minutes_max, registrations, achievements_unlocked, updated_at) " +
+            "VALUES (:granularity, :bucketStart, :dimension, :actionCount, " +
+            ":experienceGained, :goldGained, :sessionCount, :completedSessions, :sessionMinutesTotal, " +
+            "NULLIF(:sessionMinutesMin, -1), NULLIF(:sessionMinutesMax, -1), :registrations, :achievementsUnlocked, NOW()) " +
+            "ON DUPLICATE KEY UPDATE " +
+            "action_count = action_count + VALUES(action_count), " +
+            "experience_gained = experience_gained + VALUES(experience_gained), " +
+            "gold_gained = gold_gained + VALUES(gold_gained), " +
+            "session_count = session_count + VALUES(session_count), " +
+            "completed_sessions = completed_sessions + VALUES(completed_sessions), " +
+            "session_minutes_total = session_minutes_total + VALUES(session_minutes_total), " +
+            "session_minutes_min = LEAST(COALESCE(session_minutes_min, VALUES(session_minutes_min)), " +
+            "COALESCE(VALUES(session_minutes_min), session_minutes_min)), " +
+            "session_minutes_max = GREATEST(COALESCE(session_minutes_max, VALUES(session_minutes_max)), " +
+            "COALESCE(VALUES(session_minutes_max), session_minutes_max)), " +
+            "registrations = registrations + VALUES(registrations), " +
+            "achievements_unlocked = achievements_unlocked + VALUES(achievements_unlocked), " +
+            "updated_at = NOW()",
+            nativeQuery = true)
+    int upsert(@Param("granularity") String granularity,
+               @Param("bucketStart") LocalDateTime bucketStart,
+               @Param("dimension") String dimension,
+               @Param("actionCount") long actionCount,
+               @Param("experienceGained") long experienceGained,
+               @Param("goldGained") long goldGained,
+               @Param("sessionCount") long sessionCount,
+               @Param("completedSessions") long completedSessions,
+               @Param("sessionMinutesTotal") long sessionMinutesTotal,
+               @Param("sessionMinutesMin") long sessionMinutesMin,
+               @Param("sessionMinutesMax") long sessionMinutesMax,
+               @Param("registrations") long registrations,
+               @Param("achievementsUnlocked") long achievementsUnlocked);
+
+    /**
+     * Inserts an empty row; fails with a duplicate key if it exists, a marker is written once
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO stats_rollups (granularity, bucket_start, dimension, action_count, " +
+            "experience_gained, gold_gained, session_count, completed_sessions, session_minutes_total, " +
+            "registrations, achievements_unlocked, updated_at) " +
+            "VALUES (:granularity, :bucketStart, :dimension, 0, 0, 0, 0, 0, 0, 0, 0, NOW())",
+            nativeQuery = true)
+    int insertMarker(@Param("granularity") String granularity,
+                     @Param("bucketStart") LocalDateTime bucketStart,
+                     @Param("dimension") String dimension);
+
+    // ========== MAINTENANCE ==========
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM StatsRollup r WHERE r.granularity = :granularity AND r.bucketStart < :before")
+    int deleteOlderThan(@Param("granularity") StatsRollup.Granularity granularity,
+                        @Param("before") LocalDateTime before);
+}
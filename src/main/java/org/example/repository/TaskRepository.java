@@ -1,6 +1,9 @@
 package org.example.repository;
 
+import org.example.dto.UserRankingRow;
+import org.example.dto.UserTaskCounts;
 import org.example.entity.Task;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -9,6 +12,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -43,9 +47,50 @@ public interface TaskRepository extends JpaRepository<Task, Long> {
     long countByUserIdAndStatus(@Param("userId") Long userId,
                                 @Param("status") Task.Status status);
 
+    long countByCreatedAtAfter(LocalDateTime after);
+
     @Query("SELECT t.status, COUNT(t) FROM Task t WHERE t.user.id = :userId GROUP BY t.status")
     List<Object[]> countTasksByStatus(@Param("userId") Long userId);
 
+    @Query("SELECT t.user.id, COUNT(t) FROM Task t WHERE t.status = :status GROUP BY t.user.id")
+    List<Object[]> countByStatusGroupByUser(@Param("status") Task.Status status);
+
+    @Query("SELECT COUNT(t) FROM Task t WHERE t.user.id = :userId")
+    long countByUserId(@Param("userId") Long userId);
+
+    @Query("SELECT t.user.id, COUNT(t) FROM Task t GROUP BY t.user.id")
+    List<Object[]> countGroupByUser();
+
+    /**
+     * Users by tasks in the status, seeking past the (count, userId) cursor; null cursor for the first page
+     */
+    @Query("SELECT new org.example.dto.UserRankingRow(u.id, u.username, COUNT(t), MAX(t.completedAt)) " +
+            "FROM Task t JOIN t.user u " +
+            "WHERE t.status = :status " +
+            "GROUP BY u.id, u.username " +
+            "HAVING :afterCount IS NULL OR COUNT(t) < :afterCount " +
+            "OR (COUNT(t) = :afterCount AND u.id > :afterUserId) " +
+            "ORDER BY COUNT(t) DESC, u.id ASC")
+    List<UserRankingRow> findRankingByStatus(@Param("status") Task.Status status,
+                                             @Param("afterCount") Long afterCount,
+                                             @Param("afterUserId") Long afterUserId,
+                                             Limit limit);
+
+    @Query("SELECT t.user.id, MAX(t.completedAt) FROM Task t " +
+            "WHERE t.status = :status AND t.user.id IN :userIds GROUP BY t.user.id")
+    List<Object[]> findLastCompletedTimes(@Param("status") Task.Status status,
+                                          @Param("userIds") Collection<Long> userIds);
+
+    /**
+     * Users by number of tasks with their completed tasks, most tasks first
+     */
+    @Query("SELECT new org.example.dto.UserTaskCounts(u.id, u.username, COUNT(t), " +
+            "SUM(CASE WHEN t.status = :completed THEN 1L ELSE 0L END)) " +
+            "FROM Task t JOIN t.user u " +
+            "GROUP BY u.id, u.username " +
+            "ORDER BY COUNT(t) DESC, u.id ASC")
+    List<UserTaskCounts> findTopUsersByTaskCount(@Param("completed") Task.Status completed, Limit limit);
+
     List<Task> findByStatusAndCompletedAtBefore(Task.Status status, LocalDateTime cutoffDate);
 
     List<Task> findByStatusAndDueDateBefore(Task.Status status, LocalDateTime now);
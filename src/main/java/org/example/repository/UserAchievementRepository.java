@@ -1,9 +1,10 @@
 package org.example.repository;
 
+import org.example.dto.UserRankingRow;
 import org.example.entity.User;
 import org.example.entity.UserAchievement;
 import org.example.entity.Achievement;
-import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
@@ -13,6 +14,7 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -105,13 +107,29 @@ public interface UserAchievementRepository extends JpaRepository<UserAchievement
             "AND ua.completed = true")
     Long countUniqueUsersWithAchievement(@Param("achievementId") Long achievementId);
 
-    // Top users by number of achievements
-    @Query("SELECT ua.user.id, COUNT(ua) as achievementCount " +
-            "FROM UserAchievement ua " +
+    /**
+     * Users by completed achievements, seeking past the (count, userId) cursor; null cursor for the first page
+     */
+    @Query("SELECT new org.example.dto.UserRankingRow(u.id, u.username, COUNT(ua), MAX(ua.completedAt)) " +
+            "FROM UserAchievement ua JOIN ua.user u " +
             "WHERE ua.completed = true " +
-            "GROUP BY ua.user.id " +
-            "ORDER BY achievementCount DESC")
-    List<Object[]> findTopUsersByAchievements(Pageable pageable);
+            "GROUP BY u.id, u.username " +
+            "HAVING :afterCount IS NULL OR COUNT(ua) < :afterCount " +
+            "OR (COUNT(ua) = :afterCount AND u.id > :afterUserId) " +
+            "ORDER BY COUNT(ua) DESC, u.id ASC")
+    List<UserRankingRow> findAchievementRanking(@Param("afterCount") Long afterCount,
+                                                @Param("afterUserId") Long afterUserId,
+                                                Limit limit);
+
+    @Query("SELECT ua.user.id, COUNT(ua) FROM UserAchievement ua WHERE ua.completed = true GROUP BY ua.user.id")
+    List<Object[]> countCompletedByUser();
+
+    @Query("SELECT ua.user.id, COUNT(ua) FROM UserAchievement ua GROUP BY ua.user.id")
+    List<Object[]> countGroupByUser();
+
+    @Query("SELECT ua.user.id, MAX(ua.completedAt) FROM UserAchievement ua " +
+            "WHERE ua.completed = true AND ua.user.id IN :userIds GROUP BY ua.user.id")
+    List<Object[]> findLastCompletedTimes(@Param("userIds") Collection<Long> userIds);
 
     // ========== SEARCH METHODS BY NAME AND DESCRIPTION ==========
 
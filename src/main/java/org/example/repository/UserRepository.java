@@ -6,13 +6,16 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface UserRepository extends JpaRepository<User, Long>, JpaSpecificationExecutor<User> {
+public interface UserRepository extends JpaRepository<User, Long>, JpaSpecificationExecutor<User>,
+        UserRepositoryCustom {
 
     Optional<User> findByUsername(String username);
 
@@ -33,6 +36,12 @@ public interface UserRepository extends JpaRepository<User, Long>, JpaSpecificat
     @Query("SELECT u FROM User u WHERE u.enabled = true AND u.accountNonLocked = true")
     Page<User> findActiveUsers(Pageable pageable);
 
+    @Query("SELECT u.id, u.username FROM User u WHERE u.deletedAt IS NULL")
+    List<Object[]> findAllIdsAndUsernames();
+
+    @Query("SELECT u.id, u.createdAt FROM User u WHERE u.createdAt >= :after")
+    List<Object[]> findIdsAndCreatedAtSince(@Param("after") LocalDateTime after);
+
     @Query("SELECT COUNT(u) FROM User u WHERE u.createdAt >= :startDate AND u.createdAt < :endDate")
     long countByCreatedAtBetween(LocalDateTime startDate, LocalDateTime endDate);
 }
\ No newline at end of file
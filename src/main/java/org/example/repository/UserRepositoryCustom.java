@@ -0,0 +1,14 @@
+package org.example.repository;
+
+import org.example.entity.User;
+
+import java.util.Optional;
+
+public interface UserRepositoryCustom {
+
+    /**
+     * Like {@link UserRepository#findByUsername}, but resolved through the natural-id and entity
+     * second-level cache regions, so a cached user costs no query
+     */
+    Optional<User> findByUsernameCached(String username);
+}
@@ -0,0 +1,130 @@
+package org.example.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.example.exception.TooManyRequestsException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * BCrypt on a dedicated, bounded pool.
+ * <p>
+ * Hashing is CPU-bound and slow on purpose; run on servlet threads, a burst of logins takes every
+ * Tomcat thread and starves all other endpoints. Here at most {@code threads} hashes run at once,
+ * up to {@code queue-capacity} wait, and anything beyond is rejected at once with a
+ * {@link TooManyRequestsException} (429). Callers still wait for their own hash, at most
+ * {@code timeout-ms}.
+ * <p>
+ * {@link #upgradeEncoding} reports hashes whose cost differs from the configured one, so Spring
+ * Security rehashes the password on the next successful login, see
+ * {@link CustomUserDetailsService#updatePassword}.
+ */
+@Slf4j
+public class BoundedPasswordEncoder implements PasswordEncoder {
+
+    private static final Pattern BCRYPT_COST = Pattern.compile("^\\$2[abxy]?\\$(\\d{2})\\$");
+
+    private final BCryptPasswordEncoder delegate;
+    private final int strength;
+    private final long timeoutMs;
+    private final long retryAfterSeconds;
+    private final ThreadPoolTaskExecutor executor;
+
+    private final Timer encodeTimer;
+    private final Timer matchesTimer;
+    private final Timer queueWait;
+    private final Counter rejected;
+
+    public BoundedPasswordEncoder(int strength, int threads, int queueCapacity, long timeoutMs,
+                                  long retryAfterSeconds, MeterRegistry meterRegistry) {
+        this.delegate = new BCryptPasswordEncoder(strength);
+        this.strength = strength;
+        this.timeoutMs = timeoutMs;
+        this.retryAfterSeconds = retryAfterSeconds;
+        this.executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("Password-hashing-");
+        executor.setDaemon(true);
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.initialize();
+
+        this.encodeTimer = Timer.builder("security.password.hashing").tag("operation", "encode").register(meterRegistry);
+        this.matchesTimer = Timer.builder("security.password.hashing").tag("operation", "matches").register(meterRegistry);
+        this.queueWait = Timer.builder("security.password.queue.wait").register(meterRegistry);
+        this.rejected = Counter.builder("security.password.rejected").register(meterRegistry);
+        Gauge.builder("security.password.queue.size", executor, pool -> pool.getThreadPoolExecutor().getQueue().size())
+                .register(meterRegistry);
+        Gauge.builder("security.password.active", executor, ThreadPoolTaskExecutor::getActiveCount)
+                .register(meterRegistry);
+        log.info("Хеширование паролей: BCrypt cost {}, {} потоков, очередь {}", strength, threads, queueCapacity);
+    }
+
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return run(encodeTimer, () -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return run(matchesTimer, () -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        if (encodedPassword == null) {
+            return false;
+        }
+        Matcher cost = BCRYPT_COST.matcher(encodedPassword);
+        return cost.find() && Integer.parseInt(cost.group(1)) != strength;
+    }
+
+    private <T> T run(Timer timer, Callable<T> hashing) {
+        long submittedAt = System.nanoTime();
+        Future<T> future;
+        try {
+            future = executor.getThreadPoolExecutor().submit(() -> {
+                queueWait.record(System.nanoTime() - submittedAt, TimeUnit.NANOSECONDS);
+                return timer.recordCallable(hashing);
+            });
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new TooManyRequestsException("Сервер перегружен, повторите попытку позже", retryAfterSeconds);
+        }
+        try {
+            return future.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            rejected.increment();
+            throw new TooManyRequestsException("Сервер перегружен, повторите попытку позже", retryAfterSeconds);
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while hashing a password", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException("Password hashing failed", e.getCause());
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package org.example.security;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Concurrent map whose entries expire at a per-entry time, bounded approximately: lookups take no
+ * lock, and when a put takes the map past its bound one thread drops the expired entries and then
+ * those expiring soonest, down to 90% of the bound. Other threads may overshoot the bound a little
+ * while that pass runs.
+ */
+final class ExpiringMap<K, V> {
+
+    private record Entry<V>(V value, long expiresAtMillis) {
+    }
+
+    private final int maxEntries;
+    private final Map<K, Entry<V>> entries = new ConcurrentHashMap<>();
+    private final AtomicBoolean evicting = new AtomicBoolean();
+
+    ExpiringMap(int maxEntries) {
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * The value of the entry unless it expired, or null
+     */
+    V get(K key, long now) {
+        Entry<V> entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.expiresAtMillis() <= now) {
+            entries.remove(key, entry);
+            return null;
+        }
+        return entry.value();
+    }
+
+    /**
+     * @param value not null
+     */
+    void put(K key, V value, long expiresAtMillis, long now) {
+        entries.put(key, new Entry<>(value, expiresAtMillis));
+        if (entries.size() > maxEntries) {
+            evict(now);
+        }
+    }
+
+    void remove(K key) {
+        entries.remove(key);
+    }
+
+    void clear() {
+        entries.clear();
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    private void evict(long now) {
+        if (!evicting.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            entries.values().removeIf(entry -> entry.expiresAtMillis() <= now);
+            int excess = entries.size() - maxEntries * 9 / 10;
+            if (excess <= 0) {
+                return;
+            }
+            List<Map.Entry<K, Entry<V>>> soonestFirst = new ArrayList<>(entries.entrySet());
+            soonestFirst.sort(Comparator.comparingLong(e -> e.getValue().expiresAtMillis()));
+            for (Map.Entry<K, Entry<V>> e : soonestFirst.subList(0, Math.min(excess, soonestFirst.size()))) {
+                entries.remove(e.getKey(), e.getValue());
+            }
+        } finally {
+            evicting.set(false);
+        }
+    }
+}
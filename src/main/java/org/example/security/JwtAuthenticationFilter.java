@@ -1,10 +1,11 @@
 package org.example.security;
 
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
-import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -13,13 +14,28 @@ import org.springframework.security.web.authentication.WebAuthenticationDetailsS
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 import java.io.IOException;
+import java.util.Date;
 
 @Component
-@RequiredArgsConstructor
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final org.example.security.JwtService jwtService;
     private final UserDetailsService userDetailsService;
+    private final SecurityStamps securityStamps;
+    private final TokenRevocations tokenRevocations;
+    private final boolean stateless;
+
+    public JwtAuthenticationFilter(JwtService jwtService,
+                                   UserDetailsService userDetailsService,
+                                   SecurityStamps securityStamps,
+                                   TokenRevocations tokenRevocations,
+                                   @Value("${spring.jwt.stateless:true}") boolean stateless) {
+        this.jwtService = jwtService;
+        this.userDetailsService = userDetailsService;
+        this.securityStamps = securityStamps;
+        this.tokenRevocations = tokenRevocations;
+        this.stateless = stateless;
+    }
 
     @Override
     protected void doFilterInternal(
@@ -37,12 +53,25 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         }
 
         jwt = authHeader.substring(7);
-        username = jwtService.extractUsername(jwt);
+        // Verified once per token, later requests with the same token reuse the claims
+        final Claims claims = jwtService.verify(jwt);
+        username = claims.getSubject();
+
+        if (tokenRevocations.isRevoked(claims)) {
+            filterChain.doFilter(request, response);
+            return;
+        }
 
         if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+            if (stateless && jwtService.isStatelessAccessToken(claims)) {
+                authenticateFromClaims(claims, request);
+                filterChain.doFilter(request, response);
+                return;
+            }
+
             UserDetails userDetails = this.userDetailsService.loadUserByUsername(username);
 
-            if (jwtService.validateToken(jwt, userDetails)) {
+            if (jwtService.isTokenValid(claims, userDetails)) {
                 UsernamePasswordAuthenticationToken authToken =
                         new UsernamePasswordAuthenticationToken(
                                 userDetails,
@@ -57,4 +86,20 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         filterChain.doFilter(request, response);
     }
+
+    /**
+     * Builds the principal from the token itself; the account state is checked against the
+     * cached security stamp instead of loading the user and its roles
+     */
+    private void authenticateFromClaims(Claims claims, HttpServletRequest request) {
+        CustomUserDetails userDetails = jwtService.principalFrom(claims);
+        if (claims.getExpiration() == null || !claims.getExpiration().after(new Date())
+                || !securityStamps.isCurrent(userDetails.getId(), jwtService.getStamp(claims))) {
+            return;
+        }
+        UsernamePasswordAuthenticationToken authToken =
+                new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
+        authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+        SecurityContextHolder.getContext().setAuthentication(authToken);
+    }
 }
\ No newline at end of file
@@ -1,9 +1,11 @@
 package org.example.security;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
 import lombok.RequiredArgsConstructor;
+import org.example.entity.User;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
@@ -11,13 +13,25 @@ import org.springframework.stereotype.Service;
 import javax.crypto.SecretKey;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
 import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class JwtService {
 
+    // Claims of stateless access tokens, see generateAccessToken
+    public static final String CLAIM_USER_ID = "userId";
+    public static final String CLAIM_ROLES = "roles";
+    public static final String CLAIM_STAMP = "stamp";
+    public static final String CLAIM_TYPE = "type";
+    /** jti of the refresh token issued together with an access token */
+    public static final String CLAIM_REFRESH_ID = "rti";
+
     @Value("${spring.jwt.secret}")
     private String secret;
 
@@ -27,8 +41,43 @@ public class JwtService {
     @Value("${spring.jwt.refresh-expiration}")
     private Long refreshExpiration;
 
+    private final VerifiedTokenCache verifiedTokens;
+
+    // Built once, both are immutable and thread-safe
+    private volatile SecretKey signKey;
+    private volatile JwtParser parser;
+
     private SecretKey getSignKey() {
-        return Keys.hmacShaKeyFor(secret.getBytes());
+        SecretKey key = signKey;
+        if (key == null) {
+            key = Keys.hmacShaKeyFor(secret.getBytes());
+            signKey = key;
+        }
+        return key;
+    }
+
+    private JwtParser getParser() {
+        JwtParser current = parser;
+        if (current == null) {
+            current = Jwts.parser()
+                    .verifyWith(getSignKey())
+                    .build();
+            parser = current;
+        }
+        return current;
+    }
+
+    /**
+     * Verified claims of the token; the signature is checked and the claims parsed only the first
+     * time a token is seen, see {@link VerifiedTokenCache}. Invalid or expired tokens throw as before.
+     */
+    public Claims verify(String token) {
+        Claims claims = verifiedTokens.get(token);
+        if (claims == null) {
+            claims = getParser().parseSignedClaims(token).getPayload();
+            verifiedTokens.put(token, claims);
+        }
+        return claims;
     }
 
     public String extractUsername(String token) {
@@ -40,19 +89,10 @@ public class JwtService {
     }
 
     public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
-        final Claims claims = extractAllClaims(token);
+        final Claims claims = verify(token);
         return claimsResolver.apply(claims);
     }
 
-    private Claims extractAllClaims(String token) {
-        // Use new API for JJWT 0.12.5
-        return Jwts.parser()
-                .verifyWith(getSignKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
-    }
-
     private Boolean isTokenExpired(String token) {
         return extractExpiration(token).before(new Date());
     }
@@ -73,9 +113,14 @@ public class JwtService {
     }
 
     private String createToken(Map<String, Object> claims, String subject, Long expiration) {
+        return createToken(claims, subject, expiration, UUID.randomUUID().toString());
+    }
+
+    private String createToken(Map<String, Object> claims, String subject, Long expiration, String id) {
         // Use new API for token creation
         return Jwts.builder()
                 .claims(claims) // instead of .setClaims()
+                .id(id) // jti, lets TokenRevocations revoke a single token
                 .subject(subject) // instead of .setSubject()
                 .issuedAt(new Date(System.currentTimeMillis())) // instead of .setIssuedAt()
                 .expiration(new Date(System.currentTimeMillis() + expiration)) // instead of .setExpiration()
@@ -83,6 +128,15 @@ public class JwtService {
                 .compact();
     }
 
+    /**
+     * Whether already verified claims belong to the user and have not expired
+     */
+    public boolean isTokenValid(Claims claims, UserDetails userDetails) {
+        return userDetails.getUsername().equals(claims.getSubject())
+                && claims.getExpiration() != null
+                && claims.getExpiration().after(new Date());
+    }
+
     public Boolean validateToken(String token, UserDetails userDetails) {
         try {
             final String username = extractUsername(token);
@@ -103,12 +157,12 @@ public class JwtService {
     // Additional methods
 
     public Long getUserIdFromToken(String token) {
-        Claims claims = extractAllClaims(token);
+        Claims claims = verify(token);
         return claims.get("userId", Long.class);
     }
 
     public String getEmailFromToken(String token) {
-        Claims claims = extractAllClaims(token);
+        Claims claims = verify(token);
         return claims.get("email", String.class);
     }
 
@@ -126,6 +180,69 @@ public class JwtService {
         return createToken(claims, username, jwtExpiration);
     }
 
+    /**
+     * Access token carrying everything the filter needs to authenticate without loading the user:
+     * id, username, roles and the security stamp of the account
+     */
+    public String generateAccessToken(User user) {
+        return createToken(accessClaims(user), user.getUsername(), jwtExpiration);
+    }
+
+    public record TokenPair(String accessToken, String refreshToken) {
+    }
+
+    /**
+     * Access and refresh token of one sign-in. The access token names its refresh token
+     * ({@link #CLAIM_REFRESH_ID}), so logging out with the access token revokes both.
+     */
+    public TokenPair generateTokenPair(User user) {
+        String refreshId = UUID.randomUUID().toString();
+        Map<String, Object> refreshClaims = new HashMap<>();
+        refreshClaims.put(CLAIM_USER_ID, user.getId());
+        refreshClaims.put(CLAIM_TYPE, "refresh");
+        Map<String, Object> claims = accessClaims(user);
+        claims.put(CLAIM_REFRESH_ID, refreshId);
+        return new TokenPair(
+                createToken(claims, user.getUsername(), jwtExpiration),
+                createToken(refreshClaims, user.getUsername(), refreshExpiration, refreshId));
+    }
+
+    private static Map<String, Object> accessClaims(User user) {
+        Map<String, Object> claims = new HashMap<>();
+        claims.put(CLAIM_USER_ID, user.getId());
+        claims.put(CLAIM_ROLES, List.copyOf(user.getRoles()));
+        claims.put(CLAIM_STAMP, user.securityStamp());
+        claims.put(CLAIM_TYPE, "access");
+        return claims;
+    }
+
+    /**
+     * Whether the token carries the claims of {@link #generateAccessToken(User)}
+     */
+    public boolean isStatelessAccessToken(Claims claims) {
+        return "access".equals(claims.get(CLAIM_TYPE, String.class))
+                && claims.get(CLAIM_USER_ID) != null
+                && claims.get(CLAIM_STAMP) != null;
+    }
+
+    /**
+     * Principal of a stateless access token; only id, username and roles are known, the rest of
+     * the account was checked through the security stamp
+     */
+    public CustomUserDetails principalFrom(Claims claims) {
+        List<?> roles = claims.get(CLAIM_ROLES, List.class);
+        User user = User.builder()
+                .id(claims.get(CLAIM_USER_ID, Long.class))
+                .username(claims.getSubject())
+                .roles(roles != null ? roles.stream().map(String::valueOf).collect(Collectors.toSet()) : Set.of())
+                .build();
+        return new CustomUserDetails(user);
+    }
+
+    public int getStamp(Claims claims) {
+        return claims.get(CLAIM_STAMP, Integer.class);
+    }
+
     public String generateRefreshTokenForUser(String username, Long userId) {
         Map<String, Object> claims = new HashMap<>();
         claims.put("userId", userId);
@@ -136,7 +253,7 @@ public class JwtService {
 
     public boolean isRefreshToken(String token) {
         try {
-            Claims claims = extractAllClaims(token);
+            Claims claims = verify(token);
             return "refresh".equals(claims.get("type", String.class));
         } catch (Exception e) {
             return false;
@@ -145,7 +262,7 @@ public class JwtService {
 
     public boolean isAccessToken(String token) {
         try {
-            Claims claims = extractAllClaims(token);
+            Claims claims = verify(token);
             return "access".equals(claims.get("type", String.class));
         } catch (Exception e) {
             return false;
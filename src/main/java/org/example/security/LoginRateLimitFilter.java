@@ -0,0 +1,190 @@
+package org.example.security;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Applies the {@link LoginRateLimiter} to the authentication endpoints before Spring Security and
+ * the controllers: a rejected request never reaches the database or the password encoder.
+ * <p>
+ * The username is read from the JSON body, which is buffered for the controller; bodies over
+ * {@code max-body-bytes} are rejected with 413, chunked ones included, so no request gets past
+ * with the IP limit alone.
+ * <p>
+ * The client is the remote address of the connection. Forwarding headers are not read here, a
+ * client could pick its own bucket with them; behind a proxy {@code server.forward-headers-strategy}
+ * lets the container replace the remote address from the headers of the trusted proxies only.
+ */
+@Component
+@Order(SecurityProperties.DEFAULT_FILTER_ORDER - 10)
+@Slf4j
+public class LoginRateLimitFilter extends OncePerRequestFilter {
+
+    /** Body fields naming the account, in the order they are looked for */
+    private static final List<String> USERNAME_FIELDS = List.of("usernameOrEmail", "username", "email");
+
+    private final LoginRateLimiter rateLimiter;
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+    private final Set<String> paths;
+    private final int maxBodyBytes;
+
+    public LoginRateLimitFilter(LoginRateLimiter rateLimiter,
+                                ObjectMapper objectMapper,
+                                @Value("${security.login-limit.enabled:true}") boolean enabled,
+                                @Value("${security.login-limit.paths:/api/v1/auth/login,/api/v1/auth/register,"
+                                        + "/api/v1/auth/forgot-password,/api/v1/auth/reset-password}") Set<String> paths,
+                                @Value("${security.login-limit.max-body-bytes:8192}") int maxBodyBytes) {
+        this.rateLimiter = rateLimiter;
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+        this.paths = Set.copyOf(paths);
+        this.maxBodyBytes = maxBodyBytes;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled || !"POST".equals(request.getMethod()) || !paths.contains(request.getServletPath());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        // Read whatever Content-Length says, a chunked body must not skip the per-username limit
+        byte[] body = request.getContentLengthLong() > maxBodyBytes
+                ? null
+                : request.getInputStream().readNBytes(maxBodyBytes + 1);
+        if (body == null || body.length > maxBodyBytes) {
+            log.debug("Запрос {} от {} отклонен: тело больше {} байт",
+                    request.getServletPath(), request.getRemoteAddr(), maxBodyBytes);
+            writeError(request, response, HttpStatus.PAYLOAD_TOO_LARGE, "Request body too large");
+            return;
+        }
+        String username = usernameFrom(body);
+
+        LoginRateLimiter.Decision decision = rateLimiter.check(request.getRemoteAddr(), username);
+        if (!decision.allowed()) {
+            log.debug("Запрос {} от {} отклонен ограничителем входа: {}",
+                    request.getServletPath(), request.getRemoteAddr(), decision.result());
+            reject(request, response, decision);
+            return;
+        }
+        filterChain.doFilter(new BufferedBodyRequest(request, body), response);
+    }
+
+    private String usernameFrom(byte[] body) {
+        if (body.length == 0) {
+            return null;
+        }
+        try {
+            JsonNode json = objectMapper.readTree(body);
+            for (String field : USERNAME_FIELDS) {
+                JsonNode value = json.get(field);
+                if (value != null && value.isTextual()) {
+                    return value.asText();
+                }
+            }
+        } catch (IOException e) {
+            // Malformed bodies are rejected by the controller, they still count against the IP
+        }
+        return null;
+    }
+
+    private void reject(HttpServletRequest request, HttpServletResponse response,
+                        LoginRateLimiter.Decision decision) throws IOException {
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(decision.retryAfterSeconds()));
+        writeError(request, response, HttpStatus.TOO_MANY_REQUESTS,
+                decision.result() == LoginRateLimiter.Result.LOCKED_OUT
+                        ? "Too many failed login attempts, try again later"
+                        : "Too many requests, try again later");
+    }
+
+    private void writeError(HttpServletRequest request, HttpServletResponse response,
+                            HttpStatus status, String message) throws IOException {
+        response.setStatus(status.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+
+        final Map<String, Object> body = new HashMap<>();
+        body.put("status", status.value());
+        body.put("error", status.getReasonPhrase());
+        body.put("message", message);
+        body.put("path", request.getServletPath());
+        objectMapper.writeValue(response.getOutputStream(), body);
+    }
+
+    private static final class BufferedBodyRequest extends HttpServletRequestWrapper {
+
+        private final byte[] body;
+
+        BufferedBodyRequest(HttpServletRequest request, byte[] body) {
+            super(request);
+            this.body = body;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream input = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public boolean isFinished() {
+                    return input.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setReadListener(ReadListener readListener) {
+                    throw new UnsupportedOperationException();
+                }
+
+                @Override
+                public int read() {
+                    return input.read();
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    return input.read(b, off, len);
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            String encoding = getCharacterEncoding();
+            return new BufferedReader(new InputStreamReader(new ByteArrayInputStream(body),
+                    encoding != null ? Charset.forName(encoding) : StandardCharsets.UTF_8));
+        }
+    }
+}
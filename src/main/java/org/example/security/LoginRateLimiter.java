@@ -0,0 +1,379 @@
+package org.example.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.authentication.event.AuthenticationFailureBadCredentialsEvent;
+import org.springframework.security.authentication.event.AuthenticationSuccessEvent;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Throttles authentication requests per client IP and per username, and locks a username out for
+ * a while after repeated bad passwords.
+ * <p>
+ * Two tiers: a token bucket per key on this node rejects bursts without any I/O, and requests it
+ * lets through are counted in Redis in a sliding window shared by all nodes, one script call per
+ * request. Bad passwords are counted in Redis from Spring Security's authentication events instead
+ * of in the users table. Without Redis only the node-local tier applies: requests are throttled by
+ * the token buckets alone and bad passwords are counted on this node, so a lockout then holds on
+ * the node that saw the failures only. An {@link #unlock} is published on {@link #CHANNEL} as
+ * {@code nodeId|username}, so every node forgets the lockout it remembers locally.
+ */
+@Component
+@Slf4j
+public class LoginRateLimiter implements MessageListener {
+
+    public enum Result {
+        ALLOWED, RATE_LIMITED, LOCKED_OUT
+    }
+
+    /** Outcome and, when rejected, the seconds after which a retry makes sense */
+    public record Decision(Result result, long retryAfterSeconds) {
+
+        static final Decision ALLOW = new Decision(Result.ALLOWED, 0);
+
+        public boolean allowed() {
+            return result == Result.ALLOWED;
+        }
+    }
+
+    public static final String CHANNEL = "login-limit-cleared";
+    private static final String SEPARATOR = "|";
+    private static final String KEY_PREFIX = "login-limit:";
+    private static final String FAILURES_PREFIX = "login-failures:";
+    private static final int MAX_USERNAME_LENGTH = 100;
+
+    /**
+     * KEYS: pairs of current and previous window counters, then optionally the failure counter.
+     * ARGV: counter TTL ms, weight of the previous window, failure limit, limit per pair.
+     * Returns {0} when allowed, {1} when a sliding window is over its limit, {2, remaining ms} when
+     * locked out.
+     */
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> CHECK_SCRIPT = new DefaultRedisScript<>("""
+            local n = math.floor(#KEYS / 2)
+            local result = 0
+            for p = 0, n - 1 do
+              local current = KEYS[2 * p + 1]
+              local count = redis.call('incr', current)
+              if count == 1 then redis.call('pexpire', current, ARGV[1]) end
+              local previous = tonumber(redis.call('get', KEYS[2 * p + 2]) or '0')
+              if count + previous * tonumber(ARGV[2]) > tonumber(ARGV[4 + p]) then result = 1 end
+            end
+            if #KEYS % 2 == 1 and tonumber(redis.call('get', KEYS[#KEYS]) or '0') >= tonumber(ARGV[3]) then
+              return {2, redis.call('pttl', KEYS[#KEYS])}
+            end
+            return {result}
+            """, List.class);
+
+    private static final RedisScript<Long> FAILURE_SCRIPT = new DefaultRedisScript<>("""
+            local count = redis.call('incr', KEYS[1])
+            redis.call('pexpire', KEYS[1], ARGV[1])
+            return count
+            """, Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private final int ipPerMinute;
+    private final int ipBurst;
+    private final int usernamePerMinute;
+    private final int usernameBurst;
+    private final int maxFailures;
+    private final Duration lockout;
+    private final int maxTrackedKeys;
+    private final long windowMillis = Duration.ofMinutes(1).toMillis();
+
+    private final Map<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+    /** Usernames this node saw locked out, until when; spares Redis the obvious repeats */
+    private final Map<String, Long> lockedOutUntil = new ConcurrentHashMap<>();
+    /** Bad passwords counted while Redis was unreachable */
+    private final Map<String, LocalFailures> localFailures = new ConcurrentHashMap<>();
+
+    private final Counter allowed;
+    private final Counter rejectedLocal;
+    private final Counter rejectedCluster;
+    private final Counter rejectedLockedOut;
+
+    public LoginRateLimiter(StringRedisTemplate redisTemplate,
+                            RedisMessageListenerContainer listenerContainer,
+                            MeterRegistry meterRegistry,
+                            @Value("${security.login-limit.ip.per-minute:30}") int ipPerMinute,
+                            @Value("${security.login-limit.ip.burst:10}") int ipBurst,
+                            @Value("${security.login-limit.username.per-minute:10}") int usernamePerMinute,
+                            @Value("${security.login-limit.username.burst:5}") int usernameBurst,
+                            @Value("${security.login-limit.max-failures:5}") int maxFailures,
+                            @Value("${security.login-limit.lockout:15m}") Duration lockout,
+                            @Value("${security.login-limit.max-tracked-keys:100000}") int maxTrackedKeys) {
+        this.redisTemplate = redisTemplate;
+        this.ipPerMinute = ipPerMinute;
+        this.ipBurst = ipBurst;
+        this.usernamePerMinute = usernamePerMinute;
+        this.usernameBurst = usernameBurst;
+        this.maxFailures = maxFailures;
+        this.lockout = lockout;
+        this.maxTrackedKeys = maxTrackedKeys;
+        this.allowed = Counter.builder("security.login.limit").tag("result", "allowed").register(meterRegistry);
+        this.rejectedLocal = Counter.builder("security.login.limit").tag("result", "rejected_local").register(meterRegistry);
+        this.rejectedCluster = Counter.builder("security.login.limit").tag("result", "rejected_cluster").register(meterRegistry);
+        this.rejectedLockedOut = Counter.builder("security.login.limit").tag("result", "locked_out").register(meterRegistry);
+        Gauge.builder("security.login.limit.tracked.keys", buckets, Map::size).register(meterRegistry);
+        listenerContainer.addMessageListener(this, new ChannelTopic(CHANNEL));
+    }
+
+    // ==================== CHECKING ====================
+
+    /**
+     * Takes one request from the budgets of the IP and, when known, the username
+     */
+    public Decision check(String ip, String username) {
+        String user = normalize(username);
+        long now = System.currentTimeMillis();
+
+        if (user != null) {
+            Long until = lockedOutUntil.get(user);
+            if (until != null && until > now) {
+                rejectedLockedOut.increment();
+                return new Decision(Result.LOCKED_OUT, secondsUntil(until, now));
+            }
+        }
+        // Both buckets are charged, so a distributed attack on one account drains the account's budget too
+        boolean ipAllowed = bucket("ip:" + ip, ipBurst, ipPerMinute).tryConsume(now);
+        boolean userAllowed = user == null || bucket("user:" + user, usernameBurst, usernamePerMinute).tryConsume(now);
+        if (!ipAllowed || !userAllowed) {
+            rejectedLocal.increment();
+            // Time until the exhausted bucket has its next token
+            int perMinute = Math.max(1, ipAllowed ? usernamePerMinute : ipPerMinute);
+            return new Decision(Result.RATE_LIMITED, (60 + perMinute - 1) / perMinute);
+        }
+
+        Decision decision = checkCluster(ip, user, now);
+        switch (decision.result()) {
+            case ALLOWED -> allowed.increment();
+            case RATE_LIMITED -> rejectedCluster.increment();
+            case LOCKED_OUT -> {
+                rejectedLockedOut.increment();
+                lockedOutUntil.put(user, now + decision.retryAfterSeconds() * 1000);
+            }
+        }
+        return decision;
+    }
+
+    private Decision checkCluster(String ip, String user, long now) {
+        long window = now / windowMillis;
+        double previousWeight = 1.0 - (double) (now % windowMillis) / windowMillis;
+        List<String> keys = new ArrayList<>(5);
+        List<String> args = new ArrayList<>(5);
+        args.add(Long.toString(2 * windowMillis));
+        args.add(Double.toString(previousWeight));
+        args.add(Integer.toString(maxFailures));
+
+        keys.add(KEY_PREFIX + "ip:" + ip + ":" + window);
+        keys.add(KEY_PREFIX + "ip:" + ip + ":" + (window - 1));
+        args.add(Integer.toString(Math.max(ipBurst, ipPerMinute)));
+        if (user != null) {
+            keys.add(KEY_PREFIX + "user:" + user + ":" + window);
+            keys.add(KEY_PREFIX + "user:" + user + ":" + (window - 1));
+            args.add(Integer.toString(Math.max(usernameBurst, usernamePerMinute)));
+            keys.add(FAILURES_PREFIX + user);
+        }
+        try {
+            List<?> reply = redisTemplate.execute(CHECK_SCRIPT, keys, args.toArray());
+            long result = reply != null && !reply.isEmpty() ? ((Number) reply.get(0)).longValue() : 0;
+            if (result == 2) {
+                long remaining = Math.max(1000, ((Number) reply.get(1)).longValue());
+                return new Decision(Result.LOCKED_OUT, secondsUntil(now + remaining, now));
+            }
+            return result == 1
+                    ? new Decision(Result.RATE_LIMITED, secondsUntil((window + 1) * windowMillis, now))
+                    : Decision.ALLOW;
+        } catch (Exception e) {
+            log.debug("Login rate limit falls back to the node-local tier: {}", e.getMessage());
+            return Decision.ALLOW;
+        }
+    }
+
+    private TokenBucket bucket(String key, int burst, int perMinute) {
+        if (buckets.size() >= maxTrackedKeys && !buckets.containsKey(key)) {
+            evictIdleBuckets();
+        }
+        return buckets.computeIfAbsent(key, k -> new TokenBucket(burst, perMinute / 60_000.0));
+    }
+
+    // ==================== FAILED ATTEMPTS ====================
+
+    @EventListener
+    public void onBadCredentials(AuthenticationFailureBadCredentialsEvent event) {
+        recordFailure(event.getAuthentication().getName());
+    }
+
+    @EventListener
+    public void onSuccess(AuthenticationSuccessEvent event) {
+        clearFailures(event.getAuthentication().getName());
+    }
+
+    /**
+     * Counts a bad password for the username; returns the failures within the lockout period.
+     * While Redis is unreachable they are counted on this node instead
+     */
+    public int recordFailure(String username) {
+        String user = normalize(username);
+        if (user == null) {
+            return 0;
+        }
+        long now = System.currentTimeMillis();
+        int count;
+        try {
+            Long failures = redisTemplate.execute(FAILURE_SCRIPT, List.of(FAILURES_PREFIX + user),
+                    Long.toString(lockout.toMillis()));
+            count = failures != null ? failures.intValue() : 0;
+        } catch (Exception e) {
+            log.warn("Could not count failed login of {} in Redis, counting on this node: {}", user, e.getMessage());
+            count = localFailures.compute(user, (k, failures) -> failures == null || failures.expiresAt() <= now
+                    ? new LocalFailures(1, now + lockout.toMillis())
+                    : new LocalFailures(failures.count() + 1, now + lockout.toMillis())).count();
+        }
+        if (count >= maxFailures) {
+            lockedOutUntil.put(user, now + lockout.toMillis());
+            log.warn("Вход для пользователя {} заблокирован на {} после {} неудачных попыток", user, lockout, count);
+        }
+        return count;
+    }
+
+    public void clearFailures(String username) {
+        String user = normalize(username);
+        if (user == null) {
+            return;
+        }
+        forget(user);
+        try {
+            redisTemplate.delete(FAILURES_PREFIX + user);
+        } catch (Exception e) {
+            log.debug("Could not clear failed logins of {}: {}", user, e.getMessage());
+        }
+    }
+
+    /**
+     * Lifts a lockout: clears the failed logins of the username and tells the other nodes to
+     * forget the lockout they remember
+     */
+    public void unlock(String username) {
+        clearFailures(username);
+        String user = normalize(username);
+        if (user == null) {
+            return;
+        }
+        try {
+            redisTemplate.convertAndSend(CHANNEL, nodeId + SEPARATOR + user);
+        } catch (Exception e) {
+            log.warn("Error publishing login unlock of {}, other nodes keep the lockout until it expires: {}",
+                    user, e.getMessage());
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String[] parts = new String(message.getBody(), StandardCharsets.UTF_8).split("\\|", 2);
+        if (parts.length == 2 && !nodeId.equals(parts[0])) {
+            forget(parts[1]);
+        }
+    }
+
+    private void forget(String user) {
+        lockedOutUntil.remove(user);
+        localFailures.remove(user);
+    }
+
+    // ==================== HOUSEKEEPING ====================
+
+    /**
+     * Drops buckets that refilled completely, they behave exactly like new ones
+     */
+    @Scheduled(fixedDelayString = "${security.login-limit.cleanup-interval-ms:60000}")
+    public void evictIdleBuckets() {
+        long now = System.currentTimeMillis();
+        buckets.values().removeIf(bucket -> bucket.isFull(now));
+        lockedOutUntil.values().removeIf(until -> until <= now);
+        localFailures.values().removeIf(failures -> failures.expiresAt() <= now);
+        if (localFailures.size() >= maxTrackedKeys) {
+            log.warn("{} usernames with failed logins counted on this node, dropping the counts", localFailures.size());
+            localFailures.clear();
+        }
+        if (buckets.size() >= maxTrackedKeys) {
+            // Under a spread-out flood every bucket is busy; the Redis tier keeps limiting meanwhile
+            log.warn("{} login rate limit buckets in use, resetting the node-local tier", buckets.size());
+            buckets.clear();
+        }
+    }
+
+    private static String normalize(String username) {
+        if (username == null || username.isBlank()) {
+            return null;
+        }
+        String user = username.trim().toLowerCase(Locale.ROOT);
+        return user.length() > MAX_USERNAME_LENGTH ? user.substring(0, MAX_USERNAME_LENGTH) : user;
+    }
+
+    private static long secondsUntil(long untilMillis, long now) {
+        return Math.max(1, (untilMillis - now + 999) / 1000);
+    }
+
+    private record LocalFailures(int count, long expiresAt) {
+    }
+
+    private static final class TokenBucket {
+
+        private final int capacity;
+        private final double tokensPerMilli;
+        private double tokens;
+        private long refilledAt;
+
+        TokenBucket(int capacity, double tokensPerMilli) {
+            this.capacity = capacity;
+            this.tokensPerMilli = tokensPerMilli;
+            this.tokens = capacity;
+            this.refilledAt = System.currentTimeMillis();
+        }
+
+        synchronized boolean tryConsume(long now) {
+            refill(now);
+            if (tokens < 1) {
+                return false;
+            }
+            tokens -= 1;
+            return true;
+        }
+
+        synchronized boolean isFull(long now) {
+            refill(now);
+            return tokens >= capacity;
+        }
+
+        private void refill(long now) {
+            if (now > refilledAt) {
+                tokens = Math.min(capacity, tokens + (now - refilledAt) * tokensPerMilli);
+                refilledAt = now;
+            }
+        }
+    }
+}
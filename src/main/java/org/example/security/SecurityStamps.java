@@ -0,0 +1,113 @@
+package org.example.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.example.config.EntityCacheInvalidator;
+import org.example.entity.User;
+import org.example.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+
+/**
+ * Current security stamps of recently authenticated users, see {@link User#securityStamp()}.
+ * <p>
+ * A stateless access token is accepted only while the stamp it carries is still the user's stamp,
+ * so disabling, locking, banning or deleting an account, a password change or a role change ends
+ * its tokens. Stamps are kept per node for {@code ttl-ms}; committed changes of a user arrive over
+ * the second-level cache channel of {@link EntityCacheInvalidator} and drop the stamp on every node,
+ * the TTL bounds what a lost message leaves stale. Lookups take no lock.
+ */
+@Component
+@Slf4j
+public class SecurityStamps implements MessageListener {
+
+    private static final String USER_ENTITY = User.class.getName();
+
+    /** Stamp of a user that may not authenticate at all: missing, deleted or inactive */
+    private static final Optional<Integer> BLOCKED = Optional.empty();
+
+    private final UserRepository userRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final long ttlMillis;
+    private final ExpiringMap<Long, Optional<Integer>> entries;
+
+    private final Counter hits;
+    private final Counter loads;
+    private final Counter rejected;
+
+    public SecurityStamps(UserRepository userRepository,
+                          PlatformTransactionManager transactionManager,
+                          RedisMessageListenerContainer listenerContainer,
+                          MeterRegistry meterRegistry,
+                          @Value("${spring.jwt.stamps.max-entries:50000}") int maxEntries,
+                          @Value("${spring.jwt.stamps.ttl-ms:30000}") long ttlMillis) {
+        this.userRepository = userRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.ttlMillis = ttlMillis;
+        this.entries = new ExpiringMap<>(maxEntries);
+        this.hits = Counter.builder("security.stamps.lookups").tag("result", "hit").register(meterRegistry);
+        this.loads = Counter.builder("security.stamps.lookups").tag("result", "load").register(meterRegistry);
+        this.rejected = Counter.builder("security.stamps.rejected").register(meterRegistry);
+        listenerContainer.addMessageListener(this, new ChannelTopic(EntityCacheInvalidator.CHANNEL));
+    }
+
+    /**
+     * Whether a token issued with this stamp still speaks for the user
+     */
+    public boolean isCurrent(Long userId, int stamp) {
+        boolean valid = currentStamp(userId).filter(current -> current == stamp).isPresent();
+        if (!valid) {
+            rejected.increment();
+        }
+        return valid;
+    }
+
+    public void evict(Long userId) {
+        entries.remove(userId);
+    }
+
+    private Optional<Integer> currentStamp(Long userId) {
+        long now = System.currentTimeMillis();
+        Optional<Integer> cached = entries.get(userId, now);
+        if (cached != null) {
+            hits.increment();
+            return cached;
+        }
+        loads.increment();
+        // Usually served by the second-level cache region of User
+        Optional<Integer> stamp = readOnlyTransaction.execute(status -> userRepository.findById(userId)
+                .filter(User::canLogin)
+                .filter(user -> user.getDeletedAt() == null)
+                .map(User::securityStamp));
+        if (stamp == null) {
+            stamp = BLOCKED;
+        }
+        entries.put(userId, stamp, now + ttlMillis, now);
+        return stamp;
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        // nodeId|entityName|id; changes on this node arrive here as well
+        String[] parts = new String(message.getBody(), StandardCharsets.UTF_8).split("\\|", 3);
+        if (parts.length < 3 || !USER_ENTITY.equals(parts[1])) {
+            return;
+        }
+        try {
+            evict(Long.valueOf(parts[2]));
+        } catch (NumberFormatException e) {
+            log.warn("Unexpected user id in cache eviction message: {}", parts[2]);
+        }
+    }
+}
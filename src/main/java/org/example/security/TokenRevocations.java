@@ -0,0 +1,240 @@
+package org.example.security;
+
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Date;
+import java.util.UUID;
+
+/**
+ * Revoked tokens: single tokens by jti (logout) and everything a user was issued before a point in
+ * time (logout from all devices).
+ * <p>
+ * The revocations live in Redis with the lifetime of the tokens they cover. Each node keeps a Bloom
+ * filter of them, so a token that was never revoked, the usual case, is cleared without a network
+ * call; only filter hits are confirmed in Redis. New revocations reach the other nodes on
+ * {@link #CHANNEL} as {@code nodeId|entry}, and the filter is rebuilt from Redis periodically to
+ * drop expired entries and pick up anything a lost message missed. The first build runs once the
+ * application is ready rather than during context startup; until it completes every check is
+ * confirmed in Redis.
+ */
+@Component
+@Slf4j
+public class TokenRevocations implements MessageListener {
+
+    public static final String CHANNEL = "token-revocations";
+    private static final String SEPARATOR = "|";
+    private static final String KEY_PREFIX = "token-revoked:";
+    private static final String JTI = "jti:";
+    private static final String USER = "user:";
+    private static final int SCAN_BATCH = 1000;
+
+    private final StringRedisTemplate redisTemplate;
+    private final VerifiedTokenCache verifiedTokens;
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private final long expectedEntries;
+    private final double falsePositiveRate;
+    private final Duration refreshTokenTtl;
+
+    private volatile BloomFilter filter;
+    /** Set once the filter holds everything that was in Redis */
+    private volatile boolean loaded;
+    /** Filter being rebuilt; revocations arriving meanwhile go into both */
+    private volatile BloomFilter rebuilding;
+
+    private final Counter cleared;
+    private final Counter confirmed;
+    private final Counter revoked;
+
+    public TokenRevocations(StringRedisTemplate redisTemplate,
+                            VerifiedTokenCache verifiedTokens,
+                            RedisMessageListenerContainer listenerContainer,
+                            MeterRegistry meterRegistry,
+                            @Value("${spring.jwt.revocation.expected-entries:100000}") long expectedEntries,
+                            @Value("${spring.jwt.revocation.false-positive-rate:0.01}") double falsePositiveRate,
+                            @Value("${spring.jwt.refresh-expiration}") long refreshExpiration) {
+        this.redisTemplate = redisTemplate;
+        this.verifiedTokens = verifiedTokens;
+        this.expectedEntries = expectedEntries;
+        this.falsePositiveRate = falsePositiveRate;
+        // No token outlives a refresh token, so neither does a per-user cut-off
+        this.refreshTokenTtl = Duration.ofMillis(refreshExpiration);
+        this.filter = new BloomFilter(expectedEntries, falsePositiveRate);
+        this.cleared = Counter.builder("security.revocation.checks").tag("result", "filter_miss").register(meterRegistry);
+        this.confirmed = Counter.builder("security.revocation.checks").tag("result", "not_revoked").register(meterRegistry);
+        this.revoked = Counter.builder("security.revocation.checks").tag("result", "revoked").register(meterRegistry);
+        listenerContainer.addMessageListener(this, new ChannelTopic(CHANNEL));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        rebuild();
+    }
+
+    // ==================== REVOKING ====================
+
+    /**
+     * Revokes a single token until it expires
+     */
+    public void revoke(String token, Claims claims) {
+        String jti = claims.getId();
+        if (jti == null || claims.getExpiration() == null) {
+            log.warn("Token without jti or expiration cannot be revoked individually");
+            return;
+        }
+        if (revokeJti(jti, claims.getExpiration().getTime())) {
+            verifiedTokens.evict(token);
+        }
+    }
+
+    /**
+     * Revokes the refresh token issued together with an access token, see
+     * {@link JwtService#generateTokenPair}. Access tokens issued on their own name none.
+     */
+    public void revokeRefreshTokenOf(Claims accessClaims) {
+        String refreshId = accessClaims.get(JwtService.CLAIM_REFRESH_ID, String.class);
+        if (refreshId == null || accessClaims.getIssuedAt() == null) {
+            return;
+        }
+        // Both were signed in the same call, so the refresh token expires a refresh lifetime after iat
+        revokeJti(refreshId, accessClaims.getIssuedAt().getTime() + refreshTokenTtl.toMillis());
+    }
+
+    private boolean revokeJti(String jti, long expiresAt) {
+        long remaining = expiresAt - System.currentTimeMillis();
+        if (remaining <= 0) {
+            return false;
+        }
+        redisTemplate.opsForValue().set(KEY_PREFIX + JTI + jti, "1", Duration.ofMillis(remaining));
+        added(JTI + jti);
+        log.debug("Токен {} отозван", jti);
+        return true;
+    }
+
+    /**
+     * Revokes every token issued to the user up to now
+     */
+    public void revokeAll(Long userId) {
+        // iat has second precision: the cutoff is rounded up so tokens issued earlier in this second
+        // are revoked too, at the cost of also revoking one issued later in the same second
+        long notBefore = (System.currentTimeMillis() / 1000 + 1) * 1000;
+        redisTemplate.opsForValue().set(KEY_PREFIX + USER + userId, Long.toString(notBefore), refreshTokenTtl);
+        added(USER + userId);
+        log.info("Все токены пользователя {} отозваны", userId);
+    }
+
+    private void added(String entry) {
+        remember(entry);
+        try {
+            redisTemplate.convertAndSend(CHANNEL, nodeId + SEPARATOR + entry);
+        } catch (Exception e) {
+            log.warn("Error publishing token revocation, other nodes pick it up with the next rebuild: {}",
+                    e.getMessage());
+        }
+    }
+
+    private void remember(String entry) {
+        filter.add(entry);
+        BloomFilter next = rebuilding;
+        if (next != null) {
+            next.add(entry);
+        }
+    }
+
+    // ==================== CHECKING ====================
+
+    /**
+     * Whether verified claims belong to a revoked token. Filter hits that cannot be confirmed
+     * because Redis is unavailable count as revoked.
+     */
+    public boolean isRevoked(Claims claims) {
+        String jti = claims.getId();
+        Long userId = claims.get(JwtService.CLAIM_USER_ID, Long.class);
+        boolean jtiHit = jti != null && filter.mightContain(JTI + jti);
+        boolean userHit = userId != null && filter.mightContain(USER + userId);
+        // Until the first build the filter lacks the revocations of earlier runs, so Redis decides
+        boolean askRedis = !loaded;
+        if (!jtiHit && !userHit && !askRedis) {
+            cleared.increment();
+            return false;
+        }
+        try {
+            boolean isRevoked = ((jtiHit || askRedis) && jti != null
+                    && Boolean.TRUE.equals(redisTemplate.hasKey(KEY_PREFIX + JTI + jti)))
+                    || ((userHit || askRedis) && userId != null && issuedBeforeCutOff(userId, claims.getIssuedAt()));
+            (isRevoked ? revoked : confirmed).increment();
+            return isRevoked;
+        } catch (Exception e) {
+            if (!jtiHit && !userHit) {
+                // Not loaded yet and Redis is down: only this run's revocations are known
+                cleared.increment();
+                return false;
+            }
+            log.warn("Could not confirm token revocation, rejecting the token: {}", e.getMessage());
+            revoked.increment();
+            return true;
+        }
+    }
+
+    private boolean issuedBeforeCutOff(Long userId, Date issuedAt) {
+        String notBefore = redisTemplate.opsForValue().get(KEY_PREFIX + USER + userId);
+        return notBefore != null && (issuedAt == null || issuedAt.getTime() < Long.parseLong(notBefore));
+    }
+
+    // ==================== SYNC ====================
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String[] parts = new String(message.getBody(), StandardCharsets.UTF_8).split("\\|", 2);
+        if (parts.length == 2 && !nodeId.equals(parts[0])) {
+            remember(parts[1]);
+        }
+    }
+
+    /**
+     * Replaces the filter with one built from the revocations still in Redis
+     */
+    @Scheduled(fixedDelayString = "${spring.jwt.revocation.rebuild-interval-ms:300000}",
+            initialDelayString = "${spring.jwt.revocation.rebuild-interval-ms:300000}")
+    public void rebuild() {
+        BloomFilter next = new BloomFilter(expectedEntries, falsePositiveRate);
+        rebuilding = next;
+        long count = 0;
+        ScanOptions options = ScanOptions.scanOptions().match(KEY_PREFIX + "*").count(SCAN_BATCH).build();
+        try (Cursor<String> keys = redisTemplate.scan(options)) {
+            while (keys.hasNext()) {
+                next.add(keys.next().substring(KEY_PREFIX.length()));
+                count++;
+            }
+            filter = next;
+            loaded = true;
+            log.debug("Фильтр отозванных токенов перестроен: {} записей", count);
+            if (count > expectedEntries) {
+                log.warn("{} revoked tokens exceed spring.jwt.revocation.expected-entries={}, "
+                        + "more valid tokens need a Redis lookup", count, expectedEntries);
+            }
+        } catch (Exception e) {
+            // The current filter keeps everything it had, it only grows stale entries
+            log.warn("Could not rebuild the token revocation filter: {}", e.getMessage());
+        } finally {
+            rebuilding = null;
+        }
+    }
+}
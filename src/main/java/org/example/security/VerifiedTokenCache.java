@@ -0,0 +1,94 @@
+package org.example.security;
+
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Claims of tokens whose signature was already verified, so a client sending the same token on
+ * every request costs one HMAC check and one claims parse per cache lifetime.
+ * <p>
+ * Entries are keyed by the SHA-256 digest of the token (bearer tokens are never kept in memory)
+ * and expire at the token's {@code exp}, or after {@code max-ttl-ms} if that comes first. Only the
+ * signature check is skipped: user state and revocation are still checked on every request.
+ * Lookups take no lock; over {@code max-entries} the tokens expiring soonest are dropped first.
+ */
+@Component
+public class VerifiedTokenCache {
+
+    private final int maxEntries;
+    private final long maxTtlMillis;
+    private final ExpiringMap<String, Claims> entries;
+
+    private final Counter hits;
+    private final Counter misses;
+
+    public VerifiedTokenCache(@Value("${spring.jwt.verified-cache.max-entries:10000}") int maxEntries,
+                              @Value("${spring.jwt.verified-cache.max-ttl-ms:300000}") long maxTtlMillis,
+                              MeterRegistry meterRegistry) {
+        this.maxEntries = maxEntries;
+        this.maxTtlMillis = maxTtlMillis;
+        this.entries = new ExpiringMap<>(maxEntries);
+        this.hits = Counter.builder("security.jwt.verified.cache").tag("result", "hit").register(meterRegistry);
+        this.misses = Counter.builder("security.jwt.verified.cache").tag("result", "miss").register(meterRegistry);
+        Gauge.builder("security.jwt.verified.cache.size", this, VerifiedTokenCache::size).register(meterRegistry);
+    }
+
+    /**
+     * Claims of a previously verified, not yet expired token, or null
+     */
+    public Claims get(String token) {
+        if (maxEntries <= 0) {
+            return null;
+        }
+        Claims claims = entries.get(digest(token), System.currentTimeMillis());
+        if (claims != null) {
+            hits.increment();
+            return claims;
+        }
+        misses.increment();
+        return null;
+    }
+
+    public void put(String token, Claims claims) {
+        if (maxEntries <= 0 || claims.getExpiration() == null) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        long expiresAt = Math.min(claims.getExpiration().getTime(), now + maxTtlMillis);
+        entries.put(digest(token), claims, expiresAt, now);
+    }
+
+    /**
+     * Forgets a token, e.g. when it is revoked
+     */
+    public void evict(String token) {
+        entries.remove(digest(token));
+    }
+
+    public void clear() {
+        entries.clear();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private static String digest(String token) {
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(sha256.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            // Every JRE provides SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+}
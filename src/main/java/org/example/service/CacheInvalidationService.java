@@ -0,0 +1,170 @@
+package org.example.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.example.config.InstrumentedCache;
+import org.example.dto.UserResponse;
+import org.example.entity.User;
+import org.example.mapper.UserMapper;
+import org.example.util.Constants;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Service;
+
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Keeps keyed cache entries in step with committed entity writes, so their TTLs only bound what a
+ * lost message could leave behind.
+ * <p>
+ * Changes are queued per cache key and applied in batches after a short window: a burst of writes
+ * to the same user costs one cache operation, the last one. A changed value evicts the entry, the
+ * next read loads it from the database; writing the new value instead could let a snapshot taken
+ * at an older commit overwrite a newer one cached in the meantime. An entry that already matches
+ * the new value is kept, so writes that do not touch the cached projection (e.g. the login
+ * timestamp) cost a lookup and nothing else.
+ */
+@Service
+@Slf4j
+public class CacheInvalidationService {
+
+    /** Queued instead of a value when the entry has to go whatever it holds */
+    private static final Object EVICT = new Object();
+
+    private record PendingKey(String cache, Object key) {
+    }
+
+    private final CacheManager cacheManager;
+    private final UserMapper userMapper;
+
+    private final ConcurrentHashMap<PendingKey, Object> pending = new ConcurrentHashMap<>();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+    private final ScheduledExecutorService flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "Cache-invalidation");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Counter requested;
+    private final Counter evicted;
+    private final Counter unchanged;
+
+    @Value("${cache.invalidation.batch-window-ms:100}")
+    private long batchWindowMs;
+
+    @Value("${cache.invalidation.max-pending:1000}")
+    private int maxPending;
+
+    public CacheInvalidationService(CacheManager cacheManager, UserMapper userMapper, MeterRegistry meterRegistry) {
+        this.cacheManager = cacheManager;
+        this.userMapper = userMapper;
+        this.requested = Counter.builder("cache.invalidation.requests").register(meterRegistry);
+        this.evicted = Counter.builder("cache.invalidation.applied").tag("action", "evict").register(meterRegistry);
+        this.unchanged = Counter.builder("cache.invalidation.applied").tag("action", "none").register(meterRegistry);
+    }
+
+    // ==================== ENTITY CHANGES ====================
+
+    /**
+     * A committed insert or update of a user: both cached profiles (by id and by username) follow it
+     */
+    public void userChanged(User user) {
+        if (user.getDeletedAt() != null || user.getStatus() == User.UserStatus.DELETED) {
+            userRemoved(user);
+            return;
+        }
+        UserResponse profile = userMapper.toDto(user);
+        update(Constants.CACHE_USERS, user.getId(), profile);
+        update(Constants.CACHE_USERS, user.getUsername(), profile);
+    }
+
+    public void userRemoved(User user) {
+        evict(Constants.CACHE_USERS, user.getId());
+        evict(Constants.CACHE_USERS, user.getUsername());
+    }
+
+    // ==================== QUEUE ====================
+
+    /**
+     * The value behind the key changed to {@code value}: a cached entry that differs is evicted
+     */
+    public void update(String cacheName, Object key, Object value) {
+        enqueue(new PendingKey(cacheName, key), value);
+    }
+
+    public void evict(String cacheName, Object key) {
+        enqueue(new PendingKey(cacheName, key), EVICT);
+    }
+
+    private void enqueue(PendingKey key, Object action) {
+        if (key.key() == null) {
+            return;
+        }
+        requested.increment();
+        // A later change to the same key replaces the queued one
+        pending.put(key, action);
+        if (pending.size() >= maxPending) {
+            flusher.execute(this::flush);
+        } else if (flushScheduled.compareAndSet(false, true)) {
+            flusher.schedule(this::flush, batchWindowMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void flush() {
+        // Cleared first, so changes queued while flushing schedule the next batch
+        flushScheduled.set(false);
+        int applied = 0;
+        for (PendingKey key : pending.keySet()) {
+            Object action = pending.remove(key);
+            if (action != null) {
+                apply(key, action);
+                applied++;
+            }
+        }
+        if (applied > 0) {
+            log.debug("Применено {} изменений кэша", applied);
+        }
+    }
+
+    private void apply(PendingKey key, Object action) {
+        Cache cache = cacheManager.getCache(key.cache());
+        if (cache == null) {
+            return;
+        }
+        try {
+            if (action != EVICT) {
+                // Looked up below the instrumentation, this is not a caller's lookup
+                Cache lookup = cache instanceof InstrumentedCache instrumented ? instrumented.getTarget() : cache;
+                Cache.ValueWrapper current = lookup.get(key.key());
+                if (current == null || Objects.equals(current.get(), action)) {
+                    unchanged.increment();
+                    return;
+                }
+            }
+            cache.evict(key.key());
+            evicted.increment();
+        } catch (Exception e) {
+            // The entry may stay stale for its TTL; evicting is the safe fallback
+            log.warn("Ошибка обновления кэша {} для ключа {}: {}", key.cache(), key.key(), e.getMessage());
+            try {
+                cache.evict(key.key());
+            } catch (Exception ignored) {
+                // Redis unavailable, nothing more to do
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flusher.shutdownNow();
+        flush();
+    }
+}
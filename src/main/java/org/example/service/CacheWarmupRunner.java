@@ -0,0 +1,175 @@
+package org.example.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.dto.UserResponse;
+import org.example.entity.User;
+import org.example.mapper.UserMapper;
+import org.example.repository.GameSessionRepository;
+import org.example.repository.UserRepository;
+import org.example.util.Constants;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Warms the in-memory views and caches before the instance takes traffic.
+ * <p>
+ * Application runners complete before the readiness state turns to ACCEPTING_TRAFFIC, so the
+ * leaderboards, the game catalog, the dashboard snapshots and the profiles of recently active users
+ * are loaded in parallel while the readiness probe still reports OUT_OF_SERVICE. Once the time
+ * budget is spent the instance goes ready anyway; unfinished tasks keep running in the background.
+ */
+@Component
+@Slf4j
+public class CacheWarmupRunner implements ApplicationRunner {
+
+    private final LeaderboardService leaderboardService;
+    private final GameCatalog gameCatalog;
+    private final DashboardSnapshots dashboardSnapshots;
+    private final GameSessionRepository gameSessionRepository;
+    private final UserRepository userRepository;
+    private final UserMapper userMapper;
+    private final CacheManager cacheManager;
+    private final TransactionTemplate readOnlyTransaction;
+
+    @Value("${warmup.enabled:true}")
+    private boolean enabled;
+
+    @Value("${warmup.time-budget-ms:30000}")
+    private long timeBudgetMs;
+
+    @Value("${warmup.threads:4}")
+    private int threads;
+
+    @Value("${warmup.active-users-hours:24}")
+    private long activeUsersHours;
+
+    @Value("${warmup.max-users:2000}")
+    private int maxUsers;
+
+    @Value("${warmup.user-batch-size:200}")
+    private int userBatchSize;
+
+    public CacheWarmupRunner(LeaderboardService leaderboardService,
+                             GameCatalog gameCatalog,
+                             DashboardSnapshots dashboardSnapshots,
+                             GameSessionRepository gameSessionRepository,
+                             UserRepository userRepository,
+                             UserMapper userMapper,
+                             CacheManager cacheManager,
+                             PlatformTransactionManager transactionManager) {
+        this.leaderboardService = leaderboardService;
+        this.gameCatalog = gameCatalog;
+        this.dashboardSnapshots = dashboardSnapshots;
+        this.gameSessionRepository = gameSessionRepository;
+        this.userRepository = userRepository;
+        this.userMapper = userMapper;
+        this.cacheManager = cacheManager;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!enabled) {
+            return;
+        }
+        long startedAt = System.currentTimeMillis();
+        long deadline = startedAt + timeBudgetMs;
+        ExecutorService executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "Cache-warmup");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            List<CompletableFuture<Void>> tasks = new ArrayList<>();
+            tasks.add(task("leaderboards", leaderboardService::rebuild, executor));
+            tasks.add(task("game catalog", gameCatalog::reload, executor));
+            tasks.add(task("dashboard snapshots", dashboardSnapshots::refreshAll, executor));
+            tasks.addAll(userProfileTasks(deadline, executor));
+
+            CompletableFuture.allOf(tasks.toArray(CompletableFuture[]::new))
+                    .get(Math.max(0, deadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+            log.info("Прогрев кэшей завершён за {} мс", System.currentTimeMillis() - startedAt);
+        } catch (TimeoutException e) {
+            log.warn("Прогрев кэшей не уложился в {} мс, приложение принимает трафик, прогрев продолжается в фоне",
+                    timeBudgetMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            // Failures are logged by the tasks themselves
+        } finally {
+            // Running tasks finish in the background, queued ones past the budget are not started
+            executor.shutdown();
+        }
+    }
+
+    private CompletableFuture<Void> task(String name, Runnable warmup, Executor executor) {
+        return CompletableFuture.runAsync(() -> {
+            long startedAt = System.currentTimeMillis();
+            try {
+                warmup.run();
+                log.debug("Прогрев: {} за {} мс", name, System.currentTimeMillis() - startedAt);
+            } catch (Exception e) {
+                log.warn("Прогрев: ошибка при загрузке {}: {}", name, e.getMessage());
+            }
+        }, executor);
+    }
+
+    // ==================== USER PROFILES ====================
+
+    /**
+     * Profiles of up to {@code maxUsers} users with game sessions in the recent window, most recently
+     * active first, cached under both keys {@code UserServiceImpl} reads them by. Entries already in
+     * the cache are left as they are.
+     */
+    private List<CompletableFuture<Void>> userProfileTasks(long deadline, Executor executor) {
+        Cache users = cacheManager.getCache(Constants.CACHE_USERS);
+        if (users == null || maxUsers <= 0) {
+            return List.of();
+        }
+        List<Long> userIds;
+        try {
+            userIds = gameSessionRepository.findMostRecentlyActiveUserIdsSince(
+                    LocalDateTime.now().minusHours(activeUsersHours), PageRequest.of(0, maxUsers));
+        } catch (Exception e) {
+            log.warn("Прогрев: не удалось получить активных пользователей: {}", e.getMessage());
+            return List.of();
+        }
+
+        AtomicInteger warmed = new AtomicInteger();
+        List<CompletableFuture<Void>> tasks = new ArrayList<>();
+        for (int from = 0; from < userIds.size(); from += userBatchSize) {
+            List<Long> batch = userIds.subList(from, Math.min(from + userBatchSize, userIds.size()));
+            tasks.add(task("user profiles", () -> {
+                if (System.currentTimeMillis() >= deadline) {
+                    return;
+                }
+                readOnlyTransaction.executeWithoutResult(status -> {
+                    for (User user : userRepository.findAllById(batch)) {
+                        UserResponse profile = userMapper.toDto(user);
+                        users.putIfAbsent(user.getId(), profile);
+                        users.putIfAbsent(user.getUsername(), profile);
+                        warmed.incrementAndGet();
+                    }
+                });
+            }, executor));
+        }
+        int total = userIds.size();
+        CompletableFuture.allOf(tasks.toArray(CompletableFuture[]::new))
+                .thenRun(() -> log.info("Прогрев: загружено {} из {} профилей активных пользователей", warmed.get(), total));
+        return tasks;
+    }
+}
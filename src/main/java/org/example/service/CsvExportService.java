@@ -0,0 +1,242 @@
+package org.example.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.example.exception.ValidationException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Streams raw statistics tables as CSV.
+ * <p>
+ * Rows are read through a forward-only, read-only JDBC cursor and written straight to the
+ * output stream, so memory use does not depend on the table size and no entities are
+ * loaded into a persistence context.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CsvExportService {
+
+    public enum ExportType {
+        GAME_ACTIONS("game_actions", "action_time",
+                "id", "user_id", "action_type", "action_code", "action_time", "location_id", "status",
+                "action_points_spent", "experience_gained", "gold_gained", "health_lost", "duration_ms"),
+        GAME_SESSIONS("game_sessions", "start_time",
+                "id", "user_id", "start_time", "end_time", "status", "ip_address", "device_info"),
+        AUDIT_LOGS("audit_logs", "created_at",
+                "id", "user_id", "action", "details", "ip_address", "user_agent", "created_at"),
+        USER_ACHIEVEMENTS("user_achievements", "unlocked_at",
+                "id", "user_id", "achievement_id", "unlocked_at", "progress", "completed", "completed_at",
+                "reward_claimed");
+
+        private final String table;
+        private final String timeColumn;
+        private final String[] columns;
+
+        ExportType(String table, String timeColumn, String... columns) {
+            this.table = table;
+            this.timeColumn = timeColumn;
+            this.columns = columns;
+        }
+
+        public String getTable() {
+            return table;
+        }
+
+        /**
+         * Accepts both enum names and table names: "GAME_ACTIONS", "game_actions", "game-actions"
+         */
+        public static ExportType fromString(String value) {
+            if (value != null) {
+                String normalized = value.trim().replace('-', '_').toUpperCase();
+                for (ExportType type : values()) {
+                    if (type.name().equals(normalized)) {
+                        return type;
+                    }
+                }
+            }
+            throw new ValidationException("Неизвестный тип экспорта: " + value +
+                    ". Допустимые значения: " + Arrays.toString(values()));
+        }
+    }
+
+    private static final char SEPARATOR = ';';
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${stats.export.chunk-size-bytes:65536}")
+    private int chunkSizeBytes;
+
+    @Value("${stats.export.query-timeout-seconds:3600}")
+    private int queryTimeoutSeconds;
+
+    /**
+     * Writes the rows of the given table in [from, to) to the output stream.
+     * Null bounds leave that side of the range open.
+     *
+     * @return number of data rows written
+     */
+    public long export(ExportType type, LocalDateTime from, LocalDateTime to, boolean gzip,
+                       OutputStream outputStream) throws IOException {
+        long startedAt = System.currentTimeMillis();
+        OutputStream target = gzip ? new GZIPOutputStream(outputStream, chunkSizeBytes) : outputStream;
+        ChunkedCsvWriter writer = new ChunkedCsvWriter(
+                new OutputStreamWriter(target, StandardCharsets.UTF_8), chunkSizeBytes);
+
+        writer.writeRow(type.columns);
+        Long rows;
+        try {
+            rows = jdbcTemplate.query(cursorStatement(type, from, to), resultSet -> {
+                ResultSetMetaData metaData = resultSet.getMetaData();
+                int columnCount = metaData.getColumnCount();
+                String[] values = new String[columnCount];
+                long count = 0;
+                while (resultSet.next()) {
+                    for (int i = 0; i < columnCount; i++) {
+                        values[i] = format(resultSet, i + 1);
+                    }
+                    writer.writeRow(values);
+                    count++;
+                }
+                return count;
+            });
+        } catch (UncheckedIOException e) {
+            // Client went away: the cursor is already closed by JdbcTemplate
+            throw e.getCause();
+        }
+
+        writer.finish();
+        if (target instanceof GZIPOutputStream gzipStream) {
+            gzipStream.finish();
+        }
+        outputStream.flush();
+
+        log.info("Экспорт {} завершен: {} строк за {} мс", type.getTable(), rows,
+                System.currentTimeMillis() - startedAt);
+        return rows != null ? rows : 0;
+    }
+
+    private PreparedStatementCreator cursorStatement(ExportType type, LocalDateTime from, LocalDateTime to) {
+        StringBuilder sql = new StringBuilder("SELECT ")
+                .append(String.join(", ", type.columns))
+                .append(" FROM ").append(type.table);
+        List<Object> params = new ArrayList<>();
+        if (from != null) {
+            sql.append(params.isEmpty() ? " WHERE " : " AND ").append(type.timeColumn).append(" >= ?");
+            params.add(Timestamp.valueOf(from));
+        }
+        if (to != null) {
+            sql.append(params.isEmpty() ? " WHERE " : " AND ").append(type.timeColumn).append(" < ?");
+            params.add(Timestamp.valueOf(to));
+        }
+        sql.append(" ORDER BY id");
+
+        return connection -> {
+            PreparedStatement statement = connection.prepareStatement(sql.toString(),
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            // MySQL Connector/J streams row by row only with this fetch size
+            statement.setFetchSize(Integer.MIN_VALUE);
+            statement.setQueryTimeout(queryTimeoutSeconds);
+            for (int i = 0; i < params.size(); i++) {
+                statement.setObject(i + 1, params.get(i));
+            }
+            return statement;
+        };
+    }
+
+    private static String format(ResultSet resultSet, int column) throws SQLException {
+        Object value = resultSet.getObject(column);
+        if (value == null) {
+            return "";
+        }
+        if (value instanceof Timestamp timestamp) {
+            return timestamp.toLocalDateTime().toString();
+        }
+        return value.toString();
+    }
+
+    /**
+     * CSV writer that hands data to the underlying stream in fixed-size chunks.
+     * IO errors are rethrown unchecked so they can cross the JDBC callback.
+     */
+    static class ChunkedCsvWriter {
+
+        private final Writer writer;
+        private final StringBuilder buffer;
+        private final int chunkSize;
+
+        ChunkedCsvWriter(Writer writer, int chunkSize) {
+            this.writer = writer;
+            this.chunkSize = chunkSize;
+            this.buffer = new StringBuilder(chunkSize + 1024);
+        }
+
+        void writeRow(String[] values) {
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) {
+                    buffer.append(SEPARATOR);
+                }
+                appendEscaped(values[i]);
+            }
+            buffer.append('\n');
+            if (buffer.length() >= chunkSize) {
+                flushChunk();
+            }
+        }
+
+        void finish() {
+            flushChunk();
+        }
+
+        private void appendEscaped(String value) {
+            if (value == null || value.isEmpty()) {
+                return;
+            }
+            boolean quote = value.indexOf(SEPARATOR) >= 0 || value.indexOf('"') >= 0
+                    || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0;
+            if (!quote) {
+                buffer.append(value);
+                return;
+            }
+            buffer.append('"');
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c == '"') {
+                    buffer.append('"');
+                }
+                buffer.append(c);
+            }
+            buffer.append('"');
+        }
+
+        private void flushChunk() {
+            try {
+                writer.append(buffer);
+                writer.flush();
+                buffer.setLength(0);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
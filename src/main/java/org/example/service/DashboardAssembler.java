@@ -0,0 +1,140 @@
+package org.example.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Builds dashboard responses out of independent sections that run concurrently.
+ * <p>
+ * Sections run on a bounded pool. A section that fails, exceeds its timeout or cannot be
+ * scheduled is replaced by a fallback entry, so one slow query never fails the whole page.
+ * Sections requested from inside another section run inline to avoid waiting on the same pool.
+ */
+@Component
+@Slf4j
+public class DashboardAssembler {
+
+    public enum SectionStatus {
+        OK, FAILED, TIMEOUT, REJECTED
+    }
+
+    private record SectionResult(Object value, SectionStatus status, long millis, String error) {
+    }
+
+    private static final ThreadLocal<Boolean> IN_SECTION = ThreadLocal.withInitial(() -> false);
+
+    private final ThreadPoolTaskExecutor executor;
+    private final MeterRegistry meterRegistry;
+    private final long sectionTimeoutMs;
+
+    public DashboardAssembler(MeterRegistry meterRegistry,
+                              @Value("${dashboard.executor.pool-size:8}") int poolSize,
+                              @Value("${dashboard.executor.queue-capacity:32}") int queueCapacity,
+                              @Value("${dashboard.section-timeout-ms:3000}") long sectionTimeoutMs) {
+        this.meterRegistry = meterRegistry;
+        this.sectionTimeoutMs = sectionTimeoutMs;
+        this.executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("Dashboard-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.initialize();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    /**
+     * Runs all sections and returns their values by name plus a "sectionTimings" entry.
+     * Total latency is bounded by the slowest section or the section timeout.
+     */
+    public Map<String, Object> assemble(String dashboard, Map<String, Supplier<?>> sections) {
+        long startedAt = System.nanoTime();
+        boolean inline = IN_SECTION.get();
+
+        Map<String, CompletableFuture<SectionResult>> futures = new LinkedHashMap<>();
+        sections.forEach((name, supplier) -> futures.put(name, inline
+                ? CompletableFuture.completedFuture(run(name, supplier))
+                : submit(name, supplier)));
+        CompletableFuture.allOf(futures.values().toArray(new CompletableFuture[0])).join();
+
+        Map<String, Object> result = new HashMap<>();
+        Map<String, Object> timings = new LinkedHashMap<>();
+        futures.forEach((name, future) -> {
+            SectionResult section = future.join();
+            result.put(name, section.status() == SectionStatus.OK ? section.value() : fallback(section));
+            timings.put(name, Map.of("millis", section.millis(), "status", section.status().name()));
+            Timer.builder("dashboard.section")
+                    .tag("dashboard", dashboard)
+                    .tag("section", name)
+                    .tag("status", section.status().name())
+                    .register(meterRegistry)
+                    .record(section.millis(), TimeUnit.MILLISECONDS);
+        });
+
+        long totalMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt);
+        timings.put("total", Map.of("millis", totalMillis, "status", SectionStatus.OK.name()));
+        result.put("sectionTimings", timings);
+        log.debug("Dashboard {} assembled in {} ms", dashboard, totalMillis);
+        return result;
+    }
+
+    private CompletableFuture<SectionResult> submit(String name, Supplier<?> supplier) {
+        long submittedAt = System.nanoTime();
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                        IN_SECTION.set(true);
+                        try {
+                            return run(name, supplier);
+                        } finally {
+                            IN_SECTION.remove();
+                        }
+                    }, executor.getThreadPoolExecutor())
+                    .completeOnTimeout(new SectionResult(null, SectionStatus.TIMEOUT, sectionTimeoutMs,
+                            "Превышено время ожидания"), sectionTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            log.warn("Dashboard section {} rejected: executor is saturated", name);
+            return CompletableFuture.completedFuture(new SectionResult(null, SectionStatus.REJECTED,
+                    elapsedMillis(submittedAt), "Сервер перегружен"));
+        }
+    }
+
+    private SectionResult run(String name, Supplier<?> supplier) {
+        long startedAt = System.nanoTime();
+        try {
+            return new SectionResult(supplier.get(), SectionStatus.OK, elapsedMillis(startedAt), null);
+        } catch (Exception e) {
+            log.warn("Dashboard section {} failed: {}", name, e.getMessage());
+            return new SectionResult(null, SectionStatus.FAILED, elapsedMillis(startedAt), e.getMessage());
+        }
+    }
+
+    private static Map<String, Object> fallback(SectionResult section) {
+        Map<String, Object> fallback = new HashMap<>();
+        fallback.put("available", false);
+        fallback.put("status", section.status().name());
+        fallback.put("error", section.error());
+        return fallback;
+    }
+
+    private static long elapsedMillis(long startedAt) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt);
+    }
+}
@@ -1,16 +1,22 @@
 package org.example.service;
 
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.example.entity.*;
 import org.example.repository.*;
+import org.example.util.ActivityHistograms;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
 import java.time.LocalDate;
 import java.time.LocalTime;
 import java.util.*;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 @Service
@@ -18,38 +24,36 @@ import java.util.stream.Collectors;
 @Slf4j
 public class DashboardService {
 
+    private static final String SECTION_PLATFORM = "platform";
+    private static final String SECTION_LOCATIONS = "locations";
+    private static final String SECTION_TASKS = "tasks";
+    private static final String SECTION_TAGS = "tags";
+
     private final UserRepository userRepository;
     private final UserAchievementRepository userAchievementRepository;
     private final GameActionRepository gameActionRepository;
     private final LocationRepository locationRepository;
+    private final GameCatalog gameCatalog;
     private final AchievementRepository achievementRepository;
     private final TagRepository tagRepository;
     private final TaskRepository taskRepository;
+    private final LeaderboardService leaderboardService;
+    private final DistinctUserService distinctUserService;
+    private final DashboardAssembler dashboardAssembler;
+    private final RealtimeStatsService realtimeStatsService;
+    private final DashboardSnapshots dashboardSnapshots;
+    private final PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate readOnlyTransaction;
 
     // ==================== MAIN METHODS ====================
 
     /**
-     * Get overall platform statistics
+     * Get overall platform statistics from the latest snapshot.
+     * Counters are independent queries and are computed concurrently on refresh.
      */
-    @Transactional(readOnly = true)
     public Map<String, Object> getPlatformStats() {
-        return createStatsResponse(() -> {
-            Map<String, Object> stats = new HashMap<>();
-
-            stats.put("totalUsers", getUserCount());
-            stats.put("newUsersToday", countNewUsersToday());
-            stats.put("totalAchievements", getUserAchievementCount());
-            stats.put("achievementsToday", countAchievementsToday());
-            stats.put("totalActions", getGameActionCount());
-            stats.put("actionsToday", countActionsToday());
-            stats.put("totalLocations", getLocationCount());
-            stats.put("visitedLocations", countVisitedLocations());
-            stats.put("activeUsers24h", countActiveUsersLast24h());
-            stats.put("totalTags", tagRepository.count());
-            stats.put("totalTasks", taskRepository.count());
-
-            return stats;
-        }, "platform stats");
+        return createStatsResponse(() -> dashboardSnapshots.read(SECTION_PLATFORM), "platform stats");
     }
 
     /**
@@ -103,7 +107,7 @@ public class DashboardService {
             LocalDateTime start = LocalDateTime.of(startDate, LocalTime.MIN);
             LocalDateTime end = LocalDateTime.of(endDate.plusDays(1), LocalTime.MIN).minusNanos(1);
 
-            List<GameAction> actions = gameActionRepository.findByActionTimeBetween(start, end);
+            long[][] heatmap = gameActionRepository.dayHourHeatmap(startDate, endDate, null);
             List<UserAchievement> achievements = getAchievementsBetween(start, end);
             List<User> newUsers = getNewUsersBetween(start, end);
 
@@ -118,17 +122,16 @@ public class DashboardService {
             Map<String, Object> stats = new HashMap<>();
             stats.put("periodStart", startDate);
             stats.put("periodEnd", endDate);
-            stats.put("totalActions", actions.size());
-            stats.put("activeUsersCount", actions.stream()
-                    .map(action -> action.getUser().getId())
-                    .distinct()
-                    .count());
+            stats.put("totalActions", Arrays.stream(heatmap).mapToLong(ActivityHistograms::total).sum());
+            stats.put("activeUsersCount", distinctUserService.countDistinctUsers(null, start, end));
             stats.put("newUsersCount", newUsers.size());
-            stats.put("activityByDay", groupActivityByDay(actions));
-            stats.put("popularActions", getPopularActions(actions));
+            stats.put("activityByDay", groupActivityByDay(startDate, heatmap));
+            stats.put("activityHeatmap", heatmap);
+            stats.put("popularActions", getPopularActions(start, end));
             stats.put("achievementsEarned", achievements.size());
             stats.put("tasksCreated", createdTasks.size());
-            stats.put("mostActiveHour", getMostActiveHour(actions));
+            stats.put("mostActiveHour",
+                    ActivityHistograms.formatHour(ActivityHistograms.peak(ActivityHistograms.sumByHour(heatmap))));
 
             return stats;
         }, "activity stats from " + startDate + " to " + endDate);
@@ -153,27 +156,10 @@ public class DashboardService {
     }
 
     /**
-     * Get location analytics
+     * Get location analytics from the latest snapshot
      */
-    @Transactional(readOnly = true)
     public Map<String, Object> getLocationAnalytics() {
-        return createStatsResponse(() -> {
-            // FIXED: findByActiveTrue() instead of findByIsActiveTrue()
-            List<Location> locations = locationRepository.findByActiveTrue();
-
-            Map<String, Object> analytics = new HashMap<>();
-            analytics.put("totalLocations", locations.size());
-            analytics.put("activeLocations", locationRepository.countActiveLocations());
-            analytics.put("topLocations", getTopLocations(locations, 10));
-            analytics.put("locationsByType", groupLocationsByType(locations));
-            analytics.put("locationsByZoneType", groupLocationsByZoneType(locations));
-            analytics.put("locationsByDifficulty", groupLocationsByDifficulty(locations));
-            analytics.put("visitStats", getVisitStats(locations));
-            analytics.put("averageVisitsPerLocation", calculateAverageVisits(locations));
-            analytics.put("mostPopularLocationType", getMostPopularLocationType(locations));
-
-            return analytics;
-        }, "location analytics");
+        return createStatsResponse(() -> dashboardSnapshots.read(SECTION_LOCATIONS), "location analytics");
     }
 
     /**
@@ -211,7 +197,7 @@ public class DashboardService {
             // Locations
             long totalLocations = getLocationCount();
             metrics.put("totalLocations", totalLocations);
-            metrics.put("activeLocations", locationRepository.countActiveLocations());
+            metrics.put("activeLocations", gameCatalog.get().activeLocations().size());
 
             // Tasks
             long totalTasks = taskRepository.count();
@@ -227,21 +213,26 @@ public class DashboardService {
     }
 
     /**
-     * Get admin dashboard
+     * Get admin dashboard.
+     * Sections run concurrently; a failed or slow section is replaced by a fallback entry.
+     * Each section opens its own read-only transaction on its pool thread, so lazy
+     * associations such as the action's user and location can be loaded.
      */
-    @Transactional(readOnly = true)
     public Map<String, Object> getAdminDashboard() {
         Map<String, Object> dashboard = new HashMap<>();
 
         try {
-            dashboard.put("platformStats", getPlatformStats());
-            dashboard.put("systemMetrics", getSystemMetrics());
-            dashboard.put("locationAnalytics", getLocationAnalytics());
-            dashboard.put("userGrowth", getUserGrowthStats());
-            dashboard.put("recentActivity", getRecentActivity(24)); // Last 24 hours
-            dashboard.put("achievementStats", getAchievementStats());
-            dashboard.put("taskStats", getTaskStats());
-            dashboard.put("tagStats", getTagStats());
+            Map<String, Supplier<?>> sections = new LinkedHashMap<>();
+            sections.put("platformStats", readOnly(this::getPlatformStats));
+            sections.put("systemMetrics", readOnly(this::getSystemMetrics));
+            sections.put("locationAnalytics", readOnly(this::getLocationAnalytics));
+            sections.put("userGrowth", readOnly(this::getUserGrowthStats));
+            sections.put("recentActivity", readOnly(() -> getRecentActivity(24))); // Last 24 hours
+            sections.put("achievementStats", readOnly(this::getAchievementStats));
+            sections.put("taskStats", readOnly(this::getTaskStats));
+            sections.put("tagStats", readOnly(this::getTagStats));
+
+            dashboard.putAll(dashboardAssembler.assemble("admin", sections));
             dashboard.put("success", true);
             dashboard.put("timestamp", LocalDateTime.now());
 
@@ -260,13 +251,16 @@ public class DashboardService {
      */
     @Transactional(readOnly = true)
     public Map<String, Object> getRealtimeStats() {
+        if (realtimeStatsService.isReady()) {
+            return createStatsResponse(realtimeStatsService::snapshot, "realtime stats");
+        }
+        // Until the live window has been seeded, compute from the database
         return createStatsResponse(() -> {
             LocalDateTime now = LocalDateTime.now();
             LocalDateTime hourAgo = now.minusHours(1);
             LocalDateTime fifteenMinutesAgo = now.minusMinutes(15);
 
             List<GameAction> hourActions = gameActionRepository.findByActionTimeBetween(hourAgo, now);
-            List<GameAction> recentActions = gameActionRepository.findByActionTimeBetween(fifteenMinutesAgo, now);
             List<UserAchievement> hourAchievements = getAchievementsBetween(hourAgo, now);
 
             // Using filtering instead of findByCreatedAtBetween
@@ -280,16 +274,10 @@ public class DashboardService {
             Map<String, Object> stats = new HashMap<>();
             stats.put("timestamp", now);
             stats.put("actionsLastHour", hourActions.size());
-            stats.put("usersActiveLastHour", hourActions.stream()
-                    .map(action -> action.getUser().getId())
-                    .distinct()
-                    .count());
+            stats.put("usersActiveLastHour", countDistinctUsersBetween(hourAgo, now));
             stats.put("achievementsLastHour", hourAchievements.size());
             stats.put("tasksCreatedLastHour", hourTasks.size());
-            stats.put("currentlyOnline", recentActions.stream()
-                    .map(action -> action.getUser().getId())
-                    .distinct()
-                    .count());
+            stats.put("currentlyOnline", countDistinctUsersBetween(fifteenMinutesAgo, now));
             stats.put("activeLocations", countActiveLocationsLastHour(hourActions));
             stats.put("popularActionTypes", getPopularActionTypesLastHour(hourActions));
 
@@ -304,36 +292,20 @@ public class DashboardService {
     public Map<String, Object> getHourlyActivityStats(LocalDate date) {
         return createStatsResponse(() -> {
             LocalDate targetDate = date != null ? date : LocalDate.now();
-            LocalDateTime startOfDay = LocalDateTime.of(targetDate, LocalTime.MIN);
-            LocalDateTime endOfDay = LocalDateTime.of(targetDate, LocalTime.MAX);
-
-            List<GameAction> actions = gameActionRepository.findByActionTimeBetween(startOfDay, endOfDay);
-
-            Map<Integer, Long> hourlyStats = new TreeMap<>();
-            // Initialize all hours from 0 to 23
-            for (int hour = 0; hour < 24; hour++) {
-                hourlyStats.put(hour, 0L);
-            }
 
-            // Count actions by hour
-            for (GameAction action : actions) {
-                if (action.getActionTime() != null) {
-                    int hour = action.getActionTime().getHour();
-                    hourlyStats.put(hour, hourlyStats.get(hour) + 1);
-                }
-            }
+            long[] hourly = gameActionRepository.hourHistogram(
+                    targetDate.atStartOfDay(), targetDate.plusDays(1).atStartOfDay(), null);
 
             Map<String, Object> response = new HashMap<>();
             response.put("date", targetDate);
-            response.put("hourlyStats", hourlyStats);
+            response.put("hourlyStats", ActivityHistograms.hoursToMap(hourly));
 
-            long totalActions = hourlyStats.values().stream().mapToLong(Long::longValue).sum();
-            Optional<Map.Entry<Integer, Long>> peakHour = hourlyStats.entrySet().stream()
-                    .max(Map.Entry.comparingByValue());
+            long totalActions = ActivityHistograms.total(hourly);
+            int peakHour = ActivityHistograms.peak(hourly);
 
             response.put("totalActions", totalActions);
-            response.put("peakHour", peakHour.map(e -> String.format("%02d:00", e.getKey())).orElse("N/A"));
-            response.put("peakHourCount", peakHour.map(Map.Entry::getValue).orElse(0L));
+            response.put("peakHour", ActivityHistograms.formatHour(peakHour));
+            response.put("peakHourCount", peakHour >= 0 ? hourly[peakHour] : 0L);
             response.put("averagePerHour", totalActions / 24.0);
 
             return response;
@@ -341,42 +313,102 @@ public class DashboardService {
     }
 
     /**
-     * Get task statistics
+     * Get task statistics from the latest snapshot
      */
-    @Transactional(readOnly = true)
     public Map<String, Object> getTaskStats() {
-        return createStatsResponse(() -> {
-            List<Task> allTasks = taskRepository.findAll();
+        return createStatsResponse(() -> dashboardSnapshots.read(SECTION_TASKS), "task statistics");
+    }
 
-            Map<String, Object> stats = new HashMap<>();
-            stats.put("totalTasks", allTasks.size());
-            stats.put("tasksByStatus", groupTasksByStatus(allTasks));
-            stats.put("tasksByPriority", groupTasksByPriority(allTasks));
-            stats.put("averageCompletionTime", calculateAverageCompletionTime(allTasks));
-            stats.put("overdueTasks", countOverdueTasks(allTasks));
-            stats.put("tasksCreatedToday", countTasksCreatedToday());
-            stats.put("topUsersByTasks", getTopUsersByTaskCount(10));
+    /**
+     * Get tag statistics from the latest snapshot
+     */
+    public Map<String, Object> getTagStats() {
+        return createStatsResponse(() -> dashboardSnapshots.read(SECTION_TAGS), "tag statistics");
+    }
 
-            return stats;
-        }, "task statistics");
+    // ==================== SNAPSHOT SECTIONS ====================
+
+    @PostConstruct
+    void registerSnapshotSections() {
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+
+        // Platform counters fan out to other threads, each counter opens its own transaction there
+        dashboardSnapshots.register(SECTION_PLATFORM, this::computePlatformStats);
+        dashboardSnapshots.register(SECTION_LOCATIONS, readOnly(this::computeLocationAnalytics));
+        dashboardSnapshots.register(SECTION_TASKS, readOnly(this::computeTaskStats));
+        dashboardSnapshots.register(SECTION_TAGS, readOnly(this::computeTagStats));
     }
 
     /**
-     * Get tag statistics
+     * Runs the section in a read-only transaction of its own; sections execute on pool threads
+     * and calls through {@code this} bypass the {@code @Transactional} proxy
      */
-    @Transactional(readOnly = true)
-    public Map<String, Object> getTagStats() {
-        return createStatsResponse(() -> {
-            List<Tag> allTags = tagRepository.findAll();
+    private <T> Supplier<T> readOnly(Supplier<T> section) {
+        return () -> readOnlyTransaction.execute(status -> section.get());
+    }
 
-            Map<String, Object> stats = new HashMap<>();
-            stats.put("totalTags", allTags.size());
-            stats.put("mostUsedTags", getMostUsedTags(allTags, 10));
-            stats.put("tagsByTaskCount", groupTagsByTaskCount(allTags));
-            stats.put("averageTasksPerTag", calculateAverageTasksPerTag(allTags));
+    private Map<String, Object> computePlatformStats() {
+        Map<String, Supplier<?>> sections = new LinkedHashMap<>();
+        sections.put("totalUsers", readOnly(this::getUserCount));
+        sections.put("newUsersToday", readOnly(this::countNewUsersToday));
+        sections.put("totalAchievements", readOnly(this::getUserAchievementCount));
+        sections.put("achievementsToday", readOnly(this::countAchievementsToday));
+        sections.put("totalActions", readOnly(this::getGameActionCount));
+        sections.put("actionsToday", readOnly(this::countActionsToday));
+        sections.put("totalLocations", readOnly(this::getLocationCount));
+        sections.put("visitedLocations", readOnly(this::countVisitedLocations));
+        sections.put("activeUsers24h", readOnly(this::countActiveUsersLast24h));
+        sections.put("activeUsers", distinctUserService::getActiveUserCounts); // Redis only
+        sections.put("totalTags", readOnly(tagRepository::count));
+        sections.put("totalTasks", readOnly(taskRepository::count));
 
-            return stats;
-        }, "tag statistics");
+        return dashboardAssembler.assemble("platform", sections);
+    }
+
+    private Map<String, Object> computeLocationAnalytics() {
+        // FIXED: findByActiveTrue() instead of findByIsActiveTrue()
+        List<Location> locations = locationRepository.findByActiveTrue();
+
+        Map<String, Object> analytics = new HashMap<>();
+        analytics.put("totalLocations", locations.size());
+        analytics.put("activeLocations", gameCatalog.get().activeLocations().size());
+        analytics.put("topLocations", getTopLocations(locations, 10));
+        analytics.put("locationsByType", groupLocationsByType(locations));
+        analytics.put("locationsByZoneType", groupLocationsByZoneType(locations));
+        analytics.put("locationsByDifficulty", groupLocationsByDifficulty(locations));
+        analytics.put("visitStats", getVisitStats(locations));
+        analytics.put("averageVisitsPerLocation", calculateAverageVisits(locations));
+        analytics.put("mostPopularLocationType", getMostPopularLocationType(locations));
+
+        return analytics;
+    }
+
+    private Map<String, Object> computeTaskStats() {
+        List<Task> allTasks = taskRepository.findAll();
+
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("totalTasks", allTasks.size());
+        stats.put("tasksByStatus", groupTasksByStatus(allTasks));
+        stats.put("tasksByPriority", groupTasksByPriority(allTasks));
+        stats.put("averageCompletionTime", calculateAverageCompletionTime(allTasks));
+        stats.put("overdueTasks", countOverdueTasks(allTasks));
+        stats.put("tasksCreatedToday", countTasksCreatedToday());
+        stats.put("topUsersByTasks", getTopUsersByTaskCount(10));
+
+        return stats;
+    }
+
+    private Map<String, Object> computeTagStats() {
+        List<Tag> allTags = tagRepository.findAll();
+
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("totalTags", allTags.size());
+        stats.put("mostUsedTags", getMostUsedTags(allTags, 10));
+        stats.put("tagsByTaskCount", groupTagsByTaskCount(allTags));
+        stats.put("averageTasksPerTag", calculateAverageTasksPerTag(allTags));
+
+        return stats;
     }
 
     // ==================== HELPER METHODS ====================
@@ -426,7 +458,7 @@ public class DashboardService {
 
     private long getLocationCount() {
         try {
-            return locationRepository.count();
+            return gameCatalog.get().locations().size();
         } catch (Exception e) {
             log.warn("Error getting location count: {}", e.getMessage());
             return 0;
@@ -458,17 +490,21 @@ public class DashboardService {
     private long countActiveUsersLast24h() {
         try {
             LocalDateTime dayAgo = LocalDateTime.now().minusDays(1);
-            return gameActionRepository.findAll().stream()
-                    .filter(action -> action.getActionTime() != null && action.getActionTime().isAfter(dayAgo))
-                    .map(action -> action.getUser().getId())
-                    .distinct()
-                    .count();
+            return distinctUserService.countDistinctUsers(null, dayAgo, LocalDateTime.now());
         } catch (Exception e) {
             log.warn("Error counting active users last 24h: {}", e.getMessage());
             return 0;
         }
     }
 
+    /**
+     * Exact count for windows shorter than the hourly sketch resolution
+     */
+    private long countDistinctUsersBetween(LocalDateTime start, LocalDateTime end) {
+        Long count = gameActionRepository.countUniqueUsersBetween(start, end);
+        return count != null ? count : 0;
+    }
+
     private List<UserAchievement> getAchievementsBetween(LocalDateTime start, LocalDateTime end) {
         try {
             return userAchievementRepository.findAll().stream()
@@ -648,52 +684,30 @@ public class DashboardService {
         }
     }
 
-    private Map<LocalDate, Long> groupActivityByDay(List<GameAction> actions) {
-        try {
-            return actions.stream()
-                    .filter(a -> a.getActionTime() != null)
-                    .collect(Collectors.groupingBy(
-                            action -> action.getActionTime().toLocalDate(),
-                            Collectors.counting()
-                    ));
-        } catch (Exception e) {
-            log.warn("Error grouping activity by day: {}", e.getMessage());
-            return new HashMap<>();
+    private Map<LocalDate, Long> groupActivityByDay(LocalDate startDate, long[][] heatmap) {
+        Map<LocalDate, Long> byDay = new LinkedHashMap<>();
+        for (int day = 0; day < heatmap.length; day++) {
+            long total = ActivityHistograms.total(heatmap[day]);
+            if (total > 0) {
+                byDay.put(startDate.plusDays(day), total);
+            }
         }
+        return byDay;
     }
 
-    private Map<String, Long> getPopularActions(List<GameAction> actions) {
+    private Map<String, Long> getPopularActions(LocalDateTime start, LocalDateTime end) {
         try {
-            return actions.stream()
-                    .collect(Collectors.groupingBy(GameAction::getActionType, Collectors.counting()))
-                    .entrySet().stream()
-                    .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+            return gameActionRepository.countActionsByType(start, end).stream()
+                    .sorted((a, b) -> Long.compare(((Number) b[1]).longValue(), ((Number) a[1]).longValue()))
                     .limit(10)
-                    .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+                    .collect(Collectors.toMap(row -> (String) row[0], row -> ((Number) row[1]).longValue(),
+                            (a, b) -> a, LinkedHashMap::new));
         } catch (Exception e) {
             log.warn("Error getting popular actions: {}", e.getMessage());
             return new HashMap<>();
         }
     }
 
-    private String getMostActiveHour(List<GameAction> actions) {
-        try {
-            return actions.stream()
-                    .filter(a -> a.getActionTime() != null)
-                    .collect(Collectors.groupingBy(
-                            a -> a.getActionTime().getHour(),
-                            Collectors.counting()
-                    ))
-                    .entrySet().stream()
-                    .max(Map.Entry.comparingByValue())
-                    .map(entry -> String.format("%02d:00", entry.getKey()))
-                    .orElse("N/A");
-        } catch (Exception e) {
-            log.warn("Error getting most active hour: {}", e.getMessage());
-            return "N/A";
-        }
-    }
-
     private List<Map<String, Object>> getTopLocations(List<Location> locations, int limit) {
         try {
             return locations.stream()
@@ -844,50 +858,26 @@ public class DashboardService {
         }
     }
 
+    /**
+     * Users by all their achievements; {@code completed} counts the completed ones
+     */
     private List<Map<String, Object>> getAchievementsLeaderboard(int limit) {
-        List<User> users = userRepository.findAll();
-
-        return users.stream()
-                .map(user -> {
-                    long achievementCount = userAchievementRepository.findByUser(user).size();
-
-                    Map<String, Object> entry = new HashMap<>();
-                    entry.put("username", user.getUsername());
-                    entry.put("userId", user.getId());
-                    entry.put("category", "achievements");
-                    entry.put("value", achievementCount);
-                    entry.put("completed", userAchievementRepository.findByUser(user).stream()
-                            .filter(ach -> Boolean.TRUE.equals(ach.getCompleted()))
-                            .count());
-                    return entry;
-                })
-                .sorted((a, b) -> Long.compare((Long) b.get("value"), (Long) a.get("value")))
-                .limit(limit)
-                .collect(Collectors.toList());
+        return withCompleted(toLeaderboardMaps(
+                leaderboardService.getTop(LeaderboardService.Criteria.TOTAL_ACHIEVEMENTS, limit), "achievements"),
+                LeaderboardService.Criteria.ACHIEVEMENTS);
     }
 
     private List<Map<String, Object>> getActionsLeaderboard(int limit) {
-        List<User> users = userRepository.findAll();
-
-        return users.stream()
-                .map(user -> {
-                    long actionCount = gameActionRepository.findByUser(user).size();
-
-                    Map<String, Object> entry = new HashMap<>();
-                    entry.put("username", user.getUsername());
-                    entry.put("userId", user.getId());
-                    entry.put("category", "actions");
-                    entry.put("value", actionCount);
-                    entry.put("lastAction", gameActionRepository.findByUser(user).stream()
-                            .map(GameAction::getActionTime)
-                            .filter(Objects::nonNull)
-                            .max(LocalDateTime::compareTo)
-                            .orElse(null));
-                    return entry;
-                })
-                .sorted((a, b) -> Long.compare((Long) b.get("value"), (Long) a.get("value")))
-                .limit(limit)
-                .collect(Collectors.toList());
+        List<Map<String, Object>> entries = toLeaderboardMaps(
+                leaderboardService.getTop(LeaderboardService.Criteria.ACTIONS, limit), "actions");
+        if (entries.isEmpty()) {
+            return entries;
+        }
+        Map<Long, Object> lastActions = new HashMap<>();
+        gameActionRepository.findLastActionTimes(entries.stream().map(entry -> (Long) entry.get("userId")).toList())
+                .forEach(row -> lastActions.put((Long) row[0], row[1]));
+        entries.forEach(entry -> entry.put("lastAction", lastActions.get((Long) entry.get("userId"))));
+        return entries;
     }
 
     private List<Map<String, Object>> getLocationsLeaderboard(int limit) {
@@ -911,25 +901,35 @@ public class DashboardService {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Users by all their tasks; {@code completed} counts the completed ones
+     */
     private List<Map<String, Object>> getTasksLeaderboard(int limit) {
-        List<User> users = userRepository.findAll();
-
-        return users.stream()
-                .map(user -> {
-                    long taskCount = taskRepository.findByUserId(user.getId()).size();
-
-                    Map<String, Object> entry = new HashMap<>();
-                    entry.put("username", user.getUsername());
-                    entry.put("userId", user.getId());
-                    entry.put("category", "tasks");
-                    entry.put("value", taskCount);
-                    entry.put("completed", taskRepository.findByUserId(user.getId()).stream()
-                            .filter(task -> task.getStatus() == Task.Status.COMPLETED)
-                            .count());
-                    return entry;
+        return withCompleted(toLeaderboardMaps(
+                leaderboardService.getTop(LeaderboardService.Criteria.TOTAL_TASKS, limit), "tasks"),
+                LeaderboardService.Criteria.COMPLETED_TASKS);
+    }
+
+    private List<Map<String, Object>> withCompleted(List<Map<String, Object>> entries,
+                                                    LeaderboardService.Criteria completed) {
+        entries.forEach(entry -> entry.put("completed", leaderboardService.getRank(completed, (Long) entry.get("userId"))
+                .map(LeaderboardService.LeaderboardEntry::value)
+                .orElse(0L)));
+        return entries;
+    }
+
+    private List<Map<String, Object>> toLeaderboardMaps(List<LeaderboardService.LeaderboardEntry> entries,
+                                                        String category) {
+        return entries.stream()
+                .map(entry -> {
+                    Map<String, Object> map = new HashMap<>();
+                    map.put("rank", entry.rank());
+                    map.put("username", entry.username());
+                    map.put("userId", entry.userId());
+                    map.put("category", category);
+                    map.put("value", entry.value());
+                    return map;
                 })
-                .sorted((a, b) -> Long.compare((Long) b.get("value"), (Long) a.get("value")))
-                .limit(limit)
                 .collect(Collectors.toList());
     }
 
@@ -990,10 +990,7 @@ public class DashboardService {
             activity.put("totalActions", actions.size());
             activity.put("totalAchievements", achievements.size());
             activity.put("totalTasks", tasks.size());
-            activity.put("activeUsers", actions.stream()
-                    .map(action -> action.getUser().getId())
-                    .distinct()
-                    .count());
+            activity.put("activeUsers", distinctUserService.countDistinctUsers(null, start, end));
             activity.put("recentActions", recentActions);
 
             return activity;
@@ -1144,21 +1141,15 @@ public class DashboardService {
     }
 
     private List<Map<String, Object>> getTopUsersByTaskCount(int limit) {
-        return userRepository.findAll().stream()
-                .map(user -> {
-                    long taskCount = taskRepository.findByUserId(user.getId()).size();
-
+        return taskRepository.findTopUsersByTaskCount(Task.Status.COMPLETED, Limit.of(Math.max(limit, 1))).stream()
+                .map(row -> {
                     Map<String, Object> entry = new HashMap<>();
-                    entry.put("userId", user.getId());
-                    entry.put("username", user.getUsername());
-                    entry.put("taskCount", taskCount);
-                    entry.put("completedTasks", taskRepository.findByUserId(user.getId()).stream()
-                            .filter(task -> task.getStatus() == Task.Status.COMPLETED)
-                            .count());
+                    entry.put("userId", row.getUserId());
+                    entry.put("username", row.getUsername());
+                    entry.put("taskCount", row.getTaskCount());
+                    entry.put("completedTasks", row.getCompletedTasks());
                     return entry;
                 })
-                .sorted((a, b) -> Long.compare((Long) b.get("taskCount"), (Long) a.get("taskCount")))
-                .limit(limit)
                 .collect(Collectors.toList());
     }
 
@@ -0,0 +1,190 @@
+package org.example.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Materialized dashboard sections, recomputed in the background.
+ * <p>
+ * Each registered section keeps its last result as an immutable {@link Snapshot} behind a volatile
+ * reference, so reads never lock and never touch the database. A section is recomputed once it is
+ * older than the refresh interval or once enough entity writes have been committed since it was
+ * computed. A failed refresh keeps serving the previous snapshot, which then shows up as stale.
+ */
+@Component
+@Slf4j
+public class DashboardSnapshots {
+
+    public record Snapshot(long generation, Map<String, Object> data, LocalDateTime computedAt,
+                           long computedAtMillis, long computeMillis, long writesAtCompute) {
+    }
+
+    private final Map<String, Section> sections = new ConcurrentHashMap<>();
+    private final AtomicLong writes = new AtomicLong();
+    private final ScheduledExecutorService refresher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "Dashboard-snapshots");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Value("${dashboard.snapshot.refresh-interval-ms:10000}")
+    private long refreshIntervalMs;
+
+    @Value("${dashboard.snapshot.refresh-after-writes:200}")
+    private long refreshAfterWrites;
+
+    @Value("${dashboard.snapshot.stale-after-ms:60000}")
+    private long staleAfterMs;
+
+    @Value("${dashboard.snapshot.check-interval-ms:1000}")
+    private long checkIntervalMs;
+
+    @PostConstruct
+    public void start() {
+        refresher.scheduleWithFixedDelay(this::refreshDue, checkIntervalMs, checkIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        refresher.shutdownNow();
+    }
+
+    public void register(String name, Supplier<Map<String, Object>> compute) {
+        sections.put(name, new Section(name, compute));
+    }
+
+    /**
+     * Computes every registered section now, e.g. while warming up before taking traffic
+     */
+    public void refreshAll() {
+        for (Section section : sections.values()) {
+            try {
+                section.refresh();
+            } catch (Exception e) {
+                // Already recorded on the section, keep refreshing the others
+            }
+        }
+    }
+
+    /**
+     * Counts a committed write; sections refresh early once enough have accumulated
+     */
+    public void recordWrite() {
+        writes.incrementAndGet();
+    }
+
+    /**
+     * The latest data of a section plus a "snapshot" entry describing its generation and age.
+     * Only the very first read of a section, before any refresh completed, computes in the caller.
+     */
+    public Map<String, Object> read(String name) {
+        Section section = section(name);
+        Snapshot snapshot = section.current;
+        if (snapshot == null) {
+            snapshot = section.refresh();
+        }
+
+        long ageMs = System.currentTimeMillis() - snapshot.computedAtMillis();
+        Map<String, Object> meta = new LinkedHashMap<>();
+        meta.put("generation", snapshot.generation());
+        meta.put("computedAt", snapshot.computedAt());
+        meta.put("ageMs", ageMs);
+        meta.put("computeMs", snapshot.computeMillis());
+        meta.put("stale", ageMs > staleAfterMs);
+        if (section.lastError != null) {
+            meta.put("lastRefreshError", section.lastError);
+        }
+
+        Map<String, Object> response = new HashMap<>(snapshot.data());
+        response.put("snapshot", meta);
+        return response;
+    }
+
+    private void refreshDue() {
+        long now = System.currentTimeMillis();
+        long writeCount = writes.get();
+        for (Section section : sections.values()) {
+            Snapshot snapshot = section.current;
+            boolean due = snapshot == null
+                    || now - snapshot.computedAtMillis() >= refreshIntervalMs
+                    || writeCount - snapshot.writesAtCompute() >= refreshAfterWrites;
+            // After a failure wait a full interval instead of retrying on every check
+            boolean backingOff = section.lastError != null && now - section.lastAttemptMillis < refreshIntervalMs;
+            if (due && !backingOff) {
+                try {
+                    section.refresh();
+                } catch (Exception e) {
+                    // Already recorded on the section, keep refreshing the others
+                }
+            }
+        }
+    }
+
+    private Section section(String name) {
+        Section section = sections.get(name);
+        if (section == null) {
+            throw new IllegalArgumentException("Unknown dashboard section: " + name);
+        }
+        return section;
+    }
+
+    private final class Section {
+        private final String name;
+        private final Supplier<Map<String, Object>> compute;
+        private volatile Snapshot current;
+        private volatile String lastError;
+        private volatile long lastAttemptMillis;
+        private long generation;
+
+        private Section(String name, Supplier<Map<String, Object>> compute) {
+            this.name = name;
+            this.compute = compute;
+        }
+
+        /**
+         * Single flight: callers arriving while a refresh runs share its result instead of recomputing
+         */
+        private Snapshot refresh() {
+            Snapshot seen = current;
+            synchronized (this) {
+                if (current != seen) {
+                    return current;
+                }
+                long startedAt = System.currentTimeMillis();
+                long writesBefore = writes.get();
+                lastAttemptMillis = startedAt;
+                try {
+                    Map<String, Object> data = compute.get();
+                    Snapshot snapshot = new Snapshot(++generation,
+                            Collections.unmodifiableMap(new HashMap<>(data)),
+                            LocalDateTime.now(), System.currentTimeMillis(),
+                            System.currentTimeMillis() - startedAt, writesBefore);
+                    current = snapshot;
+                    lastError = null;
+                    log.debug("Dashboard section {} refreshed, generation {} in {} ms",
+                            name, snapshot.generation(), snapshot.computeMillis());
+                    return snapshot;
+                } catch (RuntimeException e) {
+                    lastError = e.getMessage();
+                    log.warn("Error refreshing dashboard section {}: {}", name, e.getMessage());
+                    if (seen != null) {
+                        return seen;
+                    }
+                    throw e;
+                }
+            }
+        }
+    }
+}
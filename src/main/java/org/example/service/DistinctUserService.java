@@ -0,0 +1,243 @@
+package org.example.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.example.entity.StatsRollup;
+import org.example.repository.GameActionRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Approximate distinct-user counts backed by Redis HyperLogLog sketches.
+ * <p>
+ * Every action adds its user to one hourly and one daily sketch, both for the action type
+ * and for {@link StatsRollup#ALL}. A range query counts the union of the covering sketches
+ * with a single PFCOUNT, so each sketch costs at most 12 KB regardless of traffic and the
+ * standard error stays around 0.81%. Range bounds are snapped to whole hours.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class DistinctUserService {
+
+    private static final String KEY_PREFIX = "hll:users:";
+    private static final String HOUR_SEGMENT = ":H:";
+    private static final String DAY_SEGMENT = ":D:";
+    private static final DateTimeFormatter HOUR_FORMAT = DateTimeFormatter.ofPattern("yyyyMMddHH");
+    private static final DateTimeFormatter DAY_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd");
+
+    private final StringRedisTemplate redisTemplate;
+    private final GameActionRepository gameActionRepository;
+
+    @Value("${stats.distinct.hour-retention-days:8}")
+    private int hourRetentionDays;
+
+    @Value("${stats.distinct.day-retention-days:400}")
+    private int dayRetentionDays;
+
+    @Value("${stats.distinct.backfill-days:31}")
+    private int backfillDays;
+
+    // Writers share the read lock, the flusher takes the write lock to swap the buffer
+    private final ReadWriteLock pendingLock = new ReentrantReadWriteLock();
+    private volatile Map<String, Set<String>> pending = new ConcurrentHashMap<>();
+
+    // ==================== WRITE PATH ====================
+
+    public void recordAction(String actionType, Long userId, LocalDateTime actionTime) {
+        if (userId == null || actionTime == null) {
+            return;
+        }
+        String member = userId.toString();
+        pendingLock.readLock().lock();
+        try {
+            for (String dimension : dimensions(actionType)) {
+                for (String key : List.of(hourKey(dimension, actionTime), dayKey(dimension, actionTime.toLocalDate()))) {
+                    pending.computeIfAbsent(key, k -> ConcurrentHashMap.newKeySet()).add(member);
+                }
+            }
+        } finally {
+            pendingLock.readLock().unlock();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${stats.distinct.flush-interval-ms:2000}")
+    public void flush() {
+        Map<String, Set<String>> batch;
+        pendingLock.writeLock().lock();
+        try {
+            if (pending.isEmpty()) {
+                return;
+            }
+            batch = pending;
+            pending = new ConcurrentHashMap<>();
+        } finally {
+            pendingLock.writeLock().unlock();
+        }
+
+        try {
+            addAll(batch);
+        } catch (Exception e) {
+            // Adding to a sketch is idempotent, so a retry can never double count
+            log.warn("Error flushing distinct user sketches, will retry: {}", e.getMessage());
+            pendingLock.readLock().lock();
+            try {
+                batch.forEach((key, members) ->
+                        pending.computeIfAbsent(key, k -> ConcurrentHashMap.newKeySet()).addAll(members));
+            } finally {
+                pendingLock.readLock().unlock();
+            }
+        }
+    }
+
+    private void addAll(Map<String, Set<String>> batch) {
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            batch.forEach((key, members) -> add(connection, key, members));
+            return null;
+        });
+    }
+
+    private void add(RedisConnection connection, String key, Collection<String> members) {
+        byte[] rawKey = key.getBytes(StandardCharsets.UTF_8);
+        byte[][] rawMembers = members.stream()
+                .map(member -> member.getBytes(StandardCharsets.UTF_8))
+                .toArray(byte[][]::new);
+        connection.hyperLogLogCommands().pfAdd(rawKey, rawMembers);
+        long ttlDays = key.contains(HOUR_SEGMENT) ? hourRetentionDays : dayRetentionDays;
+        connection.keyCommands().expire(rawKey, ttlDays * 24 * 3600);
+    }
+
+    // ==================== READ PATH ====================
+
+    /**
+     * Distinct users with at least one action (optionally of one type) in [start, end).
+     * Falls back to an exact database count when Redis is unavailable.
+     */
+    public long countDistinctUsers(String actionType, LocalDateTime start, LocalDateTime end) {
+        LocalDateTime to = end != null ? end : LocalDateTime.now();
+        LocalDateTime from = start != null ? start : to.minusDays(dayRetentionDays);
+        try {
+            List<String> keys = keysFor(actionType != null ? actionType : StatsRollup.ALL, from, to);
+            if (keys.isEmpty()) {
+                return 0;
+            }
+            Long count = redisTemplate.opsForHyperLogLog().size(keys.toArray(new String[0]));
+            return count != null ? count : 0;
+        } catch (Exception e) {
+            log.warn("Distinct user sketches unavailable, counting in database: {}", e.getMessage());
+            Long count = actionType != null
+                    ? gameActionRepository.countUniqueUsersByActionTypeBetween(actionType, from, to)
+                    : gameActionRepository.countUniqueUsersBetween(from, to);
+            return count != null ? count : 0;
+        }
+    }
+
+    /**
+     * Daily, weekly and monthly active users, counting today as the last day of each window
+     */
+    public Map<String, Long> getActiveUserCounts() {
+        LocalDateTime tomorrow = LocalDate.now().plusDays(1).atStartOfDay();
+        Map<String, Long> counts = new LinkedHashMap<>();
+        counts.put("dau", countDistinctUsers(null, tomorrow.minusDays(1), tomorrow));
+        counts.put("wau", countDistinctUsers(null, tomorrow.minusDays(7), tomorrow));
+        counts.put("mau", countDistinctUsers(null, tomorrow.minusDays(30), tomorrow));
+        return counts;
+    }
+
+    /**
+     * Sketch keys covering [from, to): hours up to the first full day, whole days, then hours.
+     * Hourly sketches past their retention are replaced by the sketch of their day.
+     */
+    List<String> keysFor(String dimension, LocalDateTime from, LocalDateTime to) {
+        LocalDateTime start = from.truncatedTo(ChronoUnit.HOURS);
+        LocalDateTime end = to.truncatedTo(ChronoUnit.HOURS).equals(to)
+                ? to : to.truncatedTo(ChronoUnit.HOURS).plusHours(1);
+        LocalDateTime hourHorizon = LocalDate.now().minusDays(hourRetentionDays - 1L).atStartOfDay();
+
+        Set<String> keys = new LinkedHashSet<>();
+        LocalDateTime cursor = start;
+        while (cursor.isBefore(end)) {
+            LocalDateTime nextDay = cursor.toLocalDate().plusDays(1).atStartOfDay();
+            boolean wholeDay = cursor.equals(cursor.toLocalDate().atStartOfDay()) && !nextDay.isAfter(end);
+            if (wholeDay || cursor.isBefore(hourHorizon)) {
+                keys.add(dayKey(dimension, cursor.toLocalDate()));
+                cursor = nextDay;
+            } else {
+                keys.add(hourKey(dimension, cursor));
+                cursor = cursor.plusHours(1);
+            }
+        }
+        return new ArrayList<>(keys);
+    }
+
+    // ==================== BACKFILL ====================
+
+    /**
+     * Rebuilds sketches for recent days that have none, plus today. Re-adding users is harmless.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        try {
+            LocalDate today = LocalDate.now();
+            for (int i = backfillDays - 1; i >= 0; i--) {
+                LocalDate day = today.minusDays(i);
+                if (i == 0 || !Boolean.TRUE.equals(redisTemplate.hasKey(dayKey(StatsRollup.ALL, day)))) {
+                    backfillDay(day);
+                }
+            }
+        } catch (Exception e) {
+            log.warn("Не удалось восстановить счетчики уникальных пользователей: {}", e.getMessage());
+        }
+    }
+
+    private void backfillDay(LocalDate day) {
+        Map<String, Set<String>> batch = new HashMap<>();
+        LocalDateTime hourHorizon = LocalDate.now().minusDays(hourRetentionDays - 1L).atStartOfDay();
+        List<Object[]> rows = gameActionRepository.findDistinctUserHoursBetween(
+                day.atStartOfDay(), day.plusDays(1).atStartOfDay());
+        for (Object[] row : rows) {
+            String member = row[1].toString();
+            LocalDateTime hour = day.atStartOfDay().plusHours(((Number) row[2]).longValue());
+            for (String dimension : dimensions((String) row[0])) {
+                batch.computeIfAbsent(dayKey(dimension, day), k -> new HashSet<>()).add(member);
+                if (!hour.isBefore(hourHorizon)) {
+                    batch.computeIfAbsent(hourKey(dimension, hour), k -> new HashSet<>()).add(member);
+                }
+            }
+        }
+        if (!batch.isEmpty()) {
+            addAll(batch);
+            log.debug("Восстановлены счетчики уникальных пользователей за {}", day);
+        }
+    }
+
+    // ==================== KEYS ====================
+
+    private static List<String> dimensions(String actionType) {
+        return actionType != null ? List.of(StatsRollup.ALL, actionType) : List.of(StatsRollup.ALL);
+    }
+
+    private static String hourKey(String dimension, LocalDateTime time) {
+        return KEY_PREFIX + dimension + HOUR_SEGMENT + HOUR_FORMAT.format(time);
+    }
+
+    private static String dayKey(String dimension, LocalDate day) {
+        return KEY_PREFIX + dimension + DAY_SEGMENT + DAY_FORMAT.format(day);
+    }
+}
@@ -0,0 +1,306 @@
+package org.example.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.example.entity.*;
+import org.example.repository.*;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+/**
+ * In-memory catalog of the static game content: locations, skills, monsters, NPCs, quests and
+ * achievement templates.
+ * <p>
+ * All content is loaded into one immutable {@link Snapshot}. A committed content change marks the
+ * catalog outdated; the next check builds a complete new snapshot and swaps it in with a single
+ * volatile write, so readers see either the old or the new catalog, never a mix. Other nodes are
+ * told over Redis to reload as well, and a periodic reload covers bulk updates that bypass entity
+ * listeners. Reloads run on a thread of their own, so a slow load never holds a thread of the
+ * shared scheduler.
+ * <p>
+ * The entities are shared by all readers and must not be modified. Live counters such as
+ * {@link Location#getVisitCount()} are only as fresh as the last reload; read them from the
+ * repositories where that matters.
+ */
+@Service
+@Slf4j
+public class GameCatalog implements MessageListener {
+
+    public static final String CHANNEL = "catalog:reload";
+
+    private final LocationRepository locationRepository;
+    private final SkillRepository skillRepository;
+    private final MonsterRepository monsterRepository;
+    private final NPCRepository npcRepository;
+    private final QuestRepository questRepository;
+    private final AchievementTemplateRepository achievementTemplateRepository;
+    private final StringRedisTemplate redisTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+
+    private final String nodeId = UUID.randomUUID().toString();
+    private volatile Snapshot current = Snapshot.EMPTY;
+    private volatile boolean outdated = true;
+    private volatile long lastReloadMillis;
+    private final ThreadPoolTaskExecutor reloader = newReloader();
+    private final AtomicBoolean reloadQueued = new AtomicBoolean();
+
+    @Value("${catalog.refresh-interval-ms:600000}")
+    private long refreshIntervalMs;
+
+    @Value("${catalog.min-reload-interval-ms:2000}")
+    private long minReloadIntervalMs;
+
+    public GameCatalog(LocationRepository locationRepository,
+                       SkillRepository skillRepository,
+                       MonsterRepository monsterRepository,
+                       NPCRepository npcRepository,
+                       QuestRepository questRepository,
+                       AchievementTemplateRepository achievementTemplateRepository,
+                       StringRedisTemplate redisTemplate,
+                       RedisMessageListenerContainer listenerContainer,
+                       PlatformTransactionManager transactionManager) {
+        this.locationRepository = locationRepository;
+        this.skillRepository = skillRepository;
+        this.monsterRepository = monsterRepository;
+        this.npcRepository = npcRepository;
+        this.questRepository = questRepository;
+        this.achievementTemplateRepository = achievementTemplateRepository;
+        this.redisTemplate = redisTemplate;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        listenerContainer.addMessageListener(this, new ChannelTopic(CHANNEL));
+    }
+
+    private static ThreadPoolTaskExecutor newReloader() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setThreadNamePrefix("Catalog-reload-");
+        executor.setDaemon(true);
+        executor.initialize();
+        return executor;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        reloader.shutdown();
+    }
+
+    /**
+     * The current catalog; keep the reference for a consistent view across several lookups.
+     * A read before the startup load loads it in the caller.
+     */
+    public Snapshot get() {
+        Snapshot snapshot = current;
+        return snapshot != Snapshot.EMPTY ? snapshot : loadIfEmpty();
+    }
+
+    private synchronized Snapshot loadIfEmpty() {
+        // Callers that waited for another caller's load, or arrive right after a failed one, do not reload
+        if (current == Snapshot.EMPTY && System.currentTimeMillis() - lastReloadMillis >= minReloadIntervalMs) {
+            reload();
+        }
+        return current;
+    }
+
+    public boolean isReady() {
+        return current != Snapshot.EMPTY;
+    }
+
+    // ==================== RELOADING ====================
+
+    /**
+     * Called after a content change was committed on this node
+     */
+    public void contentChanged() {
+        outdated = true;
+        try {
+            redisTemplate.convertAndSend(CHANNEL, nodeId);
+        } catch (Exception e) {
+            log.warn("Error announcing catalog change, other nodes reload on schedule: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        if (!nodeId.equals(new String(message.getBody(), StandardCharsets.UTF_8))) {
+            outdated = true;
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        // Normally already loaded by the warm-up
+        if (!isReady()) {
+            reload();
+        }
+    }
+
+    /**
+     * Reloads when outdated, at most once per minimum interval so bursts of edits cost one reload.
+     * The check runs on the shared scheduler, the reload itself on the catalog's own thread.
+     */
+    @Scheduled(fixedDelayString = "${catalog.check-interval-ms:1000}")
+    public void reloadIfDue() {
+        long sinceLast = System.currentTimeMillis() - lastReloadMillis;
+        boolean due = (outdated && sinceLast >= minReloadIntervalMs) || sinceLast >= refreshIntervalMs;
+        if (!due || !reloadQueued.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            reloader.execute(() -> {
+                try {
+                    reload();
+                } finally {
+                    reloadQueued.set(false);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // Shutting down
+            reloadQueued.set(false);
+        }
+    }
+
+    public synchronized void reload() {
+        long startedAt = System.currentTimeMillis();
+        // Cleared first, so a change committed during the load triggers another one
+        outdated = false;
+        lastReloadMillis = startedAt;
+        try {
+            Snapshot snapshot = readOnlyTransaction.execute(status -> new Snapshot(
+                    current.generation() + 1,
+                    locationRepository.findAll(),
+                    skillRepository.findAll(),
+                    monsterRepository.findAll(),
+                    npcRepository.findAll(),
+                    questRepository.findAll(),
+                    achievementTemplateRepository.findAll()));
+            current = snapshot;
+            log.info("Каталог игрового контента загружен: поколение {}, {} локаций, {} навыков, {} монстров, "
+                            + "{} NPC, {} квестов, {} достижений за {} мс",
+                    snapshot.generation(), snapshot.locations().size(), snapshot.skills().size(),
+                    snapshot.monsters().size(), snapshot.npcs().size(), snapshot.quests().size(),
+                    snapshot.achievementTemplates().size(), System.currentTimeMillis() - startedAt);
+        } catch (Exception e) {
+            outdated = true;
+            log.warn("Не удалось загрузить каталог игрового контента, используется поколение {}: {}",
+                    current.generation(), e.getMessage());
+        }
+    }
+
+    // ==================== SNAPSHOT ====================
+
+    /**
+     * One immutable generation of the catalog. Every list and map is unmodifiable.
+     */
+    public static final class Snapshot {
+
+        static final Snapshot EMPTY = new Snapshot(0, List.of(), List.of(), List.of(), List.of(), List.of(), List.of());
+
+        private final long generation;
+        private final LocalDateTime loadedAt = LocalDateTime.now();
+
+        private final List<Location> locations;
+        private final List<Location> activeLocations;
+        private final List<Location> availableLocations;
+        private final List<Skill> skills;
+        private final List<Monster> monsters;
+        private final List<NPC> npcs;
+        private final List<Quest> quests;
+        private final List<AchievementTemplate> achievementTemplates;
+        private final Map<String, Long> achievementTemplateCountsByCategory;
+
+        Snapshot(long generation, List<Location> locations, List<Skill> skills, List<Monster> monsters,
+                 List<NPC> npcs, List<Quest> quests, List<AchievementTemplate> achievementTemplates) {
+            this.generation = generation;
+            this.locations = List.copyOf(locations);
+            this.activeLocations = locations.stream().filter(Location::isLocationActive).toList();
+            this.availableLocations = activeLocations.stream()
+                    .filter(l -> Boolean.TRUE.equals(l.getIsUnlocked()))
+                    .toList();
+            this.skills = List.copyOf(skills);
+            this.monsters = List.copyOf(monsters);
+            this.npcs = List.copyOf(npcs);
+            this.quests = List.copyOf(quests);
+            this.achievementTemplates = List.copyOf(achievementTemplates);
+            this.achievementTemplateCountsByCategory = achievementTemplates.stream()
+                    .filter(a -> a.getCategory() != null)
+                    .collect(Collectors.collectingAndThen(
+                            Collectors.groupingBy(AchievementTemplate::getCategory, Collectors.counting()),
+                            Map::copyOf));
+        }
+
+        public long generation() {
+            return generation;
+        }
+
+        public LocalDateTime loadedAt() {
+            return loadedAt;
+        }
+
+        public List<Location> locations() {
+            return locations;
+        }
+
+        /**
+         * Locations with status ACTIVE
+         */
+        public List<Location> activeLocations() {
+            return activeLocations;
+        }
+
+        /**
+         * Active and unlocked locations
+         */
+        public List<Location> availableLocations() {
+            return availableLocations;
+        }
+
+        public List<Skill> skills() {
+            return skills;
+        }
+
+        public List<Monster> monsters() {
+            return monsters;
+        }
+
+        public List<NPC> npcs() {
+            return npcs;
+        }
+
+        public List<Quest> quests() {
+            return quests;
+        }
+
+        public List<AchievementTemplate> achievementTemplates() {
+            return achievementTemplates;
+        }
+
+        /**
+         * Number of templates per category, templates without one are left out
+         */
+        public Map<String, Long> achievementTemplateCountsByCategory() {
+            return achievementTemplateCountsByCategory;
+        }
+    }
+}
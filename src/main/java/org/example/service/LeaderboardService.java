@@ -0,0 +1,581 @@
+package org.example.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.entity.Task;
+import org.example.exception.ValidationException;
+import org.example.repository.GameActionRepository;
+import org.example.repository.TaskRepository;
+import org.example.repository.UserAchievementRepository;
+import org.example.repository.UserRepository;
+import org.example.util.Constants;
+import org.example.util.RankedScoreTree;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * In-memory leaderboards, one order-statistic tree per criteria.
+ * <p>
+ * Boards are rebuilt from the database at startup with one grouped query per criteria
+ * and then kept up to date incrementally from the entity write path. Every update committed on
+ * this node is published on {@link #CHANNEL} as {@code nodeId|op|userId|value} and applied by the
+ * other nodes, so all nodes rank the same way; a periodic rebuild repairs lost messages.
+ * <p>
+ * Updates that arrive while a rebuild is running are applied to the current boards and also
+ * recorded; the rebuild replays them onto the new boards (re-reading the scores of the touched
+ * users, so an update already seen by the rebuild queries is not counted twice) before the swap.
+ */
+@Service
+@Slf4j
+public class LeaderboardService implements MessageListener {
+
+    public static final String CHANNEL = "leaderboard:updates";
+    private static final String SEPARATOR = "|";
+
+    public enum Criteria {
+        LEVEL, EXPERIENCE, ACHIEVEMENTS, COMPLETED_TASKS, ACTIONS, TOTAL_ACHIEVEMENTS, TOTAL_TASKS;
+
+        /**
+         * Accepts "level", "experience", "achievements", "tasks", "completed_tasks", "actions",
+         * "total_achievements" and "total_tasks"
+         */
+        public static Criteria fromString(String value) {
+            if (value != null) {
+                String normalized = value.trim().replace('-', '_').toUpperCase();
+                if ("TASKS".equals(normalized)) {
+                    return COMPLETED_TASKS;
+                }
+                for (Criteria criteria : values()) {
+                    if (criteria.name().equals(normalized)) {
+                        return criteria;
+                    }
+                }
+            }
+            throw new ValidationException("Неизвестный критерий рейтинга: " + value +
+                    ". Допустимые значения: " + Arrays.toString(values()));
+        }
+
+        /**
+         * Level is derived from experience, so both share one ranking
+         */
+        private Criteria board() {
+            return this == LEVEL ? EXPERIENCE : this;
+        }
+
+        private long displayValue(long score) {
+            return this == LEVEL ? levelFor(score) : score;
+        }
+    }
+
+    public record LeaderboardEntry(int rank, Long userId, String username, String criteria, long value) {
+    }
+
+    private final UserRepository userRepository;
+    private final GameActionRepository gameActionRepository;
+    private final UserAchievementRepository userAchievementRepository;
+    private final TaskRepository taskRepository;
+    private final StringRedisTemplate redisTemplate;
+
+    private final String nodeId = UUID.randomUUID().toString();
+    private volatile Map<Criteria, Board> boards = emptyBoards();
+    private final Map<Long, String> usernames = new ConcurrentHashMap<>();
+    private volatile boolean ready;
+
+    // Updates take the read lock, the rebuild takes the write lock to replay and swap
+    private final ReadWriteLock rebuildLock = new ReentrantReadWriteLock();
+    private RebuildLog rebuildLog;
+
+    public LeaderboardService(UserRepository userRepository,
+                              GameActionRepository gameActionRepository,
+                              UserAchievementRepository userAchievementRepository,
+                              TaskRepository taskRepository,
+                              StringRedisTemplate redisTemplate,
+                              RedisMessageListenerContainer listenerContainer) {
+        this.userRepository = userRepository;
+        this.gameActionRepository = gameActionRepository;
+        this.userAchievementRepository = userAchievementRepository;
+        this.taskRepository = taskRepository;
+        this.redisTemplate = redisTemplate;
+        listenerContainer.addMessageListener(this, new ChannelTopic(CHANNEL));
+    }
+
+    public static long levelFor(long experience) {
+        return 1 + Math.max(0, experience) / Constants.EXPERIENCE_PER_LEVEL;
+    }
+
+    // ==================== READS ====================
+
+    public List<LeaderboardEntry> getTop(Criteria criteria, int limit) {
+        return getPage(criteria, 0, limit);
+    }
+
+    public List<LeaderboardEntry> getPage(Criteria criteria, int offset, int limit) {
+        return toEntries(criteria, offset, board(criteria).range(offset, limit));
+    }
+
+    /**
+     * Up to {@code limit} entries ranked after the (score, userId) cursor, from the top for a null cursor.
+     * The cursor does not have to be on the board any more.
+     */
+    public List<LeaderboardEntry> getPageAfter(Criteria criteria, Long afterScore, Long afterUserId, int limit) {
+        Board board = board(criteria);
+        int from;
+        List<RankedScoreTree.Entry> entries;
+        board.lock.readLock().lock();
+        try {
+            from = afterScore != null && afterUserId != null ? board.tree.countThrough(afterScore, afterUserId) : 0;
+            entries = board.tree.range(from, limit);
+        } finally {
+            board.lock.readLock().unlock();
+        }
+        return toEntries(criteria, from, entries);
+    }
+
+    /**
+     * Rank of the user, empty if the user is not on the board
+     */
+    public Optional<LeaderboardEntry> getRank(Criteria criteria, Long userId) {
+        Board board = board(criteria);
+        board.lock.readLock().lock();
+        try {
+            int rank = board.tree.rank(userId);
+            if (rank < 0) {
+                return Optional.empty();
+            }
+            return Optional.of(toEntry(criteria, rank, userId, board.tree.getScore(userId)));
+        } finally {
+            board.lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * The user together with up to {@code radius} players above and below
+     */
+    public List<LeaderboardEntry> getAround(Criteria criteria, Long userId, int radius) {
+        Board board = board(criteria);
+        int from;
+        List<RankedScoreTree.Entry> entries;
+        board.lock.readLock().lock();
+        try {
+            int rank = board.tree.rank(userId);
+            if (rank < 0) {
+                return List.of();
+            }
+            from = Math.max(0, rank - 1 - radius);
+            entries = board.tree.range(from, rank - from + radius);
+        } finally {
+            board.lock.readLock().unlock();
+        }
+        return toEntries(criteria, from, entries);
+    }
+
+    public int getTotalPlayers() {
+        return board(Criteria.EXPERIENCE).size();
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    // ==================== INCREMENTAL UPDATES ====================
+
+    public void registerUser(Long userId, String username) {
+        if (userId == null) {
+            return;
+        }
+        applyRegister(userId, username);
+        publish(Op.REGISTER, userId, username != null ? username : "");
+    }
+
+    public void removeUser(Long userId) {
+        if (userId == null) {
+            return;
+        }
+        applyRemove(userId);
+        publish(Op.REMOVE, userId, "");
+    }
+
+    /**
+     * One committed game action: counts it and adds its experience
+     */
+    public void recordAction(Long userId, long experience) {
+        if (userId == null || !usernames.containsKey(userId)) {
+            return;
+        }
+        applyScore(Op.ACTION, userId, experience);
+        publish(Op.ACTION, userId, String.valueOf(experience));
+    }
+
+    public void refreshAchievements(Long userId) {
+        if (userId == null || !usernames.containsKey(userId)) {
+            return;
+        }
+        long completed = achievementCount(userId);
+        applyScore(Op.ACHIEVEMENTS, userId, completed);
+        publish(Op.ACHIEVEMENTS, userId, String.valueOf(completed));
+        long total = totalAchievementCount(userId);
+        applyScore(Op.TOTAL_ACHIEVEMENTS, userId, total);
+        publish(Op.TOTAL_ACHIEVEMENTS, userId, String.valueOf(total));
+    }
+
+    public void refreshTasks(Long userId) {
+        if (userId == null || !usernames.containsKey(userId)) {
+            return;
+        }
+        long completed = taskRepository.countByUserIdAndStatus(userId, Task.Status.COMPLETED);
+        applyScore(Op.COMPLETED_TASKS, userId, completed);
+        publish(Op.COMPLETED_TASKS, userId, String.valueOf(completed));
+        long total = taskRepository.countByUserId(userId);
+        applyScore(Op.TOTAL_TASKS, userId, total);
+        publish(Op.TOTAL_TASKS, userId, String.valueOf(total));
+    }
+
+    private void applyRegister(long userId, String username) {
+        withRebuildLog(log -> log.membership.put(userId, new Membership(username, false)), () -> {
+            if (username != null) {
+                usernames.put(userId, username);
+            }
+            for (Board board : boards.values()) {
+                board.putIfAbsent(userId, 0);
+            }
+        });
+    }
+
+    private void applyRemove(long userId) {
+        withRebuildLog(log -> log.membership.put(userId, new Membership(null, true)), () -> {
+            usernames.remove(userId);
+            for (Board board : boards.values()) {
+                board.remove(userId);
+            }
+        });
+    }
+
+    /**
+     * An action adds one action and its experience, achievements and tasks are the new absolute count
+     */
+    private void applyScore(Op op, long userId, long value) {
+        withRebuildLog(log -> log.touched.add(userId), () -> {
+            switch (op) {
+                case ACTION -> {
+                    board(Criteria.ACTIONS).add(userId, 1);
+                    if (value != 0) {
+                        board(Criteria.EXPERIENCE).add(userId, value);
+                    }
+                }
+                case ACHIEVEMENTS -> board(Criteria.ACHIEVEMENTS).put(userId, value);
+                case COMPLETED_TASKS -> board(Criteria.COMPLETED_TASKS).put(userId, value);
+                case TOTAL_ACHIEVEMENTS -> board(Criteria.TOTAL_ACHIEVEMENTS).put(userId, value);
+                case TOTAL_TASKS -> board(Criteria.TOTAL_TASKS).put(userId, value);
+                default -> throw new IllegalArgumentException("Not a score update: " + op);
+            }
+        });
+    }
+
+    private void withRebuildLog(Consumer<RebuildLog> record, Runnable update) {
+        rebuildLock.readLock().lock();
+        try {
+            update.run();
+            if (rebuildLog != null) {
+                record.accept(rebuildLog);
+            }
+        } finally {
+            rebuildLock.readLock().unlock();
+        }
+    }
+
+    // ==================== CROSS-NODE UPDATES ====================
+
+    private void publish(Op op, long userId, String value) {
+        try {
+            redisTemplate.convertAndSend(CHANNEL,
+                    String.join(SEPARATOR, nodeId, op.name(), String.valueOf(userId), value));
+        } catch (Exception e) {
+            log.warn("Error publishing leaderboard update, other nodes catch up on rebuild: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        // nodeId|op|userId|value, the username in REGISTER may itself contain the separator
+        String[] parts = new String(message.getBody(), StandardCharsets.UTF_8).split("\\|", 4);
+        if (parts.length < 4 || nodeId.equals(parts[0])) {
+            return;
+        }
+        try {
+            Op op = Op.valueOf(parts[1]);
+            long userId = Long.parseLong(parts[2]);
+            switch (op) {
+                case REGISTER -> applyRegister(userId, parts[3].isEmpty() ? null : parts[3]);
+                case REMOVE -> applyRemove(userId);
+                default -> {
+                    if (usernames.containsKey(userId)) {
+                        applyScore(op, userId, Long.parseLong(parts[3]));
+                    }
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            log.warn("Ignoring malformed leaderboard update: {}", e.getMessage());
+        }
+    }
+
+    // ==================== REBUILD ====================
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        if (ready) {
+            // Already built by the warm-up
+            return;
+        }
+        try {
+            rebuild();
+        } catch (Exception e) {
+            log.warn("Не удалось построить таблицы лидеров: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Periodic full rebuild: repairs updates missed while Redis was unreachable
+     */
+    @Scheduled(initialDelayString = "${leaderboard.rebuild-interval-ms:3600000}",
+            fixedDelayString = "${leaderboard.rebuild-interval-ms:3600000}")
+    public void scheduledRebuild() {
+        try {
+            rebuild();
+        } catch (Exception e) {
+            log.warn("Не удалось перестроить таблицы лидеров: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Rebuilds all boards from the database, replays the updates that arrived meanwhile
+     * and swaps the new boards in at once
+     */
+    public synchronized void rebuild() {
+        long startedAt = System.currentTimeMillis();
+        RebuildLog updates = new RebuildLog();
+        setRebuildLog(updates);
+        try {
+            int players = rebuild(updates);
+            log.info("Таблицы лидеров построены: {} игроков за {} мс", players,
+                    System.currentTimeMillis() - startedAt);
+        } finally {
+            setRebuildLog(null);
+        }
+    }
+
+    private int rebuild(RebuildLog updates) {
+        Map<Long, String> names = new HashMap<>();
+        for (Object[] row : userRepository.findAllIdsAndUsernames()) {
+            names.put((Long) row[0], (String) row[1]);
+        }
+
+        Map<Criteria, Board> rebuilt = emptyBoards();
+        for (Board board : rebuilt.values()) {
+            names.keySet().forEach(userId -> board.tree.put(userId, 0));
+        }
+        fill(rebuilt.get(Criteria.EXPERIENCE), names, gameActionRepository.sumExperienceByUser());
+        fill(rebuilt.get(Criteria.ACTIONS), names, gameActionRepository.countGroupByUser());
+        fill(rebuilt.get(Criteria.ACHIEVEMENTS), names, userAchievementRepository.countCompletedByUser());
+        fill(rebuilt.get(Criteria.COMPLETED_TASKS), names,
+                taskRepository.countByStatusGroupByUser(Task.Status.COMPLETED));
+        fill(rebuilt.get(Criteria.TOTAL_ACHIEVEMENTS), names, userAchievementRepository.countGroupByUser());
+        fill(rebuilt.get(Criteria.TOTAL_TASKS), names, taskRepository.countGroupByUser());
+
+        // Re-read most touched users without blocking updates, the rest under the lock
+        replayScores(rebuilt, names, updates);
+        rebuildLock.writeLock().lock();
+        try {
+            replayMembership(rebuilt, names, updates);
+            replayScores(rebuilt, names, updates);
+            usernames.keySet().retainAll(names.keySet());
+            usernames.putAll(names);
+            boards = rebuilt;
+            ready = true;
+        } finally {
+            rebuildLock.writeLock().unlock();
+        }
+        return names.size();
+    }
+
+    private void setRebuildLog(RebuildLog updates) {
+        rebuildLock.writeLock().lock();
+        try {
+            rebuildLog = updates;
+        } finally {
+            rebuildLock.writeLock().unlock();
+        }
+    }
+
+    private void replayMembership(Map<Criteria, Board> rebuilt, Map<Long, String> names, RebuildLog updates) {
+        updates.membership.forEach((userId, membership) -> {
+            if (membership.removed()) {
+                names.remove(userId);
+                rebuilt.values().forEach(board -> board.tree.remove(userId));
+            } else {
+                String username = membership.username() != null ? membership.username() : usernames.get(userId);
+                if (username != null) {
+                    names.put(userId, username);
+                }
+                rebuilt.values().forEach(board -> {
+                    if (board.tree.getScore(userId) == null) {
+                        board.tree.put(userId, 0);
+                    }
+                });
+                updates.touched.add(userId);
+            }
+        });
+    }
+
+    /**
+     * Scores of the touched users are read again rather than replayed, so updates
+     * the rebuild queries already included are not applied twice
+     */
+    private void replayScores(Map<Criteria, Board> rebuilt, Map<Long, String> names, RebuildLog updates) {
+        for (Iterator<Long> it = updates.touched.iterator(); it.hasNext(); ) {
+            Long userId = it.next();
+            it.remove();
+            if (names.containsKey(userId)) {
+                rebuilt.get(Criteria.EXPERIENCE).put(userId, gameActionRepository.sumExperienceByUserId(userId));
+                rebuilt.get(Criteria.ACTIONS).put(userId, gameActionRepository.countByUserId(userId));
+                rebuilt.get(Criteria.ACHIEVEMENTS).put(userId, achievementCount(userId));
+                rebuilt.get(Criteria.COMPLETED_TASKS).put(userId,
+                        taskRepository.countByUserIdAndStatus(userId, Task.Status.COMPLETED));
+                rebuilt.get(Criteria.TOTAL_ACHIEVEMENTS).put(userId, totalAchievementCount(userId));
+                rebuilt.get(Criteria.TOTAL_TASKS).put(userId, taskRepository.countByUserId(userId));
+            }
+        }
+    }
+
+    private long achievementCount(Long userId) {
+        Long count = userAchievementRepository.countByUser_IdAndCompletedTrue(userId);
+        return count != null ? count : 0;
+    }
+
+    private long totalAchievementCount(Long userId) {
+        Long count = userAchievementRepository.countByUser_Id(userId);
+        return count != null ? count : 0;
+    }
+
+    private static void fill(Board board, Map<Long, String> users, List<Object[]> rows) {
+        for (Object[] row : rows) {
+            Long userId = (Long) row[0];
+            if (users.containsKey(userId)) {
+                board.tree.put(userId, ((Number) row[1]).longValue());
+            }
+        }
+    }
+
+    // ==================== HELPERS ====================
+
+    private Board board(Criteria criteria) {
+        return boards.get(criteria.board());
+    }
+
+    private List<LeaderboardEntry> toEntries(Criteria criteria, int offset, List<RankedScoreTree.Entry> entries) {
+        List<LeaderboardEntry> result = new ArrayList<>(entries.size());
+        for (int i = 0; i < entries.size(); i++) {
+            RankedScoreTree.Entry entry = entries.get(i);
+            result.add(toEntry(criteria, offset + i + 1, entry.id(), entry.score()));
+        }
+        return result;
+    }
+
+    private LeaderboardEntry toEntry(Criteria criteria, int rank, long userId, long score) {
+        return new LeaderboardEntry(rank, userId, usernames.get(userId),
+                criteria.name().toLowerCase(), criteria.displayValue(score));
+    }
+
+    private static Map<Criteria, Board> emptyBoards() {
+        Map<Criteria, Board> boards = new EnumMap<>(Criteria.class);
+        for (Criteria criteria : Criteria.values()) {
+            if (criteria.board() == criteria) {
+                boards.put(criteria, new Board());
+            }
+        }
+        return boards;
+    }
+
+    private enum Op {
+        REGISTER, REMOVE, ACTION, ACHIEVEMENTS, COMPLETED_TASKS, TOTAL_ACHIEVEMENTS, TOTAL_TASKS
+    }
+
+    private record Membership(String username, boolean removed) {
+    }
+
+    /**
+     * Updates received while a rebuild is running: the last membership change per user
+     * and the users whose scores changed
+     */
+    private static class RebuildLog {
+        private final Map<Long, Membership> membership = new ConcurrentHashMap<>();
+        private final Set<Long> touched = ConcurrentHashMap.newKeySet();
+    }
+
+    /**
+     * One ranking guarded by a read-write lock
+     */
+    private static class Board {
+        private final RankedScoreTree tree = new RankedScoreTree();
+        private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+        int size() {
+            return read(RankedScoreTree::size);
+        }
+
+        List<RankedScoreTree.Entry> range(int offset, int limit) {
+            return read(tree -> tree.range(offset, limit));
+        }
+
+        void put(long userId, long score) {
+            write(() -> tree.put(userId, score));
+        }
+
+        void putIfAbsent(long userId, long score) {
+            write(() -> {
+                if (tree.getScore(userId) == null) {
+                    tree.put(userId, score);
+                }
+            });
+        }
+
+        void add(long userId, long delta) {
+            write(() -> tree.add(userId, delta));
+        }
+
+        void remove(long userId) {
+            write(() -> tree.remove(userId));
+        }
+
+        private <T> T read(Function<RankedScoreTree, T> reader) {
+            lock.readLock().lock();
+            try {
+                return reader.apply(tree);
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        private void write(Runnable writer) {
+            lock.writeLock().lock();
+            try {
+                writer.run();
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+}
@@ -0,0 +1,374 @@
+package org.example.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.example.repository.GameActionRepository;
+import org.example.repository.TaskRepository;
+import org.example.repository.UserAchievementRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Sliding one-hour window of live activity, pushed to dashboards over Server-Sent Events.
+ * <p>
+ * Actions, achievements and new tasks are counted into one bucket per minute as they are
+ * committed, and users are tracked by the minute they were last seen. Every push interval the
+ * window is aggregated once and only the values that changed since the previous push are sent
+ * to all subscribers, so the cost does not grow with the number of open dashboards.
+ * <p>
+ * Events are written by a dedicated sender thread in the order they were produced, so a slow
+ * client holds neither the push lock nor the shared scheduler; while one push is still being
+ * written the next is skipped and its changes go out with the following one.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class RealtimeStatsService {
+
+    private static final int WINDOW_MINUTES = 60;
+    private static final int ONLINE_MINUTES = 15;
+    private static final int POPULAR_ACTION_TYPES = 5;
+
+    private final GameActionRepository gameActionRepository;
+    private final UserAchievementRepository userAchievementRepository;
+    private final TaskRepository taskRepository;
+
+    @Value("${stats.realtime.max-subscribers:200}")
+    private int maxSubscribers;
+
+    @Value("${stats.realtime.emitter-timeout-ms:1800000}")
+    private long emitterTimeoutMs;
+
+    // Ring of minute buckets indexed by epoch minute, a stale slot is replaced on first use
+    private final AtomicReferenceArray<MinuteBucket> buckets = new AtomicReferenceArray<>(WINDOW_MINUTES);
+    private final Map<Long, Long> userLastSeenMinute = new ConcurrentHashMap<>();
+    private final List<SseEmitter> subscribers = new CopyOnWriteArrayList<>();
+
+    // What subscribers have been sent so far, deltas are computed against it
+    private final Object pushLock = new Object();
+    private Map<String, Object> lastPushed = Map.of();
+    private volatile boolean ready;
+
+    private final ThreadPoolTaskExecutor sender = newSender();
+    private final AtomicBoolean pushInFlight = new AtomicBoolean();
+
+    private static ThreadPoolTaskExecutor newSender() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setThreadNamePrefix("Realtime-push-");
+        executor.setDaemon(true);
+        executor.initialize();
+        return executor;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        sender.shutdown();
+    }
+
+    // ==================== WRITE PATH ====================
+
+    public void recordAction(String actionType, Long userId, Long locationId, LocalDateTime actionTime) {
+        MinuteBucket bucket = bucketFor(actionTime);
+        if (bucket == null) {
+            return;
+        }
+        bucket.actions.increment();
+        if (actionType != null) {
+            bucket.actionTypes.computeIfAbsent(actionType, k -> new LongAdder()).increment();
+        }
+        if (locationId != null) {
+            bucket.locations.add(locationId);
+        }
+        if (userId != null) {
+            userLastSeenMinute.merge(userId, bucket.minute, Math::max);
+        }
+    }
+
+    public void recordAchievement(LocalDateTime unlockedAt) {
+        MinuteBucket bucket = bucketFor(unlockedAt);
+        if (bucket != null) {
+            bucket.achievements.increment();
+        }
+    }
+
+    public void recordTaskCreated(LocalDateTime createdAt) {
+        MinuteBucket bucket = bucketFor(createdAt);
+        if (bucket != null) {
+            bucket.tasksCreated.increment();
+        }
+    }
+
+    // ==================== READ PATH ====================
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Aggregates the window, same keys as the polled realtime dashboard
+     */
+    public Map<String, Object> snapshot() {
+        long now = currentMinute();
+        long actions = 0;
+        long achievements = 0;
+        long tasksCreated = 0;
+        Map<String, Long> actionTypes = new HashMap<>();
+        Set<Long> locations = new HashSet<>();
+        for (int i = 0; i < WINDOW_MINUTES; i++) {
+            MinuteBucket bucket = buckets.get(i);
+            if (bucket == null || bucket.minute <= now - WINDOW_MINUTES || bucket.minute > now) {
+                continue;
+            }
+            actions += bucket.actions.sum();
+            achievements += bucket.achievements.sum();
+            tasksCreated += bucket.tasksCreated.sum();
+            bucket.actionTypes.forEach((type, count) -> actionTypes.merge(type, count.sum(), Long::sum));
+            locations.addAll(bucket.locations);
+        }
+
+        long usersActive = 0;
+        long online = 0;
+        for (long minute : userLastSeenMinute.values()) {
+            if (minute > now - WINDOW_MINUTES) {
+                usersActive++;
+                if (minute > now - ONLINE_MINUTES) {
+                    online++;
+                }
+            }
+        }
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("timestamp", LocalDateTime.now());
+        stats.put("actionsLastHour", actions);
+        stats.put("usersActiveLastHour", usersActive);
+        stats.put("achievementsLastHour", achievements);
+        stats.put("tasksCreatedLastHour", tasksCreated);
+        stats.put("currentlyOnline", online);
+        stats.put("activeLocations", (long) locations.size());
+        stats.put("popularActionTypes", popularActionTypes(actionTypes));
+        return stats;
+    }
+
+    private static List<Map<String, Object>> popularActionTypes(Map<String, Long> actionTypes) {
+        List<Map<String, Object>> popular = new ArrayList<>();
+        actionTypes.entrySet().stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue().reversed()
+                        .thenComparing(Map.Entry.comparingByKey()))
+                .limit(POPULAR_ACTION_TYPES)
+                .forEach(entry -> {
+                    Map<String, Object> map = new LinkedHashMap<>();
+                    map.put("actionType", entry.getKey());
+                    map.put("count", entry.getValue());
+                    popular.add(map);
+                });
+        return popular;
+    }
+
+    // ==================== SUBSCRIPTIONS ====================
+
+    /**
+     * Opens a stream that starts with the full snapshot and then receives deltas,
+     * empty when the subscriber limit is reached
+     */
+    public Optional<SseEmitter> subscribe() {
+        if (subscribers.size() >= maxSubscribers) {
+            log.warn("Realtime stats subscriber limit reached: {}", maxSubscribers);
+            return Optional.empty();
+        }
+        SseEmitter emitter = new SseEmitter(emitterTimeoutMs);
+        emitter.onCompletion(() -> subscribers.remove(emitter));
+        emitter.onTimeout(() -> subscribers.remove(emitter));
+        emitter.onError(e -> subscribers.remove(emitter));
+
+        synchronized (pushLock) {
+            if (subscribers.isEmpty()) {
+                lastPushed = snapshot();
+            }
+            // Deltas are relative to the last push, so a new subscriber starts from exactly that state;
+            // the sender writes it before any later delta
+            Map<String, Object> initial = lastPushed;
+            subscribers.add(emitter);
+            if (!submit(() -> {
+                if (!send(emitter, "snapshot", initial)) {
+                    subscribers.remove(emitter);
+                }
+            })) {
+                subscribers.remove(emitter);
+                return Optional.empty();
+            }
+        }
+        return Optional.of(emitter);
+    }
+
+    @Scheduled(fixedDelayString = "${stats.realtime.push-interval-ms:2000}")
+    public void push() {
+        evictIdleUsers();
+        if (subscribers.isEmpty() || !pushInFlight.compareAndSet(false, true)) {
+            return;
+        }
+        synchronized (pushLock) {
+            Map<String, Object> current = snapshot();
+            Map<String, Object> delta = new LinkedHashMap<>();
+            current.forEach((key, value) -> {
+                if (!"timestamp".equals(key) && !Objects.equals(value, lastPushed.get(key))) {
+                    delta.put(key, value);
+                }
+            });
+            lastPushed = current;
+
+            List<SseEmitter> targets = List.copyOf(subscribers);
+            Map<String, Object> event = delta.isEmpty() ? null : withTimestamp(current, delta);
+            if (!submit(() -> {
+                try {
+                    for (SseEmitter emitter : targets) {
+                        boolean sent = event == null ? heartbeat(emitter) : send(emitter, "delta", event);
+                        if (!sent) {
+                            subscribers.remove(emitter);
+                        }
+                    }
+                } finally {
+                    pushInFlight.set(false);
+                }
+            })) {
+                pushInFlight.set(false);
+            }
+        }
+    }
+
+    private boolean submit(Runnable task) {
+        try {
+            sender.execute(task);
+            return true;
+        } catch (RejectedExecutionException e) {
+            // Shutting down
+            return false;
+        }
+    }
+
+    private static Map<String, Object> withTimestamp(Map<String, Object> current, Map<String, Object> delta) {
+        Map<String, Object> event = new LinkedHashMap<>();
+        event.put("timestamp", current.get("timestamp"));
+        event.putAll(delta);
+        return event;
+    }
+
+    private static boolean send(SseEmitter emitter, String name, Map<String, Object> data) {
+        try {
+            emitter.send(SseEmitter.event().name(name).data(data, MediaType.APPLICATION_JSON));
+            return true;
+        } catch (IOException | IllegalStateException e) {
+            emitter.completeWithError(e);
+            return false;
+        }
+    }
+
+    private static boolean heartbeat(SseEmitter emitter) {
+        try {
+            emitter.send(SseEmitter.event().comment("heartbeat"));
+            return true;
+        } catch (IOException | IllegalStateException e) {
+            emitter.completeWithError(e);
+            return false;
+        }
+    }
+
+    private void evictIdleUsers() {
+        long horizon = currentMinute() - WINDOW_MINUTES;
+        userLastSeenMinute.values().removeIf(minute -> minute <= horizon);
+    }
+
+    // ==================== SEEDING ====================
+
+    /**
+     * Fills the window with the last hour from the database so the stream is complete right after startup
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        try {
+            LocalDateTime after = LocalDateTime.now().minusMinutes(WINDOW_MINUTES);
+            for (Object[] row : gameActionRepository.findActivitySince(after)) {
+                recordAction((String) row[0], (Long) row[1], (Long) row[2], (LocalDateTime) row[3]);
+            }
+            // Only totals are loaded for these, attributed to the oldest minute still in the window
+            MinuteBucket oldest = bucketFor(after.plusMinutes(1));
+            if (oldest != null) {
+                Long achievements = userAchievementRepository.countByUnlockedAtAfter(after);
+                oldest.achievements.add(achievements != null ? achievements : 0);
+                oldest.tasksCreated.add(taskRepository.countByCreatedAtAfter(after));
+            }
+            ready = true;
+            log.info("Окно статистики реального времени заполнено");
+        } catch (Exception e) {
+            log.warn("Не удалось заполнить окно статистики реального времени: {}", e.getMessage());
+        }
+    }
+
+    // ==================== BUCKETS ====================
+
+    private MinuteBucket bucketFor(LocalDateTime time) {
+        if (time == null) {
+            return null;
+        }
+        long now = currentMinute();
+        long minute = Math.min(toMinute(time), now);
+        if (minute <= now - WINDOW_MINUTES) {
+            return null;
+        }
+        int index = (int) Math.floorMod(minute, (long) WINDOW_MINUTES);
+        while (true) {
+            MinuteBucket bucket = buckets.get(index);
+            if (bucket != null && bucket.minute == minute) {
+                return bucket;
+            }
+            if (bucket != null && bucket.minute > minute) {
+                // The slot already moved on to a newer minute, this one has left the window
+                return null;
+            }
+            MinuteBucket fresh = new MinuteBucket(minute);
+            if (buckets.compareAndSet(index, bucket, fresh)) {
+                return fresh;
+            }
+        }
+    }
+
+    private static long currentMinute() {
+        return toMinute(LocalDateTime.now());
+    }
+
+    private static long toMinute(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().getEpochSecond() / 60;
+    }
+
+    private static final class MinuteBucket {
+        private final long minute;
+        private final LongAdder actions = new LongAdder();
+        private final LongAdder achievements = new LongAdder();
+        private final LongAdder tasksCreated = new LongAdder();
+        private final Map<String, LongAdder> actionTypes = new ConcurrentHashMap<>();
+        private final Set<Long> locations = ConcurrentHashMap.newKeySet();
+
+        private MinuteBucket(long minute) {
+            this.minute = minute;
+        }
+    }
+}
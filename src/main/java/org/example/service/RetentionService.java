@@ -0,0 +1,313 @@
+package org.example.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.example.entity.ActivityBitmap;
+import org.example.repository.ActivityBitmapRepository;
+import org.example.repository.GameSessionRepository;
+import org.example.repository.UserRepository;
+import org.example.util.BitmapCodec;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cohort retention from per-day user bitmaps.
+ * <p>
+ * Each day has one bitmap of the users who registered that day and one of the users who had
+ * a game session that day, indexed by user id. Retention of a cohort on day N is the size of
+ * the intersection of its cohort bitmap with the activity bitmap N days later, so a 90-day
+ * report is a few hundred in-memory AND operations. Bits are set from the entity write path,
+ * kept in memory and merged into {@code activity_bitmaps} on a schedule.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class RetentionService {
+
+    public static final int[] RETENTION_DAYS = {1, 7, 30};
+
+    private final ActivityBitmapRepository activityBitmapRepository;
+    private final UserRepository userRepository;
+    private final GameSessionRepository gameSessionRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${stats.retention.cache-size:400}")
+    private int cacheSize;
+
+    @Value("${stats.retention.backfill-days:120}")
+    private int backfillDays;
+
+    private final Map<BitmapKey, DayBitmap> loaded = new ConcurrentHashMap<>();
+
+    // ==================== WRITE PATH ====================
+
+    public void recordRegistration(Long userId, LocalDateTime createdAt) {
+        if (createdAt != null) {
+            set(ActivityBitmap.Kind.COHORT, createdAt.toLocalDate(), userId);
+        }
+    }
+
+    public void recordActivity(Long userId, LocalDateTime time) {
+        if (time != null) {
+            set(ActivityBitmap.Kind.ACTIVE, time.toLocalDate(), userId);
+        }
+    }
+
+    private void set(ActivityBitmap.Kind kind, LocalDate day, Long userId) {
+        if (userId == null || userId < 0 || userId > Integer.MAX_VALUE) {
+            return;
+        }
+        int index = userId.intValue();
+        while (true) {
+            DayBitmap bitmap = bitmap(new BitmapKey(kind, day));
+            synchronized (bitmap) {
+                // An evicted bitmap is detached from the map, retry against the reloaded one
+                if (!bitmap.evicted) {
+                    if (!bitmap.bits.get(index)) {
+                        bitmap.bits.set(index);
+                        bitmap.dirty = true;
+                    }
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Merges dirty bitmaps into their rows and trims the in-memory cache
+     */
+    @Scheduled(fixedDelayString = "${stats.retention.flush-interval-ms:10000}")
+    public void flush() {
+        for (Map.Entry<BitmapKey, DayBitmap> entry : loaded.entrySet()) {
+            DayBitmap bitmap = entry.getValue();
+            BitSet snapshot;
+            synchronized (bitmap) {
+                if (!bitmap.dirty) {
+                    continue;
+                }
+                snapshot = (BitSet) bitmap.bits.clone();
+                bitmap.dirty = false;
+            }
+            try {
+                BitSet merged = merge(entry.getKey(), snapshot);
+                synchronized (bitmap) {
+                    bitmap.bits.or(merged);
+                }
+            } catch (Exception e) {
+                log.warn("Error saving activity bitmap {} {}, will retry: {}",
+                        entry.getKey().kind(), entry.getKey().day(), e.getMessage());
+                synchronized (bitmap) {
+                    bitmap.dirty = true;
+                }
+            }
+        }
+        evict();
+    }
+
+    private BitSet merge(BitmapKey key, BitSet bits) {
+        return transactionTemplate.execute(status -> {
+            ActivityBitmap row = activityBitmapRepository.findForUpdate(key.kind(), key.day())
+                    .orElseGet(() -> ActivityBitmap.builder().kind(key.kind()).day(key.day()).build());
+            BitSet merged = BitmapCodec.decode(row.getBitmap());
+            merged.or(bits);
+            row.setBitmap(BitmapCodec.encode(merged));
+            row.setCardinality(merged.cardinality());
+            row.setUpdatedAt(LocalDateTime.now());
+            activityBitmapRepository.save(row);
+            return merged;
+        });
+    }
+
+    private void evict() {
+        int excess = loaded.size() - cacheSize;
+        if (excess <= 0) {
+            return;
+        }
+        List<Map.Entry<BitmapKey, DayBitmap>> entries = new ArrayList<>(loaded.entrySet());
+        entries.sort(Comparator.comparingLong(entry -> entry.getValue().lastAccess));
+        for (Map.Entry<BitmapKey, DayBitmap> entry : entries) {
+            if (excess <= 0) {
+                break;
+            }
+            DayBitmap bitmap = entry.getValue();
+            synchronized (bitmap) {
+                if (bitmap.dirty) {
+                    continue;
+                }
+                bitmap.evicted = true;
+            }
+            loaded.remove(entry.getKey(), bitmap);
+            excess--;
+        }
+    }
+
+    // ==================== READ PATH ====================
+
+    /**
+     * D1/D7/D30 retention of the registration cohorts of the last {@code cohortDays} days.
+     * A retention day is only reported once it is over.
+     */
+    public Map<String, Object> getRetention(int cohortDays) {
+        long startedAt = System.currentTimeMillis();
+        LocalDate today = LocalDate.now();
+        LocalDate firstCohort = today.minusDays(cohortDays);
+        LocalDate lastCohort = today.minusDays(1);
+        preload(ActivityBitmap.Kind.COHORT, firstCohort, lastCohort);
+        preload(ActivityBitmap.Kind.ACTIVE, firstCohort.plusDays(1), lastCohort);
+
+        long[] retainedTotals = new long[RETENTION_DAYS.length];
+        long[] eligibleTotals = new long[RETENTION_DAYS.length];
+        long totalUsers = 0;
+        List<Map<String, Object>> cohorts = new ArrayList<>();
+
+        for (LocalDate day = firstCohort; !day.isAfter(lastCohort); day = day.plusDays(1)) {
+            BitSet cohort = copy(ActivityBitmap.Kind.COHORT, day);
+            int size = cohort.cardinality();
+            totalUsers += size;
+
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("date", day);
+            row.put("users", size);
+            for (int i = 0; i < RETENTION_DAYS.length; i++) {
+                LocalDate activityDay = day.plusDays(RETENTION_DAYS[i]);
+                if (!activityDay.isBefore(today)) {
+                    row.put("d" + RETENTION_DAYS[i], null);
+                    continue;
+                }
+                BitSet retained = copy(ActivityBitmap.Kind.ACTIVE, activityDay);
+                retained.and(cohort);
+                int count = retained.cardinality();
+                retainedTotals[i] += count;
+                eligibleTotals[i] += size;
+                row.put("d" + RETENTION_DAYS[i], retentionEntry(count, size));
+            }
+            cohorts.add(row);
+        }
+
+        Map<String, Object> averages = new LinkedHashMap<>();
+        for (int i = 0; i < RETENTION_DAYS.length; i++) {
+            averages.put("d" + RETENTION_DAYS[i], eligibleTotals[i] > 0
+                    ? retentionEntry(retainedTotals[i], eligibleTotals[i])
+                    : null);
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("cohortDays", cohortDays);
+        result.put("periodStart", firstCohort);
+        result.put("periodEnd", lastCohort);
+        result.put("totalUsers", totalUsers);
+        result.put("averages", averages);
+        result.put("cohorts", cohorts);
+        result.put("computationTimeMs", System.currentTimeMillis() - startedAt);
+        return result;
+    }
+
+    private static Map<String, Object> retentionEntry(long retained, long size) {
+        Map<String, Object> entry = new LinkedHashMap<>();
+        entry.put("users", retained);
+        entry.put("rate", size > 0 ? Math.round(retained * 10000.0 / size) / 100.0 : 0.0);
+        return entry;
+    }
+
+    // ==================== BACKFILL ====================
+
+    /**
+     * Builds the bitmaps from users and sessions when none have been stored yet
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        try {
+            if (activityBitmapRepository.existsByKind(ActivityBitmap.Kind.COHORT)) {
+                return;
+            }
+            LocalDateTime after = LocalDate.now().minusDays(backfillDays).atStartOfDay();
+            for (Object[] row : userRepository.findIdsAndCreatedAtSince(after)) {
+                recordRegistration((Long) row[0], (LocalDateTime) row[1]);
+            }
+            for (Object[] row : gameSessionRepository.findDistinctUserActivityDaysSince(after)) {
+                LocalDate day = toLocalDate(row[1]);
+                if (day != null) {
+                    set(ActivityBitmap.Kind.ACTIVE, day, ((Number) row[0]).longValue());
+                }
+            }
+            flush();
+            log.info("Битовые карты активности построены за {} дней", backfillDays);
+        } catch (Exception e) {
+            log.warn("Не удалось построить битовые карты активности: {}", e.getMessage());
+        }
+    }
+
+    // ==================== BITMAPS ====================
+
+    private DayBitmap bitmap(BitmapKey key) {
+        DayBitmap bitmap = loaded.computeIfAbsent(key, k -> new DayBitmap(
+                activityBitmapRepository.findByKindAndDay(k.kind(), k.day())
+                        .map(row -> BitmapCodec.decode(row.getBitmap()))
+                        .orElseGet(BitSet::new)));
+        bitmap.lastAccess = System.currentTimeMillis();
+        return bitmap;
+    }
+
+    private BitSet copy(ActivityBitmap.Kind kind, LocalDate day) {
+        DayBitmap bitmap = bitmap(new BitmapKey(kind, day));
+        synchronized (bitmap) {
+            return (BitSet) bitmap.bits.clone();
+        }
+    }
+
+    /**
+     * Loads the missing days of a range with one query instead of one per day
+     */
+    private void preload(ActivityBitmap.Kind kind, LocalDate start, LocalDate end) {
+        if (end.isBefore(start)) {
+            return;
+        }
+        boolean complete = true;
+        for (LocalDate day = start; !day.isAfter(end) && complete; day = day.plusDays(1)) {
+            complete = loaded.containsKey(new BitmapKey(kind, day));
+        }
+        if (complete) {
+            return;
+        }
+        for (ActivityBitmap row : activityBitmapRepository.findByKindAndDayBetween(kind, start, end)) {
+            loaded.putIfAbsent(new BitmapKey(kind, row.getDay()), new DayBitmap(BitmapCodec.decode(row.getBitmap())));
+        }
+        // Days without a row have no users yet
+        for (LocalDate day = start; !day.isAfter(end); day = day.plusDays(1)) {
+            loaded.putIfAbsent(new BitmapKey(kind, day), new DayBitmap(new BitSet()));
+        }
+    }
+
+    private static LocalDate toLocalDate(Object value) {
+        if (value instanceof java.sql.Date date) {
+            return date.toLocalDate();
+        }
+        return value instanceof LocalDate date ? date : null;
+    }
+
+    private record BitmapKey(ActivityBitmap.Kind kind, LocalDate day) {
+    }
+
+    /**
+     * Bits of one day, guarded by its own monitor
+     */
+    private static final class DayBitmap {
+        private final BitSet bits;
+        private boolean dirty;
+        private boolean evicted;
+        private volatile long lastAccess = System.currentTimeMillis();
+
+        private DayBitmap(BitSet bits) {
+            this.bits = bits;
+        }
+    }
+}
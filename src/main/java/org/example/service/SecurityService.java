@@ -1,12 +1,16 @@
 package org.example.service;
 
+import io.jsonwebtoken.Claims;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.example.dto.RegisterRequest;
 import org.example.dto.UserResponse;
 import org.example.entity.User;
+import org.example.exception.TooManyRequestsException;
 import org.example.repository.UserRepository;
-import org.example.security.JwtTokenProvider;
+import org.example.security.JwtService;
+import org.example.security.LoginRateLimiter;
+import org.example.security.TokenRevocations;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
@@ -31,7 +35,9 @@ public class SecurityService {
 
     private final UserService userService;
     private final UserRepository userRepository;
-    private final JwtTokenProvider jwtTokenProvider;
+    private final JwtService jwtService;
+    private final TokenRevocations tokenRevocations;
+    private final LoginRateLimiter loginRateLimiter;
     private final UserDetailsService userDetailsService;
     private final AuthenticationManager authenticationManager;
     private final PasswordEncoder passwordEncoder;
@@ -65,8 +71,9 @@ public class SecurityService {
             UserDetails userDetails = userDetailsService.loadUserByUsername(username);
 
             // Generate tokens
-            String accessToken = jwtTokenProvider.generateToken(username);
-            String refreshToken = jwtTokenProvider.generateRefreshToken(username);
+            JwtService.TokenPair tokens = jwtService.generateTokenPair(user);
+            String accessToken = tokens.accessToken();
+            String refreshToken = tokens.refreshToken();
 
             log.info("Пользователь {} успешно зарегистрирован", username);
 
@@ -75,6 +82,9 @@ public class SecurityService {
         } catch (IllegalArgumentException e) {
             log.error("Ошибка регистрации пользователя {}: {}", username, e.getMessage());
             throw e;
+        } catch (TooManyRequestsException e) {
+            log.warn("Регистрация пользователя {} отклонена: очередь хеширования паролей заполнена", username);
+            throw e;
         } catch (Exception e) {
             log.error("Неожиданная ошибка при регистрации пользователя {}: {}", username, e.getMessage());
             throw new RuntimeException("Registration failed: " + e.getMessage());
@@ -102,8 +112,9 @@ public class SecurityService {
 
             UserDetails userDetails = userDetailsService.loadUserByUsername(username);
 
-            String accessToken = jwtTokenProvider.generateToken(username);
-            String refreshToken = jwtTokenProvider.generateRefreshToken(username);
+            JwtService.TokenPair tokens = jwtService.generateTokenPair(user);
+            String accessToken = tokens.accessToken();
+            String refreshToken = tokens.refreshToken();
 
             return createAuthResponse(user, userDetails, accessToken, refreshToken,
                     "User registered successfully as " + characterClass + " " + race);
@@ -136,8 +147,9 @@ public class SecurityService {
             userService.updateLastLogin(username);
 
             UserDetails userDetails = userDetailsService.loadUserByUsername(username);
-            String accessToken = jwtTokenProvider.generateToken(username);
-            String refreshToken = jwtTokenProvider.generateRefreshToken(username);
+            JwtService.TokenPair tokens = jwtService.generateTokenPair(user);
+            String accessToken = tokens.accessToken();
+            String refreshToken = tokens.refreshToken();
 
             log.info("Пользователь {} успешно аутентифицирован", username);
 
@@ -146,6 +158,9 @@ public class SecurityService {
         } catch (IllegalArgumentException e) {
             log.warn("Ошибка аутентификации пользователя {}: {}", username, e.getMessage());
             throw e;
+        } catch (TooManyRequestsException e) {
+            log.warn("Аутентификация пользователя {} отклонена: очередь хеширования паролей заполнена", username);
+            throw e;
         } catch (Exception e) {
             log.error("Неожиданная ошибка при аутентификации пользователя {}: {}", username, e.getMessage());
             throw new RuntimeException("Authentication failed: " + e.getMessage());
@@ -158,6 +173,12 @@ public class SecurityService {
     public Map<String, Object> logout(String token) {
         log.info("Выход из системы");
 
+        if (token != null && jwtService.validateToken(token)) {
+            Claims claims = jwtService.verify(token);
+            tokenRevocations.revoke(token, claims);
+            tokenRevocations.revokeRefreshTokenOf(claims);
+        }
+
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         if (authentication != null && authentication.isAuthenticated()) {
             String username = authentication.getName();
@@ -178,11 +199,15 @@ public class SecurityService {
     public Map<String, Object> refreshToken(String refreshToken) {
         log.info("Обновление токена");
 
-        if (!jwtTokenProvider.validateToken(refreshToken)) {
+        if (!jwtService.isRefreshToken(refreshToken)) {
+            throw new IllegalArgumentException("Invalid or expired refresh token");
+        }
+        Claims refreshClaims = jwtService.verify(refreshToken);
+        if (tokenRevocations.isRevoked(refreshClaims)) {
             throw new IllegalArgumentException("Invalid or expired refresh token");
         }
 
-        String username = jwtTokenProvider.getUsernameFromToken(refreshToken);
+        String username = jwtService.extractUsername(refreshToken);
 
         // Get user via UserService
         UserResponse userResponse = userService.getUserByUsername(username);
@@ -194,8 +219,11 @@ public class SecurityService {
         }
 
         UserDetails userDetails = userDetailsService.loadUserByUsername(username);
-        String newAccessToken = jwtTokenProvider.generateToken(username);
-        String newRefreshToken = jwtTokenProvider.generateRefreshToken(username);
+        JwtService.TokenPair tokens = jwtService.generateTokenPair(user);
+        String newAccessToken = tokens.accessToken();
+        String newRefreshToken = tokens.refreshToken();
+        // Rotated: the presented refresh token is spent, only the new one stays usable
+        tokenRevocations.revoke(refreshToken, refreshClaims);
 
         return Map.of(
                 "success", true,
@@ -210,12 +238,12 @@ public class SecurityService {
      * Validate token
      */
     public Map<String, Object> validateToken(String token) {
-        boolean isValid = jwtTokenProvider.validateToken(token);
+        boolean isValid = jwtService.validateToken(token);
         String username = null;
         User user = null;
 
         if (isValid) {
-            username = jwtTokenProvider.getUsernameFromToken(token);
+            username = jwtService.extractUsername(token);
             try {
                 UserResponse userResponse = userService.getUserByUsername(username);
                 user = userRepository.findById(userResponse.getId())
@@ -488,7 +516,8 @@ public class SecurityService {
     }
 
     /**
-     * Reset login attempts counter
+     * Reset login attempts counter and lift the lockout of the login rate limiter, which counts
+     * failures by whatever the user signed in with
      */
     public Map<String, Object> resetLoginAttempts(Long userId) {
         log.info("Сброс счетчика попыток входа для пользователя с ID: {}", userId);
@@ -498,6 +527,8 @@ public class SecurityService {
 
         user.resetLoginAttempts();
         userRepository.save(user);
+        loginRateLimiter.unlock(user.getUsername());
+        loginRateLimiter.unlock(user.getEmail());
 
         return Map.of(
                 "success", true,
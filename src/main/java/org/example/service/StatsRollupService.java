@@ -0,0 +1,544 @@
+package org.example.service;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.example.entity.StatsRollup;
+import org.example.entity.StatsRollup.Granularity;
+import org.example.repository.StatsRollupRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.ToLongFunction;
+
+/**
+ * Incrementally maintained per-minute, per-hour and per-day counters for game activity.
+ * <p>
+ * Writes are accumulated in memory and flushed to {@code stats_rollups} in the background,
+ * reads combine the stored buckets with the not yet flushed deltas. A range query touches
+ * at most a few hundred bucket rows regardless of how large the raw tables are.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class StatsRollupService {
+
+    static final LocalDateTime EPOCH = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    private static final Map<Granularity, String> BUCKET_FORMATS = Map.of(
+            Granularity.MINUTE, "%Y-%m-%d %H:%i:00",
+            Granularity.HOUR, "%Y-%m-%d %H:00:00",
+            Granularity.DAY, "%Y-%m-%d 00:00:00"
+    );
+
+    /**
+     * Dimension of the row recording that the backfill ran; written in the backfill transaction,
+     * and its unique key keeps a second node from backfilling at the same time
+     */
+    static final String BACKFILL_MARKER = "#BACKFILLED";
+
+    /**
+     * Add what the raw tables hold before the cutoff to the buckets, so increments already flushed
+     * for later events in the same bucket are kept. Sessions count as completed only if they ended
+     * before the cutoff, later ends are recorded by {@link #recordSessionEnded}.
+     */
+    private static final String[] BACKFILL_TEMPLATES = {
+            // Actions by type
+            "INSERT INTO stats_rollups (granularity, bucket_start, dimension, action_count, " +
+                    "experience_gained, gold_gained, session_count, completed_sessions, session_minutes_total, " +
+                    "registrations, achievements_unlocked, updated_at) " +
+                    "SELECT '%1$s', DATE_FORMAT(a.action_time, '%2$s') AS bucket, a.action_type, COUNT(*), " +
+                    "COALESCE(SUM(a.experience_gained), 0), " +
+                    "COALESCE(SUM(a.gold_gained), 0), 0, 0, 0, 0, 0, NOW() " +
+                    "FROM game_actions a WHERE a.action_time >= :from AND a.action_time < :before " +
+                    "GROUP BY bucket, a.action_type " +
+                    "ON DUPLICATE KEY UPDATE action_count = action_count + VALUES(action_count), " +
+                    "experience_gained = experience_gained + VALUES(experience_gained), " +
+                    "gold_gained = gold_gained + VALUES(gold_gained)",
+            // Action totals
+            "INSERT INTO stats_rollups (granularity, bucket_start, dimension, action_count, " +
+                    "experience_gained, gold_gained, session_count, completed_sessions, session_minutes_total, " +
+                    "registrations, achievements_unlocked, updated_at) " +
+                    "SELECT '%1$s', DATE_FORMAT(a.action_time, '%2$s') AS bucket, '" + StatsRollup.ALL + "', " +
+                    "COUNT(*), COALESCE(SUM(a.experience_gained), 0), " +
+                    "COALESCE(SUM(a.gold_gained), 0), 0, 0, 0, 0, 0, NOW() " +
+                    "FROM game_actions a WHERE a.action_time >= :from AND a.action_time < :before " +
+                    "GROUP BY bucket " +
+                    "ON DUPLICATE KEY UPDATE action_count = action_count + VALUES(action_count), " +
+                    "experience_gained = experience_gained + VALUES(experience_gained), " +
+                    "gold_gained = gold_gained + VALUES(gold_gained)",
+            // Sessions
+            "INSERT INTO stats_rollups (granularity, bucket_start, dimension, action_count, " +
+                    "experience_gained, gold_gained, session_count, completed_sessions, session_minutes_total, " +
+                    "session_minutes_min, session_minutes_max, registrations, achievements_unlocked, updated_at) " +
+                    "SELECT '%1$s', DATE_FORMAT(s.start_time, '%2$s') AS bucket, '" + StatsRollup.ALL + "', " +
+                    "0, 0, 0, COUNT(*), SUM(CASE WHEN s.end_time < :before THEN 1 ELSE 0 END), " +
+                    "COALESCE(SUM(CASE WHEN s.end_time < :before " +
+                    "THEN TIMESTAMPDIFF(MINUTE, s.start_time, s.end_time) END), 0), " +
+                    "MIN(CASE WHEN s.end_time < :before THEN TIMESTAMPDIFF(MINUTE, s.start_time, s.end_time) END), " +
+                    "MAX(CASE WHEN s.end_time < :before THEN TIMESTAMPDIFF(MINUTE, s.start_time, s.end_time) END), " +
+                    "0, 0, NOW() " +
+                    "FROM game_sessions s WHERE s.start_time >= :from AND s.start_time < :before " +
+                    "GROUP BY bucket " +
+                    "ON DUPLICATE KEY UPDATE session_count = session_count + VALUES(session_count), " +
+                    "completed_sessions = completed_sessions + VALUES(completed_sessions), " +
+                    "session_minutes_total = session_minutes_total + VALUES(session_minutes_total), " +
+                    "session_minutes_min = LEAST(COALESCE(session_minutes_min, VALUES(session_minutes_min)), " +
+                    "COALESCE(VALUES(session_minutes_min), session_minutes_min)), " +
+                    "session_minutes_max = GREATEST(COALESCE(session_minutes_max, VALUES(session_minutes_max)), " +
+                    "COALESCE(VALUES(session_minutes_max), session_minutes_max))",
+            // Registrations
+            "INSERT INTO stats_rollups (granularity, bucket_start, dimension, action_count, " +
+                    "experience_gained, gold_gained, session_count, completed_sessions, session_minutes_total, " +
+                    "registrations, achievements_unlocked, updated_at) " +
+                    "SELECT '%1$s', DATE_FORMAT(u.created_at, '%2$s') AS bucket, '" + StatsRollup.ALL + "', " +
+                    "0, 0, 0, 0, 0, 0, COUNT(*), 0, NOW() " +
+                    "FROM users u WHERE u.created_at >= :from AND u.created_at < :before " +
+                    "GROUP BY bucket " +
+                    "ON DUPLICATE KEY UPDATE registrations = registrations + VALUES(registrations)",
+            // Achievements
+            "INSERT INTO stats_rollups (granularity, bucket_start, dimension, action_count, " +
+                    "experience_gained, gold_gained, session_count, completed_sessions, session_minutes_total, " +
+                    "registrations, achievements_unlocked, updated_at) " +
+                    "SELECT '%1$s', DATE_FORMAT(ua.unlocked_at, '%2$s') AS bucket, '" + StatsRollup.ALL + "', " +
+                    "0, 0, 0, 0, 0, 0, 0, COUNT(*), NOW() " +
+                    "FROM user_achievements ua WHERE ua.unlocked_at >= :from AND ua.unlocked_at < :before " +
+                    "GROUP BY bucket " +
+                    "ON DUPLICATE KEY UPDATE achievements_unlocked = achievements_unlocked + VALUES(achievements_unlocked)"
+    };
+
+    private final StatsRollupRepository statsRollupRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${stats.rollup.backfill-on-startup:true}")
+    private boolean backfillOnStartup;
+
+    @Value("${stats.rollup.minute-retention-days:2}")
+    private int minuteRetentionDays;
+
+    @Value("${stats.rollup.hour-retention-days:90}")
+    private int hourRetentionDays;
+
+    private final LocalDateTime startedAt = LocalDateTime.now();
+
+    // Writers share the read lock, the flusher takes the write lock to swap the buffer
+    private final ReadWriteLock pendingLock = new ReentrantReadWriteLock();
+    private volatile Map<RollupKey, RollupCounters> pending = new ConcurrentHashMap<>();
+    private volatile Map<RollupKey, RollupCounters> flushing = Collections.emptyMap();
+
+    // ==================== WRITE PATH ====================
+
+    public void recordAction(String actionType, LocalDateTime actionTime,
+                             Integer experienceGained, Integer goldGained) {
+        if (actionTime == null) {
+            return;
+        }
+        String type = actionType != null ? actionType : "UNKNOWN";
+        long experience = experienceGained != null ? experienceGained : 0;
+        long gold = goldGained != null ? goldGained : 0;
+
+        withPending(() -> {
+            for (Granularity granularity : Granularity.values()) {
+                LocalDateTime bucket = granularity.truncate(actionTime);
+                for (String dimension : List.of(StatsRollup.ALL, type)) {
+                    counters(new RollupKey(granularity, bucket, dimension)).addAction(experience, gold);
+                }
+            }
+        });
+    }
+
+    public void recordSessionStarted(LocalDateTime startTime) {
+        if (startTime == null) {
+            return;
+        }
+        forEachTotalBucket(startTime, RollupCounters::addSessionStarted);
+    }
+
+    public void recordSessionEnded(LocalDateTime startTime, LocalDateTime endTime) {
+        if (startTime == null || endTime == null) {
+            return;
+        }
+        long minutes = java.time.Duration.between(startTime, endTime).toMinutes();
+        forEachTotalBucket(startTime, counters -> counters.addSessionEnded(minutes));
+    }
+
+    public void recordRegistration(LocalDateTime createdAt) {
+        forEachTotalBucket(createdAt != null ? createdAt : LocalDateTime.now(), RollupCounters::addRegistration);
+    }
+
+    public void recordAchievement(LocalDateTime unlockedAt) {
+        forEachTotalBucket(unlockedAt != null ? unlockedAt : LocalDateTime.now(), RollupCounters::addAchievement);
+    }
+
+    private void forEachTotalBucket(LocalDateTime time, java.util.function.Consumer<RollupCounters> update) {
+        withPending(() -> {
+            for (Granularity granularity : Granularity.values()) {
+                update.accept(counters(new RollupKey(granularity, granularity.truncate(time), StatsRollup.ALL)));
+            }
+        });
+    }
+
+    private void withPending(Runnable update) {
+        pendingLock.readLock().lock();
+        try {
+            update.run();
+        } finally {
+            pendingLock.readLock().unlock();
+        }
+    }
+
+    private RollupCounters counters(RollupKey key) {
+        return pending.computeIfAbsent(key, k -> new RollupCounters());
+    }
+
+    // ==================== READ PATH ====================
+
+    /**
+     * Counters per dimension (action type or {@link StatsRollup#ALL}) for [start, end).
+     * A null start means "since the beginning", a null end means "now".
+     * Unique users are not additive across buckets, see {@link DistinctUserService} for range counts.
+     */
+    public Map<String, RollupCounters> getTotalsByDimension(LocalDateTime start, LocalDateTime end) {
+        Map<String, RollupCounters> totals = new HashMap<>();
+        for (Segment segment : segments(start, end)) {
+            for (Object[] row : statsRollupRepository.sumByDimension(segment.granularity(), segment.from(), segment.to())) {
+                if (BACKFILL_MARKER.equals(row[0])) {
+                    continue;
+                }
+                totals.computeIfAbsent((String) row[0], d -> new RollupCounters()).merge(RollupCounters.fromRow(row));
+            }
+            forEachPending(segment, (key, counters) ->
+                    totals.computeIfAbsent(key.dimension(), d -> new RollupCounters()).merge(counters));
+        }
+        return totals;
+    }
+
+    public RollupCounters getTotals(LocalDateTime start, LocalDateTime end) {
+        return getTotalsByDimension(start, end).getOrDefault(StatsRollup.ALL, new RollupCounters());
+    }
+
+    /**
+     * Daily series of one metric of the bucket totals, keyed by ISO date.
+     */
+    public Map<String, Long> countByDate(LocalDateTime start, LocalDateTime end, ToLongFunction<RollupCounters> metric) {
+        Map<String, Long> series = new TreeMap<>();
+        for (Segment segment : segments(start, end)) {
+            for (StatsRollup row : statsRollupRepository.findSeries(
+                    segment.granularity(), StatsRollup.ALL, segment.from(), segment.to())) {
+                series.merge(row.getBucketStart().toLocalDate().toString(),
+                        metric.applyAsLong(RollupCounters.fromEntity(row)), Long::sum);
+            }
+            forEachPending(segment, (key, counters) -> {
+                if (StatsRollup.ALL.equals(key.dimension())) {
+                    series.merge(key.bucketStart().toLocalDate().toString(), metric.applyAsLong(counters), Long::sum);
+                }
+            });
+        }
+        series.values().removeIf(value -> value == 0);
+        return series;
+    }
+
+    private void forEachPending(Segment segment, java.util.function.BiConsumer<RollupKey, RollupCounters> consumer) {
+        for (Map<RollupKey, RollupCounters> buffer : List.of(flushing, pending)) {
+            buffer.forEach((key, counters) -> {
+                if (key.granularity() == segment.granularity()
+                        && !key.bucketStart().isBefore(segment.from())
+                        && key.bucketStart().isBefore(segment.to())) {
+                    consumer.accept(key, counters.snapshot());
+                }
+            });
+        }
+    }
+
+    private List<Segment> segments(LocalDateTime start, LocalDateTime end) {
+        LocalDateTime now = LocalDateTime.now();
+        // First buckets that are still complete after purgeExpiredBuckets
+        LocalDateTime minuteFloor = Granularity.HOUR.ceil(now.minusDays(minuteRetentionDays));
+        LocalDateTime hourFloor = Granularity.DAY.ceil(now.minusDays(hourRetentionDays));
+        return decompose(start, end != null ? end : now, minuteFloor, hourFloor);
+    }
+
+    /**
+     * Covers [start, end) with stored buckets. Minute buckets exist from {@code minuteFloor} on and
+     * hour buckets from {@code hourFloor} on; before those the range edges are widened to the
+     * enclosing hour or day, which may count a little outside the range but never drops the
+     * purged part.
+     */
+    static List<Segment> decompose(LocalDateTime start, LocalDateTime end,
+                                   LocalDateTime minuteFloor, LocalDateTime hourFloor) {
+        LocalDateTime from = Granularity.MINUTE.truncate(start != null ? start : EPOCH);
+        LocalDateTime to = Granularity.MINUTE.ceil(end != null ? end : LocalDateTime.now());
+        List<Segment> segments = new ArrayList<>();
+        if (from.isBefore(hourFloor) && from.isBefore(to)) {
+            LocalDateTime until = to.isBefore(hourFloor) ? to : hourFloor;
+            segments.addAll(decompose(Granularity.DAY.truncate(from), Granularity.DAY.ceil(until)));
+            from = until;
+        }
+        if (from.isBefore(minuteFloor) && from.isBefore(to)) {
+            LocalDateTime until = to.isBefore(minuteFloor) ? to : minuteFloor;
+            segments.addAll(decompose(Granularity.HOUR.truncate(from), Granularity.HOUR.ceil(until)));
+            from = until;
+        }
+        segments.addAll(decompose(from, to));
+        return segments;
+    }
+
+    /**
+     * Covers [start, end) with the coarsest aligned buckets: minutes up to the first full hour,
+     * hours up to the first full day, whole days, then hours and minutes for the tail.
+     */
+    static List<Segment> decompose(LocalDateTime from, LocalDateTime to) {
+        List<Segment> segments = new ArrayList<>();
+        if (!from.isBefore(to)) {
+            return segments;
+        }
+
+        LocalDateTime fromHour = Granularity.HOUR.ceil(from);
+        LocalDateTime toHour = Granularity.HOUR.truncate(to);
+        if (!fromHour.isBefore(toHour)) {
+            segments.add(new Segment(Granularity.MINUTE, from, to));
+            return segments;
+        }
+
+        LocalDateTime fromDay = Granularity.DAY.ceil(fromHour);
+        LocalDateTime toDay = Granularity.DAY.truncate(toHour);
+        addSegment(segments, Granularity.MINUTE, from, fromHour);
+        if (!fromDay.isBefore(toDay)) {
+            addSegment(segments, Granularity.HOUR, fromHour, toHour);
+        } else {
+            addSegment(segments, Granularity.HOUR, fromHour, fromDay);
+            addSegment(segments, Granularity.DAY, fromDay, toDay);
+            addSegment(segments, Granularity.HOUR, toDay, toHour);
+        }
+        addSegment(segments, Granularity.MINUTE, toHour, to);
+        return segments;
+    }
+
+    private static void addSegment(List<Segment> segments, Granularity granularity,
+                                   LocalDateTime from, LocalDateTime to) {
+        if (from.isBefore(to)) {
+            segments.add(new Segment(granularity, from, to));
+        }
+    }
+
+    // ==================== BACKGROUND JOBS ====================
+
+    @Scheduled(fixedDelayString = "${stats.rollup.flush-interval-ms:5000}")
+    public void flush() {
+        Map<RollupKey, RollupCounters> batch;
+        pendingLock.writeLock().lock();
+        try {
+            if (pending.isEmpty()) {
+                return;
+            }
+            batch = pending;
+            flushing = batch;
+            pending = new ConcurrentHashMap<>();
+        } finally {
+            pendingLock.writeLock().unlock();
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> batch.forEach(this::upsert));
+            log.debug("Flushed {} rollup buckets", batch.size());
+        } catch (Exception e) {
+            log.error("Error flushing stats rollups, will retry: {}", e.getMessage());
+            withPending(() -> batch.forEach((key, counters) -> counters(key).merge(counters)));
+        } finally {
+            flushing = Collections.emptyMap();
+        }
+    }
+
+    private void upsert(RollupKey key, RollupCounters counters) {
+        RollupCounters c = counters.snapshot();
+        statsRollupRepository.upsert(key.granularity().name(), key.bucketStart(), key.dimension(),
+                c.actionCount, c.experienceGained, c.goldGained,
+                c.sessionCount, c.completedSessions, c.sessionMinutesTotal,
+                c.sessionMinutesMin != null ? c.sessionMinutesMin : -1,
+                c.sessionMinutesMax != null ? c.sessionMinutesMax : -1,
+                c.registrations, c.achievementsUnlocked);
+    }
+
+    @Scheduled(cron = "${stats.rollup.purge-cron:0 30 3 * * ?}")
+    public void purgeExpiredBuckets() {
+        LocalDateTime now = LocalDateTime.now();
+        int minutes = statsRollupRepository.deleteOlderThan(Granularity.MINUTE, now.minusDays(minuteRetentionDays));
+        int hours = statsRollupRepository.deleteOlderThan(Granularity.HOUR, now.minusDays(hourRetentionDays));
+        log.info("Удалено устаревших бакетов статистики: минутных {}, часовых {}", minutes, hours);
+    }
+
+    /**
+     * Backfills once per database, gated on the marker row rather than on an empty table: the
+     * scheduled flush starts before the application is ready and may already have written buckets.
+     * Only events before this node started are backfilled, later ones are counted as they happen.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        try {
+            if (backfillOnStartup
+                    && !statsRollupRepository.existsByGranularityAndDimension(Granularity.DAY, BACKFILL_MARKER)) {
+                backfill(startedAt);
+            }
+        } catch (DataIntegrityViolationException e) {
+            log.info("Агрегаты статистики уже построены другим узлом");
+        } catch (Exception e) {
+            log.warn("Не удалось инициализировать агрегаты статистики: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * One-off build of all buckets before the cutoff from the raw tables, added to whatever has
+     * been flushed already. Minute buckets are only built inside the minute retention window.
+     */
+    public void backfill(LocalDateTime before) {
+        log.info("Построение агрегатов статистики по данным до {}", before);
+        transactionTemplate.executeWithoutResult(status -> {
+            // First, so a concurrent backfill waits on the unique key and then fails
+            statsRollupRepository.insertMarker(Granularity.DAY.name(), EPOCH, BACKFILL_MARKER);
+            for (Granularity granularity : Granularity.values()) {
+                LocalDateTime from = granularity == Granularity.MINUTE
+                        ? before.minusDays(minuteRetentionDays)
+                        : EPOCH;
+                for (String template : BACKFILL_TEMPLATES) {
+                    entityManager.createNativeQuery(String.format(template,
+                                    granularity.name(), BUCKET_FORMATS.get(granularity)))
+                            .setParameter("from", from)
+                            .setParameter("before", before)
+                            .executeUpdate();
+                }
+            }
+        });
+    }
+
+    // ==================== TYPES ====================
+
+    record RollupKey(Granularity granularity, LocalDateTime bucketStart, String dimension) {
+    }
+
+    record Segment(Granularity granularity, LocalDateTime from, LocalDateTime to) {
+    }
+
+    /**
+     * Mutable counters of one bucket (or of a merged range of buckets)
+     */
+    @Getter
+    public static class RollupCounters {
+        private long actionCount;
+        private long experienceGained;
+        private long goldGained;
+        private long sessionCount;
+        private long completedSessions;
+        private long sessionMinutesTotal;
+        private Long sessionMinutesMin;
+        private Long sessionMinutesMax;
+        private long registrations;
+        private long achievementsUnlocked;
+
+        synchronized void addAction(long experience, long gold) {
+            actionCount++;
+            experienceGained += experience;
+            goldGained += gold;
+        }
+
+        synchronized void addSessionStarted() {
+            sessionCount++;
+        }
+
+        synchronized void addSessionEnded(long minutes) {
+            completedSessions++;
+            sessionMinutesTotal += minutes;
+            sessionMinutesMin = sessionMinutesMin == null ? minutes : Math.min(sessionMinutesMin, minutes);
+            sessionMinutesMax = sessionMinutesMax == null ? minutes : Math.max(sessionMinutesMax, minutes);
+        }
+
+        synchronized void addRegistration() {
+            registrations++;
+        }
+
+        synchronized void addAchievement() {
+            achievementsUnlocked++;
+        }
+
+        synchronized void merge(RollupCounters other) {
+            actionCount += other.actionCount;
+            experienceGained += other.experienceGained;
+            goldGained += other.goldGained;
+            sessionCount += other.sessionCount;
+            completedSessions += other.completedSessions;
+            sessionMinutesTotal += other.sessionMinutesTotal;
+            if (other.sessionMinutesMin != null) {
+                sessionMinutesMin = sessionMinutesMin == null
+                        ? other.sessionMinutesMin : Math.min(sessionMinutesMin, other.sessionMinutesMin);
+            }
+            if (other.sessionMinutesMax != null) {
+                sessionMinutesMax = sessionMinutesMax == null
+                        ? other.sessionMinutesMax : Math.max(sessionMinutesMax, other.sessionMinutesMax);
+            }
+            registrations += other.registrations;
+            achievementsUnlocked += other.achievementsUnlocked;
+        }
+
+        synchronized RollupCounters snapshot() {
+            RollupCounters copy = new RollupCounters();
+            copy.merge(this);
+            return copy;
+        }
+
+        public long getActiveSessions() {
+            return Math.max(0, sessionCount - completedSessions);
+        }
+
+        public double getAverageSessionMinutes() {
+            return completedSessions > 0 ? (double) sessionMinutesTotal / completedSessions : 0;
+        }
+
+        static RollupCounters fromRow(Object[] row) {
+            RollupCounters counters = new RollupCounters();
+            counters.actionCount = toLong(row[1]);
+            counters.experienceGained = toLong(row[2]);
+            counters.goldGained = toLong(row[3]);
+            counters.sessionCount = toLong(row[4]);
+            counters.completedSessions = toLong(row[5]);
+            counters.sessionMinutesTotal = toLong(row[6]);
+            counters.sessionMinutesMin = row[7] != null ? toLong(row[7]) : null;
+            counters.sessionMinutesMax = row[8] != null ? toLong(row[8]) : null;
+            counters.registrations = toLong(row[9]);
+            counters.achievementsUnlocked = toLong(row[10]);
+            return counters;
+        }
+
+        static RollupCounters fromEntity(StatsRollup rollup) {
+            RollupCounters counters = new RollupCounters();
+            counters.actionCount = rollup.getActionCount();
+            counters.experienceGained = rollup.getExperienceGained();
+            counters.goldGained = rollup.getGoldGained();
+            counters.sessionCount = rollup.getSessionCount();
+            counters.completedSessions = rollup.getCompletedSessions();
+            counters.sessionMinutesTotal = rollup.getSessionMinutesTotal();
+            counters.sessionMinutesMin = rollup.getSessionMinutesMin();
+            counters.sessionMinutesMax = rollup.getSessionMinutesMax();
+            counters.registrations = rollup.getRegistrations();
+            counters.achievementsUnlocked = rollup.getAchievementsUnlocked();
+            return counters;
+        }
+
+        private static long toLong(Object value) {
+            return value != null ? ((Number) value).longValue() : 0L;
+        }
+    }
+}
@@ -2,8 +2,13 @@ package org.example.service;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.example.dto.UserRankingRow;
 import org.example.entity.*;
+import org.example.exception.ValidationException;
 import org.example.repository.*;
+import org.example.util.ActivityHistograms;
+import org.example.util.Constants;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -21,12 +26,20 @@ import java.util.stream.Collectors;
 @Slf4j
 public class StatsService {
 
+    private static final int MAX_RETENTION_COHORT_DAYS = 365;
+    private static final List<String> RANKING_CATEGORIES = List.of("achievements", "tasks", "actions");
+
     private final UserRepository userRepository;
     private final GameActionRepository gameActionRepository;
     private final LocationRepository gameLocationRepository;
     private final GameSessionRepository gameSessionRepository;
+    private final TaskRepository taskRepository;
     private final UserAchievementRepository userAchievementRepository;
-    private final AchievementTemplateRepository achievementTemplateRepository;
+    private final GameCatalog gameCatalog;
+    private final StatsRollupService statsRollupService;
+    private final LeaderboardService leaderboardService;
+    private final DistinctUserService distinctUserService;
+    private final RetentionService retentionService;
 
     @PersistenceContext
     private EntityManager entityManager;
@@ -64,7 +77,7 @@ public class StatsService {
             // Achievements
             stats.put("totalAchievementsUnlocked", userAchievementRepository.count());
             stats.put("achievementsToday", calculateAchievementsToday());
-            stats.put("uniqueAchievementsUnlocked", achievementTemplateRepository.count());
+            stats.put("uniqueAchievementsUnlocked", gameCatalog.get().achievementTemplates().size());
 
             // Economy
             stats.put("totalGold", calculateTotalGold());
@@ -75,7 +88,7 @@ public class StatsService {
             stats.put("maxLevel", calculateMaxLevel());
 
             // Locations
-            stats.put("totalLocations", gameLocationRepository.count());
+            stats.put("totalLocations", gameCatalog.get().locations().size());
 
             // Time
             stats.put("timestamp", LocalDateTime.now());
@@ -115,7 +128,7 @@ public class StatsService {
             stats.put("rank", calculateUserRank(userId));
 
             // Activity
-            stats.put("activityPatterns", calculateActivityPatterns(userActions));
+            stats.put("activityPatterns", calculateActivityPatterns(userId));
 
             return stats;
         }, "подробная статистика для пользователя: " + userId);
@@ -132,35 +145,13 @@ public class StatsService {
             stats.put("startDate", startDate);
             stats.put("endDate", endDate);
 
-            // User registrations
-            stats.put("registrations", calculateDataByDate(
-                    userRepository.findAll().stream()
-                            .filter(user -> user.getCreatedAt() != null &&
-                                    user.getCreatedAt().isAfter(startDate) &&
-                                    user.getCreatedAt().isBefore(endDate))
-                            .collect(Collectors.toList()),
-                    startDate, endDate
-            ));
-
-            // Activity
-            stats.put("activity", calculateDataByDate(
-                    gameActionRepository.findAll().stream()
-                            .filter(action -> action.getActionTime() != null &&
-                                    action.getActionTime().isAfter(startDate) &&
-                                    action.getActionTime().isBefore(endDate))
-                            .collect(Collectors.toList()),
-                    startDate, endDate
-            ));
-
-            // Achievements
-            stats.put("achievements", calculateDataByDate(
-                    userAchievementRepository.findAll().stream()
-                            .filter(ach -> ach.getUnlockedAt() != null &&
-                                    ach.getUnlockedAt().isAfter(startDate) &&
-                                    ach.getUnlockedAt().isBefore(endDate))
-                            .collect(Collectors.toList()),
-                    startDate, endDate
-            ));
+            // Daily series from the rollup buckets
+            stats.put("registrations", statsRollupService.countByDate(startDate, endDate,
+                    StatsRollupService.RollupCounters::getRegistrations));
+            stats.put("activity", statsRollupService.countByDate(startDate, endDate,
+                    StatsRollupService.RollupCounters::getActionCount));
+            stats.put("achievements", statsRollupService.countByDate(startDate, endDate,
+                    StatsRollupService.RollupCounters::getAchievementsUnlocked));
 
             return stats;
         }, "временная статистика за период: " + period);
@@ -171,27 +162,21 @@ public class StatsService {
         return createStatsResponse(() -> {
             Map<String, Object> stats = new HashMap<>();
 
-            List<GameAction> actions;
-            if (actionType != null && startDateTime != null && endDateTime != null) {
-                actions = gameActionRepository.findByActionTypeAndActionTimeBetween(actionType, startDateTime, endDateTime);
-            } else if (actionType != null) {
-                actions = gameActionRepository.findByActionType(actionType);
-            } else if (startDateTime != null && endDateTime != null) {
-                actions = gameActionRepository.findByActionTimeBetween(startDateTime, endDateTime);
-            } else {
-                actions = gameActionRepository.findAll();
+            Map<String, StatsRollupService.RollupCounters> totals =
+                    statsRollupService.getTotalsByDimension(startDateTime, endDateTime);
+            totals.remove(StatsRollup.ALL);
+            if (actionType != null) {
+                totals.keySet().retainAll(Set.of(actionType));
             }
 
             // Grouping by action type
-            Map<String, Long> actionCounts = actions.stream()
-                    .collect(Collectors.groupingBy(GameAction::getActionType, Collectors.counting()));
+            Map<String, Long> actionCounts = totals.entrySet().stream()
+                    .filter(e -> e.getValue().getActionCount() > 0)
+                    .collect(Collectors.toMap(Map.Entry::getKey, e -> e.getValue().getActionCount()));
 
-            stats.put("totalActions", actions.size());
+            stats.put("totalActions", actionCounts.values().stream().mapToLong(Long::longValue).sum());
             stats.put("actionCounts", actionCounts);
-            stats.put("uniqueUsers", actions.stream()
-                    .map(a -> a.getUser().getId())
-                    .distinct()
-                    .count());
+            stats.put("uniqueUsers", distinctUserService.countDistinctUsers(actionType, startDateTime, endDateTime));
 
             if (actionType != null) {
                 stats.put("selectedActionType", actionType);
@@ -273,14 +258,11 @@ public class StatsService {
             Map<String, Object> stats = new HashMap<>();
 
             // All achievement templates
-            List<AchievementTemplate> allTemplates = achievementTemplateRepository.findAll();
-            stats.put("totalAchievements", allTemplates.size());
+            GameCatalog.Snapshot catalog = gameCatalog.get();
+            stats.put("totalAchievements", catalog.achievementTemplates().size());
 
             // Statistics by categories
-            Map<String, Long> byCategory = allTemplates.stream()
-                    .filter(a -> a.getCategory() != null)
-                    .collect(Collectors.groupingBy(AchievementTemplate::getCategory, Collectors.counting()));
-            stats.put("achievementsByCategory", byCategory);
+            stats.put("achievementsByCategory", catalog.achievementTemplateCountsByCategory());
 
             // Unlocked achievements
             List<UserAchievement> unlockedAchievements = userAchievementRepository.findAll();
@@ -324,38 +306,15 @@ public class StatsService {
         return createStatsResponse(() -> {
             Map<String, Object> stats = new HashMap<>();
 
-            List<GameSession> sessions;
-            if (startDateTime != null && endDateTime != null) {
-                sessions = gameSessionRepository.findByStartTimeBetween(startDateTime, endDateTime);
-            } else {
-                sessions = gameSessionRepository.findAll();
-            }
-
-            stats.put("totalSessions", sessions.size());
+            StatsRollupService.RollupCounters totals = statsRollupService.getTotals(startDateTime, endDateTime);
 
-            long activeSessionsLong = sessions.stream()
-                    .filter(s -> s.getStatus() != null && s.getStatus().equals("ACTIVE"))
-                    .count();
-            stats.put("activeSessions", activeSessionsLong);
+            stats.put("totalSessions", totals.getSessionCount());
+            stats.put("activeSessions", totals.getActiveSessions());
 
             // Session durations
-            List<Long> durations = sessions.stream()
-                    .filter(s -> s.getStartTime() != null && s.getEndTime() != null)
-                    .map(s -> ChronoUnit.MINUTES.between(s.getStartTime(), s.getEndTime()))
-                    .collect(Collectors.toList());
-
-            stats.put("averageSessionDuration", durations.stream()
-                    .mapToLong(Long::longValue)
-                    .average()
-                    .orElse(0));
-            stats.put("minSessionDuration", durations.stream()
-                    .mapToLong(Long::longValue)
-                    .min()
-                    .orElse(0));
-            stats.put("maxSessionDuration", durations.stream()
-                    .mapToLong(Long::longValue)
-                    .max()
-                    .orElse(0));
+            stats.put("averageSessionDuration", totals.getAverageSessionMinutes());
+            stats.put("minSessionDuration", totals.getSessionMinutesMin() != null ? totals.getSessionMinutesMin() : 0);
+            stats.put("maxSessionDuration", totals.getSessionMinutesMax() != null ? totals.getSessionMinutesMax() : 0);
 
             return stats;
         }, "статистика сессий");
@@ -364,22 +323,112 @@ public class StatsService {
     @Transactional(readOnly = true)
     public Map<String, Object> getLeaderboard(String criteria, Integer limit) {
         return createStatsResponse(() -> {
-            List<User> users = userRepository.findAll();
-            List<User> sortedUsers = sortAndLimitUsers(users, criteria, limit != null ? limit : 10);
-
-            List<Map<String, Object>> leaderboard = sortedUsers.stream()
-                    .map(this::createUserMap)
-                    .collect(Collectors.toList());
+            LeaderboardService.Criteria leaderboardCriteria = LeaderboardService.Criteria.fromString(criteria);
+            int topLimit = limit != null ? limit : 10;
 
             Map<String, Object> stats = new HashMap<>();
             stats.put("criteria", criteria);
-            stats.put("limit", limit);
-            stats.put("leaderboard", leaderboard);
-            stats.put("totalPlayers", users.size());
+            stats.put("limit", topLimit);
+            stats.put("leaderboard", leaderboardService.getTop(leaderboardCriteria, topLimit));
+            stats.put("totalPlayers", leaderboardService.getTotalPlayers());
             return stats;
         }, "таблица лидеров по критерию: " + criteria);
     }
 
+    public Map<String, Object> getLeaderboardPosition(String criteria, Long userId, Integer radius) {
+        return createStatsResponse(() -> {
+            LeaderboardService.Criteria leaderboardCriteria = LeaderboardService.Criteria.fromString(criteria);
+            int aroundRadius = radius != null ? radius : 5;
+
+            Map<String, Object> stats = new HashMap<>();
+            stats.put("criteria", criteria);
+            stats.put("userId", userId);
+            stats.put("position", leaderboardService.getRank(leaderboardCriteria, userId).orElse(null));
+            stats.put("around", leaderboardService.getAround(leaderboardCriteria, userId, aroundRadius));
+            stats.put("totalPlayers", leaderboardService.getTotalPlayers());
+            return stats;
+        }, "позиция в таблице лидеров пользователя: " + userId);
+    }
+
+    /**
+     * One page of the full ranking by "achievements", "tasks" or "actions".
+     * The next page starts after the (afterCount, afterUserId) cursor returned with this one.
+     * Pages are read from the in-memory leaderboards; only until they are built do the grouped
+     * queries run, which aggregate the whole table for every page.
+     */
+    @Transactional(readOnly = true)
+    public Map<String, Object> getRankingPage(String category, Long afterCount, Long afterUserId, Integer size) {
+        if ((afterCount == null) != (afterUserId == null)) {
+            throw new ValidationException("Курсор задается параметрами afterCount и afterUserId вместе");
+        }
+        int pageSize = Math.min(Math.max(size != null ? size : Constants.DEFAULT_PAGE_SIZE, 1), Constants.MAX_PAGE_SIZE);
+        String normalized = category != null ? category.trim().toLowerCase() : "";
+        if (!RANKING_CATEGORIES.contains(normalized)) {
+            throw new ValidationException("Неизвестная категория рейтинга: " + category +
+                    ". Допустимые значения: " + RANKING_CATEGORIES);
+        }
+        Limit limit = Limit.of(pageSize);
+
+        return createStatsResponse(() -> {
+            List<UserRankingRow> rows = leaderboardService.isReady()
+                    ? rankingFromLeaderboard(normalized, afterCount, afterUserId, pageSize)
+                    : switch (normalized) {
+                        case "achievements" -> userAchievementRepository.findAchievementRanking(afterCount, afterUserId, limit);
+                        case "tasks" -> taskRepository.findRankingByStatus(Task.Status.COMPLETED, afterCount, afterUserId, limit);
+                        case "actions" -> gameActionRepository.findActionRanking(afterCount, afterUserId, limit);
+                        default -> throw new IllegalStateException("Unexpected ranking category: " + normalized);
+                    };
+
+            Map<String, Object> stats = new HashMap<>();
+            stats.put("category", normalized);
+            stats.put("size", pageSize);
+            stats.put("items", rows);
+            if (rows.size() == pageSize) {
+                UserRankingRow last = rows.get(rows.size() - 1);
+                Map<String, Object> cursor = new HashMap<>();
+                cursor.put("afterCount", last.getValue());
+                cursor.put("afterUserId", last.getUserId());
+                stats.put("nextCursor", cursor);
+            } else {
+                stats.put("nextCursor", null);
+            }
+            return stats;
+        }, "страница рейтинга по категории: " + category);
+    }
+
+    /**
+     * Same rows as the grouped ranking queries: users with a zero count are left out, and the
+     * latest activity is read for the users of the page only
+     */
+    private List<UserRankingRow> rankingFromLeaderboard(String category, Long afterCount, Long afterUserId, int pageSize) {
+        LeaderboardService.Criteria criteria = switch (category) {
+            case "achievements" -> LeaderboardService.Criteria.ACHIEVEMENTS;
+            case "tasks" -> LeaderboardService.Criteria.COMPLETED_TASKS;
+            default -> LeaderboardService.Criteria.ACTIONS;
+        };
+        List<LeaderboardService.LeaderboardEntry> entries = leaderboardService
+                .getPageAfter(criteria, afterCount, afterUserId, pageSize).stream()
+                .filter(entry -> entry.value() > 0)
+                .toList();
+        if (entries.isEmpty()) {
+            return List.of();
+        }
+
+        List<Long> userIds = entries.stream().map(LeaderboardService.LeaderboardEntry::userId).toList();
+        List<Object[]> lastActivityRows = switch (category) {
+            case "achievements" -> userAchievementRepository.findLastCompletedTimes(userIds);
+            case "tasks" -> taskRepository.findLastCompletedTimes(Task.Status.COMPLETED, userIds);
+            default -> gameActionRepository.findLastActionTimes(userIds);
+        };
+        Map<Long, LocalDateTime> lastActivity = new HashMap<>();
+        lastActivityRows.forEach(row -> lastActivity.put((Long) row[0], (LocalDateTime) row[1]));
+
+        return entries.stream()
+                .map(entry -> new UserRankingRow(entry.userId(), entry.username(), entry.value(),
+                        lastActivity.get(entry.userId())))
+                .toList();
+    }
+
     @Transactional(readOnly = true)
     public Map<String, Object> getUserStats(Long userId) {
         return getUserDetailedStats(userId);
@@ -478,39 +527,23 @@ public class StatsService {
     }
 
     private int calculateUserRank(Long userId) {
-        List<User> users = userRepository.findAll();
-        for (int i = 0; i < users.size(); i++) {
-            if (users.get(i).getId().equals(userId)) {
-                return i + 1;
-            }
-        }
-        return users.size() + 1;
+        return leaderboardService.getRank(LeaderboardService.Criteria.EXPERIENCE, userId)
+                .map(LeaderboardService.LeaderboardEntry::rank)
+                .orElse(leaderboardService.getTotalPlayers() + 1);
     }
 
-    private Map<String, Object> calculateActivityPatterns(List<GameAction> actions) {
+    private Map<String, Object> calculateActivityPatterns(Long userId) {
         Map<String, Object> patterns = new HashMap<>();
 
-        if (actions.isEmpty()) {
+        long[] byHour = gameActionRepository.hourHistogram(null, null, userId);
+        if (ActivityHistograms.total(byHour) == 0) {
             return patterns;
         }
 
-        // By day of week
-        Map<String, Long> byWeekday = actions.stream()
-                .filter(a -> a.getActionTime() != null)
-                .collect(Collectors.groupingBy(
-                        a -> a.getActionTime().getDayOfWeek().toString(),
-                        Collectors.counting()
-                ));
-        patterns.put("byWeekday", byWeekday);
-
-        // By hour of day
-        Map<Integer, Long> byHour = actions.stream()
-                .filter(a -> a.getActionTime() != null)
-                .collect(Collectors.groupingBy(
-                        a -> a.getActionTime().getHour(),
-                        Collectors.counting()
-                ));
-        patterns.put("byHour", byHour);
+        // By day of week and by hour of day, both grouped in the database
+        long[] byWeekday = gameActionRepository.weekdayHistogram(null, null, userId);
+        patterns.put("byWeekday", ActivityHistograms.weekdaysToMap(byWeekday));
+        patterns.put("byHour", ActivityHistograms.hoursToMap(byHour));
 
         return patterns;
     }
@@ -532,18 +565,6 @@ public class StatsService {
         return response;
     }
 
-    private List<User> sortAndLimitUsers(List<User> users, String criteria, int limit) {
-        Comparator<User> comparator = Comparator.comparing(
-                User::getUsername,
-                String.CASE_INSENSITIVE_ORDER
-        );
-
-        return users.stream()
-                .sorted(comparator)
-                .limit(limit)
-                .collect(Collectors.toList());
-    }
-
     private LocalDateTime calculateStartDate(String period, Integer days, LocalDateTime endDate) {
         if (days == null) {
             days = getDefaultDays(period);
@@ -570,30 +591,6 @@ public class StatsService {
         }
     }
 
-    private Map<String, Long> calculateDataByDate(List<?> data, LocalDateTime start, LocalDateTime end) {
-        return data.stream()
-                .collect(Collectors.groupingBy(
-                        this::extractDateString,
-                        Collectors.counting()
-                ));
-    }
-
-    private String extractDateString(Object obj) {
-        LocalDateTime dateTime = null;
-
-        if (obj instanceof User user) {
-            dateTime = user.getCreatedAt();
-        } else if (obj instanceof GameAction action) {
-            dateTime = action.getActionTime();
-        } else if (obj instanceof UserAchievement achievement) {
-            dateTime = achievement.getUnlockedAt();
-        } else if (obj instanceof GameSession session) {
-            dateTime = session.getStartTime();
-        }
-
-        return dateTime != null ? dateTime.toLocalDate().toString() : "unknown";
-    }
-
     private List<Map<String, Object>> getTopVisitedLocations(List<Location> locations, int limit) {
         return locations.stream()
                 .filter(l -> l.getActive() != null && l.getActive()) // Use getActive()
@@ -817,13 +814,12 @@ public class StatsService {
         return getUserDetailedStats(userId);
     }
 
-    @Transactional(readOnly = true)
     public Map<String, Object> getRetentionStats(Integer cohortDays) {
-        Map<String, Object> stats = new HashMap<>();
-        stats.put("message", "Статистика ретеншена в разработке");
-        stats.put("cohortDays", cohortDays);
-        stats.put("timestamp", LocalDateTime.now());
-        return stats;
+        int days = cohortDays != null ? cohortDays : 30;
+        if (days < 1 || days > MAX_RETENTION_COHORT_DAYS) {
+            throw new ValidationException("Количество дней когорт должно быть от 1 до " + MAX_RETENTION_COHORT_DAYS);
+        }
+        return createStatsResponse(() -> retentionService.getRetention(days), "ретеншен за " + days + " дней");
     }
 
     @Transactional(readOnly = true)
@@ -834,11 +830,6 @@ public class StatsService {
         return stats;
     }
 
-    @Transactional(readOnly = true)
-    public String exportStatsToCsv(String statType, Map<String, Object> params) {
-        return "Статистика;Значение\nСервис;StatsService\nТип;" + statType + "\nВремя;" + LocalDateTime.now();
-    }
-
     @Transactional(readOnly = true)
     public Map<String, Object> getDashboardStats() {
         return getOverallStats();
@@ -36,8 +36,6 @@ public interface UserService {
 
     void updateLastLogin(String username);
 
-    void incrementFailedLoginAttempts(String username);
-
     boolean existsByUsername(String username);
 
     boolean existsByEmail(String email);
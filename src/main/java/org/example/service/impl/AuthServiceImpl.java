@@ -1,8 +1,11 @@
 package org.example.service.impl;
 
+import io.jsonwebtoken.Claims;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.example.dto.*;
+import org.example.security.JwtService;
+import org.example.security.TokenRevocations;
 import org.example.service.AuthService;
 import org.springframework.stereotype.Service;
 
@@ -11,6 +14,9 @@ import org.springframework.stereotype.Service;
 @RequiredArgsConstructor
 public class AuthServiceImpl implements AuthService {
 
+    private final JwtService jwtService;
+    private final TokenRevocations tokenRevocations;
+
     @Override
     public AuthResponse register(RegisterRequest request) {
         // TODO: Implement registration
@@ -34,20 +40,32 @@ public class AuthServiceImpl implements AuthService {
 
     @Override
     public void logout(String accessToken) {
-        // TODO: Implement logout
-        String tokenPreview = accessToken != null && accessToken.length() > 10
-                ? accessToken.substring(0, 10) + "..."
-                : "null";
-        log.info("Logout for token: {}", tokenPreview);
+        Claims claims = verifiedClaims(accessToken);
+        tokenRevocations.revoke(accessToken, claims);
+        tokenRevocations.revokeRefreshTokenOf(claims);
+        log.info("Logout for user: {}", claims.getSubject());
     }
 
     @Override
     public void logoutAll(String accessToken) {
-        // TODO: Implement logout from all devices
-        String tokenPreview = accessToken != null && accessToken.length() > 10
-                ? accessToken.substring(0, 10) + "..."
-                : "null";
-        log.info("Logout from all devices for token: {}", tokenPreview);
+        Claims claims = verifiedClaims(accessToken);
+        Long userId = claims.get(JwtService.CLAIM_USER_ID, Long.class);
+        if (userId == null) {
+            throw new IllegalArgumentException("Token does not identify a user");
+        }
+        // Covers refresh tokens as well, they carry the user id too
+        tokenRevocations.revokeAll(userId);
+        // The cut-off has second precision, the presented tokens may share its second
+        tokenRevocations.revoke(accessToken, claims);
+        tokenRevocations.revokeRefreshTokenOf(claims);
+        log.info("Logout from all devices for user: {}", claims.getSubject());
+    }
+
+    private Claims verifiedClaims(String accessToken) {
+        if (accessToken == null || !jwtService.validateToken(accessToken)) {
+            throw new IllegalArgumentException("Invalid or expired token");
+        }
+        return jwtService.verify(accessToken);
     }
 
     @Override
@@ -1,7 +1,10 @@
 package org.example.service.impl;
 
 import org.example.dto.*;
+import org.example.entity.Location;
+import org.example.service.GameCatalog;
 import org.example.service.GameService;
+import org.example.service.UserService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -15,6 +18,9 @@ import java.util.Map;
 @RequiredArgsConstructor
 public class GameServiceImpl implements GameService {
 
+    private final GameCatalog gameCatalog;
+    private final UserService userService;
+
     // Dependencies on other services will be here
     // private final CharacterService characterService;
     // private final InventoryService inventoryService;
@@ -92,8 +98,13 @@ public class GameServiceImpl implements GameService {
     public List<LocationResponse> getAvailableLocations() {
         log.info("Получение доступных локаций");
 
-        // TODO: Implement
-        return List.of();
+        UserResponse user = userService.getCurrentUser();
+        int level = user.getLevel() != null ? user.getLevel() : 1;
+        // Players have no faction yet, so faction-restricted locations stay hidden
+        return gameCatalog.get().availableLocations().stream()
+                .filter(location -> location.isAccessible(level, null))
+                .map(this::toLocationResponse)
+                .toList();
     }
 
     @Override
@@ -387,4 +398,19 @@ public class GameServiceImpl implements GameService {
         // return sessionService.getCurrentSessionId();
         return 1L; // Temporary value for testing
     }
-}
\ No newline at end of file
+
+    private LocationResponse toLocationResponse(Location location) {
+        return LocationResponse.builder()
+                .id(location.getId())
+                .name(location.getTitle())
+                .displayName(location.getDisplayName())
+                .description(location.getDescription())
+                .type(location.getLocationType() != null ? location.getLocationType().name() : null)
+                .minLevel(location.getMinLevel())
+                .maxLevel(location.getMaxLevel())
+                .isSafeZone(location.getIsSafeZone())
+                .isPvpEnabled(location.getIsPvpEnabled())
+                .isUnlocked(location.getIsUnlocked())
+                .build();
+    }
+}
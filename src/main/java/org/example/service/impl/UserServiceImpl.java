@@ -15,8 +15,6 @@ import org.example.repository.UserRepository;
 import org.example.service.UserService;
 import org.example.util.Constants;
 import org.example.util.ValidationUtils;
-import org.springframework.cache.annotation.CacheEvict;
-import org.springframework.cache.annotation.CachePut;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -35,7 +33,8 @@ import java.util.Set;
 import java.util.stream.Collectors;
 
 /**
- * Implementation of user service
+ * Implementation of user service.
+ * Cached profiles follow committed user writes through {@link org.example.service.CacheInvalidationService}.
  */
 @Slf4j
 @Service
@@ -102,7 +101,7 @@ public class UserServiceImpl implements UserService {
      * Get user by ID
      */
     @Override
-    @Cacheable(value = "users", key = "#id")
+    @Cacheable(value = "users", key = "#id", sync = true)
     public UserResponse getUserById(Long id) {
         log.debug("Получение пользователя по ID: {}", id);
 
@@ -117,7 +116,7 @@ public class UserServiceImpl implements UserService {
      * Get user by username
      */
     @Override
-    @Cacheable(value = "users", key = "#username")
+    @Cacheable(value = "users", key = "#username", sync = true)
     public UserResponse getUserByUsername(String username) {
         log.debug("Получение пользователя по имени: {}", username);
 
@@ -150,7 +149,6 @@ public class UserServiceImpl implements UserService {
      */
     @Override
     @Transactional
-    @CachePut(value = "users", key = "#id")
     public UserResponse updateUser(Long id, UpdateUserRequest updateRequest) {
         log.info("Обновление профиля пользователя ID: {}", id);
 
@@ -195,7 +193,6 @@ public class UserServiceImpl implements UserService {
      */
     @Override
     @Transactional
-    @CacheEvict(value = "users", key = "#id")
     public void changePassword(Long id, String oldPassword, String newPassword) {
         log.info("Смена пароля для пользователя ID: {}", id);
 
@@ -228,7 +225,6 @@ public class UserServiceImpl implements UserService {
      */
     @Override
     @Transactional
-    @CacheEvict(value = "users", key = "#id")
     public void deleteUser(Long id) {
         log.info("Удаление пользователя ID: {}", id);
 
@@ -275,7 +271,6 @@ public class UserServiceImpl implements UserService {
      */
     @Override
     @Transactional
-    @CacheEvict(value = "users", key = "#id")
     public UserResponse updateUserStatus(Long id, User.UserStatus status) { // Parameter type changed
         log.info("Обновление статуса пользователя ID: {} на {}", id, status);
 
@@ -323,7 +318,6 @@ public class UserServiceImpl implements UserService {
      */
     @Override
     @Transactional
-    @CacheEvict(value = "users", key = "#username")
     public void updateLastLogin(String username) {
         log.debug("Обновление времени последнего входа для пользователя: {}", username);
 
@@ -336,32 +330,6 @@ public class UserServiceImpl implements UserService {
         userRepository.save(user);
     }
 
-    /**
-     * Increment failed login attempts counter
-     */
-    @Override
-    @Transactional
-    @CacheEvict(value = "users", key = "#username")
-    public void incrementFailedLoginAttempts(String username) {
-        log.debug("Увеличение счетчика неудачных попыток входа для пользователя: {}", username);
-
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new ResourceNotFoundException("Пользователь", "username", username));
-
-        int attempts = user.getLoginAttempts() + 1;
-        user.setLoginAttempts(attempts);
-
-        // Block account after 5 failed attempts
-        if (attempts >= 5) {
-            user.setAccountNonLocked(false);
-            user.setStatus(User.UserStatus.SUSPENDED); // Using full path
-            log.warn("Аккаунт пользователя {} заблокирован из-за множества неудачных попыток входа",
-                    user.getUsername());
-        }
-
-        userRepository.save(user);
-    }
-
     /**
      * Check if user exists by username
      */
@@ -398,7 +366,6 @@ public class UserServiceImpl implements UserService {
      */
     @Override
     @Transactional
-    @CachePut(value = "users", key = "#id")
     public UserResponse updateUserProfile(Long id, UserProfileRequest profileRequest) {
         log.info("Обновление профиля пользователя ID: {}", id);
 
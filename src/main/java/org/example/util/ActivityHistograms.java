@@ -0,0 +1,120 @@
+package org.example.util;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Folds grouped count rows into fixed-size primitive histograms and back into response maps.
+ * <p>
+ * Hour buckets are indexed 0-23, weekday buckets 0-6 starting with Monday
+ * (the {@link DayOfWeek} ordinal), heatmaps by day offset from the first day and then by hour.
+ */
+public final class ActivityHistograms {
+
+    public static final int HOURS = 24;
+    public static final int WEEKDAYS = 7;
+
+    private ActivityHistograms() {
+    }
+
+    /**
+     * Rows of (bucket, count) into an array of {@code size} buckets, unknown buckets are dropped
+     */
+    public static long[] fold(List<Object[]> rows, int size) {
+        long[] histogram = new long[size];
+        for (Object[] row : rows) {
+            int bucket = ((Number) row[0]).intValue();
+            if (bucket >= 0 && bucket < size) {
+                histogram[bucket] += ((Number) row[1]).longValue();
+            }
+        }
+        return histogram;
+    }
+
+    /**
+     * Rows of (date, hour, count) into [days][24] starting at {@code from}
+     */
+    public static long[][] foldHeatmap(List<Object[]> rows, LocalDate from, int days) {
+        long[][] heatmap = new long[Math.max(0, days)][HOURS];
+        for (Object[] row : rows) {
+            long day = ChronoUnit.DAYS.between(from, toLocalDate(row[0]));
+            int hour = ((Number) row[1]).intValue();
+            if (day >= 0 && day < heatmap.length && hour >= 0 && hour < HOURS) {
+                heatmap[(int) day][hour] += ((Number) row[2]).longValue();
+            }
+        }
+        return heatmap;
+    }
+
+    /**
+     * Collapses a heatmap into one hour-of-day histogram
+     */
+    public static long[] sumByHour(long[][] heatmap) {
+        long[] histogram = new long[HOURS];
+        for (long[] day : heatmap) {
+            for (int hour = 0; hour < HOURS; hour++) {
+                histogram[hour] += day[hour];
+            }
+        }
+        return histogram;
+    }
+
+    public static long total(long[] histogram) {
+        long total = 0;
+        for (long count : histogram) {
+            total += count;
+        }
+        return total;
+    }
+
+    /**
+     * Index of the largest bucket, the earliest one on ties, or -1 if all buckets are empty
+     */
+    public static int peak(long[] histogram) {
+        int peak = -1;
+        for (int i = 0; i < histogram.length; i++) {
+            if (histogram[i] > 0 && (peak < 0 || histogram[i] > histogram[peak])) {
+                peak = i;
+            }
+        }
+        return peak;
+    }
+
+    public static String formatHour(int hour) {
+        return hour >= 0 ? String.format("%02d:00", hour) : "N/A";
+    }
+
+    public static Map<Integer, Long> hoursToMap(long[] histogram) {
+        Map<Integer, Long> map = new LinkedHashMap<>();
+        for (int hour = 0; hour < histogram.length; hour++) {
+            map.put(hour, histogram[hour]);
+        }
+        return map;
+    }
+
+    public static Map<String, Long> weekdaysToMap(long[] histogram) {
+        Map<String, Long> map = new LinkedHashMap<>();
+        for (DayOfWeek day : DayOfWeek.values()) {
+            map.put(day.toString(), histogram[day.ordinal()]);
+        }
+        return map;
+    }
+
+    private static LocalDate toLocalDate(Object value) {
+        if (value instanceof LocalDate date) {
+            return date;
+        }
+        if (value instanceof java.sql.Date date) {
+            return date.toLocalDate();
+        }
+        if (value instanceof LocalDateTime dateTime) {
+            return dateTime.toLocalDate();
+        }
+        return LocalDate.parse(value.toString());
+    }
+}
@@ -0,0 +1,59 @@
+package org.example.util;
+
+import java.io.ByteArrayOutputStream;
+import java.util.BitSet;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Compact storage form of a {@link BitSet}: its little-endian bytes, deflated.
+ * Runs of absent ids compress to almost nothing, so sparse days stay small.
+ */
+public final class BitmapCodec {
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private BitmapCodec() {
+    }
+
+    public static byte[] encode(BitSet bits) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(bits.toByteArray());
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[BUFFER_SIZE];
+            while (!deflater.finished()) {
+                out.write(buffer, 0, deflater.deflate(buffer));
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    public static BitSet decode(byte[] encoded) {
+        if (encoded == null || encoded.length == 0) {
+            return new BitSet();
+        }
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(encoded);
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[BUFFER_SIZE];
+            while (!inflater.finished()) {
+                int length = inflater.inflate(buffer);
+                if (length == 0 && !inflater.finished() && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new IllegalArgumentException("Truncated bitmap");
+                }
+                out.write(buffer, 0, length);
+            }
+            return BitSet.valueOf(out.toByteArray());
+        } catch (DataFormatException e) {
+            throw new IllegalArgumentException("Corrupted bitmap", e);
+        } finally {
+            inflater.end();
+        }
+    }
+}
@@ -15,6 +15,9 @@ public class Constants {
     public static final String CACHE_USERS = "users";
     public static final String CACHE_TASKS = "tasks";
 
+    // Progression
+    public static final long EXPERIENCE_PER_LEVEL = 1000;
+
     // Pagination
     public static final int DEFAULT_PAGE_SIZE = 20;
     public static final int MAX_PAGE_SIZE = 100;
@@ -0,0 +1,256 @@
+package org.example.util;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Order-statistic tree (treap with subtree sizes) of ids ranked by score.
+ * <p>
+ * Entries are ordered by score descending, ties by id ascending, so every id has a unique position.
+ * Updates, rank lookups and positional access are O(log n). Not thread-safe: callers synchronize.
+ */
+public class RankedScoreTree {
+
+    public record Entry(long id, long score) {
+    }
+
+    private static final class Node {
+        final long id;
+        final long score;
+        final int priority;
+        Node left;
+        Node right;
+        int size = 1;
+
+        Node(long id, long score, int priority) {
+            this.id = id;
+            this.score = score;
+            this.priority = priority;
+        }
+    }
+
+    private final Map<Long, Long> scores = new HashMap<>();
+    private final Random random = new Random();
+    private Node root;
+
+    public int size() {
+        return scores.size();
+    }
+
+    public Long getScore(long id) {
+        return scores.get(id);
+    }
+
+    /**
+     * Sets the score of an id, inserting it if needed
+     */
+    public void put(long id, long score) {
+        Long previous = scores.put(id, score);
+        if (previous != null) {
+            if (previous == score) {
+                return;
+            }
+            root = delete(root, previous, id);
+        }
+        root = insert(root, new Node(id, score, random.nextInt()));
+    }
+
+    /**
+     * Adds a delta to the score of an id, starting from zero for unknown ids
+     */
+    public long add(long id, long delta) {
+        Long previous = scores.get(id);
+        long score = (previous != null ? previous : 0L) + delta;
+        put(id, score);
+        return score;
+    }
+
+    public boolean remove(long id) {
+        Long previous = scores.remove(id);
+        if (previous == null) {
+            return false;
+        }
+        root = delete(root, previous, id);
+        return true;
+    }
+
+    public void clear() {
+        scores.clear();
+        root = null;
+    }
+
+    /**
+     * 1-based position of the id, or -1 if it is not in the tree
+     */
+    public int rank(long id) {
+        Long score = scores.get(id);
+        if (score == null) {
+            return -1;
+        }
+        int rank = 0;
+        Node node = root;
+        while (node != null) {
+            int cmp = compare(score, id, node);
+            if (cmp == 0) {
+                return rank + size(node.left) + 1;
+            }
+            if (cmp < 0) {
+                node = node.left;
+            } else {
+                rank += size(node.left) + 1;
+                node = node.right;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Number of entries ordered at or before the (score, id) key, which need not be in the tree;
+     * the 0-based position of the first entry after it
+     */
+    public int countThrough(long score, long id) {
+        int count = 0;
+        Node node = root;
+        while (node != null) {
+            if (compare(score, id, node) < 0) {
+                node = node.left;
+            } else {
+                count += size(node.left) + 1;
+                node = node.right;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Up to {@code count} entries starting at the 0-based position {@code from}
+     */
+    public List<Entry> range(int from, int count) {
+        List<Entry> result = new ArrayList<>(Math.max(0, Math.min(count, size() - from)));
+        if (from < 0 || count <= 0 || from >= size()) {
+            return result;
+        }
+
+        // Descend to the start position, keeping the nodes still to be visited in order
+        Deque<Node> stack = new ArrayDeque<>();
+        Node node = root;
+        int index = from;
+        while (node != null) {
+            int leftSize = size(node.left);
+            if (index < leftSize) {
+                stack.push(node);
+                node = node.left;
+            } else if (index == leftSize) {
+                stack.push(node);
+                break;
+            } else {
+                index -= leftSize + 1;
+                node = node.right;
+            }
+        }
+
+        while (!stack.isEmpty() && result.size() < count) {
+            Node current = stack.pop();
+            result.add(new Entry(current.id, current.score));
+            for (Node next = current.right; next != null; next = next.left) {
+                stack.push(next);
+            }
+        }
+        return result;
+    }
+
+    // ==================== TREAP OPERATIONS ====================
+
+    private static int compare(long score, long id, Node node) {
+        if (score != node.score) {
+            return score > node.score ? -1 : 1;
+        }
+        return Long.compare(id, node.id);
+    }
+
+    private static int size(Node node) {
+        return node != null ? node.size : 0;
+    }
+
+    private static void update(Node node) {
+        node.size = 1 + size(node.left) + size(node.right);
+    }
+
+    private static Node insert(Node node, Node inserted) {
+        if (node == null) {
+            return inserted;
+        }
+        if (inserted.priority > node.priority) {
+            Node[] parts = split(node, inserted.score, inserted.id);
+            inserted.left = parts[0];
+            inserted.right = parts[1];
+            update(inserted);
+            return inserted;
+        }
+        if (compare(inserted.score, inserted.id, node) < 0) {
+            node.left = insert(node.left, inserted);
+        } else {
+            node.right = insert(node.right, inserted);
+        }
+        update(node);
+        return node;
+    }
+
+    private static Node delete(Node node, long score, long id) {
+        if (node == null) {
+            return null;
+        }
+        int cmp = compare(score, id, node);
+        if (cmp == 0) {
+            return merge(node.left, node.right);
+        }
+        if (cmp < 0) {
+            node.left = delete(node.left, score, id);
+        } else {
+            node.right = delete(node.right, score, id);
+        }
+        update(node);
+        return node;
+    }
+
+    /**
+     * Splits into nodes ordered before the key and the rest
+     */
+    private static Node[] split(Node node, long score, long id) {
+        if (node == null) {
+            return new Node[]{null, null};
+        }
+        if (compare(score, id, node) > 0) {
+            Node[] parts = split(node.right, score, id);
+            node.right = parts[0];
+            update(node);
+            return new Node[]{node, parts[1]};
+        }
+        Node[] parts = split(node.left, score, id);
+        node.left = parts[1];
+        update(node);
+        return new Node[]{parts[0], node};
+    }
+
+    private static Node merge(Node left, Node right) {
+        if (left == null) {
+            return right;
+        }
+        if (right == null) {
+            return left;
+        }
+        if (left.priority > right.priority) {
+            left.right = merge(left.right, right);
+            update(left);
+            return left;
+        }
+        right.left = merge(left, right.left);
+        update(right);
+        return right;
+    }
+}
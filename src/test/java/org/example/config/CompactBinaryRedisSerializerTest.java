@@ -0,0 +1,115 @@
+package org.example.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.dto.UserResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.support.NullValue;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompactBinaryRedisSerializerTest {
+
+    private final ObjectMapper objectMapper = new JacksonConfig().objectMapper();
+    private final CompactBinaryRedisSerializer serializer = new CompactBinaryRedisSerializer(objectMapper, -1);
+
+    @Test
+    void roundTrip_UserResponse() {
+        UserResponse user = user(1L, "alice");
+
+        byte[] bytes = serializer.serialize(user);
+
+        assertTrue(CompactBinaryRedisSerializer.isBinary(bytes));
+        assertEquals(user, serializer.deserialize(bytes));
+    }
+
+    @Test
+    void roundTrip_ListOfUsersKeepsElementType() {
+        List<UserResponse> users = new ArrayList<>(List.of(user(1L, "alice"), user(2L, "bob")));
+
+        Object read = serializer.deserialize(serializer.serialize(users));
+
+        assertEquals(users, read);
+        assertInstanceOf(UserResponse.class, ((List<?>) read).get(0));
+    }
+
+    @Test
+    void roundTrip_MapWithNestedValues() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("total", 42);
+        stats.put("ratio", 0.5);
+        stats.put("name", "платформа");
+        stats.put("tags", List.of("a", "b"));
+        stats.put("missing", null);
+
+        assertEquals(stats, serializer.deserialize(serializer.serialize(stats)));
+    }
+
+    @Test
+    void roundTrip_CachedNull() {
+        assertSame(NullValue.INSTANCE, serializer.deserialize(serializer.serialize(NullValue.INSTANCE)));
+    }
+
+    @Test
+    void serialize_AboveThreshold_IsCompressedAndReadable() {
+        List<UserResponse> users = new ArrayList<>();
+        for (long id = 0; id < 200; id++) {
+            users.add(user(id, "player" + id));
+        }
+        CompactBinaryRedisSerializer compressing = new CompactBinaryRedisSerializer(objectMapper, 256);
+
+        byte[] compressed = compressing.serialize(users);
+
+        assertTrue(compressed.length < serializer.serialize(users).length);
+        assertEquals(users, compressing.deserialize(compressed));
+        // Readers do not need the writer's threshold
+        assertEquals(users, serializer.deserialize(compressed));
+    }
+
+    @Test
+    void serialize_IsSmallerThanJson() {
+        List<UserResponse> users = new ArrayList<>(List.of(user(1L, "alice"), user(2L, "bob"), user(3L, "carol")));
+
+        byte[] json = new GenericJackson2JsonRedisSerializer(objectMapper).serialize(users);
+
+        assertTrue(serializer.serialize(users).length < json.length);
+    }
+
+    @Test
+    void deserialize_RejectsJsonAndForeignTypes() {
+        assertThrows(SerializationException.class,
+                () -> serializer.deserialize("{\"id\":1}".getBytes(StandardCharsets.UTF_8)));
+
+        byte[] bytes = serializer.serialize(user(1L, "alice"));
+        String forged = new String(bytes, StandardCharsets.ISO_8859_1)
+                .replace("org.example.dto.UserResponse", "com.example.dto.UserResponse");
+        assertThrows(SerializationException.class,
+                () -> serializer.deserialize(forged.getBytes(StandardCharsets.ISO_8859_1)));
+    }
+
+    @Test
+    void deserialize_EmptyOrNull_ReturnsNull() {
+        assertNull(serializer.deserialize(null));
+        assertNull(serializer.deserialize(new byte[0]));
+        assertNull(serializer.serialize(null));
+    }
+
+    static UserResponse user(Long id, String username) {
+        return UserResponse.builder()
+                .id(id)
+                .username(username)
+                .email(username + "@example.com")
+                .role("USER")
+                .level(3)
+                .experience(2500L)
+                .gold(120L)
+                .currentLocation("Village")
+                .createdAt(LocalDateTime.of(2024, 3, 1, 10, 15, 30, 123_000_000))
+                .build();
+    }
+}
@@ -0,0 +1,97 @@
+package org.example.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.dto.UserResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.support.NullValue;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.example.config.CompactBinaryRedisSerializerTest.user;
+import static org.junit.jupiter.api.Assertions.*;
+
+class MigratingRedisSerializerTest {
+
+    private final ObjectMapper objectMapper = new JacksonConfig().objectMapper();
+    private final RedisSerializer<Object> json = RedisConfig.jsonSerializer(objectMapper);
+    private final CompactBinaryRedisSerializer binary = new CompactBinaryRedisSerializer(objectMapper, 1024);
+    private final MigratingRedisSerializer toBinary = new MigratingRedisSerializer(binary, json, binary);
+    private final MigratingRedisSerializer toJson = new MigratingRedisSerializer(json, json, binary);
+
+    @Test
+    void deserialize_ReadsTypedJsonEntry() {
+        // As stored by the JSON serializer before the cache switched to binary
+        String legacy = "{\"@class\":\"org.example.dto.UserResponse\",\"id\":7," +
+                "\"username\":\"alice\",\"email\":\"alice@example.com\",\"role\":\"USER\",\"level\":2," +
+                "\"experience\":1500,\"gold\":40," +
+                "\"currentLocation\":\"Village\",\"createdAt\":\"2024-03-01T10:15:30.000\"}";
+
+        Object read = toBinary.deserialize(legacy.getBytes(StandardCharsets.UTF_8));
+
+        UserResponse user = assertInstanceOf(UserResponse.class, read);
+        assertEquals(7L, user.getId());
+        assertEquals("alice", user.getUsername());
+        assertEquals(1500L, user.getExperience());
+        assertEquals(LocalDateTime.of(2024, 3, 1, 10, 15, 30), user.getCreatedAt());
+    }
+
+    @Test
+    void deserialize_UntypedLegacyJsonEntry_IsMiss() {
+        // Written before JSON cache values carried their type
+        String legacy = "{\"id\":7,\"username\":\"alice\",\"level\":2,\"experience\":1500}";
+
+        assertNull(toBinary.deserialize(legacy.getBytes(StandardCharsets.UTF_8)));
+        assertNull(toJson.deserialize(legacy.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    void deserialize_JdkTypeOutsideAllowList_IsMiss() {
+        String gadget = "[\"java.net.URL\",\"http://example.com\"]";
+
+        assertNull(toJson.deserialize(gadget.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    void deserialize_ReadsJsonList() {
+        byte[] legacy = json.serialize(List.of(user(1L, "alice"), user(2L, "bob")));
+
+        assertEquals(List.of(user(1L, "alice"), user(2L, "bob")), toBinary.deserialize(legacy));
+    }
+
+    @Test
+    void deserialize_ReadsJsonStreamList() {
+        byte[] legacy = json.serialize(Stream.of(user(1L, "alice")).toList());
+
+        assertEquals(List.of(user(1L, "alice")), toJson.deserialize(legacy));
+    }
+
+    @Test
+    void deserialize_ReadsJsonNullValue() {
+        byte[] cachedNull = toJson.serialize(NullValue.INSTANCE);
+
+        assertInstanceOf(NullValue.class, toBinary.deserialize(cachedNull));
+    }
+
+    @Test
+    void serialize_WritesConfiguredFormat() {
+        UserResponse user = user(1L, "alice");
+
+        assertTrue(CompactBinaryRedisSerializer.isBinary(toBinary.serialize(user)));
+        assertFalse(CompactBinaryRedisSerializer.isBinary(toJson.serialize(user)));
+    }
+
+    @Test
+    void deserialize_ReadsEntriesOfEitherFormatAfterSwitchingBack() {
+        UserResponse user = user(1L, "alice");
+        byte[] writtenAsBinary = toBinary.serialize(user);
+        byte[] writtenAsJson = toJson.serialize(user);
+
+        assertEquals(user, toJson.deserialize(writtenAsBinary));
+        assertEquals(user, toJson.deserialize(writtenAsJson));
+        assertEquals(user, toBinary.deserialize(writtenAsJson));
+    }
+}
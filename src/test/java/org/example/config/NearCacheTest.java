@@ -0,0 +1,133 @@
+package org.example.config;
+
+import org.example.dto.UserResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NearCacheTest {
+
+    private final List<String> published = new ArrayList<>();
+    private Runnable duringL2Read = () -> { };
+
+    private NearCache cache;
+
+    @BeforeEach
+    void setUp() {
+        ConcurrentMapCache l2 = new ConcurrentMapCache("users") {
+            @Override
+            public ValueWrapper get(Object key) {
+                ValueWrapper value = super.get(key);
+                duringL2Read.run();
+                return value;
+            }
+        };
+        cache = new NearCache(l2, 100, 60_000, (name, key) -> published.add(name + ":" + key));
+    }
+
+    @Test
+    void get_L1Hit_ReturnsCachedInstance() {
+        UserResponse value = user("alice");
+        cache.put(1L, value);
+
+        assertSame(value, cache.get(1L, UserResponse.class));
+        assertSame(value, cache.get(1L, UserResponse.class));
+        assertEquals(2, cache.getL1Hits());
+    }
+
+    @Test
+    void put_OverBound_DropsLeastRecentlyReadEntries() {
+        for (long id = 0; id < 100; id++) {
+            cache.put(id, user("user" + id));
+        }
+        // Read 50-99 later than 0-49 were written
+        sleepPastClockTick();
+        for (long id = 50; id < 100; id++) {
+            cache.get(id);
+        }
+
+        cache.put(100L, user("user100"));
+
+        assertTrue(cache.getL1Size() <= 100);
+        long hitsBefore = cache.getL1Hits();
+        for (long id = 50; id <= 100; id++) {
+            cache.get(id);
+        }
+        assertEquals(hitsBefore + 51, cache.getL1Hits());
+    }
+
+    @Test
+    void put_ConcurrentReadersAndWriters_StayWithinBound() throws Exception {
+        Thread[] threads = new Thread[8];
+        for (int t = 0; t < threads.length; t++) {
+            long offset = t * 1000L;
+            threads[t] = new Thread(() -> {
+                for (long id = offset; id < offset + 500; id++) {
+                    cache.put(id, user("user" + id));
+                    cache.get(id - 1);
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        // The eviction pass runs on one thread at a time, others may briefly overshoot meanwhile
+        cache.put(-1L, user("last"));
+        assertTrue(cache.getL1Size() <= 100, "L1 size " + cache.getL1Size());
+        assertEquals("last", cache.get(-1L, UserResponse.class).getUsername());
+    }
+
+    @Test
+    void get_FillStartedBeforeInvalidation_IsNotKept() {
+        cache.put(1L, user("alice"));
+        cache.invalidateLocal("1");
+        // Another node's invalidation arrives while the old value is being read from L2
+        duringL2Read = () -> cache.invalidateLocal("1");
+
+        assertEquals("alice", cache.get(1L, UserResponse.class).getUsername());
+
+        assertEquals(0, cache.getL1Size());
+    }
+
+    @Test
+    void get_FillWithoutConcurrentInvalidation_IsKept() {
+        cache.put(1L, user("alice"));
+        cache.invalidateLocal(null);
+
+        cache.get(1L);
+        cache.get(1L);
+
+        assertEquals(1, cache.getL1Size());
+        assertEquals(1, cache.getL2Hits());
+        assertEquals(1, cache.getL1Hits());
+    }
+
+    @Test
+    void evict_DropsL1AndAnnouncesKey() {
+        cache.put(1L, user("alice"));
+
+        cache.evict(1L);
+
+        assertNull(cache.get(1L));
+        assertEquals(List.of("users:1", "users:1"), published);
+    }
+
+    private static void sleepPastClockTick() {
+        try {
+            Thread.sleep(5);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static UserResponse user(String username) {
+        return UserResponse.builder().id(1L).username(username).level(3).experience(250L).build();
+    }
+}
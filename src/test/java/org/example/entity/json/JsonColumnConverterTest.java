@@ -0,0 +1,97 @@
+package org.example.entity.json;
+
+import org.example.entity.Achievement;
+import org.example.entity.Monster;
+import org.example.entity.NPC;
+import org.example.entity.Quest;
+import org.example.entity.Skill;
+import org.hibernate.annotations.DynamicUpdate;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JsonColumnConverterTest {
+
+    private final JsonColumnConverters.NamedValuesConverter namedValues = new JsonColumnConverters.NamedValuesConverter();
+    private final JsonColumnConverters.RewardsConverter rewards = new JsonColumnConverters.RewardsConverter();
+    private final JsonColumnConverters.DialogueTreeConverter dialogue = new JsonColumnConverters.DialogueTreeConverter();
+    private final JsonColumnConverters.BehaviorPatternConverter behavior = new JsonColumnConverters.BehaviorPatternConverter();
+    private final JsonColumnConverters.ObjectivesConverter objectives = new JsonColumnConverters.ObjectivesConverter();
+
+    @Test
+    void namedValues_RoundTrip_KeepsNamesAndOrder() {
+        String json = "{\"Fire\":0.5,\"frost\":0.25,\"ARCANE\":1.0}";
+
+        NamedValues values = namedValues.convertToEntityAttribute(json);
+
+        assertEquals(json, namedValues.convertToDatabaseColumn(values));
+        assertEquals(0.5, values.get("fire"));
+        assertEquals(1.0, values.get("Arcane"));
+        assertEquals(0.0, values.get("shadow"));
+    }
+
+    @Test
+    void rewards_RoundTrip_IsStable() {
+        String json = "{\"experience\":500,\"gold\":20,\"items\":[{\"itemId\":7,\"quantity\":2}],"
+                + "\"reputation\":{\"Guards\":50.0}}";
+
+        Rewards read = rewards.convertToEntityAttribute(json);
+        String written = rewards.convertToDatabaseColumn(read);
+
+        assertEquals(read, rewards.convertToEntityAttribute(written));
+        assertEquals(500, read.experience());
+        assertEquals(2, read.items().items().get(0).quantityOrOne());
+        assertEquals(Map.of("Guards", 50.0), read.reputation().values());
+    }
+
+    @Test
+    void dialogueTree_RoundTrip_IsStable() {
+        String json = "{start: 'greet', nodes: {greet: {text: 'Hello', options: [{text: 'Bye', next: null},]}}}";
+
+        DialogueTree read = dialogue.convertToEntityAttribute(json);
+
+        assertEquals(read, dialogue.convertToEntityAttribute(dialogue.convertToDatabaseColumn(read)));
+        assertEquals("Hello", read.startNode().orElseThrow().text());
+    }
+
+    @Test
+    void listValue_RoundTrip_IsStable() {
+        String json = "[{\"healthBelow\":0.3,\"action\":\"FLEE\"},{\"action\":\"ATTACK\"}]";
+
+        BehaviorPattern read = behavior.convertToEntityAttribute(json);
+
+        assertEquals(json, behavior.convertToDatabaseColumn(read));
+        assertEquals("FLEE", read.select(0.1).orElseThrow().action());
+    }
+
+    @Test
+    void convertToEntityAttribute_MissingColumn_ReadsAsEmpty() {
+        assertSame(Objectives.EMPTY, objectives.convertToEntityAttribute(null));
+        assertSame(Objectives.EMPTY, objectives.convertToEntityAttribute("  "));
+        assertEquals("[]", objectives.convertToDatabaseColumn(Objectives.EMPTY));
+    }
+
+    @Test
+    void convertToEntityAttribute_MalformedColumn_Throws() {
+        assertThrows(IllegalArgumentException.class, () -> rewards.convertToEntityAttribute("{experience: 500"));
+        assertThrows(IllegalArgumentException.class, () -> objectives.convertToEntityAttribute("{\"type\":\"KILL\"}"));
+    }
+
+    @Test
+    void convertToEntityAttribute_UnknownProperties_AreSkipped() {
+        Objectives read = objectives.convertToEntityAttribute("[{\"type\":\"KILL\",\"target\":\"wolf\",\"count\":3,\"hint\":\"x\"}]");
+
+        assertEquals(List.of(new Objectives.Objective("KILL", "wolf", null, 3, null)), read.objectives());
+    }
+
+    @Test
+    void entitiesWithJsonColumns_OnlyWriteChangedColumns() {
+        // Unmodelled properties survive only as long as an unchanged column is left out of updates
+        for (Class<?> entity : List.of(Monster.class, Skill.class, Quest.class, NPC.class, Achievement.class)) {
+            assertTrue(entity.isAnnotationPresent(DynamicUpdate.class), entity.getSimpleName());
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package org.example.security;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BloomFilterTest {
+
+    @Test
+    void mightContain_AddedValues_AreNeverMissed() {
+        BloomFilter filter = new BloomFilter(1_000, 0.01);
+        for (int i = 0; i < 1_000; i++) {
+            filter.add("jti:" + i);
+        }
+
+        for (int i = 0; i < 1_000; i++) {
+            assertTrue(filter.mightContain("jti:" + i));
+        }
+    }
+
+    @Test
+    void mightContain_AbsentValues_HitAtAboutConfiguredRate() {
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.add("jti:" + i);
+        }
+
+        int falsePositives = 0;
+        for (int i = 0; i < 100_000; i++) {
+            if (filter.mightContain("other:" + i)) {
+                falsePositives++;
+            }
+        }
+
+        assertTrue(falsePositives < 2_000, "false positives: " + falsePositives);
+    }
+
+    @Test
+    void mightContain_EmptyFilter_HitsNothing() {
+        BloomFilter filter = new BloomFilter(100, 0.01);
+
+        assertFalse(filter.mightContain("jti:1"));
+        assertFalse(filter.mightContain(""));
+    }
+}
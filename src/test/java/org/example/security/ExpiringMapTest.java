@@ -0,0 +1,65 @@
+package org.example.security;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExpiringMapTest {
+
+    private static final long NOW = 1_000_000L;
+
+    @Test
+    void get_LiveEntry_ReturnsValue() {
+        ExpiringMap<String, String> map = new ExpiringMap<>(10);
+        map.put("a", "1", NOW + 100, NOW);
+
+        assertEquals("1", map.get("a", NOW + 99));
+    }
+
+    @Test
+    void get_ExpiredEntry_IsMissAndRemoved() {
+        ExpiringMap<String, String> map = new ExpiringMap<>(10);
+        map.put("a", "1", NOW + 100, NOW);
+
+        assertNull(map.get("a", NOW + 100));
+        assertEquals(0, map.size());
+    }
+
+    @Test
+    void put_OverBound_DropsExpiredThenSoonestExpiring() {
+        ExpiringMap<Integer, String> map = new ExpiringMap<>(10);
+        map.put(-1, "expired", NOW - 1, NOW - 10);
+        for (int i = 0; i < 10; i++) {
+            map.put(i, "v" + i, NOW + 1000 + i, NOW);
+        }
+
+        assertEquals(9, map.size());
+        assertNull(map.get(-1, NOW));
+        assertNull(map.get(0, NOW));
+        assertEquals("v1", map.get(1, NOW));
+        assertEquals("v9", map.get(9, NOW));
+    }
+
+    @Test
+    void put_ConcurrentWriters_StayNearBound() throws Exception {
+        ExpiringMap<Long, String> map = new ExpiringMap<>(100);
+        Thread[] threads = new Thread[8];
+        for (int t = 0; t < threads.length; t++) {
+            long offset = t * 10_000L;
+            threads[t] = new Thread(() -> {
+                for (long key = offset; key < offset + 1000; key++) {
+                    map.put(key, "v", NOW + key, NOW);
+                    map.get(key - 1, NOW);
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        map.put(Long.MAX_VALUE, "last", Long.MAX_VALUE, NOW);
+        assertTrue(map.size() <= 100, "size " + map.size());
+        assertEquals("last", map.get(Long.MAX_VALUE, NOW));
+    }
+}
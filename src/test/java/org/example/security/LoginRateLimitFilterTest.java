@@ -0,0 +1,147 @@
+package org.example.security;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class LoginRateLimitFilterTest {
+
+    private static final String LOGIN = "/api/v1/auth/login";
+
+    @Mock
+    private LoginRateLimiter rateLimiter;
+
+    @Mock
+    private FilterChain filterChain;
+
+    private LoginRateLimitFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        filter = new LoginRateLimitFilter(rateLimiter, new ObjectMapper(), true, Set.of(LOGIN), 8192);
+    }
+
+    @Test
+    void doFilter_KeysOnRemoteAddressNotForwardingHeaders() throws Exception {
+        MockHttpServletRequest request = login("{\"usernameOrEmail\":\"alice\",\"password\":\"secret\"}");
+        request.addHeader("X-Forwarded-For", "203.0.113.7");
+        request.addHeader("X-Real-IP", "203.0.113.8");
+        when(rateLimiter.check(anyString(), any())).thenReturn(LoginRateLimiter.Decision.ALLOW);
+
+        filter.doFilter(request, new MockHttpServletResponse(), filterChain);
+
+        verify(rateLimiter).check("10.0.0.1", "alice");
+    }
+
+    @Test
+    void doFilter_Allowed_ForwardsReadableBody() throws Exception {
+        String body = "{\"username\":\"alice\",\"password\":\"secret\"}";
+        when(rateLimiter.check(anyString(), any())).thenReturn(LoginRateLimiter.Decision.ALLOW);
+
+        filter.doFilter(login(body), new MockHttpServletResponse(), filterChain);
+
+        ArgumentCaptor<ServletRequest> forwarded = ArgumentCaptor.forClass(ServletRequest.class);
+        verify(filterChain).doFilter(forwarded.capture(), any());
+        assertEquals(body, new String(forwarded.getValue().getInputStream().readAllBytes(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void doFilter_LockedOut_Answers429WithRetryAfter() throws Exception {
+        when(rateLimiter.check(anyString(), any()))
+                .thenReturn(new LoginRateLimiter.Decision(LoginRateLimiter.Result.LOCKED_OUT, 120));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(login("{\"usernameOrEmail\":\"alice\"}"), response, filterChain);
+
+        assertEquals(429, response.getStatus());
+        assertEquals("120", response.getHeader(HttpHeaders.RETRY_AFTER));
+        assertTrue(response.getContentAsString().contains("failed login attempts"));
+        verifyNoInteractions(filterChain);
+    }
+
+    @Test
+    void doFilter_ChunkedBodyForLockedOutAccount_IsRejected() throws Exception {
+        when(rateLimiter.check("10.0.0.1", "alice"))
+                .thenReturn(new LoginRateLimiter.Decision(LoginRateLimiter.Result.LOCKED_OUT, 120));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(chunked(login("{\"usernameOrEmail\":\"alice\",\"password\":\"guess\"}")), response, filterChain);
+
+        assertEquals(429, response.getStatus());
+        verifyNoInteractions(filterChain);
+    }
+
+    @Test
+    void doFilter_BodyOverLimit_Answers413() throws Exception {
+        filter = new LoginRateLimitFilter(rateLimiter, new ObjectMapper(), true, Set.of(LOGIN), 16);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(chunked(login("{\"usernameOrEmail\":\"alice\"}")), response, filterChain);
+
+        assertEquals(413, response.getStatus());
+        verifyNoInteractions(rateLimiter, filterChain);
+    }
+
+    @Test
+    void doFilter_MalformedBody_IsLimitedByIpOnly() throws Exception {
+        when(rateLimiter.check(anyString(), any())).thenReturn(LoginRateLimiter.Decision.ALLOW);
+
+        filter.doFilter(login("{not json"), new MockHttpServletResponse(), filterChain);
+
+        verify(rateLimiter).check("10.0.0.1", null);
+    }
+
+    @Test
+    void doFilter_OtherPath_IsNotLimited() throws Exception {
+        MockHttpServletRequest request = login("{}");
+        request.setServletPath("/api/v1/users/me");
+
+        filter.doFilter(request, new MockHttpServletResponse(), filterChain);
+
+        verifyNoInteractions(rateLimiter);
+        verify(filterChain).doFilter(eq(request), any());
+    }
+
+    /** Same request without Content-Length, as sent with chunked transfer encoding */
+    private static HttpServletRequest chunked(HttpServletRequest request) {
+        return new HttpServletRequestWrapper(request) {
+            @Override
+            public long getContentLengthLong() {
+                return -1;
+            }
+
+            @Override
+            public int getContentLength() {
+                return -1;
+            }
+        };
+    }
+
+    private static MockHttpServletRequest login(String body) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", LOGIN);
+        request.setServletPath(LOGIN);
+        request.setRemoteAddr("10.0.0.1");
+        request.setContentType("application/json");
+        request.setContent(body.getBytes(StandardCharsets.UTF_8));
+        return request;
+    }
+}
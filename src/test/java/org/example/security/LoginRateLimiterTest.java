@@ -0,0 +1,196 @@
+package org.example.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class LoginRateLimiterTest {
+
+    private static final int IP_BURST = 3;
+    private static final int USERNAME_BURST = 2;
+    private static final int MAX_FAILURES = 3;
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    @Mock
+    private RedisMessageListenerContainer listenerContainer;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private LoginRateLimiter rateLimiter;
+
+    @BeforeEach
+    void setUp() {
+        rateLimiter = new LoginRateLimiter(redisTemplate, listenerContainer, meterRegistry,
+                60, IP_BURST, 60, USERNAME_BURST, MAX_FAILURES, Duration.ofMinutes(15), 1000);
+    }
+
+    @Test
+    void check_WithinBudget_IsAllowed() {
+        clusterReplies(List.of(0L));
+
+        assertTrue(rateLimiter.check("10.0.0.1", "alice").allowed());
+        assertEquals(1, results("allowed"));
+    }
+
+    @Test
+    void check_BurstOverUsernameBudget_IsRejectedOnThisNode() {
+        clusterReplies(List.of(0L));
+
+        for (int i = 0; i < USERNAME_BURST; i++) {
+            assertTrue(rateLimiter.check("10.0.0." + i, "Alice").allowed());
+        }
+        LoginRateLimiter.Decision decision = rateLimiter.check("10.0.0.99", "alice ");
+
+        assertEquals(LoginRateLimiter.Result.RATE_LIMITED, decision.result());
+        assertTrue(decision.retryAfterSeconds() >= 1);
+        assertEquals(1, results("rejected_local"));
+        verify(redisTemplate, times(USERNAME_BURST)).execute(any(RedisScript.class), anyList(), any(Object[].class));
+    }
+
+    @Test
+    void check_BurstOverIpBudget_IsRejectedOnThisNode() {
+        clusterReplies(List.of(0L));
+
+        for (int i = 0; i < IP_BURST; i++) {
+            assertTrue(rateLimiter.check("10.0.0.1", null).allowed());
+        }
+
+        assertFalse(rateLimiter.check("10.0.0.1", null).allowed());
+        assertTrue(rateLimiter.check("10.0.0.2", null).allowed());
+    }
+
+    @Test
+    void check_ClusterWindowFull_IsRateLimited() {
+        clusterReplies(List.of(1L));
+
+        LoginRateLimiter.Decision decision = rateLimiter.check("10.0.0.1", "alice");
+
+        assertEquals(LoginRateLimiter.Result.RATE_LIMITED, decision.result());
+        assertEquals(1, results("rejected_cluster"));
+    }
+
+    @Test
+    void check_LockedOutInRedis_IsLockedOutWithoutAskingRedisAgain() {
+        clusterReplies(List.of(2L, 60_000L));
+
+        LoginRateLimiter.Decision first = rateLimiter.check("10.0.0.1", "alice");
+        LoginRateLimiter.Decision second = rateLimiter.check("10.0.0.2", "alice");
+
+        assertEquals(LoginRateLimiter.Result.LOCKED_OUT, first.result());
+        assertEquals(60, first.retryAfterSeconds());
+        assertEquals(LoginRateLimiter.Result.LOCKED_OUT, second.result());
+        verify(redisTemplate, times(1)).execute(any(RedisScript.class), anyList(), any(Object[].class));
+    }
+
+    @Test
+    void check_RedisDown_IsAllowedWithinLocalBudget() {
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), any(Object[].class)))
+                .thenThrow(new RedisConnectionFailureException("down"));
+
+        assertTrue(rateLimiter.check("10.0.0.1", "alice").allowed());
+    }
+
+    @Test
+    void recordFailure_ReachingMaxFailures_LocksOut() {
+        when(redisTemplate.execute(any(RedisScript.class), eq(List.of("login-failures:alice")), any(Object[].class)))
+                .thenReturn((long) MAX_FAILURES);
+
+        assertEquals(MAX_FAILURES, rateLimiter.recordFailure("alice"));
+
+        LoginRateLimiter.Decision decision = rateLimiter.check("10.0.0.1", "ALICE");
+        assertEquals(LoginRateLimiter.Result.LOCKED_OUT, decision.result());
+        assertTrue(decision.retryAfterSeconds() > 14 * 60);
+    }
+
+    @Test
+    void recordFailure_RedisDown_CountsOnThisNode() {
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), any(Object[].class)))
+                .thenThrow(new RedisConnectionFailureException("down"));
+
+        assertEquals(1, rateLimiter.recordFailure("alice"));
+        assertEquals(2, rateLimiter.recordFailure("alice"));
+        assertTrue(rateLimiter.check("10.0.0.1", "alice").allowed());
+        assertEquals(MAX_FAILURES, rateLimiter.recordFailure("alice"));
+
+        assertEquals(LoginRateLimiter.Result.LOCKED_OUT, rateLimiter.check("10.0.0.1", "alice").result());
+    }
+
+    @Test
+    void clearFailures_LockedOutUser_IsAllowedAgain() {
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), any(Object[].class)))
+                .thenThrow(new RedisConnectionFailureException("down"));
+        for (int i = 0; i < MAX_FAILURES; i++) {
+            rateLimiter.recordFailure("alice");
+        }
+
+        rateLimiter.clearFailures("alice");
+
+        assertTrue(rateLimiter.check("10.0.0.1", "alice").allowed());
+        assertEquals(1, rateLimiter.recordFailure("alice"));
+        verify(redisTemplate).delete("login-failures:alice");
+    }
+
+    @Test
+    void unlock_LockedOutUser_IsPublishedToOtherNodes() {
+        lockOutLocally("alice");
+
+        rateLimiter.unlock("Alice");
+
+        verify(redisTemplate).convertAndSend(eq(LoginRateLimiter.CHANNEL), endsWith("|alice"));
+        assertTrue(rateLimiter.check("10.0.0.1", "alice").allowed());
+    }
+
+    @Test
+    void onMessage_UnlockFromOtherNode_LiftsLocalLockout() {
+        lockOutLocally("alice");
+
+        rateLimiter.onMessage(new DefaultMessage(LoginRateLimiter.CHANNEL.getBytes(StandardCharsets.UTF_8),
+                "other-node|alice".getBytes(StandardCharsets.UTF_8)), null);
+
+        assertTrue(rateLimiter.check("10.0.0.1", "alice").allowed());
+    }
+
+    @Test
+    void recordFailure_NoUsername_IsNotCounted() {
+        assertEquals(0, rateLimiter.recordFailure(" "));
+
+        verifyNoInteractions(redisTemplate);
+    }
+
+    private void lockOutLocally(String username) {
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), any(Object[].class)))
+                .thenThrow(new RedisConnectionFailureException("down"));
+        for (int i = 0; i < MAX_FAILURES; i++) {
+            rateLimiter.recordFailure(username);
+        }
+        assertFalse(rateLimiter.check("10.0.0.1", username).allowed());
+    }
+
+    @SuppressWarnings("unchecked")
+    private void clusterReplies(List<Long> reply) {
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), any(Object[].class))).thenReturn(reply);
+    }
+
+    private double results(String result) {
+        return meterRegistry.counter("security.login.limit", "result", result).count();
+    }
+}
@@ -0,0 +1,92 @@
+package org.example.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.config.EntityCacheInvalidator;
+import org.example.entity.User;
+import org.example.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SecurityStampsTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private RedisMessageListenerContainer listenerContainer;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private SecurityStamps stamps;
+
+    @BeforeEach
+    void setUp() {
+        stamps = new SecurityStamps(userRepository, transactionManager, listenerContainer, meterRegistry,
+                100, 60_000);
+    }
+
+    @Test
+    void isCurrent_RepeatedLookups_LoadStampOnce() {
+        User user = user();
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+
+        assertTrue(stamps.isCurrent(1L, user.securityStamp()));
+        assertTrue(stamps.isCurrent(1L, user.securityStamp()));
+        assertFalse(stamps.isCurrent(1L, user.securityStamp() + 1));
+
+        verify(userRepository, times(1)).findById(1L);
+        assertEquals(2, meterRegistry.counter("security.stamps.lookups", "result", "hit").count());
+    }
+
+    @Test
+    void isCurrent_MissingUser_IsRejectedAndRemembered() {
+        when(userRepository.findById(1L)).thenReturn(Optional.empty());
+
+        assertFalse(stamps.isCurrent(1L, 0));
+        assertFalse(stamps.isCurrent(1L, 0));
+
+        verify(userRepository, times(1)).findById(1L);
+    }
+
+    @Test
+    void onMessage_UserChanged_ReloadsStamp() {
+        User user = user();
+        int issuedWith = user.securityStamp();
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+        assertTrue(stamps.isCurrent(1L, issuedWith));
+
+        user.setPassword("changed");
+        stamps.onMessage(new DefaultMessage(EntityCacheInvalidator.CHANNEL.getBytes(StandardCharsets.UTF_8),
+                ("node|" + User.class.getName() + "|1").getBytes(StandardCharsets.UTF_8)), null);
+
+        assertFalse(stamps.isCurrent(1L, issuedWith));
+    }
+
+    private static User user() {
+        User user = User.builder()
+                .id(1L)
+                .username("alice")
+                .email("alice@example.com")
+                .password("password")
+                .status(User.UserStatus.ACTIVE)
+                .build();
+        user.setEnabled(true);
+        user.setAccountNonLocked(true);
+        return user;
+    }
+}
@@ -0,0 +1,187 @@
+package org.example.security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.time.Duration;
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TokenRevocationsTest {
+
+    private static final long REFRESH_EXPIRATION = 7 * 24 * 3600_000L;
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    @Mock
+    private ValueOperations<String, String> valueOperations;
+
+    @Mock
+    private VerifiedTokenCache verifiedTokens;
+
+    @Mock
+    private RedisMessageListenerContainer listenerContainer;
+
+    @Mock
+    private Cursor<String> emptyScan;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        lenient().when(redisTemplate.scan(any(ScanOptions.class))).thenReturn(emptyScan);
+    }
+
+    @Test
+    void isRevoked_NeverRevokedToken_IsClearedWithoutRedis() {
+        TokenRevocations revocations = loaded(100_000, 0.01);
+
+        assertFalse(revocations.isRevoked(claims("a", 1L)));
+
+        verify(redisTemplate, never()).hasKey(anyString());
+        assertEquals(1, checks("filter_miss"));
+    }
+
+    @Test
+    void isRevoked_FilterFalsePositive_IsConfirmedInRedis() {
+        // A filter this small is saturated by a few entries, so every lookup is a hit
+        TokenRevocations revocations = loaded(1, 0.5);
+        for (int i = 0; i < 100; i++) {
+            revocations.revoke("token-" + i, claims("revoked-" + i, 2L));
+        }
+        when(redisTemplate.hasKey("token-revoked:jti:a")).thenReturn(false);
+        when(valueOperations.get("token-revoked:user:1")).thenReturn(null);
+
+        assertFalse(revocations.isRevoked(claims("a", 1L)));
+
+        assertEquals(1, checks("not_revoked"));
+    }
+
+    @Test
+    void isRevoked_RevokedToken_IsRevoked() {
+        TokenRevocations revocations = loaded(100_000, 0.01);
+        Claims claims = claims("a", 1L);
+        revocations.revoke("token", claims);
+        when(redisTemplate.hasKey("token-revoked:jti:a")).thenReturn(true);
+
+        assertTrue(revocations.isRevoked(claims));
+
+        verify(valueOperations).set(eq("token-revoked:jti:a"), eq("1"), any(Duration.class));
+        verify(verifiedTokens).evict("token");
+    }
+
+    @Test
+    void isRevoked_TokenIssuedBeforeLogoutAll_IsRevoked() {
+        TokenRevocations revocations = loaded(100_000, 0.01);
+        revokeAll(revocations, 1L);
+
+        Claims issuedEarlier = Jwts.claims().id("a").add(JwtService.CLAIM_USER_ID, 1L)
+                .issuedAt(new Date(System.currentTimeMillis() - 60_000)).build();
+
+        assertTrue(revocations.isRevoked(issuedEarlier));
+    }
+
+    @Test
+    void isRevoked_TokenIssuedEarlierInSameSecondAsLogoutAll_IsRevoked() {
+        TokenRevocations revocations = loaded(100_000, 0.01);
+        // iat as the JWT carries it: truncated to whole seconds
+        Date issuedAt = new Date(System.currentTimeMillis() / 1000 * 1000);
+        revokeAll(revocations, 1L);
+
+        Claims sameSecond = Jwts.claims().id("a").add(JwtService.CLAIM_USER_ID, 1L)
+                .issuedAt(issuedAt).build();
+
+        assertTrue(revocations.isRevoked(sameSecond));
+    }
+
+    @Test
+    void isRevoked_FilterHitWhileRedisDown_IsRevoked() {
+        TokenRevocations revocations = loaded(100_000, 0.01);
+        Claims claims = claims("a", 1L);
+        revocations.revoke("token", claims);
+        when(redisTemplate.hasKey("token-revoked:jti:a")).thenThrow(new RedisConnectionFailureException("down"));
+
+        assertTrue(revocations.isRevoked(claims));
+    }
+
+    @Test
+    void isRevoked_BeforeFirstBuild_AsksRedis() {
+        TokenRevocations revocations = newRevocations(100_000, 0.01);
+        when(redisTemplate.hasKey("token-revoked:jti:a")).thenReturn(true);
+
+        assertTrue(revocations.isRevoked(claims("a", 1L)));
+    }
+
+    @Test
+    void isRevoked_BeforeFirstBuildWhileRedisDown_IsNotRevoked() {
+        TokenRevocations revocations = newRevocations(100_000, 0.01);
+        when(redisTemplate.hasKey(anyString())).thenThrow(new RedisConnectionFailureException("down"));
+
+        assertFalse(revocations.isRevoked(claims("a", 1L)));
+    }
+
+    @Test
+    void revokeRefreshTokenOf_RevokesSiblingRefreshToken() {
+        TokenRevocations revocations = loaded(100_000, 0.01);
+        Claims access = Jwts.claims().id("a").add(JwtService.CLAIM_USER_ID, 1L)
+                .add(JwtService.CLAIM_REFRESH_ID, "r").issuedAt(new Date()).build();
+
+        revocations.revokeRefreshTokenOf(access);
+
+        verify(valueOperations).set(eq("token-revoked:jti:r"), eq("1"),
+                argThat(ttl -> ttl.toMillis() > REFRESH_EXPIRATION - 60_000 && ttl.toMillis() <= REFRESH_EXPIRATION));
+    }
+
+    @Test
+    void constructor_DoesNotScanRedis() {
+        newRevocations(100_000, 0.01);
+
+        verify(redisTemplate, never()).scan(any(ScanOptions.class));
+    }
+
+    private void revokeAll(TokenRevocations revocations, Long userId) {
+        revocations.revokeAll(userId);
+        ArgumentCaptor<String> notBefore = ArgumentCaptor.forClass(String.class);
+        verify(valueOperations).set(eq("token-revoked:user:" + userId), notBefore.capture(), any(Duration.class));
+        when(valueOperations.get("token-revoked:user:" + userId)).thenReturn(notBefore.getValue());
+    }
+
+    private TokenRevocations loaded(long expectedEntries, double falsePositiveRate) {
+        TokenRevocations revocations = newRevocations(expectedEntries, falsePositiveRate);
+        revocations.initialize();
+        return revocations;
+    }
+
+    private TokenRevocations newRevocations(long expectedEntries, double falsePositiveRate) {
+        return new TokenRevocations(redisTemplate, verifiedTokens, listenerContainer, meterRegistry,
+                expectedEntries, falsePositiveRate, REFRESH_EXPIRATION);
+    }
+
+    private double checks(String result) {
+        return meterRegistry.counter("security.revocation.checks", "result", result).count();
+    }
+
+    private static Claims claims(String jti, Long userId) {
+        return Jwts.claims().id(jti).add(JwtService.CLAIM_USER_ID, userId)
+                .issuedAt(new Date()).expiration(new Date(System.currentTimeMillis() + 3600_000)).build();
+    }
+}
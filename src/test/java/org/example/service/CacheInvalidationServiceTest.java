@@ -0,0 +1,141 @@
+package org.example.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.dto.UserResponse;
+import org.example.entity.User;
+import org.example.mapper.UserMapper;
+import org.example.util.Constants;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CacheInvalidationServiceTest {
+
+    @Mock
+    private UserMapper userMapper;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private Cache users;
+    private CacheInvalidationService invalidationService;
+
+    @BeforeEach
+    void setUp() {
+        ConcurrentMapCacheManager cacheManager = new ConcurrentMapCacheManager(Constants.CACHE_USERS);
+        users = cacheManager.getCache(Constants.CACHE_USERS);
+        invalidationService = new CacheInvalidationService(cacheManager, userMapper, meterRegistry);
+        // Batches are flushed by the test only
+        ReflectionTestUtils.setField(invalidationService, "batchWindowMs", 60_000L);
+        ReflectionTestUtils.setField(invalidationService, "maxPending", 1000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        invalidationService.shutdown();
+    }
+
+    @Test
+    void userChanged_CachedProfileDiffers_EvictsBothKeys() {
+        User user = user("alice");
+        users.put(1L, profile("alice", 2));
+        users.put("alice", profile("alice", 2));
+        when(userMapper.toDto(user)).thenReturn(profile("alice", 3));
+
+        invalidationService.userChanged(user);
+        flush();
+
+        assertNull(users.get(1L));
+        assertNull(users.get("alice"));
+        assertEquals(2, applied("evict"));
+    }
+
+    @Test
+    void userChanged_CachedProfileMatches_KeepsEntry() {
+        User user = user("alice");
+        users.put(1L, profile("alice", 2));
+        when(userMapper.toDto(user)).thenReturn(profile("alice", 2));
+
+        invalidationService.userChanged(user);
+        flush();
+
+        assertNotNull(users.get(1L));
+        assertNull(users.get("alice"));
+        assertEquals(0, applied("evict"));
+    }
+
+    @Test
+    void update_OlderSnapshotThanCachedEntry_DoesNotOverwriteIt() {
+        // A reader cached the profile of a later commit before this change was flushed
+        invalidationService.update(Constants.CACHE_USERS, 1L, profile("alice", 2));
+        users.put(1L, profile("alice", 3));
+
+        flush();
+
+        assertNull(users.get(1L));
+    }
+
+    @Test
+    void update_UncachedKey_IsNotCached() {
+        invalidationService.update(Constants.CACHE_USERS, 1L, profile("alice", 2));
+
+        flush();
+
+        assertNull(users.get(1L));
+    }
+
+    @Test
+    void update_BurstToSameKey_AppliesOnce() {
+        users.put(1L, profile("alice", 1));
+        invalidationService.update(Constants.CACHE_USERS, 1L, profile("alice", 2));
+        invalidationService.update(Constants.CACHE_USERS, 1L, profile("alice", 3));
+
+        flush();
+
+        assertEquals(2, meterRegistry.counter("cache.invalidation.requests").count());
+        assertEquals(1, applied("evict"));
+    }
+
+    @Test
+    void userChanged_DeletedUser_EvictsBothKeys() {
+        User user = user("alice");
+        user.setDeletedAt(LocalDateTime.now());
+        users.put(1L, profile("alice", 2));
+        users.put("alice", profile("alice", 2));
+
+        invalidationService.userChanged(user);
+        flush();
+
+        assertNull(users.get(1L));
+        assertNull(users.get("alice"));
+        verifyNoInteractions(userMapper);
+    }
+
+    private void flush() {
+        ReflectionTestUtils.invokeMethod(invalidationService, "flush");
+    }
+
+    private double applied(String action) {
+        return meterRegistry.counter("cache.invalidation.applied", "action", action).count();
+    }
+
+    private static User user(String username) {
+        User user = User.builder().username(username).build();
+        user.setId(1L);
+        return user;
+    }
+
+    private static UserResponse profile(String username, int level) {
+        return UserResponse.builder().id(1L).username(username).level(level).build();
+    }
+}
@@ -0,0 +1,185 @@
+package org.example.service;
+
+import org.example.entity.Task;
+import org.example.repository.GameActionRepository;
+import org.example.repository.TaskRepository;
+import org.example.repository.UserAchievementRepository;
+import org.example.repository.UserRepository;
+import org.example.service.LeaderboardService.Criteria;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class LeaderboardServiceTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private GameActionRepository gameActionRepository;
+
+    @Mock
+    private UserAchievementRepository userAchievementRepository;
+
+    @Mock
+    private TaskRepository taskRepository;
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    @Mock
+    private RedisMessageListenerContainer listenerContainer;
+
+    private LeaderboardService leaderboardService;
+
+    @BeforeEach
+    void setUp() {
+        leaderboardService = new LeaderboardService(userRepository, gameActionRepository,
+                userAchievementRepository, taskRepository, redisTemplate, listenerContainer);
+        when(userRepository.findAllIdsAndUsernames()).thenReturn(rows(new Object[]{1L, "alice"}));
+        when(gameActionRepository.sumExperienceByUser()).thenReturn(rows(new Object[]{1L, 100L}));
+        when(gameActionRepository.countGroupByUser()).thenReturn(rows(new Object[]{1L, 2L}));
+        when(userAchievementRepository.countCompletedByUser()).thenReturn(List.of());
+        when(taskRepository.countByStatusGroupByUser(Task.Status.COMPLETED)).thenReturn(List.of());
+        leaderboardService.rebuild();
+    }
+
+    @Test
+    void refreshTasks_UpdatesTotalAndCompletedBoards() {
+        when(taskRepository.countByUserIdAndStatus(1L, Task.Status.COMPLETED)).thenReturn(1L);
+        when(taskRepository.countByUserId(1L)).thenReturn(3L);
+
+        leaderboardService.refreshTasks(1L);
+
+        assertEquals(3, leaderboardService.getRank(Criteria.TOTAL_TASKS, 1L).orElseThrow().value());
+        assertEquals(1, leaderboardService.getRank(Criteria.COMPLETED_TASKS, 1L).orElseThrow().value());
+    }
+
+    @Test
+    void rebuild_FillsTotalAchievementsFromAllAchievements() {
+        when(userAchievementRepository.countGroupByUser()).thenReturn(rows(new Object[]{1L, 4L}));
+        when(userAchievementRepository.countCompletedByUser()).thenReturn(rows(new Object[]{1L, 2L}));
+
+        leaderboardService.rebuild();
+
+        assertEquals(4, leaderboardService.getRank(Criteria.TOTAL_ACHIEVEMENTS, 1L).orElseThrow().value());
+        assertEquals(2, leaderboardService.getRank(Criteria.ACHIEVEMENTS, 1L).orElseThrow().value());
+    }
+
+    @Test
+    void rebuild_ExperienceGainedDuringRebuild_IsNotLost() {
+        // The grouped query misses the action that commits while it runs
+        when(gameActionRepository.sumExperienceByUser()).thenAnswer(invocation -> {
+            leaderboardService.recordAction(1L, 50);
+            return rows(new Object[]{1L, 100L});
+        });
+        when(gameActionRepository.sumExperienceByUserId(1L)).thenReturn(150L);
+
+        leaderboardService.rebuild();
+
+        assertEquals(150, leaderboardService.getRank(Criteria.EXPERIENCE, 1L).orElseThrow().value());
+    }
+
+    @Test
+    void rebuild_ExperienceAlreadySeenByRebuild_IsNotCountedTwice() {
+        when(gameActionRepository.sumExperienceByUser()).thenAnswer(invocation -> {
+            leaderboardService.recordAction(1L, 50);
+            return rows(new Object[]{1L, 150L});
+        });
+        when(gameActionRepository.sumExperienceByUserId(1L)).thenReturn(150L);
+
+        leaderboardService.rebuild();
+
+        assertEquals(150, leaderboardService.getRank(Criteria.EXPERIENCE, 1L).orElseThrow().value());
+    }
+
+    @Test
+    void rebuild_UserRegisteredDuringRebuild_StaysOnBoard() {
+        when(userRepository.findAllIdsAndUsernames()).thenAnswer(invocation -> {
+            leaderboardService.registerUser(2L, "bob");
+            return rows(new Object[]{1L, "alice"});
+        });
+
+        leaderboardService.rebuild();
+
+        assertEquals("bob", leaderboardService.getRank(Criteria.EXPERIENCE, 2L).orElseThrow().username());
+        assertEquals(2, leaderboardService.getTotalPlayers());
+    }
+
+    @Test
+    void recordAction_PublishesExperienceToOtherNodes() {
+        leaderboardService.recordAction(1L, 25);
+
+        ArgumentCaptor<String> message = ArgumentCaptor.forClass(String.class);
+        verify(redisTemplate).convertAndSend(eq(LeaderboardService.CHANNEL), message.capture());
+        assertTrue(message.getValue().endsWith("|ACTION|1|25"));
+    }
+
+    @Test
+    void onMessage_AppliesUpdatesFromOtherNodesOnly() {
+        leaderboardService.onMessage(message("other-node|ACTION|1|40"), null);
+        assertEquals(140, leaderboardService.getRank(Criteria.EXPERIENCE, 1L).orElseThrow().value());
+
+        leaderboardService.recordAction(1L, 10);
+        ArgumentCaptor<String> own = ArgumentCaptor.forClass(String.class);
+        verify(redisTemplate).convertAndSend(anyString(), own.capture());
+        leaderboardService.onMessage(message(own.getValue()), null);
+
+        assertEquals(150, leaderboardService.getRank(Criteria.EXPERIENCE, 1L).orElseThrow().value());
+    }
+
+    @Test
+    void recordAction_CountsActionEvenWithoutExperience() {
+        leaderboardService.recordAction(1L, 0);
+
+        assertEquals(3, leaderboardService.getRank(Criteria.ACTIONS, 1L).orElseThrow().value());
+        assertEquals(100, leaderboardService.getRank(Criteria.EXPERIENCE, 1L).orElseThrow().value());
+    }
+
+    @Test
+    void getPageAfter_ContinuesAfterCursor() {
+        leaderboardService.registerUser(2L, "bob");
+        leaderboardService.recordAction(2L, 5);
+
+        List<LeaderboardService.LeaderboardEntry> first = leaderboardService.getPageAfter(Criteria.ACTIONS, null, null, 1);
+        assertEquals(List.of(1L), first.stream().map(LeaderboardService.LeaderboardEntry::userId).toList());
+
+        List<LeaderboardService.LeaderboardEntry> next = leaderboardService.getPageAfter(Criteria.ACTIONS,
+                first.get(0).value(), first.get(0).userId(), 10);
+        assertEquals(1, next.size());
+        assertEquals(2L, next.get(0).userId());
+        assertEquals(2, next.get(0).rank());
+        assertEquals(1, next.get(0).value());
+    }
+
+    @Test
+    void onMessage_RegisterWithSeparatorInUsername_KeepsWholeName() {
+        leaderboardService.onMessage(message("other-node|REGISTER|3|a|b"), null);
+
+        assertEquals("a|b", leaderboardService.getRank(Criteria.ACHIEVEMENTS, 3L).orElseThrow().username());
+    }
+
+    private static List<Object[]> rows(Object[]... rows) {
+        return new ArrayList<>(List.of(rows));
+    }
+
+    private static DefaultMessage message(String body) {
+        return new DefaultMessage(LeaderboardService.CHANNEL.getBytes(StandardCharsets.UTF_8),
+                body.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,49 @@
+package org.example.service;
+
+import org.example.entity.User;
+import org.example.repository.UserRepository;
+import org.example.security.LoginRateLimiter;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SecurityServiceTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private LoginRateLimiter loginRateLimiter;
+
+    @InjectMocks
+    private SecurityService securityService;
+
+    @Test
+    void resetLoginAttempts_LiftsRateLimiterLockout() {
+        User user = User.builder()
+                .id(1L)
+                .username("alice")
+                .email("alice@example.com")
+                .password("password")
+                .build();
+        user.setLoginAttempts(5);
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+
+        Map<String, Object> result = securityService.resetLoginAttempts(1L);
+
+        assertEquals(true, result.get("success"));
+        assertEquals(0, user.getLoginAttempts());
+        verify(userRepository).save(user);
+        verify(loginRateLimiter).unlock("alice");
+        verify(loginRateLimiter).unlock("alice@example.com");
+    }
+}
@@ -0,0 +1,163 @@
+package org.example.service;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+import org.example.entity.StatsRollup;
+import org.example.entity.StatsRollup.Granularity;
+import org.example.repository.StatsRollupRepository;
+import org.example.service.StatsRollupService.Segment;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class StatsRollupServiceTest {
+
+    private static final LocalDateTime HOUR_FLOOR = LocalDateTime.of(2024, 1, 1, 0, 0);
+    private static final LocalDateTime MINUTE_FLOOR = LocalDateTime.of(2024, 3, 30, 12, 0);
+
+    @Test
+    void decompose_WithinRetention_UsesCoarsestAlignedBuckets() {
+        LocalDateTime start = LocalDateTime.of(2024, 3, 31, 22, 45);
+        LocalDateTime end = LocalDateTime.of(2024, 4, 2, 1, 30);
+
+        List<Segment> segments = StatsRollupService.decompose(start, end, MINUTE_FLOOR, HOUR_FLOOR);
+
+        assertEquals(List.of(
+                new Segment(Granularity.MINUTE, start, LocalDateTime.of(2024, 3, 31, 23, 0)),
+                new Segment(Granularity.HOUR, LocalDateTime.of(2024, 3, 31, 23, 0), LocalDateTime.of(2024, 4, 1, 0, 0)),
+                new Segment(Granularity.DAY, LocalDateTime.of(2024, 4, 1, 0, 0), LocalDateTime.of(2024, 4, 2, 0, 0)),
+                new Segment(Granularity.HOUR, LocalDateTime.of(2024, 4, 2, 0, 0), LocalDateTime.of(2024, 4, 2, 1, 0)),
+                new Segment(Granularity.MINUTE, LocalDateTime.of(2024, 4, 2, 1, 0), end)
+        ), segments);
+    }
+
+    @Test
+    void decompose_PastMinuteRetention_WidensToWholeHours() {
+        LocalDateTime start = LocalDateTime.of(2024, 3, 30, 10, 15);
+        LocalDateTime end = LocalDateTime.of(2024, 3, 30, 12, 30);
+
+        List<Segment> segments = StatsRollupService.decompose(start, end, MINUTE_FLOOR, HOUR_FLOOR);
+
+        assertEquals(List.of(
+                new Segment(Granularity.HOUR, LocalDateTime.of(2024, 3, 30, 10, 0), MINUTE_FLOOR),
+                new Segment(Granularity.MINUTE, MINUTE_FLOOR, end)
+        ), segments);
+    }
+
+    @Test
+    void decompose_PastHourRetention_WidensToWholeDays() {
+        LocalDateTime start = LocalDateTime.of(2023, 12, 30, 18, 0);
+        LocalDateTime end = LocalDateTime.of(2024, 1, 1, 5, 0);
+
+        List<Segment> segments = StatsRollupService.decompose(start, end, MINUTE_FLOOR, HOUR_FLOOR);
+
+        assertEquals(List.of(
+                new Segment(Granularity.DAY, LocalDateTime.of(2023, 12, 30, 0, 0), HOUR_FLOOR),
+                new Segment(Granularity.HOUR, HOUR_FLOOR, end)
+        ), segments);
+    }
+
+    @Test
+    void decompose_RangeEntirelyBeforeHourRetention_RoundsOutToDays() {
+        LocalDateTime start = LocalDateTime.of(2023, 6, 1, 10, 0);
+        LocalDateTime end = LocalDateTime.of(2023, 6, 1, 11, 0);
+
+        List<Segment> segments = StatsRollupService.decompose(start, end, MINUTE_FLOOR, HOUR_FLOOR);
+
+        assertEquals(List.of(
+                new Segment(Granularity.DAY, LocalDateTime.of(2023, 6, 1, 0, 0), LocalDateTime.of(2023, 6, 2, 0, 0))
+        ), segments);
+    }
+
+    @Test
+    void decompose_EmptyRange_ReturnsNoSegments() {
+        LocalDateTime start = LocalDateTime.of(2024, 4, 1, 10, 0);
+
+        assertTrue(StatsRollupService.decompose(start, start, MINUTE_FLOOR, HOUR_FLOOR).isEmpty());
+        assertTrue(StatsRollupService.decompose(start, start.minusHours(1), MINUTE_FLOOR, HOUR_FLOOR).isEmpty());
+    }
+
+    @Test
+    void initialize_MarkerPresent_SkipsBackfill() {
+        StatsRollupRepository repository = mock(StatsRollupRepository.class);
+        TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+        when(repository.existsByGranularityAndDimension(Granularity.DAY, StatsRollupService.BACKFILL_MARKER))
+                .thenReturn(true);
+
+        rollupService(repository, transactionTemplate, mock(EntityManager.class)).initialize();
+
+        verifyNoInteractions(transactionTemplate);
+    }
+
+    @Test
+    void initialize_BucketsFlushedButNoMarker_BackfillsAdditively() {
+        // The scheduled flush may write buckets before the application is ready
+        StatsRollupRepository repository = mock(StatsRollupRepository.class);
+        TransactionTemplate transactionTemplate = inlineTransactions();
+        EntityManager entityManager = mock(EntityManager.class);
+        Query query = mock(Query.class, RETURNS_SELF);
+        when(entityManager.createNativeQuery(anyString())).thenReturn(query);
+        when(repository.existsByGranularityAndDimension(Granularity.DAY, StatsRollupService.BACKFILL_MARKER))
+                .thenReturn(false);
+
+        rollupService(repository, transactionTemplate, entityManager).initialize();
+
+        verify(repository).insertMarker("DAY", StatsRollupService.EPOCH, StatsRollupService.BACKFILL_MARKER);
+        verify(query, times(15)).executeUpdate();
+        verify(entityManager, never()).createNativeQuery(matches("(?s).*\\b(\\w+) = VALUES\\(\\1\\).*"));
+    }
+
+    @Test
+    void initialize_OtherNodeBackfilling_DoesNotFail() {
+        StatsRollupRepository repository = mock(StatsRollupRepository.class);
+        when(repository.insertMarker(anyString(), any(), anyString()))
+                .thenThrow(new DataIntegrityViolationException("Duplicate entry"));
+
+        assertDoesNotThrow(() -> rollupService(repository, inlineTransactions(), mock(EntityManager.class)).initialize());
+    }
+
+    @Test
+    void getTotalsByDimension_SkipsBackfillMarker() {
+        StatsRollupRepository repository = mock(StatsRollupRepository.class);
+        when(repository.sumByDimension(any(), any(), any())).thenReturn(List.of(
+                new Object[]{StatsRollupService.BACKFILL_MARKER, 0L, 0L, 0L, 0L, 0L, 0L, null, null, 0L, 0L},
+                new Object[]{StatsRollup.ALL, 3L, 30L, 5L, 0L, 0L, 0L, null, null, 0L, 0L}));
+
+        var totals = rollupService(repository, mock(TransactionTemplate.class), mock(EntityManager.class))
+                .getTotalsByDimension(LocalDateTime.of(2024, 4, 1, 0, 0), LocalDateTime.of(2024, 4, 2, 0, 0));
+
+        assertFalse(totals.containsKey(StatsRollupService.BACKFILL_MARKER));
+        assertEquals(3, totals.get(StatsRollup.ALL).getActionCount());
+    }
+
+    private static StatsRollupService rollupService(StatsRollupRepository repository,
+                                                    TransactionTemplate transactionTemplate,
+                                                    EntityManager entityManager) {
+        StatsRollupService service = new StatsRollupService(repository, transactionTemplate);
+        ReflectionTestUtils.setField(service, "entityManager", entityManager);
+        ReflectionTestUtils.setField(service, "backfillOnStartup", true);
+        ReflectionTestUtils.setField(service, "minuteRetentionDays", 2);
+        ReflectionTestUtils.setField(service, "hourRetentionDays", 90);
+        return service;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static TransactionTemplate inlineTransactions() {
+        TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+        doAnswer(invocation -> {
+            invocation.getArgument(0, Consumer.class).accept(mock(TransactionStatus.class));
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+        return transactionTemplate;
+    }
+}
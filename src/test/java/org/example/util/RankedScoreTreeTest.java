@@ -0,0 +1,107 @@
+package org.example.util;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RankedScoreTreeTest {
+
+    private RankedScoreTree tree;
+
+    @BeforeEach
+    void setUp() {
+        tree = new RankedScoreTree();
+    }
+
+    @Test
+    void rank_OrdersByScoreDescendingThenIdAscending() {
+        tree.put(1L, 100);
+        tree.put(2L, 300);
+        tree.put(3L, 100);
+        tree.put(4L, 200);
+
+        assertEquals(1, tree.rank(2L));
+        assertEquals(2, tree.rank(4L));
+        assertEquals(3, tree.rank(1L));
+        assertEquals(4, tree.rank(3L));
+        assertEquals(-1, tree.rank(5L));
+    }
+
+    @Test
+    void put_UpdatesExistingScore() {
+        tree.put(1L, 10);
+        tree.put(2L, 20);
+
+        tree.put(1L, 30);
+        tree.add(2L, 5);
+
+        assertEquals(2, tree.size());
+        assertEquals(1, tree.rank(1L));
+        assertEquals(25L, tree.getScore(2L));
+    }
+
+    @Test
+    void range_ReturnsEntriesFromPosition() {
+        for (long id = 1; id <= 10; id++) {
+            tree.put(id, id * 10);
+        }
+
+        List<RankedScoreTree.Entry> page = tree.range(2, 3);
+
+        assertEquals(List.of(
+                new RankedScoreTree.Entry(8L, 80),
+                new RankedScoreTree.Entry(7L, 70),
+                new RankedScoreTree.Entry(6L, 60)), page);
+        assertEquals(2, tree.range(8, 5).size());
+        assertTrue(tree.range(10, 5).isEmpty());
+    }
+
+    @Test
+    void remove_KeepsRanksConsistent() {
+        Random random = new Random(42);
+        Map<Long, Long> expected = new HashMap<>();
+        for (int i = 0; i < 5000; i++) {
+            long id = random.nextInt(500);
+            if (random.nextInt(4) == 0) {
+                tree.remove(id);
+                expected.remove(id);
+            } else {
+                long score = random.nextInt(50);
+                tree.put(id, score);
+                expected.put(id, score);
+            }
+        }
+
+        List<Long> ordered = expected.entrySet().stream()
+                .sorted(Map.Entry.<Long, Long>comparingByValue().reversed()
+                        .thenComparing(Map.Entry.comparingByKey()))
+                .map(Map.Entry::getKey)
+                .toList();
+
+        assertEquals(ordered.size(), tree.size());
+        for (int i = 0; i < ordered.size(); i++) {
+            assertEquals(i + 1, tree.rank(ordered.get(i)));
+        }
+    }
+
+    @Test
+    void countThrough_SeeksPastCursorEvenWhenItIsGone() {
+        tree.put(1L, 300);
+        tree.put(2L, 200);
+        tree.put(3L, 200);
+        tree.put(4L, 100);
+
+        assertEquals(0, tree.countThrough(Long.MAX_VALUE, 0L));
+        assertEquals(2, tree.countThrough(200, 2L));
+        assertEquals(List.of(new RankedScoreTree.Entry(3L, 200), new RankedScoreTree.Entry(4L, 100)),
+                tree.range(tree.countThrough(200, 2L), 10));
+
+        tree.remove(2L);
+        assertEquals(1, tree.countThrough(200, 2L));
+        assertEquals(2, tree.countThrough(150, 9L));
+        assertEquals(3, tree.countThrough(Long.MIN_VALUE, Long.MAX_VALUE));
+    }
+}